@@ -14,5 +14,3 @@ scenario_applications_file=${script_root_path}/config/${applications_file}
 
 mkdir -p $scenario_out_folder
 java -classpath '../../bin:../../lib/cloudsim-4.0.jar:../../lib/commons-math3-3.6.1.jar:../../lib/jFuzzyLogic_v3.0.jar:../../lib/colt.jar' edu.boun.edgecloudsim.applications.sample_app4.FuzzyMainApp $scenario_conf_file $scenario_edge_devices_file $scenario_applications_file $scenario_out_folder $iteration_number > ${scenario_out_folder}.log
-tar -czf ${scenario_out_folder}.tar.gz -C $simulation_out_folder/${scenario_name} ite${iteration_number}
-rm -rf $scenario_out_folder
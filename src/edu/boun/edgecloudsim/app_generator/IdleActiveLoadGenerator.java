@@ -7,6 +7,14 @@
  * Task interarrival time (load generation period), Idle and active periods
  * are defined in the configuration file.
  * 
+ * If parallel initialization is enabled, the kernels of each device are
+ * created on a fork/join pool by using a random substream of the device.
+ * Then they are merged in device order, so the kernel ids and the
+ * kernel-based application ids do not depend on the number of threads.
+ * 
+ * If columnar workload store is enabled, the kernels are kept in a
+ * KernelPropertyStore sorted by start time instead of kernelPropertyList.
+ * 
  * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
  * Copyright (c) 2017, Bogazici University, Istanbul, Turkey
  */
@@ -16,15 +24,18 @@ package edu.boun.edgecloudsim.app_generator;
 import java.util.*;
 
 import org.apache.commons.math3.distribution.ExponentialDistribution;
+import org.apache.commons.math3.random.RandomGenerator;
 
 import edu.boun.edgecloudsim.core.SimSettings;
 import edu.boun.edgecloudsim.core.KernelBasedApplicationStatus;
 import edu.boun.edgecloudsim.utils.KernelProperty;
+import edu.boun.edgecloudsim.utils.KernelPropertyStore;
 import edu.boun.edgecloudsim.utils.SimLogger;
 import edu.boun.edgecloudsim.utils.SimUtils;
 import edu.boun.edgecloudsim.utils.KernelBasedApplication;
 
 public class IdleActiveLoadGenerator extends LoadGeneratorModel{
+	private static final int RANDOM_STREAM_ID = 2;
 	private Map<Integer, Integer>kernelId2KernelPropertyListIndex;
 	int applicationTypeOfDevices[];
 	public IdleActiveLoadGenerator(int _numberOfMobileDevices, double _simulationTime, String _simScenario) {
@@ -37,6 +48,14 @@ public class IdleActiveLoadGenerator extends LoadGeneratorModel{
 		kernelPropertyInKernelBasedAppList = new ArrayList<KernelProperty>();
 		kernelBasedApplicationList = new ArrayList<KernelBasedApplication>();
 		kernelId2KernelPropertyListIndex = new HashMap<Integer, Integer>();
+		kernelPropertyStore = SimSettings.getInstance().isColumnarWorkloadStoreEnabled() ? new KernelPropertyStore() : null;
+		
+		if(SimSettings.getInstance().isParallelInitializationEnabled()){
+			initializeModelInParallel();
+			if(kernelPropertyStore != null)
+				kernelPropertyStore.sortByStartTime();
+			return;
+		}
 		
 		//exponential number generator for file input size, file output size and kernel length
 		ExponentialDistribution[][] expRngList = new ExponentialDistribution[SimSettings.getInstance().getApplicationLookUpTable().length][3];
@@ -125,9 +144,7 @@ public class IdleActiveLoadGenerator extends LoadGeneratorModel{
 						// generate and store the kernelPropertyList in this class
 						int kernelType = SimSettings.getInstance().getKernelIndex(randomApplicationType, kernelIndex);
 						KernelProperty kernelProperty = new KernelProperty(i, kernelType, randomApplicationType, virtualTime, kernelKBAPPExpRngList, kernelId);
-						int propertyListIndex = kernelPropertyList.size();
-						kernelId2KernelPropertyListIndex.put(kernelId, propertyListIndex);
-						kernelPropertyList.add(kernelProperty);
+						addKernelProperty(kernelProperty, true);
 						// store the index of kernels in this application in kernelPropertyList
 						kernelIdList[kernelIndex] = kernelId;
 						kernelId++;
@@ -146,12 +163,173 @@ public class IdleActiveLoadGenerator extends LoadGeneratorModel{
 					
 				}
 				else {
-					kernelPropertyList.add(new KernelProperty(i,randomApplicationType, virtualTime, expRngList, kernelId));
+					addKernelProperty(new KernelProperty(i,randomApplicationType, virtualTime, expRngList, kernelId), false);
+					kernelId++;
+				}
+			}
+		}
+		
+		if(kernelPropertyStore != null)
+			kernelPropertyStore.sortByStartTime();
+	}
+	
+	/**
+	 * adds the kernel to the store if it is enabled, to the list otherwise
+	 */
+	private void addKernelProperty(KernelProperty kernelProperty, boolean inKernelBasedApp) {
+		if(kernelPropertyStore != null) {
+			kernelPropertyStore.add(kernelProperty);
+			return;
+		}
+		
+		if(inKernelBasedApp)
+			kernelId2KernelPropertyListIndex.put(kernelProperty.getKernelId(), kernelPropertyList.size());
+		kernelPropertyList.add(kernelProperty);
+	}
+
+	private void initializeModelInParallel() {
+		SimSettings SS = SimSettings.getInstance();
+		long seed = (SS.getRandomSeed() != 0) ? SS.getRandomSeed() : SimUtils.RNG.nextLong();
+		
+		//application type of each device and its kernels (without ids)
+		int[] applicationTypes = new int[numberOfMobileDevices];
+		List<List<KernelProperty>> deviceKernels = new ArrayList<List<KernelProperty>>();
+		for(int i=0; i<numberOfMobileDevices; i++)
+			deviceKernels.add(null);
+		
+		SimUtils.parallelFor(SS.getInitializationThreads(), numberOfMobileDevices, deviceId -> {
+			List<KernelProperty> kernels = new ArrayList<KernelProperty>();
+			applicationTypes[deviceId] = createDeviceKernels(deviceId, SimUtils.getRandomSubstream(seed, RANDOM_STREAM_ID, deviceId), kernels);
+			deviceKernels.set(deviceId, kernels);
+		});
+		
+		//merge the kernels in device order
+		int kernelId = 0;
+		int kernelBasedAppId = 0;
+		applicationTypeOfDevices = new int[numberOfMobileDevices];
+		for(int i=0; i<numberOfMobileDevices; i++) {
+			int applicationType = applicationTypes[i];
+			if(applicationType == -1){
+				SimLogger.printLine("Impossible is occured! no random task type!");
+				continue;
+			}
+			
+			applicationTypeOfDevices[i] = applicationType;
+			List<KernelProperty> kernels = deviceKernels.get(i);
+			
+			if (SS.isKernelBasedApplication(applicationType)) {
+				int kernelNum = SS.getKernelNum(applicationType);
+				int[][] dependencyKernel = SS.getKernelBasedApplicationDependency(applicationType);
+				
+				for (int first=0; first<kernels.size(); first+=kernelNum) {
+					KernelBasedApplicationStatus.getInstance().addKernelBasedApplication(kernelNum, kernelBasedAppId);
+					
+					int[] kernelIdList = new int[kernelNum];
+					for (int kernelIndex=0; kernelIndex<kernelNum; kernelIndex++) {
+						KernelProperty kernelProperty = kernels.get(first + kernelIndex);
+						kernelProperty.setKernelId(kernelId);
+						addKernelProperty(kernelProperty, true);
+						kernelIdList[kernelIndex] = kernelId;
+						kernelId++;
+					}
+					
+					KernelBasedApplicationStatus.getInstance().addKernelIdList(kernelIdList, kernelBasedAppId);
+					for (int id=0; id<dependencyKernel.length; id++) {
+						for (int id_dependency=0; id_dependency < dependencyKernel[id].length; id_dependency++)
+							if (dependencyKernel[id][id_dependency] ==  1) {
+								KernelBasedApplicationStatus.getInstance().addDependency(kernelIdList[id], kernelIdList[id_dependency], kernelBasedAppId);
+							}
+					}
+					kernelBasedAppId++;
+				}
+			}
+			else {
+				for (KernelProperty kernelProperty : kernels) {
+					kernelProperty.setKernelId(kernelId);
+					addKernelProperty(kernelProperty, false);
 					kernelId++;
 				}
 			}
 		}
 	}
+	
+	/**
+	 * creates the kernels of a device by using only the given random number
+	 * generator, kernel ids are assigned later while merging the results
+	 * @return application type of the device, -1 if it cannot be selected
+	 */
+	private int createDeviceKernels(int deviceId, RandomGenerator rng, List<KernelProperty> kernels) {
+		SimSettings SS = SimSettings.getInstance();
+		double[][] applicationLookUpTable = SS.getApplicationLookUpTable();
+		
+		int randomApplicationType = -1;
+		double applicationTypeSelector = SimUtils.getRandomDoubleNumber(rng, 0, 100);
+		double applicationTypePercentage = 0;
+		for (int j=0; j<applicationLookUpTable.length; j++) {
+			applicationTypePercentage += applicationLookUpTable[j][0];
+			if(applicationTypeSelector <= applicationTypePercentage){
+				randomApplicationType = j;
+				break;
+			}
+		}
+		if(randomApplicationType == -1)
+			return -1;
+		
+		boolean kernelBased = SS.isKernelBasedApplication(randomApplicationType);
+		int kernelNum = kernelBased ? SS.getKernelNum(randomApplicationType) : 0;
+		
+		//the device only needs the generators of its own application/kernel types
+		ExponentialDistribution[][] expRngList = new ExponentialDistribution[applicationLookUpTable.length][3];
+		ExponentialDistribution[][] kernelKBAPPExpRngList = new ExponentialDistribution[SS.getKernelLookUpTable().length][3];
+		if(kernelBased) {
+			for (int kernelIndex=0; kernelIndex<kernelNum; kernelIndex++) {
+				int kernelType = SS.getKernelIndex(randomApplicationType, kernelIndex);
+				for(int k=0; k<3; k++)
+					kernelKBAPPExpRngList[kernelType][k] = new ExponentialDistribution(rng, SS.getKernelLookUpTable()[kernelType][5+k]);
+			}
+		}
+		else {
+			for(int k=0; k<3; k++)
+				expRngList[randomApplicationType][k] = new ExponentialDistribution(rng, applicationLookUpTable[randomApplicationType][5+k]);
+		}
+		
+		double poissonMean = applicationLookUpTable[randomApplicationType][2];
+		double activePeriod = applicationLookUpTable[randomApplicationType][3];
+		double idlePeriod = applicationLookUpTable[randomApplicationType][4];
+		double activePeriodStartTime = SimUtils.getRandomDoubleNumber(rng,
+				SimSettings.CLIENT_ACTIVITY_START_TIME, 
+				SimSettings.CLIENT_ACTIVITY_START_TIME + activePeriod);  //active period starts shortly after the simulation started (e.g. 10 seconds)
+		double virtualTime = activePeriodStartTime;
+		
+		ExponentialDistribution intervalRng = new ExponentialDistribution(rng, poissonMean);
+		while(virtualTime < simulationTime) {
+			double interval = intervalRng.sample();
+			
+			if(interval <= 0){
+				SimLogger.printLine("Impossible is occured! interval is " + interval + " for device " + deviceId + " time " + virtualTime);
+				continue;
+			}
+			virtualTime += interval;
+			
+			if(virtualTime > activePeriodStartTime + activePeriod){
+				activePeriodStartTime = activePeriodStartTime + activePeriod + idlePeriod;
+				virtualTime = activePeriodStartTime;
+				continue;
+			}
+			
+			if (kernelBased) {
+				for (int kernelIndex=0; kernelIndex<kernelNum; kernelIndex++) {
+					int kernelType = SS.getKernelIndex(randomApplicationType, kernelIndex);
+					kernels.add(new KernelProperty(deviceId, kernelType, randomApplicationType, virtualTime, kernelKBAPPExpRngList, -1));
+				}
+			}
+			else {
+				kernels.add(new KernelProperty(deviceId, randomApplicationType, virtualTime, expRngList, -1));
+			}
+		}
+		
+		return randomApplicationType;
+	}
 
 	@Override
 	public int getApplicationTypeOfDevice(int deviceId) {
@@ -160,6 +338,8 @@ public class IdleActiveLoadGenerator extends LoadGeneratorModel{
 	}
 	
 	public int getKernelPropertyIndex(int kernelId) {
+		if(kernelPropertyStore != null)
+			return kernelPropertyStore.getIndexOfKernel(kernelId);
 		return kernelId2KernelPropertyListIndex.get(kernelId);
 	}
 
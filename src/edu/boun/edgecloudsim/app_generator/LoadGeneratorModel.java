@@ -17,9 +17,11 @@ import java.util.List;
 
 import edu.boun.edgecloudsim.utils.KernelBasedApplication;
 import edu.boun.edgecloudsim.utils.KernelProperty;
+import edu.boun.edgecloudsim.utils.KernelPropertyStore;
 
 public abstract class LoadGeneratorModel {
 	protected List<KernelProperty> kernelPropertyList;
+	protected KernelPropertyStore kernelPropertyStore;
 	protected List<KernelProperty> kernelPropertyInKernelBasedAppList;
 	protected List<KernelBasedApplication> kernelBasedApplicationList;
 	protected int numberOfMobileDevices;
@@ -39,6 +41,14 @@ public abstract class LoadGeneratorModel {
 		return kernelPropertyList;
 	}
 
+	/**
+	 * @return the columnar store of all kernels sorted by start time,
+	 * null if the model uses kernelPropertyList
+	 */
+	public KernelPropertyStore getKernelPropertyStore() {
+		return kernelPropertyStore;
+	}
+
 	/*
 	 * fill kernelProperty list according to related task generation model
 	 */
@@ -16,7 +16,6 @@ package edu.boun.edgecloudsim.applications.sample_app2;
 import java.util.List;
 
 import org.cloudbus.cloudsim.Host;
-import org.cloudbus.cloudsim.UtilizationModelFull;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.SimEvent;
@@ -25,7 +24,10 @@ import edu.boun.edgecloudsim.cloud_server.CloudVM;
 import edu.boun.edgecloudsim.core.SimManager;
 import edu.boun.edgecloudsim.core.SimSettings;
 import edu.boun.edgecloudsim.edge_orchestrator.EdgeOrchestrator;
-import edu.boun.edgecloudsim.edge_server.EdgeVM;
+import edu.boun.edgecloudsim.edge_orchestrator.policy.OffloadDecisionPolicy;
+import edu.boun.edgecloudsim.edge_orchestrator.policy.OrchestrationPolicyRegistry;
+import edu.boun.edgecloudsim.edge_orchestrator.policy.VmSelectionPolicy;
+import edu.boun.edgecloudsim.edge_orchestrator.policy.WorstFitPolicy;
 import edu.boun.edgecloudsim.edge_client.CpuUtilizationModel_Custom;
 import edu.boun.edgecloudsim.edge_client.Kernel;
 import edu.boun.edgecloudsim.utils.SimLogger;
@@ -33,6 +35,8 @@ import edu.boun.edgecloudsim.utils.SimLogger;
 public class SampleEdgeOrchestrator extends EdgeOrchestrator {
 	
 	private int numberOfHost; //used by load balancer
+	private OffloadDecisionPolicy offloadDecisionPolicy;
+	private VmSelectionPolicy vmSelectionPolicy;
 
 	public SampleEdgeOrchestrator(String _policy, String _simScenario) {
 		super(_policy, _simScenario);
@@ -41,56 +45,13 @@ public class SampleEdgeOrchestrator extends EdgeOrchestrator {
 	@Override
 	public void initialize() {
 		numberOfHost=SimSettings.getInstance().getNumOfEdgeHosts();
-	}
-
-	/*
-	 * (non-Javadoc)
-	 * @see edu.boun.edgecloudsim.edge_orchestrator.EdgeOrchestrator#getDeviceToOffload(edu.boun.edgecloudsim.edge_client.Task)
-	 * 
-	 * It is assumed that the edge orchestrator app is running on the edge devices in a distributed manner
-	 */
-	@Override
-	public int getDeviceToOffload(Kernel task) {
-		int result = 0;
-		
-		//RODO: return proper host ID
 		
 		if(simScenario.equals("SINGLE_TIER")){
-			result = SimSettings.GENERIC_EDGE_DEVICE_ID;
+			offloadDecisionPolicy = OrchestrationPolicyRegistry.createOffloadDecisionPolicy(simScenario);
 		}
 		else if(simScenario.equals("TWO_TIER_WITH_EO")){
-			//dummy task to simulate a task with 1 Mbit file size to upload and download 
-			Kernel dummyTask = new Kernel(0, 0, 0, 0, 128, 128, new UtilizationModelFull(), new UtilizationModelFull(), new UtilizationModelFull());
-			
-			double wanDelay = SimManager.getInstance().getNetworkModel().getUploadDelay(task.getMobileDeviceId(),
-					SimSettings.CLOUD_DATACENTER_ID, dummyTask /* 1 Mbit */);
-			
-			double wanBW = (wanDelay == 0) ? 0 : (1 / wanDelay); /* Mbps */
-			
-			double edgeUtilization = SimManager.getInstance().getEdgeServerManager().getAvgUtilization();
-			
-
-			if(policy.equals("NETWORK_BASED")){
-				if(wanBW > 6)
-					result = SimSettings.CLOUD_DATACENTER_ID;
-				else
-					result = SimSettings.GENERIC_EDGE_DEVICE_ID;
-			}
-			else if(policy.equals("UTILIZATION_BASED")){
-				double utilization = edgeUtilization;
-				if(utilization > 80)
-					result = SimSettings.CLOUD_DATACENTER_ID;
-				else
-					result = SimSettings.GENERIC_EDGE_DEVICE_ID;
-			}
-			else if(policy.equals("HYBRID")){
-				double utilization = edgeUtilization;
-				if(wanBW > 6 && utilization > 80)
-					result = SimSettings.CLOUD_DATACENTER_ID;
-				else
-					result = SimSettings.GENERIC_EDGE_DEVICE_ID;
-			}
-			else {
+			offloadDecisionPolicy = OrchestrationPolicyRegistry.createOffloadDecisionPolicy(policy);
+			if(offloadDecisionPolicy == null){
 				SimLogger.printLine("Unknow edge orchestrator policy! Terminating simulation...");
 				System.exit(0);
 			}
@@ -99,7 +60,20 @@ public class SampleEdgeOrchestrator extends EdgeOrchestrator {
 			SimLogger.printLine("Unknow simulation scenario! Terminating simulation...");
 			System.exit(0);
 		}
-		return result;
+		
+		//the least loaded VM is selected on the edge devices
+		vmSelectionPolicy = new WorstFitPolicy();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see edu.boun.edgecloudsim.edge_orchestrator.EdgeOrchestrator#getDeviceToOffload(edu.boun.edgecloudsim.edge_client.Task)
+	 * 
+	 * It is assumed that the edge orchestrator app is running on the edge devices in a distributed manner
+	 */
+	@Override
+	public int getDeviceToOffload(Kernel task) {
+		return offloadDecisionPolicy.getDeviceToOffload(task);
 	}
 
 	@Override
@@ -124,18 +98,7 @@ public class SampleEdgeOrchestrator extends EdgeOrchestrator {
 		}
 		else if(deviceId == SimSettings.GENERIC_EDGE_DEVICE_ID){
 			//Select VM on edge devices via Least Loaded algorithm!
-			double selectedVmCapacity = 0; //start with min value
-			for(int hostIndex=0; hostIndex<numberOfHost; hostIndex++){
-				List<EdgeVM> vmArray = SimManager.getInstance().getEdgeServerManager().getVmList(hostIndex);
-				for(int vmIndex=0; vmIndex<vmArray.size(); vmIndex++){
-					double requiredCapacity = ((CpuUtilizationModel_Custom)task.getUtilizationModelCpu()).predictUtilization(vmArray.get(vmIndex).getVmType());
-					double targetVmCapacity = (double)100 - vmArray.get(vmIndex).getCloudletScheduler().getTotalUtilizationOfCpu(CloudSim.clock());
-					if(requiredCapacity <= targetVmCapacity && targetVmCapacity > selectedVmCapacity){
-						selectedVM = vmArray.get(vmIndex);
-						selectedVmCapacity = targetVmCapacity;
-					}
-				}
-			}
+			selectedVM = vmSelectionPolicy.selectVm(task, 0, numberOfHost-1);
 		}
 		else{
 			SimLogger.printLine("Unknown device id! The simulation has been terminated.");
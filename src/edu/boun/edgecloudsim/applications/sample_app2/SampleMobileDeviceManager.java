@@ -16,7 +16,9 @@
  * devices use MAN if they must be served by a remote edge server
  * due to the congestion at their own location. In this case,
  * they access the edge server via two hops where the packets
- * must go through WLAN and MAN.
+ * must go through WLAN and MAN. In-flight tasks are registered to
+ * a HandoverMonitor, so they fail when the serving WLAN of the
+ * device changes before the response is received.
  * 
  * If you want to use different topology, you should modify
  * the flow implemented in this class.
@@ -38,6 +40,7 @@ import edu.boun.edgecloudsim.core.SimManager;
 import edu.boun.edgecloudsim.core.SimSettings;
 import edu.boun.edgecloudsim.core.SimSettings.NETWORK_DELAY_TYPES;
 import edu.boun.edgecloudsim.edge_client.CpuUtilizationModel_Custom;
+import edu.boun.edgecloudsim.edge_client.HandoverMonitor;
 import edu.boun.edgecloudsim.edge_client.MobileDeviceManager;
 import edu.boun.edgecloudsim.edge_client.Kernel;
 import edu.boun.edgecloudsim.edge_server.EdgeHost;
@@ -57,12 +60,15 @@ public class SampleMobileDeviceManager extends MobileDeviceManager {
 	private static final int REQUEST_RECEIVED_BY_EDGE_DEVICE_TO_RELAY_NEIGHBOR = BASE + 5;
 	private static final int RESPONSE_RECEIVED_BY_MOBILE_DEVICE = BASE + 6;
 	private static final int RESPONSE_RECEIVED_BY_EDGE_DEVICE_TO_RELAY_MOBILE_DEVICE = BASE + 7;
+	private static final int HANDOVER_OCCURRED = BASE + 8;
 
 	private static final double MM1_QUEUE_MODEL_UPDATE_INTEVAL = 5; //seconds
 	
 	private int taskIdCounter=0;
+	private HandoverMonitor handoverMonitor;
 	
 	public SampleMobileDeviceManager() throws Exception{
+		handoverMonitor = new HandoverMonitor(getId(), HANDOVER_OCCURRED);
 	}
 
 	@Override
@@ -102,6 +108,10 @@ public class SampleMobileDeviceManager extends MobileDeviceManager {
 		NetworkModel networkModel = SimManager.getInstance().getNetworkModel();
 		Kernel task = (Kernel) ev.getData();
 		
+		//the mobility failure is already logged at the handover time
+		if(task.isFailedDueToHandover())
+			return;
+		
 		SimLogger.getInstance().kernelExecuted(task.getCloudletId());
 
 		if(task.getAssociatedDatacenterId() == SimSettings.CLOUD_DATACENTER_ID){
@@ -109,20 +119,13 @@ public class SampleMobileDeviceManager extends MobileDeviceManager {
 			double WanDelay = networkModel.getDownloadDelay(SimSettings.CLOUD_DATACENTER_ID, task.getMobileDeviceId(), task);
 			if(WanDelay > 0)
 			{
-				Location currentLocation = SimManager.getInstance().getMobilityModel().getLocation(task.getMobileDeviceId(),CloudSim.clock()+WanDelay);
-				if(task.getSubmittedLocation().getServingWlanId() == currentLocation.getServingWlanId())
-				{
-					networkModel.downloadStarted(task.getSubmittedLocation(), SimSettings.CLOUD_DATACENTER_ID);
-					SimLogger.getInstance().setDownloadDelay(task.getCloudletId(), WanDelay, NETWORK_DELAY_TYPES.WAN_DELAY);
-					schedule(getId(), WanDelay, RESPONSE_RECEIVED_BY_MOBILE_DEVICE, task);
-				}
-				else
-				{
-					SimLogger.getInstance().failedDueToMobility(task.getCloudletId(), CloudSim.clock());
-				}
+				networkModel.downloadStarted(task.getSubmittedLocation(), SimSettings.CLOUD_DATACENTER_ID);
+				SimLogger.getInstance().setDownloadDelay(task.getCloudletId(), WanDelay, NETWORK_DELAY_TYPES.WAN_DELAY);
+				schedule(getId(), WanDelay, RESPONSE_RECEIVED_BY_MOBILE_DEVICE, task);
 			}
 			else
 			{
+				handoverMonitor.unregister(task);
 				SimLogger.getInstance().failedDueToBandwidth(task.getCloudletId(), CloudSim.clock(), NETWORK_DELAY_TYPES.WAN_DELAY);
 			}
 		}
@@ -135,8 +138,7 @@ public class SampleMobileDeviceManager extends MobileDeviceManager {
 			EdgeHost host = (EdgeHost)(SimManager.
 					getInstance().
 					getEdgeServerManager().
-					getDatacenterList().get(task.getAssociatedHostId()).
-					getHostList().get(0));
+					getHost(task.getAssociatedHostId()));
 			
 			//if neighbor edge device is selected
 			if(host.getLocation().getServingWlanId() != task.getSubmittedLocation().getServingWlanId())
@@ -149,21 +151,14 @@ public class SampleMobileDeviceManager extends MobileDeviceManager {
 			
 			if(delay > 0)
 			{
-				Location currentLocation = SimManager.getInstance().getMobilityModel().getLocation(task.getMobileDeviceId(),CloudSim.clock()+delay);
-				if(task.getSubmittedLocation().getServingWlanId() == currentLocation.getServingWlanId())
-				{
-					networkModel.downloadStarted(currentLocation, nextDeviceForNetworkModel);
-					SimLogger.getInstance().setDownloadDelay(task.getCloudletId(), delay, delayType);
-					
-					schedule(getId(), delay, nextEvent, task);
-				}
-				else
-				{
-					SimLogger.getInstance().failedDueToMobility(task.getCloudletId(), CloudSim.clock());
-				}
+				networkModel.downloadStarted(task.getSubmittedLocation(), nextDeviceForNetworkModel);
+				SimLogger.getInstance().setDownloadDelay(task.getCloudletId(), delay, delayType);
+				
+				schedule(getId(), delay, nextEvent, task);
 			}
 			else
 			{
+				handoverMonitor.unregister(task);
 				SimLogger.getInstance().failedDueToBandwidth(task.getCloudletId(), CloudSim.clock(), delayType);
 			}
 		}
@@ -190,6 +185,12 @@ public class SampleMobileDeviceManager extends MobileDeviceManager {
 			{
 				Kernel task = (Kernel) ev.getData();
 				networkModel.uploadFinished(task.getSubmittedLocation(), SimSettings.CLOUD_DATACENTER_ID);
+				
+				if(task.isFailedDueToHandover()){
+					releaseBoundKernel(task);
+					break;
+				}
+				
 				submitTaskToVm(task, SimSettings.VM_TYPES.CLOUD_VM);
 				break;
 			}
@@ -197,6 +198,12 @@ public class SampleMobileDeviceManager extends MobileDeviceManager {
 			{
 				Kernel task = (Kernel) ev.getData();
 				networkModel.uploadFinished(task.getSubmittedLocation(), SimSettings.GENERIC_EDGE_DEVICE_ID);
+				
+				if(task.isFailedDueToHandover()){
+					releaseBoundKernel(task);
+					break;
+				}
+				
 				submitTaskToVm(task, SimSettings.VM_TYPES.EDGE_VM);
 				break;
 			}
@@ -204,6 +211,12 @@ public class SampleMobileDeviceManager extends MobileDeviceManager {
 			{
 				Kernel task = (Kernel) ev.getData();
 				networkModel.uploadFinished(task.getSubmittedLocation(), SimSettings.GENERIC_EDGE_DEVICE_ID+1);
+				
+				if(task.isFailedDueToHandover()){
+					releaseBoundKernel(task);
+					break;
+				}
+				
 				submitTaskToVm(task, SimSettings.VM_TYPES.EDGE_VM);
 				
 				break;
@@ -213,6 +226,11 @@ public class SampleMobileDeviceManager extends MobileDeviceManager {
 				Kernel task = (Kernel) ev.getData();
 				networkModel.uploadFinished(task.getSubmittedLocation(), SimSettings.GENERIC_EDGE_DEVICE_ID);
 				
+				if(task.isFailedDueToHandover()){
+					releaseBoundKernel(task);
+					break;
+				}
+				
 				double manDelay =  networkModel.getUploadDelay(SimSettings.GENERIC_EDGE_DEVICE_ID, SimSettings.GENERIC_EDGE_DEVICE_ID, task);
 				if(manDelay>0){
 					networkModel.uploadStarted(task.getSubmittedLocation(), SimSettings.GENERIC_EDGE_DEVICE_ID+1);
@@ -222,6 +240,8 @@ public class SampleMobileDeviceManager extends MobileDeviceManager {
 				else
 				{
 					//SimLogger.printLine("Task #" + task.getCloudletId() + " cannot assign to any VM");
+					handoverMonitor.unregister(task);
+					releaseBoundKernel(task);
 					SimLogger.getInstance().rejectedDueToBandwidth(
 							task.getCloudletId(),
 							CloudSim.clock(),
@@ -236,25 +256,21 @@ public class SampleMobileDeviceManager extends MobileDeviceManager {
 				Kernel task = (Kernel) ev.getData();
 				networkModel.downloadFinished(task.getSubmittedLocation(), SimSettings.GENERIC_EDGE_DEVICE_ID+1);
 				
+				if(task.isFailedDueToHandover())
+					break;
+				
 				//SimLogger.printLine(CloudSim.clock() + ": " + getName() + ": task #" + task.getCloudletId() + " received from edge");
 				double delay = networkModel.getDownloadDelay(task.getAssociatedHostId(), task.getMobileDeviceId(), task);
 				
 				if(delay > 0)
 				{
-					Location currentLocation = SimManager.getInstance().getMobilityModel().getLocation(task.getMobileDeviceId(),CloudSim.clock()+delay);
-					if(task.getSubmittedLocation().getServingWlanId() == currentLocation.getServingWlanId())
-					{
-						networkModel.downloadStarted(currentLocation, SimSettings.GENERIC_EDGE_DEVICE_ID);
-						SimLogger.getInstance().setDownloadDelay(task.getCloudletId(), delay, NETWORK_DELAY_TYPES.WLAN_DELAY);
-						schedule(getId(), delay, RESPONSE_RECEIVED_BY_MOBILE_DEVICE, task);
-					}
-					else
-					{
-						SimLogger.getInstance().failedDueToMobility(task.getCloudletId(), CloudSim.clock());
-					}
+					networkModel.downloadStarted(task.getSubmittedLocation(), SimSettings.GENERIC_EDGE_DEVICE_ID);
+					SimLogger.getInstance().setDownloadDelay(task.getCloudletId(), delay, NETWORK_DELAY_TYPES.WLAN_DELAY);
+					schedule(getId(), delay, RESPONSE_RECEIVED_BY_MOBILE_DEVICE, task);
 				}
 				else
 				{
+					handoverMonitor.unregister(task);
 					SimLogger.getInstance().failedDueToBandwidth(task.getCloudletId(), CloudSim.clock(), NETWORK_DELAY_TYPES.WLAN_DELAY);
 				}
 				
@@ -269,9 +285,28 @@ public class SampleMobileDeviceManager extends MobileDeviceManager {
 				else
 					networkModel.downloadFinished(task.getSubmittedLocation(), SimSettings.GENERIC_EDGE_DEVICE_ID);
 				
+				if(task.isFailedDueToHandover())
+					break;
+				
+				handoverMonitor.unregister(task);
 				SimLogger.getInstance().kernelEnded(task.getCloudletId(), CloudSim.clock());
 				break;
 			}
+			case HANDOVER_OCCURRED:
+			{
+				int deviceId = (Integer) ev.getData();
+				Location newLocation = SimManager.getInstance().getMobilityModel().getLocation(deviceId, CloudSim.clock());
+				
+				//the response cannot be delivered via the access point which the task is submitted
+				for(Kernel task : handoverMonitor.getAffectedKernels(deviceId, newLocation)){
+					SimLogger.getInstance().failedDueToMobility(task.getCloudletId(), CloudSim.clock());
+					task.setFailedDueToHandover();
+					handoverMonitor.unregister(task);
+				}
+				
+				handoverMonitor.scheduleNextHandover(deviceId);
+				break;
+			}
 			default:
 				SimLogger.printLine(getName() + ".processOtherEvent(): " + "Error - event unknown by this DatacenterBroker. Terminating simulation...");
 				System.exit(0);
@@ -304,6 +339,7 @@ public class SampleMobileDeviceManager extends MobileDeviceManager {
 				(int)task.getCloudletFileSize(),
 				(int)task.getCloudletOutputSize(),
 				(int)task.getKernelId());
+		SimLogger.getInstance().setSubmittedWlan(task.getCloudletId(), currentLocation.getServingWlanId());
 
 		int nextHopId = SimManager.getInstance().getEdgeOrchestrator().getDeviceToOffload(task);
 		
@@ -337,8 +373,7 @@ public class SampleMobileDeviceManager extends MobileDeviceManager {
 				task.setAssociatedVmId(selectedVM.getId());
 				
 				//bind task to related VM
-				getCloudletList().add(task);
-				bindCloudletToVm(task.getCloudletId(), selectedVM.getId());
+				bindKernelToVm(task, selectedVM);
 				
 				if(selectedVM instanceof EdgeVM){
 					EdgeHost host = (EdgeHost)(selectedVM.getHost());
@@ -352,6 +387,7 @@ public class SampleMobileDeviceManager extends MobileDeviceManager {
 				
 				SimLogger.getInstance().kernelStarted(task.getCloudletId(), CloudSim.clock());
 				SimLogger.getInstance().setUploadDelay(task.getCloudletId(), delay, delayType);
+				handoverMonitor.register(task);
 
 				schedule(getId(), delay, nextEvent, task);
 			}
@@ -20,7 +20,8 @@ import org.cloudbus.cloudsim.core.SimEvent;
 import edu.boun.edgecloudsim.core.SimManager;
 import edu.boun.edgecloudsim.core.SimSettings;
 import edu.boun.edgecloudsim.edge_orchestrator.EdgeOrchestrator;
-import edu.boun.edgecloudsim.edge_server.EdgeVM;
+import edu.boun.edgecloudsim.edge_orchestrator.policy.VmSelectionPolicy;
+import edu.boun.edgecloudsim.edge_orchestrator.policy.WorstFitPolicy;
 import edu.boun.edgecloudsim.edge_client.CpuUtilizationModel_Custom;
 import edu.boun.edgecloudsim.edge_client.Kernel;
 import edu.boun.edgecloudsim.edge_client.mobile_processing_unit.MobileVM;
@@ -29,6 +30,7 @@ import edu.boun.edgecloudsim.utils.SimLogger;
 public class SampleEdgeOrchestrator extends EdgeOrchestrator {
 	
 	private int numberOfHost; //used by load balancer
+	private VmSelectionPolicy vmSelectionPolicy;
 
 	public SampleEdgeOrchestrator(String _policy, String _simScenario) {
 		super(_policy, _simScenario);
@@ -37,6 +39,7 @@ public class SampleEdgeOrchestrator extends EdgeOrchestrator {
 	@Override
 	public void initialize() {
 		numberOfHost=SimSettings.getInstance().getNumOfEdgeHosts();
+		vmSelectionPolicy = new WorstFitPolicy();
 	}
 
 	/*
@@ -56,8 +59,9 @@ public class SampleEdgeOrchestrator extends EdgeOrchestrator {
 		}
 		else if(policy.equals("HYBRID")){
 			List<MobileVM> vmArray = SimManager.getInstance().getMobileServerManager().getVmList(task.getMobileDeviceId());
-			double requiredCapacity = ((CpuUtilizationModel_Custom)task.getUtilizationModelCpu()).predictUtilization(vmArray.get(0).getVmType());
-			double targetVmCapacity = (double) 100 - vmArray.get(0).getCloudletScheduler().getTotalUtilizationOfCpu(CloudSim.clock());
+			double requiredCapacity = ((CpuUtilizationModel_Custom)task.getUtilizationModelCpu()).predictUtilization(SimSettings.VM_TYPES.MOBILE_VM);
+			//the VM of the device may not be created yet (lazy_mobile_vm_creation), such a VM is idle
+			double targetVmCapacity = (vmArray == null) ? 100 : (double) 100 - vmArray.get(0).getCloudletScheduler().getTotalUtilizationOfCpu(CloudSim.clock());
 			
 			if (requiredCapacity <= targetVmCapacity)
 				result = SimSettings.MOBILE_DATACENTER_ID;
@@ -78,26 +82,17 @@ public class SampleEdgeOrchestrator extends EdgeOrchestrator {
 		
 		if (deviceId == SimSettings.MOBILE_DATACENTER_ID) {
 			List<MobileVM> vmArray = SimManager.getInstance().getMobileServerManager().getVmList(task.getMobileDeviceId());
-			double requiredCapacity = ((CpuUtilizationModel_Custom)task.getUtilizationModelCpu()).predictUtilization(vmArray.get(0).getVmType());
-			double targetVmCapacity = (double) 100 - vmArray.get(0).getCloudletScheduler().getTotalUtilizationOfCpu(CloudSim.clock());
+			double requiredCapacity = ((CpuUtilizationModel_Custom)task.getUtilizationModelCpu()).predictUtilization(SimSettings.VM_TYPES.MOBILE_VM);
+			//the VM of the device may not be created yet (lazy_mobile_vm_creation), such a VM is idle
+			double targetVmCapacity = (vmArray == null) ? 100 : (double) 100 - vmArray.get(0).getCloudletScheduler().getTotalUtilizationOfCpu(CloudSim.clock());
 			
+			//the VM is created here if it does not exist
 			if (requiredCapacity <= targetVmCapacity)
-				selectedVM = vmArray.get(0);
+				selectedVM = SimManager.getInstance().getMobileServerManager().getOrCreateVmList(task.getMobileDeviceId()).get(0);
 		 }
 		else if(deviceId == SimSettings.GENERIC_EDGE_DEVICE_ID){
 			//Select VM on edge devices via Least Loaded algorithm!
-			double selectedVmCapacity = 0; //start with min value
-			for(int hostIndex=0; hostIndex<numberOfHost; hostIndex++){
-				List<EdgeVM> vmArray = SimManager.getInstance().getEdgeServerManager().getVmList(hostIndex);
-				for(int vmIndex=0; vmIndex<vmArray.size(); vmIndex++){
-					double requiredCapacity = ((CpuUtilizationModel_Custom)task.getUtilizationModelCpu()).predictUtilization(vmArray.get(vmIndex).getVmType());
-					double targetVmCapacity = (double)100 - vmArray.get(vmIndex).getCloudletScheduler().getTotalUtilizationOfCpu(CloudSim.clock());
-					if(requiredCapacity <= targetVmCapacity && targetVmCapacity > selectedVmCapacity){
-						selectedVM = vmArray.get(vmIndex);
-						selectedVmCapacity = targetVmCapacity;
-					}
-				}
-			}
+			selectedVM = vmSelectionPolicy.selectVm(task, 0, numberOfHost-1);
 		}
 		else{
 			SimLogger.printLine("Unknown device id! The simulation has been terminated.");
@@ -10,7 +10,9 @@
  * SimLogger with the relevant results.
 
  * SampleMobileDeviceManager sends tasks to the edge servers or
- * mobile device processing unit.
+ * mobile device processing unit. The tasks offloaded to the edge
+ * servers are registered to a HandoverMonitor, so they fail when the
+ * serving WLAN of the device changes before the response is received.
  * 
  * If you want to use different topology, you should modify
  * the flow implemented in this class.
@@ -33,6 +35,7 @@ import edu.boun.edgecloudsim.core.SimSettings;
 import edu.boun.edgecloudsim.core.SimSettings.NETWORK_DELAY_TYPES;
 import edu.boun.edgecloudsim.core.SimSettings.VM_TYPES;
 import edu.boun.edgecloudsim.edge_client.CpuUtilizationModel_Custom;
+import edu.boun.edgecloudsim.edge_client.HandoverMonitor;
 import edu.boun.edgecloudsim.edge_client.MobileDeviceManager;
 import edu.boun.edgecloudsim.edge_client.Kernel;
 import edu.boun.edgecloudsim.network.NetworkModel;
@@ -46,10 +49,13 @@ public class SampleMobileDeviceManager extends MobileDeviceManager {
 	private static final int REQUEST_RECEIVED_BY_EDGE_DEVICE = BASE + 1;
 	private static final int REQUEST_RECEIVED_BY_MOBILE_DEVICE = BASE + 2;
 	private static final int RESPONSE_RECEIVED_BY_MOBILE_DEVICE = BASE + 3;
+	private static final int HANDOVER_OCCURRED = BASE + 4;
 
 	private int taskIdCounter=0;
+	private HandoverMonitor handoverMonitor;
 	
 	public SampleMobileDeviceManager() throws Exception{
+		handoverMonitor = new HandoverMonitor(getId(), HANDOVER_OCCURRED);
 	}
 
 	@Override
@@ -87,6 +93,10 @@ public class SampleMobileDeviceManager extends MobileDeviceManager {
 		NetworkModel networkModel = SimManager.getInstance().getNetworkModel();
 		Kernel task = (Kernel) ev.getData();
 		
+		//the mobility failure is already logged at the handover time
+		if(task.isFailedDueToHandover())
+			return;
+		
 		SimLogger.getInstance().kernelExecuted(task.getCloudletId());
 
 		if(task.getAssociatedDatacenterId() == SimSettings.GENERIC_EDGE_DEVICE_ID){
@@ -94,21 +104,14 @@ public class SampleMobileDeviceManager extends MobileDeviceManager {
 			
 			if(delay > 0)
 			{
-				Location currentLocation = SimManager.getInstance().getMobilityModel().getLocation(task.getMobileDeviceId(),CloudSim.clock()+delay);
-				if(task.getSubmittedLocation().getServingWlanId() == currentLocation.getServingWlanId())
-				{
-					networkModel.downloadStarted(task.getSubmittedLocation(), SimSettings.GENERIC_EDGE_DEVICE_ID);
-					SimLogger.getInstance().setDownloadDelay(task.getCloudletId(), delay, NETWORK_DELAY_TYPES.WLAN_DELAY);
-					
-					schedule(getId(), delay, RESPONSE_RECEIVED_BY_MOBILE_DEVICE, task);
-				}
-				else
-				{
-					SimLogger.getInstance().failedDueToMobility(task.getCloudletId(), CloudSim.clock());
-				}
+				networkModel.downloadStarted(task.getSubmittedLocation(), SimSettings.GENERIC_EDGE_DEVICE_ID);
+				SimLogger.getInstance().setDownloadDelay(task.getCloudletId(), delay, NETWORK_DELAY_TYPES.WLAN_DELAY);
+				
+				schedule(getId(), delay, RESPONSE_RECEIVED_BY_MOBILE_DEVICE, task);
 			}
 			else
 			{
+				handoverMonitor.unregister(task);
 				SimLogger.getInstance().failedDueToBandwidth(task.getCloudletId(), CloudSim.clock(), NETWORK_DELAY_TYPES.WLAN_DELAY);
 			}
 		}
@@ -153,6 +156,12 @@ public class SampleMobileDeviceManager extends MobileDeviceManager {
 			{
 				Kernel task = (Kernel) ev.getData();
 				networkModel.uploadFinished(task.getSubmittedLocation(), SimSettings.GENERIC_EDGE_DEVICE_ID);
+				
+				if(task.isFailedDueToHandover()){
+					releaseBoundKernel(task);
+					break;
+				}
+				
 				submitTaskToVm(task, SimSettings.VM_TYPES.EDGE_VM);
 				break;
 			}
@@ -162,9 +171,28 @@ public class SampleMobileDeviceManager extends MobileDeviceManager {
 				
 				networkModel.downloadFinished(task.getSubmittedLocation(), SimSettings.GENERIC_EDGE_DEVICE_ID);
 				
+				if(task.isFailedDueToHandover())
+					break;
+				
+				handoverMonitor.unregister(task);
 				SimLogger.getInstance().kernelEnded(task.getCloudletId(), CloudSim.clock());
 				break;
 			}
+			case HANDOVER_OCCURRED:
+			{
+				int deviceId = (Integer) ev.getData();
+				Location newLocation = SimManager.getInstance().getMobilityModel().getLocation(deviceId, CloudSim.clock());
+				
+				//the response cannot be delivered via the access point which the task is submitted
+				for(Kernel task : handoverMonitor.getAffectedKernels(deviceId, newLocation)){
+					SimLogger.getInstance().failedDueToMobility(task.getCloudletId(), CloudSim.clock());
+					task.setFailedDueToHandover();
+					handoverMonitor.unregister(task);
+				}
+				
+				handoverMonitor.scheduleNextHandover(deviceId);
+				break;
+			}
 			default:
 				SimLogger.printLine(getName() + ".processOtherEvent(): " + "Error - event unknown by this DatacenterBroker. Terminating simulation...");
 				System.exit(0);
@@ -197,6 +225,7 @@ public class SampleMobileDeviceManager extends MobileDeviceManager {
 				(int)task.getCloudletFileSize(),
 				(int)task.getCloudletOutputSize(),
 				(int)task.getKernelId());
+		SimLogger.getInstance().setSubmittedWlan(task.getCloudletId(), currentLocation.getServingWlanId());
 
 		int nextHopId = SimManager.getInstance().getEdgeOrchestrator().getDeviceToOffload(task);
 		
@@ -243,14 +272,14 @@ public class SampleMobileDeviceManager extends MobileDeviceManager {
 				task.setAssociatedVmId(selectedVM.getId());
 				
 				//bind task to related VM
-				getCloudletList().add(task);
-				bindCloudletToVm(task.getCloudletId(), selectedVM.getId());
+				bindKernelToVm(task, selectedVM);
 
 				SimLogger.getInstance().kernelStarted(task.getCloudletId(), CloudSim.clock());
 				
 				if(nextHopId != SimSettings.MOBILE_DATACENTER_ID) {
 					networkModel.uploadStarted(task.getSubmittedLocation(), nextDeviceForNetworkModel);
 					SimLogger.getInstance().setUploadDelay(task.getCloudletId(), delay, delayType);
+					handoverMonitor.register(task);
 				}
 
 				schedule(getId(), delay, nextEvent, task);
@@ -5,6 +5,13 @@
  * VehicularDefaultMobileServerManager is responsible for creating
  * mobile datacenters, hosts and VMs.
  * 
+ * If lazy_mobile_vm_creation is enabled, the host and VM of a mobile
+ * device are created when the orchestrator selects the device for the
+ * first time, so the devices which never run a task locally do not have
+ * any CloudSim object. Such a VM is created immediately instead of sending
+ * a VM creation event to the datacenter; since the VM was idle until
+ * then, the results are the same as creating all VMs at startup.
+ * 
  * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
  * Copyright (c) 2017, Bogazici University, Istanbul, Turkey
  */
@@ -12,9 +19,14 @@
 package edu.boun.edgecloudsim.applications.sample_app3;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
+import org.cloudbus.cloudsim.CloudletScheduler;
 import org.cloudbus.cloudsim.CloudletSchedulerTimeShared;
 import org.cloudbus.cloudsim.Datacenter;
 import org.cloudbus.cloudsim.DatacenterCharacteristics;
@@ -30,16 +42,25 @@ import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
 
 import edu.boun.edgecloudsim.core.SimManager;
 import edu.boun.edgecloudsim.core.SimSettings;
+import edu.boun.edgecloudsim.core.VirtualTimeCloudletScheduler;
 import edu.boun.edgecloudsim.edge_client.mobile_processing_unit.MobileHost;
 import edu.boun.edgecloudsim.edge_client.mobile_processing_unit.MobileServerManager;
 import edu.boun.edgecloudsim.edge_client.mobile_processing_unit.MobileVM;
 import edu.boun.edgecloudsim.edge_client.mobile_processing_unit.MobileVmAllocationPolicy_Custom;
+import edu.boun.edgecloudsim.utils.SimLogger;
 
 public class SampleMobileServerManager extends MobileServerManager{
 	private int numOfMobileDevices=0;
+	private boolean lazyVmCreation;
+	private int brokerId;
+	
+	//hosts created so far, the key is the mobile device id
+	private Map<Integer, MobileHost> hostOfDevice;
 	
 	public SampleMobileServerManager(int _numOfMobileDevices) {
 		numOfMobileDevices=_numOfMobileDevices;
+		lazyVmCreation = SimSettings.getInstance().isLazyMobileVmCreationEnabled();
+		hostOfDevice = new HashMap<Integer, MobileHost>();
 	}
 
 	@Override
@@ -66,45 +87,97 @@ public class SampleMobileServerManager extends MobileServerManager{
 
 	@Override
 	public void createVmList(int brockerId) {
-		//VMs should have unique IDs, so create Mobile VMs after Edge+Cloud VMs
-		int vmCounter=SimSettings.getInstance().getNumOfEdgeVMs() + SimSettings.getInstance().getNumOfCloudVMs();
+		brokerId = brockerId;
 		
 		//Create VMs for each hosts
 		//Note that each mobile device has one host with one VM!
 		for (int i = 0; i < numOfMobileDevices; i++) {
-			vmList.add(i, new ArrayList<MobileVM>());
-
-			String vmm = "Xen";
-			int numOfCores = SimSettings.getInstance().getCoreForMobileVM();
-			double mips = SimSettings.getInstance().getMipsForMobileVM();
-			int ram = SimSettings.getInstance().getRamForMobileVM();
-			long storage = SimSettings.getInstance().getStorageForMobileVM();
-			long bandwidth = 0;
+			//the VMs which are not created yet are not submitted to the broker
+			if(lazyVmCreation){
+				vmList.add(i, null);
+				continue;
+			}
 			
-			//VM Parameters		
-			MobileVM vm = new MobileVM(vmCounter, brockerId, mips, numOfCores, ram, bandwidth, storage, vmm, new CloudletSchedulerTimeShared());
-			vmList.get(i).add(vm);
-			vmCounter++;
+			vmList.add(i, new ArrayList<MobileVM>());
+			vmList.get(i).add(createVm(i));
 		}
 	}
+	
+	@Override
+	public List<MobileVM> getOrCreateVmList(int hostId) {
+		if(getVmList(hostId) == null)
+			createVmOnDemand(hostId);
+		
+		return getVmList(hostId);
+	}
 
 	@Override
 	public double getAvgUtilization() {
 		double totalUtilization = 0;
 		double vmCounter = 0;
 
-		List<? extends Host> list = localDatacenter.getHostList();
+		List<MobileHost> list = localDatacenter.getHostList();
 		// for each host...
-		for (int hostIndex=0; hostIndex < list.size(); hostIndex++) {
-			List<MobileVM> vmArray = SimManager.getInstance().getMobileServerManager().getVmList(hostIndex);
+		for (MobileHost host : list) {
+			List<MobileVM> vmArray = SimManager.getInstance().getMobileServerManager().getVmList(host.getMobileDeviceId());
+			if(vmArray == null)
+				continue;
+			
 			//for each vm...
 			for(int vmIndex=0; vmIndex<vmArray.size(); vmIndex++){
 				totalUtilization += vmArray.get(vmIndex).getCloudletScheduler().getTotalUtilizationOfCpu(CloudSim.clock());
-				vmCounter++;
 			}
 		}
 
-		return totalUtilization / vmCounter;
+		//each device has one VM, the VMs which are not created yet are idle
+		return totalUtilization / numOfMobileDevices;
+	}
+	
+	private MobileVM createVm(int mobileDeviceId) {
+		//VMs should have unique IDs, so create Mobile VMs after Edge+Cloud VMs
+		int vmId = mobileDeviceId + SimSettings.getInstance().getNumOfEdgeVMs() + SimSettings.getInstance().getNumOfCloudVMs();
+		
+		String vmm = "Xen";
+		int numOfCores = SimSettings.getInstance().getCoreForMobileVM();
+		double mips = SimSettings.getInstance().getMipsForMobileVM();
+		int ram = SimSettings.getInstance().getRamForMobileVM();
+		long storage = SimSettings.getInstance().getStorageForMobileVM();
+		long bandwidth = 0;
+		
+		//VM Parameters		
+		CloudletScheduler scheduler = SimSettings.getInstance().isVirtualTimeCloudletSchedulerEnabled() ?
+				new VirtualTimeCloudletScheduler() : new CloudletSchedulerTimeShared();
+		return new MobileVM(vmId, brokerId, mips, numOfCores, ram, bandwidth, storage, vmm, scheduler);
+	}
+	
+	//same as the VM creation steps of Datacenter.processVmCreate()
+	private void createVmOnDemand(int mobileDeviceId) {
+		MobileHost host = hostOfDevice.get(mobileDeviceId);
+		if(host == null){
+			host = createHost(mobileDeviceId);
+			host.setDatacenter(localDatacenter);
+			hostOfDevice.put(mobileDeviceId, host);
+			
+			//the hosts are kept in the order of their ids, as in the case where all hosts are created at startup
+			List<MobileHost> hostList = localDatacenter.getHostList();
+			int index = Collections.binarySearch(hostList, host, Comparator.comparingInt(MobileHost::getId));
+			hostList.add(-index - 1, host);
+		}
+		
+		MobileVM vm = createVm(mobileDeviceId);
+		if(!localDatacenter.getVmAllocationPolicy().allocateHostForVm(vm, host)){
+			SimLogger.printLine("Mobile VM #" + vm.getId() + " cannot be created! Terminating simulation...");
+			System.exit(0);
+		}
+		
+		localDatacenter.getVmList().add(vm);
+		vm.setBeingInstantiated(false);
+		vm.updateVmProcessing(CloudSim.clock(), host.getVmScheduler().getAllocatedMipsForVm(vm));
+		
+		List<MobileVM> vms = new ArrayList<MobileVM>();
+		vms.add(vm);
+		vmList.set(mobileDeviceId, vms);
+		SimManager.getInstance().getMobileDeviceManager().vmCreatedAtRuntime(vm, localDatacenter.getId());
 	}
 	
 
@@ -144,41 +217,49 @@ public class SampleMobileServerManager extends MobileServerManager{
 		// 1. We need to create a list to store one or more Machines
 		List<MobileHost> hostList = new ArrayList<MobileHost>();
 		
-		for (int i = 0; i < numOfMobileDevices; i++) {
-
-			int numOfCores = SimSettings.getInstance().getCoreForMobileVM();
-			double mips = SimSettings.getInstance().getMipsForMobileVM();
-			int ram = SimSettings.getInstance().getRamForMobileVM();
-			long storage = SimSettings.getInstance().getStorageForMobileVM();
-			long bandwidth = 0;
-			
-			// 2. A Machine contains one or more PEs or CPUs/Cores. Therefore, should
-			//    create a list to store these PEs before creating
-			//    a Machine.
-			List<Pe> peList = new ArrayList<Pe>();
-
-			// 3. Create PEs and add these into the list.
-			//for a quad-core machine, a list of 4 PEs is required:
-			for(int j=0; j<numOfCores; j++){
-				peList.add(new Pe(j, new PeProvisionerSimple(mips))); // need to store Pe id and MIPS Rating
-			}
-			
-			//4. Create Hosts with its id and list of PEs and add them to the list of machines
-			MobileHost host = new MobileHost(
-					//Hosts should have unique IDs, so create Mobile Hosts after Edge+Cloud Hosts
-					i+SimSettings.getInstance().getNumOfEdgeHosts()+SimSettings.getInstance().getNumOfCoudHost(),
-					new RamProvisionerSimple(ram),
-					new BwProvisionerSimple(bandwidth), //kbps
-					storage,
-					peList,
-					new VmSchedulerSpaceShared(peList)
-				);
-			
-			host.setMobileDeviceId(i);
+		//CloudSim does not allow a datacenter without any PE, so the
+		//host of the first device is created at startup in lazy mode
+		int numOfHosts = lazyVmCreation ? Math.min(1, numOfMobileDevices) : numOfMobileDevices;
+		for (int i = 0; i < numOfHosts; i++) {
+			MobileHost host = createHost(i);
+			hostOfDevice.put(i, host);
 			hostList.add(host);
 		}
 
 		return hostList;
 	}
 	
+	private MobileHost createHost(int mobileDeviceId){
+		int numOfCores = SimSettings.getInstance().getCoreForMobileVM();
+		double mips = SimSettings.getInstance().getMipsForMobileVM();
+		int ram = SimSettings.getInstance().getRamForMobileVM();
+		long storage = SimSettings.getInstance().getStorageForMobileVM();
+		long bandwidth = 0;
+		
+		// 2. A Machine contains one or more PEs or CPUs/Cores. Therefore, should
+		//    create a list to store these PEs before creating
+		//    a Machine.
+		List<Pe> peList = new ArrayList<Pe>();
+
+		// 3. Create PEs and add these into the list.
+		//for a quad-core machine, a list of 4 PEs is required:
+		for(int j=0; j<numOfCores; j++){
+			peList.add(new Pe(j, new PeProvisionerSimple(mips))); // need to store Pe id and MIPS Rating
+		}
+		
+		//4. Create Hosts with its id and list of PEs and add them to the list of machines
+		MobileHost host = new MobileHost(
+				//Hosts should have unique IDs, so create Mobile Hosts after Edge+Cloud Hosts
+				mobileDeviceId+SimSettings.getInstance().getNumOfEdgeHosts()+SimSettings.getInstance().getNumOfCoudHost(),
+				new RamProvisionerSimple(ram),
+				new BwProvisionerSimple(bandwidth), //kbps
+				storage,
+				peList,
+				new VmSchedulerSpaceShared(peList)
+			);
+		
+		host.setMobileDeviceId(mobileDeviceId);
+		return host;
+	}
+	
 }
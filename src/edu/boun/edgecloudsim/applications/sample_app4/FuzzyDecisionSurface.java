@@ -0,0 +1,170 @@
+/*
+ * Title:        EdgeCloudSim - Fuzzy Decision Surface
+ *
+ * Description:
+ * FuzzyDecisionSurface samples the output of a fuzzy inference system
+ * once over a uniform grid of its input variables and stores the results
+ * in a flat array. The decisions are then answered via multilinear
+ * interpolation instead of fuzzification, rule evaluation and
+ * defuzzification steps of the FIS.
+ *
+ * The inputs are clamped into the given ranges; the ranges should be
+ * selected so that the membership functions are constant outside of them.
+ * The grid is refined until the interpolation error measured against the
+ * exact FIS is within the given bound or the grid size limit is reached.
+ * Each refinement halves the intervals, so the samples of the previous
+ * grid are copied and only the new grid points are evaluated.
+ *
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ * Copyright (c) 2017, Bogazici University, Istanbul, Turkey
+ */
+
+package edu.boun.edgecloudsim.applications.sample_app4;
+
+import java.util.Random;
+
+import net.sourceforge.jFuzzyLogic.FIS;
+import edu.boun.edgecloudsim.utils.SimLogger;
+
+public class FuzzyDecisionSurface {
+	private static final int NUM_OF_VALIDATION_SAMPLES = 2000;
+	private static final long VALIDATION_SEED = 1;
+
+	private FIS fis;
+	private String outputName;
+	private String[] inputNames;
+	private double[] minValues;
+	private double[] maxValues;
+
+	private int gridPoints;
+	private int[] strides;
+	private double[] values;
+	private double maxError;
+
+	public FuzzyDecisionSurface(FIS _fis, String _outputName, String[] _inputNames, double[] _minValues, double[] _maxValues) {
+		fis = _fis;
+		outputName = _outputName;
+		inputNames = _inputNames;
+		minValues = _minValues;
+		maxValues = _maxValues;
+	}
+
+	/**
+	 * samples the FIS and refines the grid until the error bound is satisfied
+	 * @param _gridPoints initial number of grid points for each input
+	 * @param errorBound maximum allowed difference from the exact FIS output
+	 * @param maxGridPoints maximum number of grid points for each input
+	 */
+	public void build(int _gridPoints, double errorBound, int maxGridPoints) {
+		gridPoints = Math.max(2, _gridPoints);
+		sample(null, null);
+		maxError = measureMaxError();
+
+		//halving the intervals keeps the previous grid points at the even indexes
+		while(maxError > errorBound && (gridPoints * 2 - 1) <= maxGridPoints) {
+			gridPoints = gridPoints * 2 - 1;
+			sample(values, strides);
+			maxError = measureMaxError();
+		}
+
+		if(maxError > errorBound)
+			SimLogger.printLine("Decision surface of " + String.join("/", inputNames) +
+					" exceeds the error bound: " + maxError + " > " + errorBound);
+	}
+
+	/*
+	 * samples the FIS over the grid, the values of the previous grid whose
+	 * intervals are twice as long are reused if they are given
+	 */
+	private void sample(double[] previousValues, int[] previousStrides) {
+		int dimension = inputNames.length;
+		strides = new int[dimension];
+		int size = 1;
+		for(int d=dimension-1; d>=0; d--) {
+			strides[d] = size;
+			size *= gridPoints;
+		}
+
+		values = new double[size];
+		double[] inputs = new double[dimension];
+		for(int i=0; i<size; i++) {
+			boolean isPreviousPoint = (previousValues != null);
+			int previousOffset = 0;
+			for(int d=0; d<dimension; d++) {
+				int gridIndex = (i / strides[d]) % gridPoints;
+				inputs[d] = minValues[d] + (maxValues[d] - minValues[d]) * gridIndex / (gridPoints - 1);
+				if(gridIndex % 2 != 0)
+					isPreviousPoint = false;
+				else if(isPreviousPoint)
+					previousOffset += (gridIndex / 2) * previousStrides[d];
+			}
+			values[i] = isPreviousPoint ? previousValues[previousOffset] : evaluateExact(inputs);
+		}
+	}
+
+	//compares the surface with the exact FIS at random points
+	private double measureMaxError() {
+		Random rng = new Random(VALIDATION_SEED);
+		double[] inputs = new double[inputNames.length];
+		double result = 0;
+		for(int i=0; i<NUM_OF_VALIDATION_SAMPLES; i++) {
+			for(int d=0; d<inputs.length; d++)
+				inputs[d] = minValues[d] + (maxValues[d] - minValues[d]) * rng.nextDouble();
+			result = Math.max(result, Math.abs(evaluate(inputs) - evaluateExact(inputs)));
+		}
+		return result;
+	}
+
+	/**
+	 * returns the output of the FIS by using the inputs in constructor order
+	 */
+	public double evaluateExact(double... inputs) {
+		for(int d=0; d<inputNames.length; d++)
+			fis.setVariable(inputNames[d], inputs[d]);
+		fis.evaluate();
+		return fis.getVariable(outputName).getValue();
+	}
+
+	/**
+	 * returns the interpolated output by using the inputs in constructor order
+	 */
+	public double evaluate(double... inputs) {
+		int dimension = inputNames.length;
+		int baseOffset = 0;
+		double[] fractions = new double[dimension];
+		for(int d=0; d<dimension; d++) {
+			double position = (inputs[d] - minValues[d]) / (maxValues[d] - minValues[d]) * (gridPoints - 1);
+			position = Math.max(0, Math.min(gridPoints - 1, position));
+			int gridIndex = Math.min((int)position, gridPoints - 2);
+			fractions[d] = position - gridIndex;
+			baseOffset += gridIndex * strides[d];
+		}
+
+		//weighted sum of the 2^dimension corners of the related cell
+		double result = 0;
+		for(int corner=0; corner<(1 << dimension); corner++) {
+			double weight = 1;
+			int offset = baseOffset;
+			for(int d=0; d<dimension; d++) {
+				if((corner & (1 << d)) != 0) {
+					weight *= fractions[d];
+					offset += strides[d];
+				}
+				else {
+					weight *= 1 - fractions[d];
+				}
+			}
+			if(weight != 0)
+				result += weight * values[offset];
+		}
+		return result;
+	}
+
+	public int getGridPoints() {
+		return gridPoints;
+	}
+
+	public double getMaxError() {
+		return maxError;
+	}
+}
@@ -16,7 +16,6 @@ import java.util.List;
 
 import org.antlr.runtime.RecognitionException;
 import org.cloudbus.cloudsim.Host;
-import org.cloudbus.cloudsim.UtilizationModelFull;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.SimEvent;
@@ -25,9 +24,12 @@ import net.sourceforge.jFuzzyLogic.FIS;
 import edu.boun.edgecloudsim.cloud_server.CloudVM;
 import edu.boun.edgecloudsim.core.SimManager;
 import edu.boun.edgecloudsim.core.SimSettings;
+import edu.boun.edgecloudsim.edge_orchestrator.ClusterStateSnapshot;
 import edu.boun.edgecloudsim.edge_orchestrator.EdgeOrchestrator;
-import edu.boun.edgecloudsim.edge_server.EdgeHost;
-import edu.boun.edgecloudsim.edge_server.EdgeVM;
+import edu.boun.edgecloudsim.edge_orchestrator.policy.OffloadDecisionPolicy;
+import edu.boun.edgecloudsim.edge_orchestrator.policy.OrchestrationPolicyRegistry;
+import edu.boun.edgecloudsim.edge_orchestrator.policy.VmSelectionPolicy;
+import edu.boun.edgecloudsim.edge_orchestrator.policy.WorstFitPolicy;
 import edu.boun.edgecloudsim.edge_client.CpuUtilizationModel_Custom;
 import edu.boun.edgecloudsim.edge_client.Kernel;
 import edu.boun.edgecloudsim.utils.SimLogger;
@@ -39,6 +41,11 @@ public class FuzzyEdgeOrchestrator extends EdgeOrchestrator {
 	private FIS fis1 = null;
 	private FIS fis2 = null;
 	private FIS fis3 = null;
+	private FuzzyDecisionSurface surface1 = null;
+	private FuzzyDecisionSurface surface2 = null;
+	private FuzzyDecisionSurface surface3 = null;
+	private OffloadDecisionPolicy offloadDecisionPolicy = null;
+	private VmSelectionPolicy vmSelectionPolicy = null;
 
 	public FuzzyEdgeOrchestrator(String _policy, String _simScenario) {
 		super(_policy, _simScenario);
@@ -57,6 +64,49 @@ public class FuzzyEdgeOrchestrator extends EdgeOrchestrator {
 			e.printStackTrace();
 			System.exit(0);
 		}
+		
+		if(SimSettings.getInstance().isFuzzyDecisionSurfaceEnabled())
+			createDecisionSurfaces();
+		
+		if(!policy.equals("FUZZY_BASED") && !policy.equals("FUZZY_COMPETITOR")){
+			offloadDecisionPolicy = OrchestrationPolicyRegistry.createOffloadDecisionPolicy(policy);
+			if(offloadDecisionPolicy == null){
+				SimLogger.printLine("Unknow edge orchestrator policy! Terminating simulation...");
+				System.exit(0);
+			}
+		}
+		
+		//the least loaded VM is selected on the edge devices
+		vmSelectionPolicy = new WorstFitPolicy();
+	}
+	
+	/*
+	 * samples each FIS over its inputs, the ranges are selected from the
+	 * membership functions in FCL_definition; all terms are constant
+	 * outside of these ranges, so clamping the inputs is exact
+	 */
+	private void createDecisionSurfaces() {
+		SimSettings SS = SimSettings.getInstance();
+		int gridPoints = SS.getFuzzySurfaceGridPoints();
+		int maxGridPoints = SS.getFuzzySurfaceMaxGridPoints();
+		double errorBound = SS.getFuzzySurfaceErrorBound();
+		
+		surface1 = new FuzzyDecisionSurface(fis1, "offload_decision",
+				new String[]{"wan_bw", "task_size", "delay_sensitivity", "avg_edge_util"},
+				new double[]{2, 4000, 0.2, 20},
+				new double[]{8, 20000, 0.8, 80});
+		surface2 = new FuzzyDecisionSurface(fis2, "offload_decision",
+				new String[]{"man_delay", "nearest_edge_uitl", "best_remote_edge_uitl"},
+				new double[]{0.001, 20, 20},
+				new double[]{0.013, 80, 80});
+		surface3 = new FuzzyDecisionSurface(fis3, "offload_decision",
+				new String[]{"wan_bw", "cpu_speed", "video_execution", "data_size"},
+				new double[]{2, 20, 0.2, 0.2},
+				new double[]{8, 80, 0.8, 0.8});
+		
+		surface1.build(gridPoints, errorBound, maxGridPoints);
+		surface2.build(gridPoints, errorBound, maxGridPoints);
+		surface3.build(gridPoints, errorBound, maxGridPoints);
 	}
 
 	/*
@@ -75,56 +125,58 @@ public class FuzzyEdgeOrchestrator extends EdgeOrchestrator {
 			result = SimSettings.GENERIC_EDGE_DEVICE_ID;
 		}
 		else if(simScenario.equals("TWO_TIER_WITH_EO")){
+			//competitor policies which do not use fuzzy logic
+			if(offloadDecisionPolicy != null)
+				return offloadDecisionPolicy.getDeviceToOffload(task);
+			
 			int bestRemoteEdgeHostIndex = 0;
 			int nearestEdgeHostIndex = 0;
 			double nearestEdgeUtilization = 0;
 			
-			//dummy task to simulate a task with 1 Mbit file size to upload and download 
-			Kernel dummyTask = new Kernel(0, 0, 0, 0, 128, 128, new UtilizationModelFull(), new UtilizationModelFull(), new UtilizationModelFull());
+			//the same snapshot is shared by the tasks submitted at the same time
+			ClusterStateSnapshot snapshot = SimManager.getInstance().getClusterStateSnapshot();
 			
-			double wanDelay = SimManager.getInstance().getNetworkModel().getUploadDelay(task.getMobileDeviceId(),
-					SimSettings.CLOUD_DATACENTER_ID, dummyTask /* 1 Mbit */);
+			//upload delays of a task with 1 Mbit file size
+			double wanDelay = snapshot.getWanProbeDelay(task);
 			double wanBW = (wanDelay == 0) ? 0 : (1 / wanDelay); /* Mbps */
 
-			double manDelay = SimManager.getInstance().getNetworkModel().getUploadDelay(SimSettings.GENERIC_EDGE_DEVICE_ID,
-					SimSettings.GENERIC_EDGE_DEVICE_ID, dummyTask /* 1 Mbit */);
+			double manDelay = snapshot.getManProbeDelay();
 			
-			double edgeUtilization = SimManager.getInstance().getEdgeServerManager().getAvgUtilization();
+			double edgeUtilization = snapshot.getAvgEdgeUtilization();
+			
+			int wlanId = task.getSubmittedLocation().getServingWlanId();
+			int hostIndex = snapshot.getEdgeHostOfWlan(wlanId);
+			if(hostIndex != -1){
+				nearestEdgeUtilization = snapshot.getEdgeHostUtilization(hostIndex);
+				nearestEdgeHostIndex = hostIndex;
+			}
 			
 			//finding least loaded neighbor edge host
 			double bestRemoteEdgeUtilization = 100; //start with max value
-			for(int hostIndex=0; hostIndex<numberOfHost; hostIndex++){
-				List<EdgeVM> vmArray = SimManager.getInstance().getEdgeServerManager().getVmList(hostIndex);
-	
-				double totalUtlization=0;
-				for(int vmIndex=0; vmIndex<vmArray.size(); vmIndex++){
-					totalUtlization += vmArray.get(vmIndex).getCloudletScheduler().getTotalUtilizationOfCpu(CloudSim.clock());
-				}
-				
-				double avgUtilization = (totalUtlization / (double)(vmArray.size()));
-				
-				EdgeHost host = (EdgeHost)(vmArray.get(0).getHost()); //all VMs have the same host
-				if(host.getLocation().getServingWlanId() == task.getSubmittedLocation().getServingWlanId()){
-					nearestEdgeUtilization = totalUtlization / (double)(vmArray.size());
-					nearestEdgeHostIndex = hostIndex;
-				}
-				else if(avgUtilization < bestRemoteEdgeUtilization){
-					bestRemoteEdgeHostIndex = hostIndex;
-					bestRemoteEdgeUtilization = avgUtilization;
-				}
+			hostIndex = snapshot.getLeastLoadedEdgeHost(wlanId);
+			if(hostIndex != -1 && snapshot.getEdgeHostUtilization(hostIndex) < bestRemoteEdgeUtilization){
+				bestRemoteEdgeHostIndex = hostIndex;
+				bestRemoteEdgeUtilization = snapshot.getEdgeHostUtilization(hostIndex);
 			}
 
 			if(policy.equals("FUZZY_BASED")){
 				int bestHostIndex = nearestEdgeHostIndex;
 				double bestHostUtilization = nearestEdgeUtilization;
 				
-		        // Set inputs
-		        fis2.setVariable("man_delay", manDelay);
-		        fis2.setVariable("nearest_edge_uitl", nearestEdgeUtilization);
-		        fis2.setVariable("best_remote_edge_uitl", bestRemoteEdgeUtilization);
-		        
-		        // Evaluate
-		        fis2.evaluate();
+				double offloadDecision2;
+				if(surface2 != null){
+					offloadDecision2 = surface2.evaluate(manDelay, nearestEdgeUtilization, bestRemoteEdgeUtilization);
+				}
+				else{
+			        // Set inputs
+			        fis2.setVariable("man_delay", manDelay);
+			        fis2.setVariable("nearest_edge_uitl", nearestEdgeUtilization);
+			        fis2.setVariable("best_remote_edge_uitl", bestRemoteEdgeUtilization);
+			        
+			        // Evaluate
+			        fis2.evaluate();
+			        offloadDecision2 = fis2.getVariable("offload_decision").getValue();
+				}
 		        
 		        /*
 		        SimLogger.printLine("########################################");
@@ -135,21 +187,28 @@ public class FuzzyEdgeOrchestrator extends EdgeOrchestrator {
 		        SimLogger.printLine("########################################");
 				*/
 		        
-				if(fis2.getVariable("offload_decision").getValue() > 50){
+				if(offloadDecision2 > 50){
 					bestHostIndex = bestRemoteEdgeHostIndex;
 					bestHostUtilization = bestRemoteEdgeUtilization;
 				}
 				
 				double delay_sensitivity = SimSettings.getInstance().getApplicationLookUpTable()[task.getKernelType()][12];
 
-		        // Set inputs
-		        fis1.setVariable("wan_bw", wanBW);
-		        fis1.setVariable("task_size", task.getCloudletLength());
-		        fis1.setVariable("delay_sensitivity", delay_sensitivity);
-		        fis1.setVariable("avg_edge_util", bestHostUtilization);
-		        
-		        // Evaluate
-		        fis1.evaluate();
+				double offloadDecision1;
+				if(surface1 != null){
+					offloadDecision1 = surface1.evaluate(wanBW, task.getCloudletLength(), delay_sensitivity, bestHostUtilization);
+				}
+				else{
+			        // Set inputs
+			        fis1.setVariable("wan_bw", wanBW);
+			        fis1.setVariable("task_size", task.getCloudletLength());
+			        fis1.setVariable("delay_sensitivity", delay_sensitivity);
+			        fis1.setVariable("avg_edge_util", bestHostUtilization);
+			        
+			        // Evaluate
+			        fis1.evaluate();
+			        offloadDecision1 = fis1.getVariable("offload_decision").getValue();
+				}
 		        
 		        /*
 		        SimLogger.printLine("########################################");
@@ -161,7 +220,7 @@ public class FuzzyEdgeOrchestrator extends EdgeOrchestrator {
 		        SimLogger.printLine("########################################");
 		        */
 		        
-		        if(fis1.getVariable("offload_decision").getValue() > 50){
+		        if(offloadDecision1 > 50){
 					result = SimSettings.CLOUD_DATACENTER_ID;
 		        }
 				else{
@@ -175,14 +234,21 @@ public class FuzzyEdgeOrchestrator extends EdgeOrchestrator {
 	        	double dataSize = task.getCloudletFileSize() + task.getCloudletOutputSize();
 	        	double normalizedDataSize = Math.min(MAX_DATA_SIZE, dataSize)/MAX_DATA_SIZE;
 	        	
-		        // Set inputs
-		        fis3.setVariable("wan_bw", wanBW);
-		        fis3.setVariable("cpu_speed", cpuSpeed);
-		        fis3.setVariable("video_execution", videoExecution);
-		        fis3.setVariable("data_size", normalizedDataSize);
-		        
-		        // Evaluate
-		        fis3.evaluate();
+				double offloadDecision3;
+				if(surface3 != null){
+					offloadDecision3 = surface3.evaluate(wanBW, cpuSpeed, videoExecution, normalizedDataSize);
+				}
+				else{
+			        // Set inputs
+			        fis3.setVariable("wan_bw", wanBW);
+			        fis3.setVariable("cpu_speed", cpuSpeed);
+			        fis3.setVariable("video_execution", videoExecution);
+			        fis3.setVariable("data_size", normalizedDataSize);
+			        
+			        // Evaluate
+			        fis3.evaluate();
+			        offloadDecision3 = fis3.getVariable("offload_decision").getValue();
+				}
 		        
 		        /*
 		        SimLogger.printLine("########################################");
@@ -194,27 +260,7 @@ public class FuzzyEdgeOrchestrator extends EdgeOrchestrator {
 		        SimLogger.printLine("########################################");
 				*/
 		        
-		        if(fis3.getVariable("offload_decision").getValue() > 50)
-					result = SimSettings.CLOUD_DATACENTER_ID;
-				else
-					result = SimSettings.GENERIC_EDGE_DEVICE_ID;
-			}
-			else if(policy.equals("NETWORK_BASED")){
-				if(wanBW > 6)
-					result = SimSettings.CLOUD_DATACENTER_ID;
-				else
-					result = SimSettings.GENERIC_EDGE_DEVICE_ID;
-			}
-			else if(policy.equals("UTILIZATION_BASED")){
-				double utilization = edgeUtilization;
-				if(utilization > 80)
-					result = SimSettings.CLOUD_DATACENTER_ID;
-				else
-					result = SimSettings.GENERIC_EDGE_DEVICE_ID;
-			}
-			else if(policy.equals("HYBRID")){
-				double utilization = edgeUtilization;
-				if(wanBW > 6 && utilization > 80)
+		        if(offloadDecision3 > 50)
 					result = SimSettings.CLOUD_DATACENTER_ID;
 				else
 					result = SimSettings.GENERIC_EDGE_DEVICE_ID;
@@ -253,33 +299,11 @@ public class FuzzyEdgeOrchestrator extends EdgeOrchestrator {
 		}
 		else if(deviceId == SimSettings.GENERIC_EDGE_DEVICE_ID){
 			//Select VM on edge devices via Least Loaded algorithm!
-			double selectedVmCapacity = 0; //start with min value
-			for(int hostIndex=0; hostIndex<numberOfHost; hostIndex++){
-				List<EdgeVM> vmArray = SimManager.getInstance().getEdgeServerManager().getVmList(hostIndex);
-				for(int vmIndex=0; vmIndex<vmArray.size(); vmIndex++){
-					double requiredCapacity = ((CpuUtilizationModel_Custom)task.getUtilizationModelCpu()).predictUtilization(vmArray.get(vmIndex).getVmType());
-					double targetVmCapacity = (double)100 - vmArray.get(vmIndex).getCloudletScheduler().getTotalUtilizationOfCpu(CloudSim.clock());
-					if(requiredCapacity <= targetVmCapacity && targetVmCapacity > selectedVmCapacity){
-						selectedVM = vmArray.get(vmIndex);
-						selectedVmCapacity = targetVmCapacity;
-					}
-				}
-			}
+			selectedVM = vmSelectionPolicy.selectVm(task, 0, numberOfHost-1);
 		}
 		else{
 			//if the host is specifically defined!
-			List<EdgeVM> vmArray = SimManager.getInstance().getEdgeServerManager().getVmList(deviceId);
-			
-			//Select VM on edge devices via Least Loaded algorithm!
-			double selectedVmCapacity = 0; //start with min value
-			for(int vmIndex=0; vmIndex<vmArray.size(); vmIndex++){
-				double requiredCapacity = ((CpuUtilizationModel_Custom)task.getUtilizationModelCpu()).predictUtilization(vmArray.get(vmIndex).getVmType());
-				double targetVmCapacity = (double)100 - vmArray.get(vmIndex).getCloudletScheduler().getTotalUtilizationOfCpu(CloudSim.clock());
-				if(requiredCapacity <= targetVmCapacity && targetVmCapacity > selectedVmCapacity){
-					selectedVM = vmArray.get(vmIndex);
-					selectedVmCapacity = targetVmCapacity;
-				}
-			}
+			selectedVM = vmSelectionPolicy.selectVm(task, deviceId, deviceId);
 		}
 		return selectedVM;
 	}
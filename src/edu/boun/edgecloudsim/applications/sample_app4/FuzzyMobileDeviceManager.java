@@ -5,6 +5,8 @@
  * DefaultMobileDeviceManager is responsible for submitting the tasks to the related
  * device by using the Edge Orchestrator. It also takes proper actions 
  * when the execution of the tasks are finished.
+ * In-flight tasks are registered to a HandoverMonitor, so mobility
+ * failures are detected when the serving WLAN of the device changes.
  * By default, DefaultMobileDeviceManager sends tasks to the edge servers or
  * cloud servers. If you want to use different topology, for example
  * MAN edge server, you should modify the flow defined in this class.
@@ -26,6 +28,7 @@ import edu.boun.edgecloudsim.core.SimManager;
 import edu.boun.edgecloudsim.core.SimSettings;
 import edu.boun.edgecloudsim.core.SimSettings.NETWORK_DELAY_TYPES;
 import edu.boun.edgecloudsim.edge_client.CpuUtilizationModel_Custom;
+import edu.boun.edgecloudsim.edge_client.HandoverMonitor;
 import edu.boun.edgecloudsim.edge_client.MobileDeviceManager;
 import edu.boun.edgecloudsim.edge_client.Kernel;
 import edu.boun.edgecloudsim.edge_server.EdgeHost;
@@ -45,12 +48,15 @@ public class FuzzyMobileDeviceManager extends MobileDeviceManager {
 	private static final int REQUEST_RECEIVED_BY_EDGE_DEVICE_TO_RELAY_NEIGHBOR = BASE + 5;
 	private static final int RESPONSE_RECEIVED_BY_MOBILE_DEVICE = BASE + 6;
 	private static final int RESPONSE_RECEIVED_BY_EDGE_DEVICE_TO_RELAY_MOBILE_DEVICE = BASE + 7;
+	private static final int HANDOVER_OCCURRED = BASE + 8;
 
 	private static final double MM1_QUEUE_MODEL_UPDATE_INTEVAL = 5; //seconds
 	
 	private int taskIdCounter=0;
+	private HandoverMonitor handoverMonitor;
 	
 	public FuzzyMobileDeviceManager() throws Exception{
+		handoverMonitor = new HandoverMonitor(getId(), HANDOVER_OCCURRED);
 	}
 
 	@Override
@@ -90,6 +96,10 @@ public class FuzzyMobileDeviceManager extends MobileDeviceManager {
 		NetworkModel networkModel = SimManager.getInstance().getNetworkModel();
 		Kernel task = (Kernel) ev.getData();
 		
+		//the mobility failure is already logged at the handover time
+		if(task.isFailedDueToHandover())
+			return;
+		
 		SimLogger.getInstance().kernelExecuted(task.getCloudletId());
 
 		if(task.getAssociatedDatacenterId() == SimSettings.CLOUD_DATACENTER_ID){
@@ -97,20 +107,13 @@ public class FuzzyMobileDeviceManager extends MobileDeviceManager {
 			double WanDelay = networkModel.getDownloadDelay(SimSettings.CLOUD_DATACENTER_ID, task.getMobileDeviceId(), task);
 			if(WanDelay > 0)
 			{
-				Location currentLocation = SimManager.getInstance().getMobilityModel().getLocation(task.getMobileDeviceId(),CloudSim.clock()+WanDelay);
-				if(task.getSubmittedLocation().getServingWlanId() == currentLocation.getServingWlanId())
-				{
-					networkModel.downloadStarted(task.getSubmittedLocation(), SimSettings.CLOUD_DATACENTER_ID);
-					SimLogger.getInstance().setDownloadDelay(task.getCloudletId(), WanDelay, NETWORK_DELAY_TYPES.WAN_DELAY);
-					schedule(getId(), WanDelay, RESPONSE_RECEIVED_BY_MOBILE_DEVICE, task);
-				}
-				else
-				{
-					SimLogger.getInstance().failedDueToMobility(task.getCloudletId(), CloudSim.clock());
-				}
+				networkModel.downloadStarted(task.getSubmittedLocation(), SimSettings.CLOUD_DATACENTER_ID);
+				SimLogger.getInstance().setDownloadDelay(task.getCloudletId(), WanDelay, NETWORK_DELAY_TYPES.WAN_DELAY);
+				schedule(getId(), WanDelay, RESPONSE_RECEIVED_BY_MOBILE_DEVICE, task);
 			}
 			else
 			{
+				handoverMonitor.unregister(task);
 				SimLogger.getInstance().failedDueToBandwidth(task.getCloudletId(), CloudSim.clock(), NETWORK_DELAY_TYPES.WAN_DELAY);
 			}
 		}
@@ -123,8 +126,7 @@ public class FuzzyMobileDeviceManager extends MobileDeviceManager {
 			EdgeHost host = (EdgeHost)(SimManager.
 					getInstance().
 					getEdgeServerManager().
-					getDatacenterList().get(task.getAssociatedHostId()).
-					getHostList().get(0));
+					getHost(task.getAssociatedHostId()));
 			
 			//if neighbor edge device is selected
 			if(host.getLocation().getServingWlanId() != task.getSubmittedLocation().getServingWlanId())
@@ -137,21 +139,14 @@ public class FuzzyMobileDeviceManager extends MobileDeviceManager {
 			
 			if(delay > 0)
 			{
-				Location currentLocation = SimManager.getInstance().getMobilityModel().getLocation(task.getMobileDeviceId(),CloudSim.clock()+delay);
-				if(task.getSubmittedLocation().getServingWlanId() == currentLocation.getServingWlanId())
-				{
-					networkModel.downloadStarted(currentLocation, nextDeviceForNetworkModel);
-					SimLogger.getInstance().setDownloadDelay(task.getCloudletId(), delay, delayType);
-					
-					schedule(getId(), delay, nextEvent, task);
-				}
-				else
-				{
-					SimLogger.getInstance().failedDueToMobility(task.getCloudletId(), CloudSim.clock());
-				}
+				networkModel.downloadStarted(task.getSubmittedLocation(), nextDeviceForNetworkModel);
+				SimLogger.getInstance().setDownloadDelay(task.getCloudletId(), delay, delayType);
+				
+				schedule(getId(), delay, nextEvent, task);
 			}
 			else
 			{
+				handoverMonitor.unregister(task);
 				SimLogger.getInstance().failedDueToBandwidth(task.getCloudletId(), CloudSim.clock(), delayType);
 			}
 		}
@@ -178,6 +173,12 @@ public class FuzzyMobileDeviceManager extends MobileDeviceManager {
 			{
 				Kernel task = (Kernel) ev.getData();
 				networkModel.uploadFinished(task.getSubmittedLocation(), SimSettings.CLOUD_DATACENTER_ID);
+				
+				if(task.isFailedDueToHandover()){
+					releaseBoundKernel(task);
+					break;
+				}
+				
 				submitTaskToVm(task, SimSettings.VM_TYPES.CLOUD_VM);
 				break;
 			}
@@ -185,6 +186,12 @@ public class FuzzyMobileDeviceManager extends MobileDeviceManager {
 			{
 				Kernel task = (Kernel) ev.getData();
 				networkModel.uploadFinished(task.getSubmittedLocation(), SimSettings.GENERIC_EDGE_DEVICE_ID);
+				
+				if(task.isFailedDueToHandover()){
+					releaseBoundKernel(task);
+					break;
+				}
+				
 				submitTaskToVm(task, SimSettings.VM_TYPES.EDGE_VM);
 				break;
 			}
@@ -192,6 +199,12 @@ public class FuzzyMobileDeviceManager extends MobileDeviceManager {
 			{
 				Kernel task = (Kernel) ev.getData();
 				networkModel.uploadFinished(task.getSubmittedLocation(), SimSettings.GENERIC_EDGE_DEVICE_ID+1);
+				
+				if(task.isFailedDueToHandover()){
+					releaseBoundKernel(task);
+					break;
+				}
+				
 				submitTaskToVm(task, SimSettings.VM_TYPES.EDGE_VM);
 				
 				break;
@@ -201,6 +214,11 @@ public class FuzzyMobileDeviceManager extends MobileDeviceManager {
 				Kernel task = (Kernel) ev.getData();
 				networkModel.uploadFinished(task.getSubmittedLocation(), SimSettings.GENERIC_EDGE_DEVICE_ID);
 				
+				if(task.isFailedDueToHandover()){
+					releaseBoundKernel(task);
+					break;
+				}
+				
 				double manDelay =  networkModel.getUploadDelay(SimSettings.GENERIC_EDGE_DEVICE_ID, SimSettings.GENERIC_EDGE_DEVICE_ID, task);
 				if(manDelay>0){
 					networkModel.uploadStarted(task.getSubmittedLocation(), SimSettings.GENERIC_EDGE_DEVICE_ID+1);
@@ -210,6 +228,8 @@ public class FuzzyMobileDeviceManager extends MobileDeviceManager {
 				else
 				{
 					//SimLogger.printLine("Task #" + task.getCloudletId() + " cannot assign to any VM");
+					handoverMonitor.unregister(task);
+					releaseBoundKernel(task);
 					SimLogger.getInstance().rejectedDueToBandwidth(
 							task.getCloudletId(),
 							CloudSim.clock(),
@@ -224,25 +244,21 @@ public class FuzzyMobileDeviceManager extends MobileDeviceManager {
 				Kernel task = (Kernel) ev.getData();
 				networkModel.downloadFinished(task.getSubmittedLocation(), SimSettings.GENERIC_EDGE_DEVICE_ID+1);
 				
+				if(task.isFailedDueToHandover())
+					break;
+				
 				//SimLogger.printLine(CloudSim.clock() + ": " + getName() + ": task #" + task.getCloudletId() + " received from edge");
 				double delay = networkModel.getDownloadDelay(task.getAssociatedHostId(), task.getMobileDeviceId(), task);
 				
 				if(delay > 0)
 				{
-					Location currentLocation = SimManager.getInstance().getMobilityModel().getLocation(task.getMobileDeviceId(),CloudSim.clock()+delay);
-					if(task.getSubmittedLocation().getServingWlanId() == currentLocation.getServingWlanId())
-					{
-						networkModel.downloadStarted(currentLocation, SimSettings.GENERIC_EDGE_DEVICE_ID);
-						SimLogger.getInstance().setDownloadDelay(task.getCloudletId(), delay, NETWORK_DELAY_TYPES.WLAN_DELAY);
-						schedule(getId(), delay, RESPONSE_RECEIVED_BY_MOBILE_DEVICE, task);
-					}
-					else
-					{
-						SimLogger.getInstance().failedDueToMobility(task.getCloudletId(), CloudSim.clock());
-					}
+					networkModel.downloadStarted(task.getSubmittedLocation(), SimSettings.GENERIC_EDGE_DEVICE_ID);
+					SimLogger.getInstance().setDownloadDelay(task.getCloudletId(), delay, NETWORK_DELAY_TYPES.WLAN_DELAY);
+					schedule(getId(), delay, RESPONSE_RECEIVED_BY_MOBILE_DEVICE, task);
 				}
 				else
 				{
+					handoverMonitor.unregister(task);
 					SimLogger.getInstance().failedDueToBandwidth(task.getCloudletId(), CloudSim.clock(), NETWORK_DELAY_TYPES.WLAN_DELAY);
 				}
 				
@@ -257,9 +273,28 @@ public class FuzzyMobileDeviceManager extends MobileDeviceManager {
 				else if(task.getAssociatedDatacenterId() != SimSettings.MOBILE_DATACENTER_ID)
 					networkModel.downloadFinished(task.getSubmittedLocation(), SimSettings.GENERIC_EDGE_DEVICE_ID);
 				
+				if(task.isFailedDueToHandover())
+					break;
+				
+				handoverMonitor.unregister(task);
 				SimLogger.getInstance().kernelEnded(task.getCloudletId(), CloudSim.clock());
 				break;
 			}
+			case HANDOVER_OCCURRED:
+			{
+				int deviceId = (Integer) ev.getData();
+				Location newLocation = SimManager.getInstance().getMobilityModel().getLocation(deviceId, CloudSim.clock());
+				
+				//the response cannot be delivered via the access point which the task is submitted
+				for(Kernel task : handoverMonitor.getAffectedKernels(deviceId, newLocation)){
+					SimLogger.getInstance().failedDueToMobility(task.getCloudletId(), CloudSim.clock());
+					task.setFailedDueToHandover();
+					handoverMonitor.unregister(task);
+				}
+				
+				handoverMonitor.scheduleNextHandover(deviceId);
+				break;
+			}
 			default:
 				SimLogger.printLine(getName() + ".processOtherEvent(): " + "Error - event unknown by this DatacenterBroker. Terminating simulation...");
 				System.exit(0);
@@ -292,6 +327,7 @@ public class FuzzyMobileDeviceManager extends MobileDeviceManager {
 				(int)task.getCloudletFileSize(),
 				(int)task.getCloudletOutputSize(),
 				(int)task.getKernelId());
+		SimLogger.getInstance().setSubmittedWlan(task.getCloudletId(), currentLocation.getServingWlanId());
 
 		int nextHopId = SimManager.getInstance().getEdgeOrchestrator().getDeviceToOffload(task);
 		
@@ -325,8 +361,7 @@ public class FuzzyMobileDeviceManager extends MobileDeviceManager {
 				task.setAssociatedVmId(selectedVM.getId());
 				
 				//bind task to related VM
-				getCloudletList().add(task);
-				bindCloudletToVm(task.getCloudletId(), selectedVM.getId());
+				bindKernelToVm(task, selectedVM);
 				
 				if(selectedVM instanceof EdgeVM){
 					EdgeHost host = (EdgeHost)(selectedVM.getHost());
@@ -340,6 +375,7 @@ public class FuzzyMobileDeviceManager extends MobileDeviceManager {
 				
 				SimLogger.getInstance().kernelStarted(task.getCloudletId(), CloudSim.clock());
 				SimLogger.getInstance().setUploadDelay(task.getCloudletId(), delay, delayType);
+				handoverMonitor.register(task);
 
 				schedule(getId(), delay, nextEvent, task);
 			}
@@ -5,6 +5,7 @@ import edu.boun.edgecloudsim.app_generator.LoadGeneratorModel;
 import edu.boun.edgecloudsim.cloud_server.CloudServerManager;
 import edu.boun.edgecloudsim.cloud_server.DefaultCloudServerManager;
 import edu.boun.edgecloudsim.core.ScenarioFactory;
+import edu.boun.edgecloudsim.core.SimSettings;
 import edu.boun.edgecloudsim.edge_orchestrator.BasicEdgeOrchestrator;
 import edu.boun.edgecloudsim.edge_orchestrator.EdgeOrchestrator;
 import edu.boun.edgecloudsim.edge_server.DefaultEdgeServerManager;
@@ -15,6 +16,8 @@ import edu.boun.edgecloudsim.edge_client.mobile_processing_unit.DefaultMobileSer
 import edu.boun.edgecloudsim.edge_client.mobile_processing_unit.MobileServerManager;
 import edu.boun.edgecloudsim.mobility.MobilityModel;
 import edu.boun.edgecloudsim.mobility.NomadicMobility;
+import edu.boun.edgecloudsim.mobility.RandomWaypointMobility;
+import edu.boun.edgecloudsim.mobility.TraceMobility;
 import edu.boun.edgecloudsim.network.MM1Queue;
 import edu.boun.edgecloudsim.network.NetworkModel;
 
@@ -46,6 +49,16 @@ public class SampleScenarioFactory implements ScenarioFactory {
 
 	@Override
 	public MobilityModel getMobilityModel() {
+		String mobilityModel = SimSettings.getInstance().getMobilityModel();
+		if(mobilityModel.equals("RANDOM_WAYPOINT"))
+			return new RandomWaypointMobility(numOfMobileDevice, simulationTime, false);
+		else if(mobilityModel.equals("MANHATTAN_GRID"))
+			return new RandomWaypointMobility(numOfMobileDevice, simulationTime, true);
+		else if(mobilityModel.equals("TRACE"))
+			return new TraceMobility(numOfMobileDevice, simulationTime,
+					SimSettings.getInstance().getMobilityTraceFile(),
+					SimSettings.getInstance().getMobilityTraceCsvFile());
+		
 		return new NomadicMobility(numOfMobileDevice,simulationTime);
 	}
 
@@ -0,0 +1,64 @@
+/*
+ * Title:        EdgeCloudSim - Analytic Cloud Tier
+ *
+ * Description:
+ * AnalyticCloudTier models the cloud as an elastic pool of servers instead
+ * of the cloud VMs operated by CloudSim. The execution time of a kernel is
+ * its length divided by the MIPS of a cloud VM core (the cloudlet length is
+ * per PE in CloudSim, so a multi-PE kernel takes as long as a single-PE one
+ * of the same length), so no VM is selected and no datacenter event is
+ * processed; only one completion event is sent to the owner entity for
+ * each kernel.
+ *
+ * By default there is no contention (infinite-server model). If the number
+ * of servers is given, the kernels are served in arrival order by that
+ * many servers and a kernel waits until a server is free (multi-server
+ * FIFO queue, i.e. M/M/c contention for Poisson arrivals).
+ *
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ * Copyright (c) 2017, Bogazici University, Istanbul, Turkey
+ */
+
+package edu.boun.edgecloudsim.cloud_server;
+
+import java.util.PriorityQueue;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+
+import edu.boun.edgecloudsim.core.SimSettings;
+import edu.boun.edgecloudsim.edge_client.Kernel;
+
+public class AnalyticCloudTier {
+	private int entityId;
+	private int eventTag;
+	private int numOfServers;
+	private double mips;
+
+	//the times when the busy servers become free, unused for infinite servers
+	private PriorityQueue<Double> serverFreeTimes;
+
+	public AnalyticCloudTier(int _entityId, int _eventTag, int _numOfServers) {
+		entityId = _entityId;
+		eventTag = _eventTag;
+		numOfServers = _numOfServers;
+		mips = SimSettings.getInstance().getMipsForCloudVM();
+		serverFreeTimes = new PriorityQueue<Double>();
+	}
+
+	/**
+	 * schedules the completion event of the kernel, the event data is the kernel
+	 */
+	public void submit(Kernel task) {
+		double executionTime = task.getCloudletLength() / mips;
+
+		double startTime = CloudSim.clock();
+		if(numOfServers > 0){
+			//the first server becoming free serves the kernel
+			if(serverFreeTimes.size() >= numOfServers)
+				startTime = Math.max(startTime, serverFreeTimes.poll());
+			serverFreeTimes.add(startTime + executionTime);
+		}
+
+		CloudSim.send(entityId, entityId, startTime + executionTime - CloudSim.clock(), eventTag, task);
+	}
+}
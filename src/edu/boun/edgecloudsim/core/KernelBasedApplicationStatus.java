@@ -3,6 +3,7 @@ package edu.boun.edgecloudsim.core;
 import java.util.*;
 
 import edu.boun.edgecloudsim.utils.KernelBasedApplication;
+import edu.boun.edgecloudsim.utils.SimLogger;
 
 public class KernelBasedApplicationStatus {
 	
@@ -41,6 +42,7 @@ public class KernelBasedApplicationStatus {
 			mKeyMap.put(kernelIdList[i], kernelBasedApplicationId);
 		}
 		kernelBasedApplicationMap.get(kernelBasedApplicationId).addKernelIdList(kernelIdList);
+		SimLogger.getInstance().kernelBasedAppCreated(kernelBasedApplicationId, kernelIdList);
 	}
 	
 	public void addDependency(int id, int id_dependency, int kernelBasedAppId) {
@@ -136,6 +138,15 @@ public class KernelBasedApplicationStatus {
 	}
 
 	
+	/**
+	 * get the id of the kernel-based application that contains the kernel with kernel ID
+	 * @param kernelId
+	 * @return
+	 */
+	public int getKernelBasedAppId(int kernelId) {
+		return mKeyMap.get(kernelId);
+	}
+	
 	public boolean checkKernelInKBApp(int kernelId) {
 		boolean exist = mKeyMap.containsKey(kernelId);
 		return exist;
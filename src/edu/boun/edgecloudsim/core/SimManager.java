@@ -6,6 +6,14 @@
  * Network Model, Mobility Model, Edge Orchestrator to other modules
  * Critical simulation related information would be gathered via this class 
  * 
+ * If the load generator model provides a KernelPropertyStore, only the
+ * event of the next kernel is kept in the event queue; the kernels are
+ * submitted via a cursor over the store which is sorted by start time.
+ * 
+ * If the edge autoscaler is enabled, the edge VMs are added and removed
+ * at runtime by EdgeVmAutoscaler; CHECK_ALL_VM only checks the VMs
+ * defined in edge_devices.xml.
+ * 
  * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
  * Copyright (c) 2017, Bogazici University, Istanbul, Turkey
  */
@@ -21,17 +29,22 @@ import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.SimEntity;
 import org.cloudbus.cloudsim.core.SimEvent;
 
+import edu.boun.edgecloudsim.edge_orchestrator.ClusterStateSnapshot;
 import edu.boun.edgecloudsim.edge_orchestrator.EdgeOrchestrator;
 import edu.boun.edgecloudsim.edge_server.EdgeServerManager;
 import edu.boun.edgecloudsim.edge_server.EdgeVmAllocationPolicy_Custom;
+import edu.boun.edgecloudsim.edge_server.EdgeVmAutoscaler;
 import edu.boun.edgecloudsim.app_generator.LoadGeneratorModel;
 import edu.boun.edgecloudsim.cloud_server.CloudServerManager;
 import edu.boun.edgecloudsim.edge_client.MobileDeviceManager;
 import edu.boun.edgecloudsim.edge_client.mobile_processing_unit.MobileServerManager;
 import edu.boun.edgecloudsim.mobility.MobilityModel;
 import edu.boun.edgecloudsim.network.NetworkModel;
+import edu.boun.edgecloudsim.utils.FlightRecorderEvents;
 import edu.boun.edgecloudsim.utils.KernelProperty;
+import edu.boun.edgecloudsim.utils.KernelPropertyStore;
 import edu.boun.edgecloudsim.utils.SimLogger;
+import edu.boun.edgecloudsim.utils.SpatialMetrics;
 
 public class SimManager extends SimEntity {
 	private static final int CREATE_KERNEL = 0;
@@ -40,6 +53,10 @@ public class SimManager extends SimEntity {
 	private static final int PRINT_PROGRESS = 3;
 	private static final int STOP_SIMULATION = 4;
 	private static final int CREATE_KERNEL_IN_KBAPP = 5;
+	private static final int CREATE_NEXT_KERNEL_FROM_STORE = 6;
+	//names of the events above, reported to Java Flight Recorder
+	private static final String[] EVENT_NAMES = {"CREATE_KERNEL", "CHECK_ALL_VM", "GET_LOAD_LOG",
+			"PRINT_PROGRESS", "STOP_SIMULATION", "CREATE_KERNEL_IN_KBAPP", "CREATE_NEXT_KERNEL_FROM_STORE"};
 	
 	private String simScenario;
 	private String orchestratorPolicy;
@@ -53,6 +70,9 @@ public class SimManager extends SimEntity {
 	private MobileServerManager mobileServerManager;
 	private LoadGeneratorModel loadGeneratorModel;
 	private MobileDeviceManager mobileDeviceManager;
+	private ClusterStateSnapshot clusterStateSnapshot;
+	private EdgeVmAutoscaler edgeVmAutoscaler;
+	private int kernelStoreCursor;
 	
 	private static SimManager instance = null;
 	
@@ -97,6 +117,12 @@ public class SimManager extends SimEntity {
 		mobileDeviceManager = scenarioFactory.getMobileDeviceManager();
 		mobileDeviceManager.initialize();
 		
+		//Create the shared view of the edge servers used by the orchestrators
+		clusterStateSnapshot = new ClusterStateSnapshot();
+		
+		//Create the entity which adds and removes edge VMs at runtime
+		if(SimSettings.getInstance().getEdgeAutoscalerInterval() > 0)
+			edgeVmAutoscaler = new EdgeVmAutoscaler();
 		
 		instance = this;
 	}
@@ -175,6 +201,14 @@ public class SimManager extends SimEntity {
 		return mobileDeviceManager;
 	}
 	
+	public ClusterStateSnapshot getClusterStateSnapshot(){
+		return clusterStateSnapshot;
+	}
+	
+	public EdgeVmAutoscaler getEdgeVmAutoscaler(){
+		return edgeVmAutoscaler;
+	}
+	
 	@Override
 	public void startEntity() {
 		int hostCounter=0;
@@ -200,18 +234,24 @@ public class SimManager extends SimEntity {
 		KernelBasedApplicationStatus.getInstance().setSimManagerId(getId());
 		
 		//Creation of applications are scheduled here!
-		for(int i=0; i< loadGeneratorModel.getKernelPropertyList().size(); i++) {
-			int kernelId = loadGeneratorModel.getKernelPropertyList().get(i).getKernelId();
-			if (KernelBasedApplicationStatus.getInstance().checkKernelInKBApp(kernelId)) {
-				boolean ready_to_submit = KernelBasedApplicationStatus.getInstance().checkReadySubmit(kernelId);
-				if (ready_to_submit) {
+		if(loadGeneratorModel.getKernelPropertyStore() != null) {
+			kernelStoreCursor = 0;
+			scheduleNextKernelFromStore();
+		}
+		else {
+			for(int i=0; i< loadGeneratorModel.getKernelPropertyList().size(); i++) {
+				int kernelId = loadGeneratorModel.getKernelPropertyList().get(i).getKernelId();
+				if (KernelBasedApplicationStatus.getInstance().checkKernelInKBApp(kernelId)) {
+					boolean ready_to_submit = KernelBasedApplicationStatus.getInstance().checkReadySubmit(kernelId);
+					if (ready_to_submit) {
+						schedule(getId(), loadGeneratorModel.getKernelPropertyList().get(i).getStartTime(), CREATE_KERNEL, loadGeneratorModel.getKernelPropertyList().get(i));
+						KernelBasedApplicationStatus.getInstance().setKernelSubmit(kernelId);
+					}
+				}
+				else {
 					schedule(getId(), loadGeneratorModel.getKernelPropertyList().get(i).getStartTime(), CREATE_KERNEL, loadGeneratorModel.getKernelPropertyList().get(i));
-					KernelBasedApplicationStatus.getInstance().setKernelSubmit(kernelId);
 				}
 			}
-			else {
-				schedule(getId(), loadGeneratorModel.getKernelPropertyList().get(i).getStartTime(), CREATE_KERNEL, loadGeneratorModel.getKernelPropertyList().get(i));
-			}
 		}
 		
 		//Periodic event loops starts from here!
@@ -222,10 +262,29 @@ public class SimManager extends SimEntity {
 		
 		SimLogger.printLine("Done.");
 	}
+	
+	private void scheduleNextKernelFromStore() {
+		KernelPropertyStore store = loadGeneratorModel.getKernelPropertyStore();
+		if(kernelStoreCursor < store.size())
+			schedule(getId(), store.getStartTime(kernelStoreCursor) - CloudSim.clock(), CREATE_NEXT_KERNEL_FROM_STORE);
+	}
+
+	//samples the utilization of each edge host and the number of clients of each access point
+	private void addSpatialLog() {
+		SpatialMetrics spatialMetrics = SimLogger.getInstance().getSpatialMetrics();
+		for(int hostIndex=0; hostIndex<SimSettings.getInstance().getNumOfEdgeHosts(); hostIndex++)
+			spatialMetrics.addHostUtilization(hostIndex, clusterStateSnapshot.getEdgeHostUtilization(hostIndex));
+
+		for(int deviceId=0; deviceId<numOfMobileDevice; deviceId++)
+			spatialMetrics.addClient(mobilityModel.getLocation(deviceId, CloudSim.clock()).getServingWlanId());
+		spatialMetrics.endClientSample();
+	}
 
 	@Override
 	public void processEvent(SimEvent ev) {
 		synchronized(this){
+			FlightRecorderEvents.SimManagerEvent jfrEvent = new FlightRecorderEvents.SimManagerEvent();
+			jfrEvent.begin();
 			switch (ev.getTag()) {
 			case CREATE_KERNEL:
 				try {
@@ -236,6 +295,24 @@ public class SimManager extends SimEntity {
 					System.exit(0);
 				}
 				break;
+			case CREATE_NEXT_KERNEL_FROM_STORE:
+			{
+				KernelPropertyStore store = loadGeneratorModel.getKernelPropertyStore();
+				int index = kernelStoreCursor++;
+				int storedKernelId = store.getKernelId(index);
+				
+				//kernels in kernel-based applications are submitted when their dependencies are met
+				if (!KernelBasedApplicationStatus.getInstance().checkKernelInKBApp(storedKernelId)) {
+					mobileDeviceManager.submitKernel(store.get(index));
+				}
+				else if (KernelBasedApplicationStatus.getInstance().checkReadySubmit(storedKernelId)) {
+					mobileDeviceManager.submitKernel(store.get(index));
+					KernelBasedApplicationStatus.getInstance().setKernelSubmit(storedKernelId);
+				}
+				
+				scheduleNextKernelFromStore();
+				break;
+			}
 			case CHECK_ALL_VM:
 				int totalNumOfVm = SimSettings.getInstance().getNumOfEdgeVMs();
 				if(EdgeVmAllocationPolicy_Custom.getCreatedVmNum() != totalNumOfVm){
@@ -250,6 +327,10 @@ public class SimManager extends SimEntity {
 						cloudServerManager.getAvgUtilization(),
 						mobileServerManager.getAvgUtilization());
 				
+				if(SimSettings.getInstance().isSpatialLogEnabled() &&
+						CloudSim.clock() >= SimSettings.getInstance().getWarmUpPeriod())
+					addSpatialLog();
+				
 				schedule(getId(), SimSettings.getInstance().getVmLoadLogInterval(), GET_LOAD_LOG);
 				break;
 			case PRINT_PROGRESS:
@@ -277,13 +358,17 @@ public class SimManager extends SimEntity {
 				//boolean ready_to_submit = KernelBasedApplicationStatus.getInstance().checkReadySubmit(kernelId);
 				//get the kernel list index in load generator
 				int kernelPropertyIndex = loadGeneratorModel.getKernelPropertyIndex(kernelId);
-				KernelProperty kernelProperty = loadGeneratorModel.getKernelPropertyList().get(kernelPropertyIndex);
+				KernelProperty kernelProperty = (loadGeneratorModel.getKernelPropertyStore() != null) ?
+						loadGeneratorModel.getKernelPropertyStore().get(kernelPropertyIndex) :
+						loadGeneratorModel.getKernelPropertyList().get(kernelPropertyIndex);
 				mobileDeviceManager.submitKernel(kernelProperty);
 				KernelBasedApplicationStatus.getInstance().setKernelSubmit(kernelId);
 			default:
 				Log.printLine(getName() + ": unknown event type");
 				break;
 			}
+			if(ev.getTag() >= 0 && ev.getTag() < EVENT_NAMES.length)
+				jfrEvent.commit(EVENT_NAMES[ev.getTag()]);
 		}
 	}
 
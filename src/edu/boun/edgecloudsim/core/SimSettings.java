@@ -57,6 +57,10 @@ public class SimSettings {
     private double INTERVAL_TO_GET_VM_LOCATION_LOG; //minutes unit in properties file
     private boolean FILE_LOG_ENABLED; //boolean to check file logging option
     private boolean DEEP_FILE_LOG_ENABLED; //boolean to check deep file logging option
+    private boolean PARALLEL_INITIALIZATION; //boolean to check parallel model initialization option
+    private int INITIALIZATION_THREADS; //0 means number of available processors
+    private long RANDOM_SEED; //0 means a random seed is used
+    private boolean COLUMNAR_WORKLOAD_STORE; //boolean to check columnar kernel store option
 
     private int MIN_NUM_OF_MOBILE_DEVICES;
     private int MAX_NUM_OF_MOBILE_DEVICES;
@@ -91,6 +95,56 @@ public class SimSettings {
     // mean waiting time (minute) is stored for each place types
     private double[] mobilityLookUpTable;
     
+    private String MOBILITY_MODEL; //used by scenario factories to pick the mobility model
+    private double MOBILITY_MIN_SPEED; //coordinate units per second
+    private double MOBILITY_MAX_SPEED; //coordinate units per second
+    private double MOBILITY_MAX_PAUSE_TIME; //seconds unit in properties file
+    private double MOBILITY_GRID_CELL_SIZE; //coordinate units, 0 means automatic
+    private double MOBILITY_MANHATTAN_BLOCK_SIZE; //coordinate units
+    private String MOBILITY_TRACE_FILE; //binary trace file used by trace driven mobility
+    private String MOBILITY_TRACE_CSV_FILE; //optional CSV trace to be imported
+    private double MOBILITY_HANDOVER_RESOLUTION; //seconds unit in properties file
+    
+    private boolean FUZZY_DECISION_SURFACE; //use precomputed surfaces instead of FIS evaluation
+    private int FUZZY_SURFACE_GRID_POINTS; //initial number of grid points per input
+    private int FUZZY_SURFACE_MAX_GRID_POINTS; //upper limit while refining the grid
+    private double FUZZY_SURFACE_ERROR_BOUND; //allowed difference from the exact FIS output
+    
+    private boolean CACHE_PROBE_DELAYS; //share probe network delays between the decisions of the same instant
+    
+    private double BATCH_ORCHESTRATION_WINDOW; //seconds unit in properties file, 0 means per kernel decisions
+    private int LOAD_BALANCER_SAMPLE_SIZE; //d value of the POWER_OF_D and JSQ_D policies
+    
+    private boolean VIRTUAL_TIME_CLOUDLET_SCHEDULER; //use VirtualTimeCloudletScheduler instead of CloudletSchedulerTimeShared
+    
+    private int ADMISSION_QUEUE_SIZE; //max number of waiting kernels per edge host, 0 means no queue
+    private double ADMISSION_QUEUE_MAX_WAIT; //seconds unit in properties file
+    private String ADMISSION_QUEUE_DISCIPLINE; //FIFO, SJF or EDF
+    
+    private double EDGE_AUTOSCALER_INTERVAL; //seconds unit in properties file, 0 means static edge VMs
+    private int EDGE_AUTOSCALER_WINDOW; //number of samples used by the autoscaler
+    private double EDGE_AUTOSCALER_BOOT_TIME; //seconds unit in properties file
+    private double EDGE_AUTOSCALER_UPPER_UTILIZATION; //percentage
+    private double EDGE_AUTOSCALER_LOWER_UTILIZATION; //percentage
+    private double EDGE_AUTOSCALER_QUEUE_LENGTH; //avg number of waiting kernels per host, 0 means not used
+    private int EDGE_DATACENTER_GROUPS; //number of edge datacenter entities, 0 means one entity per site
+    private boolean LAZY_MOBILE_VM_CREATION; //mobile VMs are created when they are selected first
+    private boolean ANALYTIC_CLOUD_TIER; //cloud kernels are not executed on CloudSim VMs
+    private int ANALYTIC_CLOUD_SERVERS; //number of servers of the analytic cloud tier, 0 means infinite
+    private String OUTPUT_ARCHIVE; //NONE, ZIP or GZIP
+    private int OUTPUT_COMPRESSION_LEVEL; //0-9, -1 means default level
+    private boolean DECISION_TRACE_ENABLED; //binary trace of the kernel lifecycle for offline replay
+    private boolean SPATIAL_LOG_ENABLED; //per access point and per edge host metrics
+    private int RESULT_AGGREGATION_THREADS; //0 means number of available processors
+    private double DEEP_FILE_LOG_SAMPLING_RATE; //0-1, ratio of the kernels written by deep file logging
+    private String DEEP_FILE_LOG_APP_SAMPLING_RATES; //<app name>:<rate> list
+    private String DEEP_FILE_LOG_FAILURE_SAMPLING_RATES; //<kernel status>:<rate> list
+    
+    //deep file logging sampling rate of each app type
+    private double[] deepFileLogAppSamplingRates = null;
+    //deep file logging sampling rate of each failure status, -1 means the rate of the app type is used
+    private double[] deepFileLogFailureSamplingRates = null;
+    
     // following values are stored for each applications defined in applications.xml
     // [0] usage percentage (%)
     // [1] prob. of selecting cloud (%)
@@ -151,6 +205,10 @@ public class SimSettings {
 			INTERVAL_TO_GET_VM_LOCATION_LOG = (double)60 * Double.parseDouble(prop.getProperty("vm_location_check_interval")); //seconds
 			FILE_LOG_ENABLED = Boolean.parseBoolean(prop.getProperty("file_log_enabled"));
 			DEEP_FILE_LOG_ENABLED = Boolean.parseBoolean(prop.getProperty("deep_file_log_enabled"));
+			PARALLEL_INITIALIZATION = Boolean.parseBoolean(prop.getProperty("parallel_initialization", "false"));
+			INITIALIZATION_THREADS = Integer.parseInt(prop.getProperty("initialization_threads", "0"));
+			RANDOM_SEED = Long.parseLong(prop.getProperty("random_seed", "0"));
+			COLUMNAR_WORKLOAD_STORE = Boolean.parseBoolean(prop.getProperty("columnar_workload_store", "false"));
 			
 			MIN_NUM_OF_MOBILE_DEVICES = Integer.parseInt(prop.getProperty("min_number_of_mobile_devices"));
 			MAX_NUM_OF_MOBILE_DEVICES = Integer.parseInt(prop.getProperty("max_number_of_mobile_devices"));
@@ -190,6 +248,99 @@ public class SimSettings {
 				place3_mean_waiting_time  //ATTRACTIVENESS_L3
 		    };
 			
+			//continuous mobility model parameters are optional
+			MOBILITY_MODEL = prop.getProperty("mobility_model", "NOMADIC");
+			MOBILITY_MIN_SPEED = Double.parseDouble(prop.getProperty("mobility_min_speed", "0.5"));
+			MOBILITY_MAX_SPEED = Double.parseDouble(prop.getProperty("mobility_max_speed", "1.5"));
+			MOBILITY_MAX_PAUSE_TIME = Double.parseDouble(prop.getProperty("mobility_max_pause_time", "60"));
+			MOBILITY_GRID_CELL_SIZE = Double.parseDouble(prop.getProperty("mobility_grid_cell_size", "0"));
+			MOBILITY_MANHATTAN_BLOCK_SIZE = Double.parseDouble(prop.getProperty("mobility_manhattan_block_size", "1"));
+			MOBILITY_TRACE_FILE = prop.getProperty("mobility_trace_file", "");
+			MOBILITY_TRACE_CSV_FILE = prop.getProperty("mobility_trace_csv_file", "");
+			MOBILITY_HANDOVER_RESOLUTION = Double.parseDouble(prop.getProperty("mobility_handover_resolution", "1"));
+			
+			//fuzzy decision surface parameters are optional
+			FUZZY_DECISION_SURFACE = Boolean.parseBoolean(prop.getProperty("fuzzy_decision_surface", "false"));
+			FUZZY_SURFACE_GRID_POINTS = Integer.parseInt(prop.getProperty("fuzzy_surface_grid_points", "9"));
+			FUZZY_SURFACE_MAX_GRID_POINTS = Integer.parseInt(prop.getProperty("fuzzy_surface_max_grid_points", "33"));
+			FUZZY_SURFACE_ERROR_BOUND = Double.parseDouble(prop.getProperty("fuzzy_surface_error_bound", "1"));
+			
+			CACHE_PROBE_DELAYS = Boolean.parseBoolean(prop.getProperty("cache_probe_delays", "false"));
+			BATCH_ORCHESTRATION_WINDOW = Double.parseDouble(prop.getProperty("batch_orchestration_window", "0"));
+			if(BATCH_ORCHESTRATION_WINDOW > 0){
+				//batch mode always picks the least loaded VM, see BatchVmAssigner
+				for(String policy : ORCHESTRATOR_POLICIES)
+					if(!policy.equals("WORST_FIT"))
+						SimLogger.printLine("Warning: batch_orchestration_window overrides the VM selection of " + policy + " policy, the least loaded VM is used as in WORST_FIT");
+			}
+			LOAD_BALANCER_SAMPLE_SIZE = Integer.parseInt(prop.getProperty("load_balancer_sample_size", "2"));
+			if(LOAD_BALANCER_SAMPLE_SIZE < 1){
+				SimLogger.printLine("load_balancer_sample_size must be a positive number! Terminating simulation...");
+				System.exit(0);
+			}
+			
+			VIRTUAL_TIME_CLOUDLET_SCHEDULER = Boolean.parseBoolean(prop.getProperty("virtual_time_cloudlet_scheduler", "false"));
+			
+			ADMISSION_QUEUE_SIZE = Integer.parseInt(prop.getProperty("admission_queue_size", "0"));
+			ADMISSION_QUEUE_MAX_WAIT = Double.parseDouble(prop.getProperty("admission_queue_max_wait", "1"));
+			ADMISSION_QUEUE_DISCIPLINE = prop.getProperty("admission_queue_discipline", "FIFO").toUpperCase();
+			if(!ADMISSION_QUEUE_DISCIPLINE.equals("FIFO") &&
+					!ADMISSION_QUEUE_DISCIPLINE.equals("SJF") &&
+					!ADMISSION_QUEUE_DISCIPLINE.equals("EDF")){
+				SimLogger.printLine("Unknown admission_queue_discipline: " + ADMISSION_QUEUE_DISCIPLINE + "! Terminating simulation...");
+				System.exit(0);
+			}
+			
+			EDGE_AUTOSCALER_INTERVAL = Double.parseDouble(prop.getProperty("edge_autoscaler_interval", "0"));
+			EDGE_AUTOSCALER_WINDOW = Integer.parseInt(prop.getProperty("edge_autoscaler_window", "3"));
+			EDGE_AUTOSCALER_BOOT_TIME = Double.parseDouble(prop.getProperty("edge_autoscaler_boot_time", "10"));
+			EDGE_AUTOSCALER_UPPER_UTILIZATION = Double.parseDouble(prop.getProperty("edge_autoscaler_upper_utilization", "80"));
+			EDGE_AUTOSCALER_LOWER_UTILIZATION = Double.parseDouble(prop.getProperty("edge_autoscaler_lower_utilization", "20"));
+			EDGE_AUTOSCALER_QUEUE_LENGTH = Double.parseDouble(prop.getProperty("edge_autoscaler_queue_length", "0"));
+			if(EDGE_AUTOSCALER_WINDOW < 1){
+				SimLogger.printLine("edge_autoscaler_window must be a positive number! Terminating simulation...");
+				System.exit(0);
+			}
+
+			EDGE_DATACENTER_GROUPS = Integer.parseInt(prop.getProperty("edge_datacenter_groups", "0"));
+			if(EDGE_DATACENTER_GROUPS < 0){
+				SimLogger.printLine("edge_datacenter_groups cannot be negative! Terminating simulation...");
+				System.exit(0);
+			}
+
+			LAZY_MOBILE_VM_CREATION = Boolean.parseBoolean(prop.getProperty("lazy_mobile_vm_creation", "false"));
+			
+			ANALYTIC_CLOUD_TIER = Boolean.parseBoolean(prop.getProperty("analytic_cloud_tier", "false"));
+			ANALYTIC_CLOUD_SERVERS = Integer.parseInt(prop.getProperty("analytic_cloud_servers", "0"));
+			if(ANALYTIC_CLOUD_SERVERS < 0){
+				SimLogger.printLine("analytic_cloud_servers cannot be negative! Terminating simulation...");
+				System.exit(0);
+			}
+
+			OUTPUT_ARCHIVE = prop.getProperty("output_archive", "NONE").toUpperCase();
+			if(!OUTPUT_ARCHIVE.equals("NONE") &&
+					!OUTPUT_ARCHIVE.equals("ZIP") &&
+					!OUTPUT_ARCHIVE.equals("GZIP")){
+				SimLogger.printLine("Unknown output_archive: " + OUTPUT_ARCHIVE + "! Terminating simulation...");
+				System.exit(0);
+			}
+			OUTPUT_COMPRESSION_LEVEL = Integer.parseInt(prop.getProperty("output_compression_level", "-1"));
+			if(OUTPUT_COMPRESSION_LEVEL < -1 || OUTPUT_COMPRESSION_LEVEL > 9){
+				SimLogger.printLine("output_compression_level must be between -1 and 9! Terminating simulation...");
+				System.exit(0);
+			}
+			
+			DECISION_TRACE_ENABLED = Boolean.parseBoolean(prop.getProperty("decision_trace_enabled", "false"));
+			SPATIAL_LOG_ENABLED = Boolean.parseBoolean(prop.getProperty("spatial_log_enabled", "false"));
+			RESULT_AGGREGATION_THREADS = Integer.parseInt(prop.getProperty("result_aggregation_threads", "1"));
+
+			DEEP_FILE_LOG_SAMPLING_RATE = Double.parseDouble(prop.getProperty("deep_file_log_sampling_rate", "1"));
+			if(DEEP_FILE_LOG_SAMPLING_RATE < 0 || DEEP_FILE_LOG_SAMPLING_RATE > 1){
+				SimLogger.printLine("deep_file_log_sampling_rate must be between 0 and 1! Terminating simulation...");
+				System.exit(0);
+			}
+			DEEP_FILE_LOG_APP_SAMPLING_RATES = prop.getProperty("deep_file_log_app_sampling_rates", "");
+			DEEP_FILE_LOG_FAILURE_SAMPLING_RATES = prop.getProperty("deep_file_log_failure_sampling_rates", "");
 
 		} catch (IOException ex) {
 			ex.printStackTrace();
@@ -205,6 +356,7 @@ public class SimSettings {
 		}
 		parseApplicatinosXML(applicationsFile);
 		parseEdgeDevicesXML(edgeDevicesFile);
+		parseDeepFileLogSamplingRates();
 		
 		return result;
 	}
@@ -257,6 +409,40 @@ public class SimSettings {
 		return DEEP_FILE_LOG_ENABLED; 
 	}
 
+	/**
+	 * returns true if the mobility and load generator models should create
+	 * the device timelines in parallel by using per-device random substreams
+	 */
+	public boolean isParallelInitializationEnabled()
+	{
+		return PARALLEL_INITIALIZATION;
+	}
+
+	/**
+	 * returns the number of threads used in parallel initialization
+	 */
+	public int getInitializationThreads()
+	{
+		return (INITIALIZATION_THREADS > 0) ? INITIALIZATION_THREADS : Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * returns the seed of the per-device random substreams (0 means random)
+	 */
+	public long getRandomSeed()
+	{
+		return RANDOM_SEED;
+	}
+
+	/**
+	 * returns true if the load generator should keep the kernels in a
+	 * KernelPropertyStore instead of a list of KernelProperty objects
+	 */
+	public boolean isColumnarWorkloadStoreEnabled()
+	{
+		return COLUMNAR_WORKLOAD_STORE;
+	}
+
 	/**
 	 * returns deep statistics logging status from properties file
 	 */
@@ -475,6 +661,308 @@ public class SimSettings {
 		return mobilityLookUpTable;
 	}
 
+	/**
+	 * returns the name of the mobility model (e.g. NOMADIC, RANDOM_WAYPOINT)
+	 */
+	public String getMobilityModel()
+	{
+		return MOBILITY_MODEL;
+	}
+
+	/**
+	 * returns the minimum speed of the devices in continuous mobility models
+	 */
+	public double getMobilityMinSpeed()
+	{
+		return MOBILITY_MIN_SPEED;
+	}
+
+	/**
+	 * returns the maximum speed of the devices in continuous mobility models
+	 */
+	public double getMobilityMaxSpeed()
+	{
+		return MOBILITY_MAX_SPEED;
+	}
+
+	/**
+	 * returns the maximum pause time (in seconds unit) at each waypoint
+	 */
+	public double getMobilityMaxPauseTime()
+	{
+		return MOBILITY_MAX_PAUSE_TIME;
+	}
+
+	/**
+	 * returns the cell size of the access point grid (0 means automatic)
+	 */
+	public double getMobilityGridCellSize()
+	{
+		return MOBILITY_GRID_CELL_SIZE;
+	}
+
+	/**
+	 * returns the block size used by the Manhattan grid mobility model
+	 */
+	public double getMobilityManhattanBlockSize()
+	{
+		return MOBILITY_MANHATTAN_BLOCK_SIZE;
+	}
+
+	/**
+	 * returns the binary trace file used by the trace driven mobility model
+	 */
+	public String getMobilityTraceFile()
+	{
+		return MOBILITY_TRACE_FILE;
+	}
+
+	/**
+	 * returns the CSV trace file to be imported (empty if not used)
+	 */
+	public String getMobilityTraceCsvFile()
+	{
+		return MOBILITY_TRACE_CSV_FILE;
+	}
+
+	/**
+	 * returns the sampling interval (in seconds unit) used to find handover
+	 * times in mobility models which do not provide them directly
+	 */
+	public double getMobilityHandoverResolution()
+	{
+		return MOBILITY_HANDOVER_RESOLUTION;
+	}
+
+	/**
+	 * returns true if fuzzy orchestrators should use precomputed decision surfaces
+	 */
+	public boolean isFuzzyDecisionSurfaceEnabled()
+	{
+		return FUZZY_DECISION_SURFACE;
+	}
+
+	/**
+	 * returns the initial number of grid points for each input of a decision surface
+	 */
+	public int getFuzzySurfaceGridPoints()
+	{
+		return FUZZY_SURFACE_GRID_POINTS;
+	}
+
+	/**
+	 * returns the maximum number of grid points for each input of a decision surface
+	 */
+	public int getFuzzySurfaceMaxGridPoints()
+	{
+		return FUZZY_SURFACE_MAX_GRID_POINTS;
+	}
+
+	/**
+	 * returns the allowed difference between a decision surface and the exact FIS
+	 */
+	public double getFuzzySurfaceErrorBound()
+	{
+		return FUZZY_SURFACE_ERROR_BOUND;
+	}
+
+	/**
+	 * returns true if the probe network delays are cached in the cluster state snapshot
+	 */
+	public boolean isProbeDelayCachingEnabled()
+	{
+		return CACHE_PROBE_DELAYS;
+	}
+
+	/**
+	 * returns the time window of the batch VM assignment, 0 if the kernels are assigned one by one
+	 */
+	public double getBatchOrchestrationWindow()
+	{
+		return BATCH_ORCHESTRATION_WINDOW;
+	}
+
+	/**
+	 * returns the number of hosts or VMs compared by the sampled load balancing policies
+	 */
+	public int getLoadBalancerSampleSize()
+	{
+		return LOAD_BALANCER_SAMPLE_SIZE;
+	}
+
+	/**
+	 * returns true if the VMs use VirtualTimeCloudletScheduler
+	 */
+	public boolean isVirtualTimeCloudletSchedulerEnabled()
+	{
+		return VIRTUAL_TIME_CLOUDLET_SCHEDULER;
+	}
+
+	/**
+	 * returns the capacity of the admission queue of each edge host, 0 if the queue is disabled
+	 */
+	public int getAdmissionQueueSize()
+	{
+		return ADMISSION_QUEUE_SIZE;
+	}
+
+	/**
+	 * returns the max time which a kernel can wait in the admission queue
+	 */
+	public double getAdmissionQueueMaxWait()
+	{
+		return ADMISSION_QUEUE_MAX_WAIT;
+	}
+
+	/**
+	 * returns the discipline of the admission queue (FIFO, SJF or EDF)
+	 */
+	public String getAdmissionQueueDiscipline()
+	{
+		return ADMISSION_QUEUE_DISCIPLINE;
+	}
+
+	/**
+	 * returns the control interval of the edge VM autoscaler, 0 if the autoscaler is disabled
+	 */
+	public double getEdgeAutoscalerInterval()
+	{
+		return EDGE_AUTOSCALER_INTERVAL;
+	}
+
+	/**
+	 * returns the number of samples which the autoscaler decisions are based on
+	 */
+	public int getEdgeAutoscalerWindow()
+	{
+		return EDGE_AUTOSCALER_WINDOW;
+	}
+
+	/**
+	 * returns the time needed to boot an edge VM created by the autoscaler
+	 */
+	public double getEdgeAutoscalerBootTime()
+	{
+		return EDGE_AUTOSCALER_BOOT_TIME;
+	}
+
+	/**
+	 * returns the host utilization above which a VM is added to the host
+	 */
+	public double getEdgeAutoscalerUpperUtilization()
+	{
+		return EDGE_AUTOSCALER_UPPER_UTILIZATION;
+	}
+
+	/**
+	 * returns the host utilization below which a VM is removed from the host
+	 */
+	public double getEdgeAutoscalerLowerUtilization()
+	{
+		return EDGE_AUTOSCALER_LOWER_UTILIZATION;
+	}
+
+	/**
+	 * returns the number of waiting kernels above which a VM is added to the host, 0 if not used
+	 */
+	public double getEdgeAutoscalerQueueLength()
+	{
+		return EDGE_AUTOSCALER_QUEUE_LENGTH;
+	}
+
+	/**
+	 * returns the number of datacenter entities which the edge sites are
+	 * grouped into, 0 if each site has its own datacenter entity
+	 */
+	public int getEdgeDatacenterGroups()
+	{
+		return EDGE_DATACENTER_GROUPS;
+	}
+
+	/**
+	 * returns true if the mobile VMs are created on demand
+	 */
+	public boolean isLazyMobileVmCreationEnabled()
+	{
+		return LAZY_MOBILE_VM_CREATION;
+	}
+
+	/**
+	 * returns true if the cloud tier is modelled analytically
+	 */
+	public boolean isAnalyticCloudTierEnabled()
+	{
+		return ANALYTIC_CLOUD_TIER;
+	}
+
+	/**
+	 * returns the number of servers of the analytic cloud tier, 0 if there is no contention
+	 */
+	public int getAnalyticCloudServers()
+	{
+		return ANALYTIC_CLOUD_SERVERS;
+	}
+
+	/**
+	 * returns the archive type of the log files (NONE, ZIP or GZIP)
+	 */
+	public String getOutputArchive()
+	{
+		return OUTPUT_ARCHIVE;
+	}
+
+	/**
+	 * returns the compression level of the archived log files, -1 for the default level
+	 */
+	public int getOutputCompressionLevel()
+	{
+		return OUTPUT_COMPRESSION_LEVEL;
+	}
+
+	/**
+	 * returns true if the decision trace of the kernels is written (see DecisionTrace)
+	 */
+	public boolean isDecisionTraceEnabled()
+	{
+		return DECISION_TRACE_ENABLED;
+	}
+
+	/**
+	 * returns true if the per access point and per edge host metrics are
+	 * sampled and written (see SpatialMetrics)
+	 */
+	public boolean isSpatialLogEnabled()
+	{
+		return SPATIAL_LOG_ENABLED;
+	}
+
+	/**
+	 * returns the number of threads used to aggregate the results of the kernels
+	 * at the end of a scenario, 1 means the results are aggregated sequentially
+	 */
+	public int getResultAggregationThreads()
+	{
+		return (RESULT_AGGREGATION_THREADS > 0) ? RESULT_AGGREGATION_THREADS : Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * returns the ratio (0-1) of the kernels of the given app type which are
+	 * written to the _SUCCESS and _FAIL logs when deep file logging is enabled
+	 */
+	public double getDeepFileLogSamplingRate(int applicationType)
+	{
+		return deepFileLogAppSamplingRates[applicationType];
+	}
+
+	/**
+	 * returns the ratio (0-1) of the kernels failed with the given status
+	 * which are written to the _FAIL log, -1 means the rate of the app type is used
+	 */
+	public double getDeepFileLogFailureSamplingRate(SimLogger.KERNEL_STATUS status)
+	{
+		return deepFileLogFailureSamplingRates[status.ordinal()];
+	}
+
 	/**
 	 * returns application characteristic within two dimensional array
 	 * the result includes the following values for each application type
@@ -775,6 +1263,75 @@ public class SimSettings {
 		System.out.println("Applications.xml loaded");
 	}
 
+	/*
+	 * resolves the <name>:<rate> lists of the deep file logging sampling rates,
+	 * the application names are known after applications.xml is parsed
+	 */
+	private void parseDeepFileLogSamplingRates()
+	{
+		deepFileLogAppSamplingRates = new double[applicationNames.length];
+		for(int i=0; i<applicationNames.length; i++)
+			deepFileLogAppSamplingRates[i] = DEEP_FILE_LOG_SAMPLING_RATE;
+
+		deepFileLogFailureSamplingRates = new double[SimLogger.KERNEL_STATUS.values().length];
+		for(int i=0; i<deepFileLogFailureSamplingRates.length; i++)
+			deepFileLogFailureSamplingRates[i] = -1;
+
+		for(String entry : DEEP_FILE_LOG_APP_SAMPLING_RATES.split(",")){
+			if(entry.trim().isEmpty())
+				continue;
+			int appIndex = -1;
+			for(int i=0; i<applicationNames.length; i++)
+				if(applicationNames[i].equals(getSamplingKey(entry)))
+					appIndex = i;
+			if(appIndex == -1){
+				SimLogger.printLine("Unknown application in deep_file_log_app_sampling_rates: " + entry + "! Terminating simulation...");
+				System.exit(0);
+			}
+			deepFileLogAppSamplingRates[appIndex] = getSamplingRate(entry);
+		}
+
+		for(String entry : DEEP_FILE_LOG_FAILURE_SAMPLING_RATES.split(",")){
+			if(entry.trim().isEmpty())
+				continue;
+			SimLogger.KERNEL_STATUS status = null;
+			try {
+				status = SimLogger.KERNEL_STATUS.valueOf(getSamplingKey(entry));
+			} catch (IllegalArgumentException e) {
+			}
+			if(status != SimLogger.KERNEL_STATUS.REJECTED_DUE_TO_VM_CAPACITY &&
+					status != SimLogger.KERNEL_STATUS.REJECTED_DUE_TO_BANDWIDTH &&
+					status != SimLogger.KERNEL_STATUS.UNFINISHED_DUE_TO_BANDWIDTH &&
+					status != SimLogger.KERNEL_STATUS.UNFINISHED_DUE_TO_MOBILITY){
+				SimLogger.printLine("Unknown failure in deep_file_log_failure_sampling_rates: " + entry + "! Terminating simulation...");
+				System.exit(0);
+			}
+			deepFileLogFailureSamplingRates[status.ordinal()] = getSamplingRate(entry);
+		}
+	}
+
+	private String getSamplingKey(String entry)
+	{
+		int separator = entry.lastIndexOf(':');
+		return (separator < 0) ? entry.trim() : entry.substring(0, separator).trim();
+	}
+
+	private double getSamplingRate(String entry)
+	{
+		int separator = entry.lastIndexOf(':');
+		double rate = -1;
+		try {
+			if(separator >= 0)
+				rate = Double.parseDouble(entry.substring(separator + 1).trim());
+		} catch (NumberFormatException e) {
+		}
+		if(rate < 0 || rate > 1){
+			SimLogger.printLine("Sampling rate of " + entry.trim() + " must be between 0 and 1! Terminating simulation...");
+			System.exit(0);
+		}
+		return rate;
+	}
+
 	private void parseEdgeDevicesXML(String filePath)
 	{
 		try {	
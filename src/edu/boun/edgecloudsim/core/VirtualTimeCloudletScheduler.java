@@ -0,0 +1,387 @@
+/*
+ * Title:        EdgeCloudSim - Virtual Time Cloudlet Scheduler
+ *
+ * Description:
+ * VirtualTimeCloudletScheduler implements the processor sharing policy of
+ * CloudSim's CloudletSchedulerTimeShared without iterating over the
+ * executing cloudlets on each update.
+ *
+ * All executing cloudlets progress with the same rate per PE, so the
+ * scheduler keeps a virtual time which is the number of instructions
+ * executed by a cloudlet since the VM is started. A cloudlet finishes when
+ * the virtual time reaches its virtual finish time, which is computed once
+ * when the cloudlet is submitted. The cloudlets are kept in a min-heap
+ * ordered by the virtual finish time. Therefore the submission, the update
+ * and the next completion query take O(log n) time.
+ *
+ * CloudSim truncates the progress of each cloudlet to whole instructions
+ * on each update, and the progress depends on the number of PEs of the
+ * cloudlet. The virtual time is kept as an integer for each distinct
+ * number of PEs, so the completion times are exactly the same as the
+ * completion times of CloudletSchedulerTimeShared.
+ *
+ * The total CPU utilization is increased when a cloudlet is submitted.
+ * It is summed again in submission order only if a cloudlet has finished
+ * since the last query, so the result is bitwise equal to the sum computed
+ * by CloudletSchedulerTimeShared; otherwise the rounding errors of the
+ * subtractions could change the decisions of the orchestrators.
+ *
+ * The utilization models of the cloudlets should not depend on time,
+ * which is the case for CpuUtilizationModel_Custom.
+ *
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ * Copyright (c) 2017, Bogazici University, Istanbul, Turkey
+ */
+
+package edu.boun.edgecloudsim.core;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.PriorityQueue;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.CloudletScheduler;
+import org.cloudbus.cloudsim.Consts;
+import org.cloudbus.cloudsim.ResCloudlet;
+import org.cloudbus.cloudsim.core.CloudSim;
+
+public class VirtualTimeCloudletScheduler extends CloudletScheduler {
+	private long sequence;
+	private int pesInUse;
+	private double totalUtilization;
+	private boolean utilizationValid;
+
+	//executing cloudlets grouped by their number of PEs
+	private Map<Integer, CloudletGroup> groups;
+	private Map<Integer, Entry> executingCloudlets; //kept in submission order
+	private List<Entry> pausedCloudlets;
+	private ArrayDeque<ResCloudlet> finishedCloudlets;
+
+	public VirtualTimeCloudletScheduler() {
+		super();
+		sequence = 0;
+		pesInUse = 0;
+		totalUtilization = 0;
+		utilizationValid = true;
+		groups = new TreeMap<Integer, CloudletGroup>();
+		executingCloudlets = new LinkedHashMap<Integer, Entry>();
+		pausedCloudlets = new ArrayList<Entry>();
+		finishedCloudlets = new ArrayDeque<ResCloudlet>();
+	}
+
+	@Override
+	public double updateVmProcessing(double currentTime, List<Double> mipsShare) {
+		setCurrentMipsShare(mipsShare);
+		double timeSpan = currentTime - getPreviousTime();
+		double capacity = getCapacity(mipsShare);
+		for(CloudletGroup group : groups.values())
+			group.virtualTime += (long)(capacity * timeSpan * group.numberOfPes * Consts.MILLION);
+
+		if(executingCloudlets.isEmpty()){
+			setPreviousTime(currentTime);
+			return 0.0;
+		}
+
+		//CloudSim finishes a cloudlet when less than 1 MI is remaining
+		List<Entry> finished = new ArrayList<Entry>();
+		for(CloudletGroup group : groups.values()){
+			while(!group.cloudlets.isEmpty() && getRemainingLength(group.cloudlets.peek()) == 0)
+				finished.add(group.cloudlets.poll());
+		}
+
+		//the finished cloudlets are reported in submission order like CloudSim does
+		if(finished.size() > 1)
+			Collections.sort(finished, (a, b) -> Long.compare(a.sequence, b.sequence));
+		for(Entry entry : finished){
+			removeEntry(entry);
+			cloudletFinish(entry.rcl);
+		}
+
+		double nextEvent = Double.MAX_VALUE;
+		capacity = getCapacity(mipsShare);
+		for(CloudletGroup group : groups.values()){
+			if(group.cloudlets.isEmpty())
+				continue;
+
+			double estimatedFinishTime = currentTime + getRemainingLength(group.cloudlets.peek()) / (capacity * group.numberOfPes);
+			if(estimatedFinishTime - currentTime < CloudSim.getMinTimeBetweenEvents())
+				estimatedFinishTime = currentTime + CloudSim.getMinTimeBetweenEvents();
+			if(estimatedFinishTime < nextEvent)
+				nextEvent = estimatedFinishTime;
+		}
+
+		setPreviousTime(currentTime);
+		return nextEvent;
+	}
+
+	/**
+	 * returns the MIPS of a PE given to each cloudlet PE, the PEs of
+	 * the VM are shared if there are more cloudlet PEs than VM PEs
+	 */
+	protected double getCapacity(List<Double> mipsShare) {
+		double capacity = 0.0;
+		int cpus = 0;
+		for(Double mips : mipsShare){
+			capacity += mips;
+			if(mips > 0.0)
+				cpus++;
+		}
+
+		if(pesInUse > cpus)
+			return capacity / pesInUse;
+		return capacity / cpus;
+	}
+
+	//remaining length of the cloudlet in MI, rounded down like ResCloudlet does
+	private long getRemainingLength(Entry entry) {
+		long remaining = entry.finishTag - entry.group.virtualTime;
+		return (remaining < 0) ? 0 : remaining / Consts.MILLION;
+	}
+
+	//reports the instructions executed since the last call to the ResCloudlet
+	private void updateFinishedSoFar(Entry entry) {
+		long executed = entry.group.virtualTime - entry.startTag;
+		entry.rcl.updateCloudletFinishedSoFar(executed - entry.reportedInstructions);
+		entry.reportedInstructions = executed;
+	}
+
+	private void addEntry(Entry entry) {
+		int numberOfPes = entry.rcl.getNumberOfPes();
+		CloudletGroup group = groups.get(numberOfPes);
+		if(group == null){
+			group = new CloudletGroup(numberOfPes);
+			groups.put(numberOfPes, group);
+		}
+
+		//the instructions executed before a pause are taken into account
+		entry.group = group;
+		entry.sequence = sequence++;
+		entry.startTag = group.virtualTime - entry.reportedInstructions;
+		entry.finishTag = entry.startTag + entry.rcl.getCloudletTotalLength() * Consts.MILLION;
+
+		group.cloudlets.add(entry);
+		executingCloudlets.put(entry.rcl.getCloudletId(), entry);
+		pesInUse += numberOfPes;
+		totalUtilization += entry.utilization;
+	}
+
+	//the caller should remove the entry from the heap of its group
+	private void removeEntry(Entry entry) {
+		executingCloudlets.remove(entry.rcl.getCloudletId());
+		updateFinishedSoFar(entry);
+		pesInUse -= entry.rcl.getNumberOfPes();
+		utilizationValid = false;
+	}
+
+	@Override
+	public double cloudletSubmit(Cloudlet cloudlet, double fileTransferTime) {
+		ResCloudlet rcl = new ResCloudlet(cloudlet);
+		rcl.setCloudletStatus(Cloudlet.INEXEC);
+		for(int i=0; i<cloudlet.getNumberOfPes(); i++)
+			rcl.setMachineAndPeId(0, i);
+
+		//the time of the file transfer is added to the cloudlet length
+		pesInUse += cloudlet.getNumberOfPes();
+		double capacity = getCapacity(getCurrentMipsShare());
+		pesInUse -= cloudlet.getNumberOfPes();
+		cloudlet.setCloudletLength((long)(cloudlet.getCloudletLength() + capacity * fileTransferTime));
+
+		Entry entry = new Entry();
+		entry.rcl = rcl;
+		entry.utilization = cloudlet.getUtilizationOfCpu(CloudSim.clock());
+		addEntry(entry);
+
+		return cloudlet.getCloudletLength() / capacity;
+	}
+
+	@Override
+	public double cloudletSubmit(Cloudlet cloudlet) {
+		return cloudletSubmit(cloudlet, 0.0);
+	}
+
+	@Override
+	public Cloudlet cloudletCancel(int cloudletId) {
+		for(ResCloudlet rcl : finishedCloudlets){
+			if(rcl.getCloudletId() == cloudletId){
+				finishedCloudlets.remove(rcl);
+				return rcl.getCloudlet();
+			}
+		}
+
+		Entry entry = executingCloudlets.get(cloudletId);
+		if(entry != null){
+			entry.group.cloudlets.remove(entry);
+			removeEntry(entry);
+			entry.rcl.finalizeCloudlet();
+			entry.rcl.setCloudletStatus(Cloudlet.CANCELED);
+			return entry.rcl.getCloudlet();
+		}
+
+		for(int i=0; i<pausedCloudlets.size(); i++){
+			entry = pausedCloudlets.get(i);
+			if(entry.rcl.getCloudletId() == cloudletId){
+				pausedCloudlets.remove(i);
+				entry.rcl.setCloudletStatus(Cloudlet.CANCELED);
+				return entry.rcl.getCloudlet();
+			}
+		}
+
+		return null;
+	}
+
+	@Override
+	public boolean cloudletPause(int cloudletId) {
+		Entry entry = executingCloudlets.get(cloudletId);
+		if(entry == null)
+			return false;
+
+		entry.group.cloudlets.remove(entry);
+		removeEntry(entry);
+		entry.rcl.setCloudletStatus(Cloudlet.PAUSED);
+		pausedCloudlets.add(entry);
+		return true;
+	}
+
+	@Override
+	public double cloudletResume(int cloudletId) {
+		for(int i=0; i<pausedCloudlets.size(); i++){
+			Entry entry = pausedCloudlets.get(i);
+			if(entry.rcl.getCloudletId() == cloudletId){
+				pausedCloudlets.remove(i);
+				entry.rcl.setCloudletStatus(Cloudlet.INEXEC);
+				addEntry(entry);
+				return CloudSim.clock() + entry.rcl.getRemainingCloudletLength() /
+						(getCapacity(getCurrentMipsShare()) * entry.rcl.getNumberOfPes());
+			}
+		}
+		return 0.0;
+	}
+
+	@Override
+	public void cloudletFinish(ResCloudlet rcl) {
+		rcl.setCloudletStatus(Cloudlet.SUCCESS);
+		rcl.finalizeCloudlet();
+		finishedCloudlets.add(rcl);
+	}
+
+	@Override
+	public int getCloudletStatus(int cloudletId) {
+		Entry entry = executingCloudlets.get(cloudletId);
+		if(entry != null)
+			return entry.rcl.getCloudletStatus();
+
+		for(Entry pausedEntry : pausedCloudlets)
+			if(pausedEntry.rcl.getCloudletId() == cloudletId)
+				return pausedEntry.rcl.getCloudletStatus();
+
+		return -1;
+	}
+
+	@Override
+	public boolean isFinishedCloudlets() {
+		return !finishedCloudlets.isEmpty();
+	}
+
+	@Override
+	public Cloudlet getNextFinishedCloudlet() {
+		ResCloudlet rcl = finishedCloudlets.poll();
+		return (rcl == null) ? null : rcl.getCloudlet();
+	}
+
+	@Override
+	public int runningCloudlets() {
+		return executingCloudlets.size();
+	}
+
+	@Override
+	public Cloudlet migrateCloudlet() {
+		for(CloudletGroup group : groups.values()){
+			Entry entry = group.cloudlets.poll();
+			if(entry != null){
+				removeEntry(entry);
+				entry.rcl.finalizeCloudlet();
+				return entry.rcl.getCloudlet();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * returns the sum of the CPU utilization of the executing cloudlets
+	 */
+	@Override
+	public double getTotalUtilizationOfCpu(double time) {
+		if(!utilizationValid){
+			totalUtilization = 0;
+			for(Entry entry : executingCloudlets.values())
+				totalUtilization += entry.utilization;
+			utilizationValid = true;
+		}
+		return totalUtilization;
+	}
+
+	@Override
+	public List<Double> getCurrentRequestedMips() {
+		return new ArrayList<Double>();
+	}
+
+	@Override
+	public double getTotalCurrentAvailableMipsForCloudlet(ResCloudlet rcl, List<Double> mipsShare) {
+		return getCapacity(getCurrentMipsShare());
+	}
+
+	@Override
+	public double getTotalCurrentAllocatedMipsForCloudlet(ResCloudlet rcl, double time) {
+		return 0.0;
+	}
+
+	@Override
+	public double getTotalCurrentRequestedMipsForCloudlet(ResCloudlet rcl, double time) {
+		return 0.0;
+	}
+
+	@Override
+	public double getCurrentRequestedUtilizationOfRam() {
+		double ram = 0;
+		for(Entry entry : executingCloudlets.values())
+			ram += entry.rcl.getCloudlet().getUtilizationOfRam(CloudSim.clock());
+		return ram;
+	}
+
+	@Override
+	public double getCurrentRequestedUtilizationOfBw() {
+		double bw = 0;
+		for(Entry entry : executingCloudlets.values())
+			bw += entry.rcl.getCloudlet().getUtilizationOfBw(CloudSim.clock());
+		return bw;
+	}
+
+	private static class CloudletGroup {
+		private int numberOfPes;
+		private long virtualTime; //instructions executed by a cloudlet of the group
+		private PriorityQueue<Entry> cloudlets;
+
+		CloudletGroup(int _numberOfPes) {
+			numberOfPes = _numberOfPes;
+			virtualTime = 0;
+			//ties are broken by submission order
+			cloudlets = new PriorityQueue<Entry>((a, b) -> (a.finishTag != b.finishTag) ?
+					Long.compare(a.finishTag, b.finishTag) : Long.compare(a.sequence, b.sequence));
+		}
+	}
+
+	private static class Entry {
+		private ResCloudlet rcl;
+		private CloudletGroup group;
+		private long sequence;
+		private long startTag;
+		private long finishTag;
+		private long reportedInstructions;
+		private double utilization;
+	}
+}
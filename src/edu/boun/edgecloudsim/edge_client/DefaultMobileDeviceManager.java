@@ -5,6 +5,15 @@
  * DefaultMobileDeviceManager is responsible for submitting the tasks to the related
  * device by using the Edge Orchestrator. It also takes proper actions 
  * when the execution of the tasks are finished.
+ * In-flight tasks are registered to a HandoverMonitor, so mobility
+ * failures are detected when the serving WLAN of the device changes.
+ * If a batch orchestration window is configured, the tasks received by
+ * the servers are assigned to the VMs together via BatchVmAssigner.
+ * If an admission queue is configured, the tasks which cannot be placed
+ * on an edge VM wait in the AdmissionQueue of the host instead of being
+ * rejected, and they are placed when a task finishes on the host.
+ * If the analytic cloud tier is enabled, the tasks received by the cloud
+ * are completed by AnalyticCloudTier without any VM.
  * By default, DefaultMobileDeviceManager sends tasks to the edge servers or
  * cloud servers. If you want to use different topology, for example
  * MAN edge server, you should modify the flow defined in this class.
@@ -24,11 +33,15 @@ import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.CloudSimTags;
 import org.cloudbus.cloudsim.core.SimEvent;
 
+import edu.boun.edgecloudsim.cloud_server.AnalyticCloudTier;
 import edu.boun.edgecloudsim.core.SimManager;
 import edu.boun.edgecloudsim.core.SimSettings;
 import edu.boun.edgecloudsim.core.SimSettings.NETWORK_DELAY_TYPES;
 import edu.boun.edgecloudsim.core.KernelBasedApplicationStatus;
+import edu.boun.edgecloudsim.edge_orchestrator.BatchVmAssigner;
+import edu.boun.edgecloudsim.edge_server.AdmissionQueue;
 import edu.boun.edgecloudsim.network.NetworkModel;
+import edu.boun.edgecloudsim.utils.FlightRecorderEvents;
 import edu.boun.edgecloudsim.utils.KernelProperty;
 import edu.boun.edgecloudsim.utils.Location;
 import edu.boun.edgecloudsim.utils.SimLogger;
@@ -38,10 +51,34 @@ public class DefaultMobileDeviceManager extends MobileDeviceManager {
 	private static final int REQUEST_RECEIVED_BY_CLOUD = BASE + 1;
 	private static final int REQUEST_RECIVED_BY_EDGE_DEVICE = BASE + 2;
 	private static final int RESPONSE_RECEIVED_BY_MOBILE_DEVICE = BASE + 3;
+	private static final int HANDOVER_OCCURRED = BASE + 4;
+	private static final int BATCH_WINDOW_EXPIRED = BASE + 5;
+	private static final int ADMISSION_QUEUE_TIMEOUT = BASE + 6;
+	private static final int ADMISSION_QUEUE_RELEASE = BASE + 7;
+	private static final int ANALYTIC_CLOUD_COMPLETED = BASE + 8;
 	private int taskIdCounter=0;
+	private HandoverMonitor handoverMonitor;
+	private BatchVmAssigner batchVmAssigner;
+	private AdmissionQueue admissionQueue;
+	private AnalyticCloudTier analyticCloudTier;
 	
 	
 	public DefaultMobileDeviceManager() throws Exception{
+		handoverMonitor = new HandoverMonitor(getId(), HANDOVER_OCCURRED);
+		
+		double window = SimSettings.getInstance().getBatchOrchestrationWindow();
+		if(window > 0)
+			batchVmAssigner = new BatchVmAssigner(getId(), BATCH_WINDOW_EXPIRED, window);
+		
+		int queueSize = SimSettings.getInstance().getAdmissionQueueSize();
+		if(queueSize > 0)
+			admissionQueue = new AdmissionQueue(getId(), ADMISSION_QUEUE_TIMEOUT, queueSize,
+					SimSettings.getInstance().getAdmissionQueueMaxWait(),
+					SimSettings.getInstance().getAdmissionQueueDiscipline());
+		
+		if(SimSettings.getInstance().isAnalyticCloudTierEnabled())
+			analyticCloudTier = new AnalyticCloudTier(getId(), ANALYTIC_CLOUD_COMPLETED,
+					SimSettings.getInstance().getAnalyticCloudServers());
 	}
 
 
@@ -49,6 +86,13 @@ public class DefaultMobileDeviceManager extends MobileDeviceManager {
 	public void initialize() {
 	}
 	
+	/**
+	 * returns the admission queue of the edge hosts, null if it is disabled
+	 */
+	public AdmissionQueue getAdmissionQueue() {
+		return admissionQueue;
+	}
+	
 	@Override
 	public UtilizationModel getCpuUtilizationModel() {
 		return new CpuUtilizationModel_Custom();
@@ -79,6 +123,7 @@ public class DefaultMobileDeviceManager extends MobileDeviceManager {
 		if (KernelBasedApplicationStatus.getInstance().checkKernelInKBApp(kernelId)) {
 			int simManagerId = KernelBasedApplicationStatus.getInstance().getSimManagerId();
 			// in the meanwhile set the kernel as finished 
+			SimLogger.getInstance().kernelInKBAppFinished(kernelId);
 			List<Integer> kernelListReadySubmit = KernelBasedApplicationStatus.getInstance().getKernelSubmit(kernelId);
 			for (int i=0; i<kernelListReadySubmit.size(); i++) {
 				// send the event to SimManager
@@ -94,6 +139,14 @@ public class DefaultMobileDeviceManager extends MobileDeviceManager {
 			*/
 		}
 		
+		//the capacity used by the kernel is released, so a waiting kernel may be placed
+		if(admissionQueue != null && kernel.getAssociatedDatacenterId() != SimSettings.CLOUD_DATACENTER_ID)
+			releaseWaitingKernel(kernel.getAssociatedHostId());
+		
+		//the mobility failure is already logged at the handover time
+		if(kernel.isFailedDueToHandover())
+			return;
+		
 		SimLogger.getInstance().kernelExecuted(kernel.getCloudletId());
 
 		if(kernel.getAssociatedDatacenterId() == SimSettings.CLOUD_DATACENTER_ID){
@@ -101,20 +154,13 @@ public class DefaultMobileDeviceManager extends MobileDeviceManager {
 			double WanDelay = networkModel.getDownloadDelay(SimSettings.CLOUD_DATACENTER_ID, kernel.getMobileDeviceId(), kernel);
 			if(WanDelay > 0)
 			{
-				Location currentLocation = SimManager.getInstance().getMobilityModel().getLocation(kernel.getMobileDeviceId(),CloudSim.clock()+WanDelay);
-				if(kernel.getSubmittedLocation().getServingWlanId() == currentLocation.getServingWlanId())
-				{
-					networkModel.downloadStarted(kernel.getSubmittedLocation(), SimSettings.CLOUD_DATACENTER_ID);
-					SimLogger.getInstance().setDownloadDelay(kernel.getCloudletId(), WanDelay, NETWORK_DELAY_TYPES.WAN_DELAY);
-					schedule(getId(), WanDelay, RESPONSE_RECEIVED_BY_MOBILE_DEVICE, kernel);
-				}
-				else
-				{
-					SimLogger.getInstance().failedDueToMobility(kernel.getCloudletId(), CloudSim.clock());
-				}
+				networkModel.downloadStarted(kernel.getSubmittedLocation(), SimSettings.CLOUD_DATACENTER_ID);
+				SimLogger.getInstance().setDownloadDelay(kernel.getCloudletId(), WanDelay, NETWORK_DELAY_TYPES.WAN_DELAY);
+				schedule(getId(), WanDelay, RESPONSE_RECEIVED_BY_MOBILE_DEVICE, kernel);
 			}
 			else
 			{
+				handoverMonitor.unregister(kernel);
 				SimLogger.getInstance().failedDueToBandwidth(kernel.getCloudletId(), CloudSim.clock(), NETWORK_DELAY_TYPES.WAN_DELAY);
 			}
 		}
@@ -123,20 +169,13 @@ public class DefaultMobileDeviceManager extends MobileDeviceManager {
 			double WlanDelay = networkModel.getDownloadDelay(kernel.getAssociatedHostId(), kernel.getMobileDeviceId(), kernel);
 			if(WlanDelay > 0)
 			{
-				Location currentLocation = SimManager.getInstance().getMobilityModel().getLocation(kernel.getMobileDeviceId(),CloudSim.clock()+WlanDelay);
-				if(kernel.getSubmittedLocation().getServingWlanId() == currentLocation.getServingWlanId())
-				{
-					networkModel.downloadStarted(currentLocation, SimSettings.GENERIC_EDGE_DEVICE_ID);
-					SimLogger.getInstance().setDownloadDelay(kernel.getCloudletId(), WlanDelay, NETWORK_DELAY_TYPES.WLAN_DELAY);
-					schedule(getId(), WlanDelay, RESPONSE_RECEIVED_BY_MOBILE_DEVICE, kernel);
-				}
-				else
-				{
-					SimLogger.getInstance().failedDueToMobility(kernel.getCloudletId(), CloudSim.clock());
-				}
+				networkModel.downloadStarted(kernel.getSubmittedLocation(), SimSettings.GENERIC_EDGE_DEVICE_ID);
+				SimLogger.getInstance().setDownloadDelay(kernel.getCloudletId(), WlanDelay, NETWORK_DELAY_TYPES.WLAN_DELAY);
+				schedule(getId(), WlanDelay, RESPONSE_RECEIVED_BY_MOBILE_DEVICE, kernel);
 			}
 			else
 			{
+				handoverMonitor.unregister(kernel);
 				SimLogger.getInstance().failedDueToBandwidth(kernel.getCloudletId(), CloudSim.clock(), NETWORK_DELAY_TYPES.WLAN_DELAY);
 			}
 		}
@@ -158,7 +197,15 @@ public class DefaultMobileDeviceManager extends MobileDeviceManager {
 
 				networkModel.uploadFinished(task.getSubmittedLocation(), SimSettings.CLOUD_DATACENTER_ID);
 
-				submitTaskToVm(task,0,SimSettings.CLOUD_DATACENTER_ID);
+				if(task.isFailedDueToHandover())
+					break;
+
+				if(analyticCloudTier != null)
+					submitTaskToAnalyticCloud(task);
+				else if(batchVmAssigner != null)
+					batchVmAssigner.add(task, SimSettings.CLOUD_DATACENTER_ID);
+				else
+					submitTaskToVm(task,0,SimSettings.CLOUD_DATACENTER_ID);
 				
 				break;
 			}
@@ -168,8 +215,46 @@ public class DefaultMobileDeviceManager extends MobileDeviceManager {
 				
 				networkModel.uploadFinished(task.getSubmittedLocation(), SimSettings.GENERIC_EDGE_DEVICE_ID);
 				
-				submitTaskToVm(task, 0, SimSettings.GENERIC_EDGE_DEVICE_ID);
+				if(task.isFailedDueToHandover())
+					break;
+				
+				if(batchVmAssigner != null)
+					batchVmAssigner.add(task, SimSettings.GENERIC_EDGE_DEVICE_ID);
+				else
+					submitTaskToVm(task, 0, SimSettings.GENERIC_EDGE_DEVICE_ID);
+				
+				break;
+			}
+			case BATCH_WINDOW_EXPIRED:
+			{
+				for(BatchVmAssigner.Assignment assignment : batchVmAssigner.assign())
+					submitTaskToVm(assignment.getTask(), assignment.getVm(), 0, assignment.getDatacenterId());
+				
+				break;
+			}
+			case ADMISSION_QUEUE_TIMEOUT:
+			{
+				AdmissionQueue.QueuedKernel queuedKernel = admissionQueue.expire(ev.getData());
+				
+				//the kernel is already placed or failed due to mobility
+				if(queuedKernel == null || queuedKernel.getTask().isFailedDueToHandover())
+					break;
 				
+				handoverMonitor.unregister(queuedKernel.getTask());
+				SimLogger.getInstance().setQueueDelay(queuedKernel.getTask().getCloudletId(), queuedKernel.getWaitingTime());
+				SimLogger.getInstance().rejectedDueToVMCapacity(queuedKernel.getTask().getCloudletId(),
+						CloudSim.clock(), SimSettings.VM_TYPES.EDGE_VM.ordinal());
+				break;
+			}
+			case ADMISSION_QUEUE_RELEASE:
+			{
+				releaseWaitingKernel((Integer) ev.getData());
+				break;
+			}
+			case ANALYTIC_CLOUD_COMPLETED:
+			{
+				//same as the kernels returned by the cloud datacenter
+				processCloudletReturn(ev);
 				break;
 			}
 			case RESPONSE_RECEIVED_BY_MOBILE_DEVICE:
@@ -181,9 +266,28 @@ public class DefaultMobileDeviceManager extends MobileDeviceManager {
 				else if(task.getAssociatedDatacenterId() != SimSettings.MOBILE_DATACENTER_ID)
 					networkModel.downloadFinished(task.getSubmittedLocation(), SimSettings.GENERIC_EDGE_DEVICE_ID);
 				
+				if(task.isFailedDueToHandover())
+					break;
+				
+				handoverMonitor.unregister(task);
 				SimLogger.getInstance().kernelEnded(task.getCloudletId(), CloudSim.clock());
 				break;
 			}
+			case HANDOVER_OCCURRED:
+			{
+				int deviceId = (Integer) ev.getData();
+				Location newLocation = SimManager.getInstance().getMobilityModel().getLocation(deviceId, CloudSim.clock());
+				
+				for(Kernel task : handoverMonitor.getAffectedKernels(deviceId, newLocation)){
+					if(!handoverOccurred(task, newLocation)){
+						task.setFailedDueToHandover();
+						handoverMonitor.unregister(task);
+					}
+				}
+				
+				handoverMonitor.scheduleNextHandover(deviceId);
+				break;
+			}
 			default:
 				SimLogger.printLine(getName() + ".processOtherEvent(): " + "Error - event unknown by this DatacenterBroker. Terminating simulation...");
 				System.exit(0);
@@ -210,8 +314,12 @@ public class DefaultMobileDeviceManager extends MobileDeviceManager {
 				(int)kernel.getCloudletFileSize(),
 				(int)kernel.getCloudletOutputSize(),
 				(int)kernel.getKernelId());
+		SimLogger.getInstance().setSubmittedWlan(kernel.getCloudletId(), currentLocation.getServingWlanId());
 
+		FlightRecorderEvents.OrchestratorDecisionEvent jfrEvent = new FlightRecorderEvents.OrchestratorDecisionEvent();
+		jfrEvent.begin();
 		int nextHopId = SimManager.getInstance().getEdgeOrchestrator().getDeviceToOffload(kernel);
+		jfrEvent.commit(kernel.getCloudletId(), "OFFLOAD", SimManager.getInstance().getOrchestratorPolicy(), nextHopId);
 		
 		if(nextHopId == SimSettings.CLOUD_DATACENTER_ID){
 			double WanDelay = networkModel.getUploadDelay(kernel.getMobileDeviceId(), nextHopId, kernel);
@@ -221,6 +329,7 @@ public class DefaultMobileDeviceManager extends MobileDeviceManager {
 				SimLogger.getInstance().kernelStarted(kernel.getCloudletId(), CloudSim.clock());
 				SimLogger.getInstance().setUploadDelay(kernel.getCloudletId(), WanDelay, NETWORK_DELAY_TYPES.WAN_DELAY);
 				schedule(getId(), WanDelay, REQUEST_RECEIVED_BY_CLOUD, kernel);
+				handoverMonitor.register(kernel);
 			}
 			else
 			{
@@ -240,6 +349,7 @@ public class DefaultMobileDeviceManager extends MobileDeviceManager {
 				schedule(getId(), WlanDelay, REQUEST_RECIVED_BY_EDGE_DEVICE, kernel);
 				SimLogger.getInstance().kernelStarted(kernel.getCloudletId(), CloudSim.clock());
 				SimLogger.getInstance().setUploadDelay(kernel.getCloudletId(), WlanDelay, NETWORK_DELAY_TYPES.WLAN_DELAY);
+				handoverMonitor.register(kernel);
 			}
 			else {
 				SimLogger.getInstance().rejectedDueToBandwidth(
@@ -257,8 +367,16 @@ public class DefaultMobileDeviceManager extends MobileDeviceManager {
 	
 	private void submitTaskToVm(Kernel task, double delay, int datacenterId) {
 		//select a VM
+		FlightRecorderEvents.OrchestratorDecisionEvent jfrEvent = new FlightRecorderEvents.OrchestratorDecisionEvent();
+		jfrEvent.begin();
 		Vm selectedVM = SimManager.getInstance().getEdgeOrchestrator().getVmToOffload(task, datacenterId);
+		jfrEvent.commit(task.getCloudletId(), "VM", SimManager.getInstance().getOrchestratorPolicy(),
+				(selectedVM == null) ? -1 : selectedVM.getId());
 		
+		submitTaskToVm(task, selectedVM, delay, datacenterId);
+	}
+	
+	private void submitTaskToVm(Kernel task, Vm selectedVM, double delay, int datacenterId) {
 		int vmType = 0;
 		if(datacenterId == SimSettings.CLOUD_DATACENTER_ID)
 			vmType = SimSettings.VM_TYPES.CLOUD_VM.ordinal();
@@ -278,8 +396,7 @@ public class DefaultMobileDeviceManager extends MobileDeviceManager {
 			task.setAssociatedVmId(selectedVM.getId());
 			
 			//bind task to related VM
-			getCloudletList().add(task);
-			bindCloudletToVm(task.getCloudletId(),selectedVM.getId());
+			bindKernelToVm(task, selectedVM);
 			
 			//SimLogger.printLine(CloudSim.clock() + ": Cloudlet#" + task.getCloudletId() + " is submitted to VM#" + task.getVmId());
 			schedule(getVmsToDatacentersMap().get(task.getVmId()), delay, CloudSimTags.CLOUDLET_SUBMIT, task);
@@ -291,11 +408,71 @@ public class DefaultMobileDeviceManager extends MobileDeviceManager {
 					vmType);
 		}
 		else{
+			//the task waits in the admission queue until a VM of the host has enough capacity
+			if(admissionQueue != null && datacenterId != SimSettings.CLOUD_DATACENTER_ID && admissionQueue.add(task))
+				return;
+			
 			//SimLogger.printLine("Task #" + task.getCloudletId() + " cannot assign to any VM");
+			handoverMonitor.unregister(task);
 			SimLogger.getInstance().rejectedDueToVMCapacity(task.getCloudletId(), CloudSim.clock(), vmType);
 		}
 	}
 	
+	//there is no VM in the analytic cloud tier, so the host and VM ids are -1
+	private void submitTaskToAnalyticCloud(Kernel task) {
+		task.setAssociatedDatacenterId(SimSettings.CLOUD_DATACENTER_ID);
+		task.setAssociatedHostId(-1);
+		task.setAssociatedVmId(-1);
+		
+		analyticCloudTier.submit(task);
+		
+		SimLogger.getInstance().kernelAssigned(task.getCloudletId(),
+				SimSettings.CLOUD_DATACENTER_ID, -1, -1,
+				SimSettings.VM_TYPES.CLOUD_VM.ordinal());
+	}
+	
+	/**
+	 * places the first kernel waiting for the given host if there is enough
+	 * capacity. The placed kernel is not visible to the orchestrator until the
+	 * datacenter processes the submission, so the next kernel is tried via
+	 * an event which is processed after the submission.
+	 */
+	private void releaseWaitingKernel(int hostId) {
+		AdmissionQueue.QueuedKernel queuedKernel = admissionQueue.peek(hostId);
+		if(queuedKernel == null)
+			return;
+		
+		FlightRecorderEvents.OrchestratorDecisionEvent jfrEvent = new FlightRecorderEvents.OrchestratorDecisionEvent();
+		jfrEvent.begin();
+		Vm selectedVM = SimManager.getInstance().getEdgeOrchestrator().getVmToOffload(queuedKernel.getTask(),
+				SimSettings.GENERIC_EDGE_DEVICE_ID);
+		jfrEvent.commit(queuedKernel.getTask().getCloudletId(), "VM", SimManager.getInstance().getOrchestratorPolicy(),
+				(selectedVM == null) ? -1 : selectedVM.getId());
+		if(selectedVM == null)
+			return;
+		
+		admissionQueue.remove(queuedKernel);
+		SimLogger.getInstance().setQueueDelay(queuedKernel.getTask().getCloudletId(), queuedKernel.getWaitingTime());
+		submitTaskToVm(queuedKernel.getTask(), selectedVM, 0, SimSettings.GENERIC_EDGE_DEVICE_ID);
+		
+		scheduleNow(getId(), ADMISSION_QUEUE_RELEASE, hostId);
+	}
+	
+	/**
+	 * Called when the device of an in-flight kernel is connected to another
+	 * access point. Subclasses may override this method to migrate the kernel
+	 * or to deliver the response via the new access point.
+	 * 
+	 * @param kernel the kernel submitted from the previous access point
+	 * @param newLocation the location of the device after the handover
+	 * @return true if the kernel should continue, false if it failed
+	 */
+	protected boolean handoverOccurred(Kernel kernel, Location newLocation) {
+		//the response cannot be delivered via the access point which the kernel is submitted
+		SimLogger.getInstance().failedDueToMobility(kernel.getCloudletId(), CloudSim.clock());
+		return false;
+	}
+	
 	private Kernel createKernel(KernelProperty kernelProperty){
 		UtilizationModel utilizationModel = new UtilizationModelFull(); /*UtilizationModelStochastic*/
 		UtilizationModel utilizationModelCPU = getCpuUtilizationModel();
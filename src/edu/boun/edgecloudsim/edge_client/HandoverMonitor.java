@@ -0,0 +1,110 @@
+/*
+ * Title:        EdgeCloudSim - Handover Monitor
+ *
+ * Description:
+ * HandoverMonitor keeps the in-flight kernels of each mobile device and
+ * publishes an event to the owner entity when the serving WLAN of a
+ * device having in-flight kernels changes. Handover times are obtained
+ * from the mobility model once per handover, so the owner does not need
+ * to query the location of the device to detect mobility failures.
+ *
+ * The owner entity should call register() when a kernel is submitted,
+ * unregister() when the kernel leaves the system, and handle the event
+ * with given tag via getAffectedKernels() and scheduleNextHandover().
+ *
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ * Copyright (c) 2017, Bogazici University, Istanbul, Turkey
+ */
+
+package edu.boun.edgecloudsim.edge_client;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+
+import edu.boun.edgecloudsim.core.SimManager;
+import edu.boun.edgecloudsim.utils.Location;
+
+public class HandoverMonitor {
+	private static final double NO_EVENT = -1;
+	private static final double NO_HANDOVER = Double.MAX_VALUE;
+
+	private int entityId;
+	private int eventTag;
+	private Map<Integer, List<Kernel>> inFlightKernels;
+
+	//time of the scheduled handover event of each device
+	private Map<Integer, Double> scheduledHandovers;
+
+	public HandoverMonitor(int _entityId, int _eventTag) {
+		entityId = _entityId;
+		eventTag = _eventTag;
+		inFlightKernels = new HashMap<Integer, List<Kernel>>();
+		scheduledHandovers = new HashMap<Integer, Double>();
+	}
+
+	/**
+	 * starts monitoring the device of the kernel if it is not monitored yet
+	 */
+	public void register(Kernel kernel) {
+		int deviceId = kernel.getMobileDeviceId();
+		List<Kernel> kernels = inFlightKernels.get(deviceId);
+		if(kernels == null){
+			kernels = new ArrayList<Kernel>();
+			inFlightKernels.put(deviceId, kernels);
+		}
+		kernels.add(kernel);
+
+		if(scheduledHandovers.getOrDefault(deviceId, NO_EVENT) == NO_EVENT)
+			scheduleHandover(deviceId);
+	}
+
+	public void unregister(Kernel kernel) {
+		List<Kernel> kernels = inFlightKernels.get(kernel.getMobileDeviceId());
+		if(kernels != null)
+			kernels.remove(kernel);
+	}
+
+	/**
+	 * returns the in-flight kernels of the device which are submitted
+	 * from another access point than the given one
+	 */
+	public List<Kernel> getAffectedKernels(int deviceId, Location newLocation) {
+		List<Kernel> result = new ArrayList<Kernel>();
+		List<Kernel> kernels = inFlightKernels.get(deviceId);
+		if(kernels != null){
+			for(Kernel kernel : kernels)
+				if(kernel.getSubmittedLocation().getServingWlanId() != newLocation.getServingWlanId())
+					result.add(kernel);
+		}
+		return result;
+	}
+
+	/**
+	 * should be called after the handover event of the device is processed
+	 */
+	public void scheduleNextHandover(int deviceId) {
+		scheduledHandovers.put(deviceId, NO_EVENT);
+
+		List<Kernel> kernels = inFlightKernels.get(deviceId);
+		if(kernels != null && !kernels.isEmpty())
+			scheduleHandover(deviceId);
+	}
+
+	private void scheduleHandover(int deviceId) {
+		double handoverTime = SimManager.getInstance().getMobilityModel().
+				getNextHandoverTime(deviceId, CloudSim.clock());
+
+		if(handoverTime < 0){
+			//the device stays at the same place until the end of the simulation
+			scheduledHandovers.put(deviceId, NO_HANDOVER);
+		}
+		else{
+			scheduledHandovers.put(deviceId, handoverTime);
+			CloudSim.send(entityId, entityId, handoverTime - CloudSim.clock(), eventTag, deviceId);
+		}
+	}
+}
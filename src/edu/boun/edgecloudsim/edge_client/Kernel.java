@@ -24,6 +24,7 @@ public class Kernel extends Cloudlet {
 	private int vmIndex;
 	private int datacenterId;
 	private int kernelId;
+	private boolean failedDueToHandover;
 
 	public Kernel(int _mobileDeviceId, int cloudletId, long cloudletLength, int pesNumber,
 			long cloudletFileSize, long cloudletOutputSize,
@@ -63,6 +64,10 @@ public class Kernel extends Cloudlet {
 		kernelId = _kernelId;
 	}
 
+	public void setFailedDueToHandover(){
+		failedDueToHandover=true;
+	}
+
 	public int getMobileDeviceId(){
 		return mobileDeviceId;
 	}
@@ -90,4 +95,8 @@ public class Kernel extends Cloudlet {
 	public int getKernelId() {
 		return kernelId;
 	}
+
+	public boolean isFailedDueToHandover(){
+		return failedDueToHandover;
+	}
 }
@@ -2,6 +2,10 @@ package edu.boun.edgecloudsim.edge_client;
 
 import org.cloudbus.cloudsim.DatacenterBroker;
 import org.cloudbus.cloudsim.UtilizationModel;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.lists.VmList;
+
+import edu.boun.edgecloudsim.edge_server.EdgeVM;
 
 import edu.boun.edgecloudsim.utils.KernelProperty;
 
@@ -22,4 +26,44 @@ public abstract class MobileDeviceManager  extends DatacenterBroker {
 	public abstract UtilizationModel getCpuUtilizationModel();
 	
 	public abstract void submitKernel(KernelProperty edgeTask);
+	
+	/*
+	 * registers a VM which is created after the simulation is started,
+	 * so the kernels can be submitted to this VM
+	 */
+	public void vmCreatedAtRuntime(Vm vm, int datacenterId) {
+		getVmList().add(vm);
+		getVmsCreatedList().add(vm);
+		getVmsToDatacentersMap().put(vm.getId(), datacenterId);
+	}
+	
+	/*
+	 * unregisters a VM which is destroyed before the simulation is finished,
+	 * it should be called before the VM_DESTROY event is sent
+	 */
+	public void vmDestroyedAtRuntime(Vm vm) {
+		getVmList().remove(vm);
+		getVmsCreatedList().remove(vm);
+		getVmsToDatacentersMap().remove(vm.getId());
+	}
+	
+	/*
+	 * binds the kernel to the VM; an edge VM counts the kernel as bound
+	 * until the kernel is submitted to it or releaseBoundKernel() is called
+	 */
+	protected void bindKernelToVm(Kernel kernel, Vm vm) {
+		getCloudletList().add(kernel);
+		bindCloudletToVm(kernel.getCloudletId(), vm.getId());
+		if(vm instanceof EdgeVM)
+			((EdgeVM) vm).addBoundKernel();
+	}
+	
+	/*
+	 * should be called if a kernel bound to a VM fails before it is submitted
+	 */
+	protected void releaseBoundKernel(Kernel kernel) {
+		Vm vm = VmList.getById(getVmsCreatedList(), kernel.getVmId());
+		if(vm instanceof EdgeVM)
+			((EdgeVM) vm).removeBoundKernel();
+	}
 }
@@ -43,6 +43,14 @@ public abstract class MobileServerManager {
 			return null;
 	}
 	
+	/*
+	 * returns the VMs of the given mobile device like getVmList(), the
+	 * managers creating the VMs on demand should create them here
+	 */
+	public List<MobileVM> getOrCreateVmList(int hostId){
+		return getVmList(hostId);
+	}
+	
 	public Datacenter getDatacenter(){
 		return localDatacenter;
 	}
@@ -5,6 +5,11 @@
  * BasicEdgeOrchestrator implements basic algorithms which are
  * first/next/best/worst/random fit algorithms while assigning
  * requests to the edge devices.
+ * It also implements sampled algorithms whose cost does not depend on
+ * the number of hosts: POWER_OF_TWO and POWER_OF_D compare d randomly
+ * selected hosts, JSQ_D compares d randomly selected VMs.
+ * The algorithms are resolved once via OrchestrationPolicyRegistry,
+ * see the edge_orchestrator.policy package.
  *               
  * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
  * Copyright (c) 2017, Bogazici University, Istanbul, Turkey
@@ -22,16 +27,20 @@ import org.cloudbus.cloudsim.core.SimEvent;
 import edu.boun.edgecloudsim.cloud_server.CloudVM;
 import edu.boun.edgecloudsim.core.SimManager;
 import edu.boun.edgecloudsim.core.SimSettings;
+import edu.boun.edgecloudsim.edge_orchestrator.policy.OffloadDecisionPolicy;
+import edu.boun.edgecloudsim.edge_orchestrator.policy.OrchestrationPolicyRegistry;
+import edu.boun.edgecloudsim.edge_orchestrator.policy.VmSelectionPolicy;
 import edu.boun.edgecloudsim.edge_server.EdgeVM;
 import edu.boun.edgecloudsim.edge_client.CpuUtilizationModel_Custom;
 import edu.boun.edgecloudsim.edge_client.Kernel;
 import edu.boun.edgecloudsim.utils.Location;
-import edu.boun.edgecloudsim.utils.SimUtils;
+import edu.boun.edgecloudsim.utils.SimLogger;
 
 public class BasicEdgeOrchestrator extends EdgeOrchestrator {
 	private int numberOfHost; //used by load balancer
-	private int lastSelectedHostIndex; //used by load balancer
-	private int[] lastSelectedVmIndexes; //used by each host individually
+	private boolean useLoadBalancer;
+	private OffloadDecisionPolicy offloadDecisionPolicy;
+	private VmSelectionPolicy vmSelectionPolicy;
 	
 	public BasicEdgeOrchestrator(String _policy, String _simScenario) {
 		super(_policy, _simScenario);
@@ -40,27 +49,24 @@ public class BasicEdgeOrchestrator extends EdgeOrchestrator {
 	@Override
 	public void initialize() {
 		numberOfHost=SimSettings.getInstance().getNumOfEdgeHosts();
+		useLoadBalancer = simScenario.equals("TWO_TIER_WITH_EO");
 		
-		lastSelectedHostIndex = -1;
-		lastSelectedVmIndexes = new int[numberOfHost];
-		for(int i=0; i<numberOfHost; i++)
-			lastSelectedVmIndexes[i] = -1;
+		offloadDecisionPolicy = OrchestrationPolicyRegistry.createOffloadDecisionPolicy(simScenario);
+		if(offloadDecisionPolicy == null){
+			SimLogger.printLine("Unknow simulation scenario! Terminating simulation...");
+			System.exit(0);
+		}
+		
+		vmSelectionPolicy = OrchestrationPolicyRegistry.createVmSelectionPolicy(policy);
+		if(vmSelectionPolicy == null){
+			SimLogger.printLine("Unknow edge orchestrator policy! Terminating simulation...");
+			System.exit(0);
+		}
 	}
 
 	@Override
 	public int getDeviceToOffload(Kernel task) {
-		int result = SimSettings.GENERIC_EDGE_DEVICE_ID;
-		if(!simScenario.equals("SINGLE_TIER")){
-			//decide to use cloud or Edge VM
-			int CloudVmPicker = SimUtils.getRandomNumber(0, 100);
-			
-			if(CloudVmPicker <= SimSettings.getInstance().getApplicationLookUpTable()[task.getKernelType()][1])
-				result = SimSettings.CLOUD_DATACENTER_ID;
-			else
-				result = SimSettings.GENERIC_EDGE_DEVICE_ID;
-		}
-		
-		return result;
+		return offloadDecisionPolicy.getDeviceToOffload(task);
 	}
 	
 	@Override
@@ -83,7 +89,7 @@ public class BasicEdgeOrchestrator extends EdgeOrchestrator {
 	            }
 			}
 		}
-		else if(simScenario.equals("TWO_TIER_WITH_EO"))
+		else if(useLoadBalancer)
 			selectedVM = selectVmOnLoadBalancer(task);
 		else
 			selectedVM = selectVmOnHost(task);
@@ -92,147 +98,16 @@ public class BasicEdgeOrchestrator extends EdgeOrchestrator {
 	}
 	
 	public EdgeVM selectVmOnHost(Kernel task){
-		EdgeVM selectedVM = null;
-		
 		Location deviceLocation = SimManager.getInstance().getMobilityModel().getLocation(task.getMobileDeviceId(), CloudSim.clock());
 		//in our scenasrio, serving wlan ID is equal to the host id
 		//because there is only one host in one place
 		int relatedHostId=deviceLocation.getServingWlanId();
-		List<EdgeVM> vmArray = SimManager.getInstance().getEdgeServerManager().getVmList(relatedHostId);
-		
-		if(policy.equalsIgnoreCase("RANDOM_FIT")){
-			int randomIndex = SimUtils.getRandomNumber(0, vmArray.size()-1);
-			double requiredCapacity = ((CpuUtilizationModel_Custom)task.getUtilizationModelCpu()).predictUtilization(vmArray.get(randomIndex).getVmType());
-			double targetVmCapacity = (double)100 - vmArray.get(randomIndex).getCloudletScheduler().getTotalUtilizationOfCpu(CloudSim.clock());
-			if(requiredCapacity <= targetVmCapacity)
-				selectedVM = vmArray.get(randomIndex);
-		}
-		else if(policy.equalsIgnoreCase("WORST_FIT")){
-			double selectedVmCapacity = 0; //start with min value
-			for(int vmIndex=0; vmIndex<vmArray.size(); vmIndex++){
-				double requiredCapacity = ((CpuUtilizationModel_Custom)task.getUtilizationModelCpu()).predictUtilization(vmArray.get(vmIndex).getVmType());
-				double targetVmCapacity = (double)100 - vmArray.get(vmIndex).getCloudletScheduler().getTotalUtilizationOfCpu(CloudSim.clock());
-				if(requiredCapacity <= targetVmCapacity && targetVmCapacity > selectedVmCapacity){
-					selectedVM = vmArray.get(vmIndex);
-					selectedVmCapacity = targetVmCapacity;
-				}
-			}
-		}
-		else if(policy.equalsIgnoreCase("BEST_FIT")){
-			double selectedVmCapacity = 101; //start with max value
-			for(int vmIndex=0; vmIndex<vmArray.size(); vmIndex++){
-				double requiredCapacity = ((CpuUtilizationModel_Custom)task.getUtilizationModelCpu()).predictUtilization(vmArray.get(vmIndex).getVmType());
-				double targetVmCapacity = (double)100 - vmArray.get(vmIndex).getCloudletScheduler().getTotalUtilizationOfCpu(CloudSim.clock());
-				if(requiredCapacity <= targetVmCapacity && targetVmCapacity < selectedVmCapacity){
-					selectedVM = vmArray.get(vmIndex);
-					selectedVmCapacity = targetVmCapacity;
-				}
-			}
-		}
-		else if(policy.equalsIgnoreCase("FIRST_FIT")){
-			for(int vmIndex=0; vmIndex<vmArray.size(); vmIndex++){
-				double requiredCapacity = ((CpuUtilizationModel_Custom)task.getUtilizationModelCpu()).predictUtilization(vmArray.get(vmIndex).getVmType());
-				double targetVmCapacity = (double)100 - vmArray.get(vmIndex).getCloudletScheduler().getTotalUtilizationOfCpu(CloudSim.clock());
-				if(requiredCapacity <= targetVmCapacity){
-					selectedVM = vmArray.get(vmIndex);
-					break;
-				}
-			}
-		}
-		else if(policy.equalsIgnoreCase("NEXT_FIT")){
-			int tries = 0;
-			while(tries < vmArray.size()){
-				lastSelectedVmIndexes[relatedHostId] = (lastSelectedVmIndexes[relatedHostId]+1) % vmArray.size();
-				double requiredCapacity = ((CpuUtilizationModel_Custom)task.getUtilizationModelCpu()).predictUtilization(vmArray.get(lastSelectedVmIndexes[relatedHostId]).getVmType());
-				double targetVmCapacity = (double)100 - vmArray.get(lastSelectedVmIndexes[relatedHostId]).getCloudletScheduler().getTotalUtilizationOfCpu(CloudSim.clock());
-				if(requiredCapacity <= targetVmCapacity){
-					selectedVM = vmArray.get(lastSelectedVmIndexes[relatedHostId]);
-					break;
-				}
-				tries++;
-			}
-		}
 		
-		return selectedVM;
+		return vmSelectionPolicy.selectVm(task, relatedHostId, relatedHostId);
 	}
 
 	public EdgeVM selectVmOnLoadBalancer(Kernel task){
-		EdgeVM selectedVM = null;
-		
-		if(policy.equalsIgnoreCase("RANDOM_FIT")){
-			int randomHostIndex = SimUtils.getRandomNumber(0, numberOfHost-1);
-			List<EdgeVM> vmArray = SimManager.getInstance().getEdgeServerManager().getVmList(randomHostIndex);
-			int randomIndex = SimUtils.getRandomNumber(0, vmArray.size()-1);
-			
-			double requiredCapacity = ((CpuUtilizationModel_Custom)task.getUtilizationModelCpu()).predictUtilization(vmArray.get(randomIndex).getVmType());
-			double targetVmCapacity = (double)100 - vmArray.get(randomIndex).getCloudletScheduler().getTotalUtilizationOfCpu(CloudSim.clock());
-			if(requiredCapacity <= targetVmCapacity)
-				selectedVM = vmArray.get(randomIndex);
-		}
-		else if(policy.equalsIgnoreCase("WORST_FIT")){
-			double selectedVmCapacity = 0; //start with min value
-			for(int hostIndex=0; hostIndex<numberOfHost; hostIndex++){
-				List<EdgeVM> vmArray = SimManager.getInstance().getEdgeServerManager().getVmList(hostIndex);
-				for(int vmIndex=0; vmIndex<vmArray.size(); vmIndex++){
-					double requiredCapacity = ((CpuUtilizationModel_Custom)task.getUtilizationModelCpu()).predictUtilization(vmArray.get(vmIndex).getVmType());
-					double targetVmCapacity = (double)100 - vmArray.get(vmIndex).getCloudletScheduler().getTotalUtilizationOfCpu(CloudSim.clock());
-					if(requiredCapacity <= targetVmCapacity && targetVmCapacity > selectedVmCapacity){
-						selectedVM = vmArray.get(vmIndex);
-						selectedVmCapacity = targetVmCapacity;
-					}
-				}
-			}
-		}
-		else if(policy.equalsIgnoreCase("BEST_FIT")){
-			double selectedVmCapacity = 101; //start with max value
-			for(int hostIndex=0; hostIndex<numberOfHost; hostIndex++){
-				List<EdgeVM> vmArray = SimManager.getInstance().getEdgeServerManager().getVmList(hostIndex);
-				for(int vmIndex=0; vmIndex<vmArray.size(); vmIndex++){
-					double requiredCapacity = ((CpuUtilizationModel_Custom)task.getUtilizationModelCpu()).predictUtilization(vmArray.get(vmIndex).getVmType());
-					double targetVmCapacity = (double)100 - vmArray.get(vmIndex).getCloudletScheduler().getTotalUtilizationOfCpu(CloudSim.clock());
-					if(requiredCapacity <= targetVmCapacity && targetVmCapacity < selectedVmCapacity){
-						selectedVM = vmArray.get(vmIndex);
-						selectedVmCapacity = targetVmCapacity;
-					}
-				}
-			}
-		}
-		else if(policy.equalsIgnoreCase("FIRST_FIT")){
-			for(int hostIndex=0; hostIndex<numberOfHost; hostIndex++){
-				List<EdgeVM> vmArray = SimManager.getInstance().getEdgeServerManager().getVmList(hostIndex);
-				for(int vmIndex=0; vmIndex<vmArray.size(); vmIndex++){
-					double requiredCapacity = ((CpuUtilizationModel_Custom)task.getUtilizationModelCpu()).predictUtilization(vmArray.get(vmIndex).getVmType());
-					double targetVmCapacity = (double)100 - vmArray.get(vmIndex).getCloudletScheduler().getTotalUtilizationOfCpu(CloudSim.clock());
-					if(requiredCapacity <= targetVmCapacity){
-						selectedVM = vmArray.get(vmIndex);
-						break;
-					}
-				}
-			}
-		}
-		else if(policy.equalsIgnoreCase("NEXT_FIT")){
-			int hostCheckCounter = 0;	
-			while(selectedVM == null && hostCheckCounter < numberOfHost){
-				int tries = 0;
-				lastSelectedHostIndex = (lastSelectedHostIndex+1) % numberOfHost;
-
-				List<EdgeVM> vmArray = SimManager.getInstance().getEdgeServerManager().getVmList(lastSelectedHostIndex);
-				while(tries < vmArray.size()){
-					lastSelectedVmIndexes[lastSelectedHostIndex] = (lastSelectedVmIndexes[lastSelectedHostIndex]+1) % vmArray.size();
-					double requiredCapacity = ((CpuUtilizationModel_Custom)task.getUtilizationModelCpu()).predictUtilization(vmArray.get(lastSelectedVmIndexes[lastSelectedHostIndex]).getVmType());
-					double targetVmCapacity = (double)100 - vmArray.get(lastSelectedVmIndexes[lastSelectedHostIndex]).getCloudletScheduler().getTotalUtilizationOfCpu(CloudSim.clock());
-					if(requiredCapacity <= targetVmCapacity){
-						selectedVM = vmArray.get(lastSelectedVmIndexes[lastSelectedHostIndex]);
-						break;
-					}
-					tries++;
-				}
-
-				hostCheckCounter++;
-			}
-		}
-		
-		return selectedVM;
+		return vmSelectionPolicy.selectVm(task, 0, numberOfHost-1);
 	}
 
 	@Override
@@ -0,0 +1,241 @@
+/*
+ * Title:        EdgeCloudSim - Batch VM Assigner
+ *
+ * Description:
+ * BatchVmAssigner collects the kernels which are ready to be executed
+ * within a time window and assigns them to the VMs at once. When the first
+ * kernel of a window is added, an event with the given tag is sent to the
+ * owner entity; the owner should call assign() while handling this event.
+ *
+ * The kernels are placed via a greedy min-cost assignment where the cost
+ * of a VM is its load after the placement: the kernels are sorted by their
+ * required capacity in decreasing order and each kernel is assigned to the
+ * VM having the largest residual capacity if the kernel fits. The residual
+ * capacities are updated during the assignment, so the kernels of the same
+ * window cannot overload a VM which looks idle to all of them.
+ *
+ * The VMs of a pool are kept in a max-heap keyed by the residual capacity,
+ * so a window of k kernels over V VMs costs one O(k.log(k)) sort plus
+ * O(V + k.log(V)) for the heap construction and the updates.
+ *
+ * Note that the batch mode overrides the VM selection of the orchestrator
+ * policy; the orchestrator still decides the tier (edge or cloud) of the
+ * kernel but the VM is always the least loaded one, as in WORST_FIT. A
+ * warning is printed if batch mode is combined with another policy.
+ *
+ * The candidate VMs are all cloud VMs for the cloud datacenter. For the
+ * edge servers, all edge VMs are candidates in TWO_TIER_WITH_EO scenario,
+ * otherwise only the VMs of the host at the serving WLAN of the device.
+ *
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ * Copyright (c) 2017, Bogazici University, Istanbul, Turkey
+ */
+
+package edu.boun.edgecloudsim.edge_orchestrator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.core.CloudSim;
+
+import edu.boun.edgecloudsim.core.SimManager;
+import edu.boun.edgecloudsim.core.SimSettings;
+import edu.boun.edgecloudsim.edge_client.CpuUtilizationModel_Custom;
+import edu.boun.edgecloudsim.edge_client.Kernel;
+
+public class BatchVmAssigner {
+	private static final int CLOUD_POOL = -1;
+	private static final int ALL_EDGE_POOL = -2;
+
+	private int entityId;
+	private int eventTag;
+	private double window;
+	private List<Assignment> pendingAssignments;
+
+	public BatchVmAssigner(int _entityId, int _eventTag, double _window) {
+		entityId = _entityId;
+		eventTag = _eventTag;
+		window = _window;
+		pendingAssignments = new ArrayList<Assignment>();
+	}
+
+	/**
+	 * adds the kernel to the current window, the window is started if
+	 * the kernel is the first one
+	 */
+	public void add(Kernel task, int datacenterId) {
+		if(pendingAssignments.isEmpty())
+			CloudSim.send(entityId, entityId, window, eventTag, null);
+
+		pendingAssignments.add(new Assignment(task, datacenterId));
+	}
+
+	/**
+	 * assigns the kernels of the current window to the VMs
+	 * @return the assignments in arrival order, VM of an assignment is
+	 * null if the kernel cannot be assigned to any VM
+	 */
+	public List<Assignment> assign() {
+		List<Assignment> result = new ArrayList<Assignment>();
+		Map<Integer, VmPool> pools = new HashMap<Integer, VmPool>();
+		List<List<Assignment>> poolAssignments = new ArrayList<List<Assignment>>();
+
+		for(Assignment assignment : pendingAssignments){
+			//the mobility failure is already logged at the handover time
+			if(assignment.task.isFailedDueToHandover())
+				continue;
+
+			int poolId = getPoolId(assignment);
+			VmPool pool = pools.get(poolId);
+			if(pool == null){
+				pool = new VmPool(poolId, poolAssignments.size());
+				pools.put(poolId, pool);
+				poolAssignments.add(new ArrayList<Assignment>());
+			}
+			poolAssignments.get(pool.index).add(assignment);
+			result.add(assignment);
+		}
+		pendingAssignments = new ArrayList<Assignment>();
+
+		for(VmPool pool : pools.values())
+			pool.assign(poolAssignments.get(pool.index));
+
+		return result;
+	}
+
+	private int getPoolId(Assignment assignment) {
+		if(assignment.datacenterId == SimSettings.CLOUD_DATACENTER_ID)
+			return CLOUD_POOL;
+		else if(SimManager.getInstance().getSimulationScenario().equals("TWO_TIER_WITH_EO"))
+			return ALL_EDGE_POOL;
+
+		//in our scenario, serving wlan ID is equal to the host id
+		return SimManager.getInstance().getMobilityModel().
+				getLocation(assignment.task.getMobileDeviceId(), CloudSim.clock()).getServingWlanId();
+	}
+
+	public static class Assignment {
+		private Kernel task;
+		private int datacenterId;
+		private Vm vm;
+
+		private Assignment(Kernel _task, int _datacenterId) {
+			task = _task;
+			datacenterId = _datacenterId;
+		}
+
+		public Kernel getTask() {
+			return task;
+		}
+
+		public int getDatacenterId() {
+			return datacenterId;
+		}
+
+		public Vm getVm() {
+			return vm;
+		}
+	}
+
+	/*
+	 * candidate VMs of a group of kernels, the VMs are kept in a max-heap
+	 * with respect to their residual capacities, so the least loaded VM
+	 * is on the top; ties are broken in favour of the later VM
+	 */
+	private static class VmPool {
+		private int index;
+		private SimSettings.VM_TYPES vmType;
+		private List<Vm> vms;
+		private double[] residualCapacity;
+		private int[] heap;
+
+		VmPool(int poolId, int _index) {
+			index = _index;
+			vms = new ArrayList<Vm>();
+			if(poolId == CLOUD_POOL){
+				vmType = SimSettings.VM_TYPES.CLOUD_VM;
+				for(int hostIndex=0; hostIndex<SimSettings.getInstance().getNumOfCoudHost(); hostIndex++)
+					vms.addAll(SimManager.getInstance().getCloudServerManager().getVmList(hostIndex));
+			}
+			else{
+				vmType = SimSettings.VM_TYPES.EDGE_VM;
+				int firstHost = (poolId == ALL_EDGE_POOL) ? 0 : poolId;
+				int lastHost = (poolId == ALL_EDGE_POOL) ? SimSettings.getInstance().getNumOfEdgeHosts() - 1 : poolId;
+				for(int hostIndex=firstHost; hostIndex<=lastHost; hostIndex++)
+					vms.addAll(SimManager.getInstance().getEdgeServerManager().getVmList(hostIndex));
+			}
+
+			residualCapacity = new double[vms.size()];
+			heap = new int[vms.size()];
+			for(int i=0; i<vms.size(); i++){
+				residualCapacity[i] = (double)100 - vms.get(i).getCloudletScheduler().getTotalUtilizationOfCpu(CloudSim.clock());
+				heap[i] = i;
+			}
+
+			//bottom-up heap construction, O(V)
+			for(int i=heap.length/2-1; i>=0; i--)
+				siftDown(i);
+		}
+
+		void assign(List<Assignment> assignments) {
+			if(heap.length == 0)
+				return;
+
+			double[] requiredCapacity = new double[assignments.size()];
+			for(int i=0; i<assignments.size(); i++)
+				requiredCapacity[i] = ((CpuUtilizationModel_Custom)assignments.get(i).task.getUtilizationModelCpu()).predictUtilization(vmType);
+
+			for(int taskIndex : sortByKey(assignments.size(), requiredCapacity)){
+				int vmIndex = heap[0];
+				if(requiredCapacity[taskIndex] > residualCapacity[vmIndex])
+					continue;
+
+				assignments.get(taskIndex).vm = vms.get(vmIndex);
+				residualCapacity[vmIndex] -= requiredCapacity[taskIndex];
+
+				//the residual capacity is only decreased, so the top VM can only move down
+				siftDown(0);
+			}
+		}
+
+		//returns true if VM a should be closer to the top of the heap than VM b
+		private boolean isBefore(int a, int b) {
+			if(residualCapacity[a] != residualCapacity[b])
+				return residualCapacity[a] > residualCapacity[b];
+			return a > b;
+		}
+
+		private void siftDown(int position) {
+			int vmIndex = heap[position];
+			while(true){
+				int child = 2 * position + 1;
+				if(child >= heap.length)
+					break;
+				if(child + 1 < heap.length && isBefore(heap[child+1], heap[child]))
+					child++;
+				if(!isBefore(heap[child], vmIndex))
+					break;
+				heap[position] = heap[child];
+				position = child;
+			}
+			heap[position] = vmIndex;
+		}
+
+		//stable sort of the indices with respect to the given keys in decreasing order
+		private static int[] sortByKey(int size, double[] keys) {
+			Integer[] indices = new Integer[size];
+			for(int i=0; i<size; i++)
+				indices[i] = i;
+			Arrays.sort(indices, (a, b) -> Double.compare(keys[b], keys[a]));
+
+			int[] result = new int[size];
+			for(int i=0; i<size; i++)
+				result[i] = indices[i];
+			return result;
+		}
+	}
+}
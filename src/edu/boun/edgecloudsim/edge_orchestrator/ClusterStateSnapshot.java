@@ -0,0 +1,217 @@
+/*
+ * Title:        EdgeCloudSim - Cluster State Snapshot
+ *
+ * Description:
+ * ClusterStateSnapshot keeps the utilization of the edge VMs, edge hosts
+ * and the edge tier which are computed once for the current simulation
+ * time. Many kernels are submitted at the same time, so the orchestrators
+ * can share one O(number of VMs) computation instead of repeating it for
+ * each kernel.
+ *
+ * The snapshot is invalidated when the simulation time changes or when an
+ * edge datacenter processes an event (i.e. a cloudlet is submitted to or
+ * finished on a VM, see EdgeDatacenter), so the cached utilization values
+ * are always equal to the values read from the cloudlet schedulers.
+ *
+ * The probe network delays (WAN delay per serving WLAN and MAN delay of a
+ * 1 Mbit dummy task) are cached only if cache_probe_delays is enabled.
+ * Since the network models are updated when an upload starts, the cached
+ * delays reflect the network state of the first decision of the instant.
+ *
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ * Copyright (c) 2017, Bogazici University, Istanbul, Turkey
+ */
+
+package edu.boun.edgecloudsim.edge_orchestrator;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.UtilizationModelFull;
+import org.cloudbus.cloudsim.core.CloudSim;
+
+import edu.boun.edgecloudsim.core.SimManager;
+import edu.boun.edgecloudsim.core.SimSettings;
+import edu.boun.edgecloudsim.edge_client.Kernel;
+import edu.boun.edgecloudsim.edge_server.EdgeHost;
+import edu.boun.edgecloudsim.edge_server.EdgeVM;
+
+public class ClusterStateSnapshot {
+	private static final double NOT_COMPUTED = -1;
+
+	private int numberOfHost;
+	private boolean cacheProbeDelays;
+
+	private double snapshotTime;
+	private boolean valid;
+
+	private double[][] vmUtilization;
+	private double[] hostUtilization;
+	private double avgUtilization;
+
+	//host indices sorted by utilization, built on demand
+	private Integer[] hostsByUtilization;
+
+	//hosts do not move, so the WLAN of each host is kept during the simulation
+	private int[] wlanOfHost;
+	private Map<Integer, Integer> hostOfWlan;
+
+	private Map<Integer, Double> wanProbeDelays;
+	private double manProbeDelay;
+
+	//dummy task to simulate a task with 1 Mbit file size to upload and download
+	private Kernel dummyTask;
+
+	public ClusterStateSnapshot() {
+		numberOfHost = SimSettings.getInstance().getNumOfEdgeHosts();
+		cacheProbeDelays = SimSettings.getInstance().isProbeDelayCachingEnabled();
+		valid = false;
+		wanProbeDelays = new HashMap<Integer, Double>();
+		dummyTask = new Kernel(0, 0, 0, 0, 128, 128, new UtilizationModelFull(), new UtilizationModelFull(), new UtilizationModelFull());
+	}
+
+	/**
+	 * should be called when the load of any edge VM is changed
+	 */
+	public void invalidate() {
+		valid = false;
+	}
+
+	private void update() {
+		if(valid && snapshotTime == CloudSim.clock())
+			return;
+
+		if(vmUtilization == null)
+			initialize();
+
+		double totalUtilization = 0;
+		double vmCounter = 0;
+		for(int hostIndex=0; hostIndex<numberOfHost; hostIndex++){
+			List<EdgeVM> vmArray = SimManager.getInstance().getEdgeServerManager().getVmList(hostIndex);
+
+			//the VMs may be added or removed at runtime by the autoscaler
+			if(vmUtilization[hostIndex].length != vmArray.size())
+				vmUtilization[hostIndex] = new double[vmArray.size()];
+
+			double totalHostUtilization = 0;
+			for(int vmIndex=0; vmIndex<vmArray.size(); vmIndex++){
+				double utilization = vmArray.get(vmIndex).getCloudletScheduler().getTotalUtilizationOfCpu(CloudSim.clock());
+				vmUtilization[hostIndex][vmIndex] = utilization;
+				totalHostUtilization += utilization;
+				totalUtilization += utilization;
+				vmCounter++;
+			}
+			hostUtilization[hostIndex] = totalHostUtilization / (double)(vmArray.size());
+		}
+		avgUtilization = totalUtilization / vmCounter;
+
+		hostsByUtilization = null;
+		wanProbeDelays.clear();
+		manProbeDelay = NOT_COMPUTED;
+
+		snapshotTime = CloudSim.clock();
+		valid = true;
+	}
+
+	private void initialize() {
+		vmUtilization = new double[numberOfHost][];
+		hostUtilization = new double[numberOfHost];
+		wlanOfHost = new int[numberOfHost];
+		hostOfWlan = new HashMap<Integer, Integer>();
+		for(int hostIndex=0; hostIndex<numberOfHost; hostIndex++){
+			List<EdgeVM> vmArray = SimManager.getInstance().getEdgeServerManager().getVmList(hostIndex);
+			vmUtilization[hostIndex] = new double[vmArray.size()];
+
+			EdgeHost host = (EdgeHost)(vmArray.get(0).getHost()); //all VMs have the same host
+			wlanOfHost[hostIndex] = host.getLocation().getServingWlanId();
+			hostOfWlan.put(wlanOfHost[hostIndex], hostIndex);
+		}
+	}
+
+	public double getEdgeVmUtilization(int hostIndex, int vmIndex) {
+		update();
+		return vmUtilization[hostIndex][vmIndex];
+	}
+
+	/**
+	 * returns the average utilization of the VMs on given edge host
+	 */
+	public double getEdgeHostUtilization(int hostIndex) {
+		update();
+		return hostUtilization[hostIndex];
+	}
+
+	/**
+	 * returns the average utilization of all edge VMs
+	 */
+	public double getAvgEdgeUtilization() {
+		update();
+		return avgUtilization;
+	}
+
+	/**
+	 * returns the index of the edge host serving the given WLAN, -1 if it does not exist
+	 */
+	public int getEdgeHostOfWlan(int wlanId) {
+		update();
+		return hostOfWlan.getOrDefault(wlanId, -1);
+	}
+
+	/**
+	 * returns the least loaded edge host which is not placed at the given
+	 * WLAN, the host with smaller index is selected in case of a tie
+	 * @return index of the host, -1 if there is no such host
+	 */
+	public int getLeastLoadedEdgeHost(int excludedWlanId) {
+		update();
+		if(hostsByUtilization == null){
+			hostsByUtilization = new Integer[numberOfHost];
+			for(int i=0; i<numberOfHost; i++)
+				hostsByUtilization[i] = i;
+			//the sort is stable, so the order of the hosts having the same utilization is kept
+			Arrays.sort(hostsByUtilization, (a, b) -> Double.compare(hostUtilization[a], hostUtilization[b]));
+		}
+
+		for(int hostIndex : hostsByUtilization){
+			if(wlanOfHost[hostIndex] != excludedWlanId)
+				return hostIndex;
+		}
+		return -1;
+	}
+
+	/**
+	 * returns the WAN upload delay of a 1 Mbit task sent by the device of given task
+	 */
+	public double getWanProbeDelay(Kernel task) {
+		if(!cacheProbeDelays)
+			return SimManager.getInstance().getNetworkModel().getUploadDelay(task.getMobileDeviceId(),
+					SimSettings.CLOUD_DATACENTER_ID, dummyTask /* 1 Mbit */);
+
+		update();
+		int wlanId = task.getSubmittedLocation().getServingWlanId();
+		Double delay = wanProbeDelays.get(wlanId);
+		if(delay == null){
+			delay = SimManager.getInstance().getNetworkModel().getUploadDelay(task.getMobileDeviceId(),
+					SimSettings.CLOUD_DATACENTER_ID, dummyTask /* 1 Mbit */);
+			wanProbeDelays.put(wlanId, delay);
+		}
+		return delay;
+	}
+
+	/**
+	 * returns the MAN delay of a 1 Mbit task sent between edge servers
+	 */
+	public double getManProbeDelay() {
+		if(!cacheProbeDelays)
+			return SimManager.getInstance().getNetworkModel().getUploadDelay(SimSettings.GENERIC_EDGE_DEVICE_ID,
+					SimSettings.GENERIC_EDGE_DEVICE_ID, dummyTask /* 1 Mbit */);
+
+		update();
+		if(manProbeDelay == NOT_COMPUTED)
+			manProbeDelay = SimManager.getInstance().getNetworkModel().getUploadDelay(SimSettings.GENERIC_EDGE_DEVICE_ID,
+					SimSettings.GENERIC_EDGE_DEVICE_ID, dummyTask /* 1 Mbit */);
+		return manProbeDelay;
+	}
+}
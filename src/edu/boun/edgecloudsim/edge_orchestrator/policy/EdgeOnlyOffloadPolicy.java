@@ -0,0 +1,22 @@
+/*
+ * Title:        EdgeCloudSim - Edge Only Offload Policy
+ * 
+ * Description: 
+ * EdgeOnlyOffloadPolicy offloads all tasks to the edge servers,
+ * it is used in SINGLE_TIER scenario.
+ *               
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ * Copyright (c) 2017, Bogazici University, Istanbul, Turkey
+ */
+
+package edu.boun.edgecloudsim.edge_orchestrator.policy;
+
+import edu.boun.edgecloudsim.core.SimSettings;
+import edu.boun.edgecloudsim.edge_client.Kernel;
+
+public class EdgeOnlyOffloadPolicy implements OffloadDecisionPolicy {
+	@Override
+	public int getDeviceToOffload(Kernel task) {
+		return SimSettings.GENERIC_EDGE_DEVICE_ID;
+	}
+}
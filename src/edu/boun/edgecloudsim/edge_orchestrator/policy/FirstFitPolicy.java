@@ -0,0 +1,51 @@
+/*
+ * Title:        EdgeCloudSim - First Fit Policy
+ * 
+ * Description: 
+ * FirstFitPolicy selects the first VM of a host which can serve the task.
+ * FIRST_FIT keeps the original behaviour of EdgeCloudSim over multiple
+ * hosts: the hosts are searched to the end and the first fitting VM of
+ * the last host having one is selected. STRICT_FIRST_FIT stops at the
+ * first fitting VM of the first host having one. Both are the same if
+ * there is only one candidate host.
+ *               
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ * Copyright (c) 2017, Bogazici University, Istanbul, Turkey
+ */
+
+package edu.boun.edgecloudsim.edge_orchestrator.policy;
+
+import java.util.List;
+
+import edu.boun.edgecloudsim.edge_client.Kernel;
+import edu.boun.edgecloudsim.edge_server.EdgeVM;
+
+public class FirstFitPolicy extends FitPolicy {
+	private boolean stopAtFirstHost;
+
+	public FirstFitPolicy() {
+		this(false);
+	}
+
+	public FirstFitPolicy(boolean _stopAtFirstHost) {
+		stopAtFirstHost = _stopAtFirstHost;
+	}
+
+	@Override
+	public EdgeVM selectVm(Kernel task, int firstHost, int lastHost) {
+		EdgeVM selectedVM = null;
+		for(int hostIndex=firstHost; hostIndex<=lastHost; hostIndex++){
+			List<EdgeVM> vmArray = getVmList(hostIndex);
+			for(int vmIndex=0; vmIndex<vmArray.size(); vmIndex++){
+				if(getRequiredCapacity(task, vmArray.get(vmIndex)) <= getTargetCapacity(hostIndex, vmIndex)){
+					selectedVM = vmArray.get(vmIndex);
+					break;
+				}
+			}
+			
+			if(stopAtFirstHost && selectedVM != null)
+				break;
+		}
+		return selectedVM;
+	}
+}
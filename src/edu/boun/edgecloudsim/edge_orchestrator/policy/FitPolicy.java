@@ -0,0 +1,52 @@
+/*
+ * Title:        EdgeCloudSim - Fit Policy
+ * 
+ * Description: 
+ * FitPolicy provides the capacity calculations shared by the
+ * VM selection policies. The residual capacity of a VM is read
+ * from the cluster state snapshot, which is exact and shared by
+ * the tasks submitted at the same time. The sampled policies read
+ * the capacity of the sampled VMs directly, so that their cost does
+ * not depend on the number of VMs.
+ *               
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ * Copyright (c) 2017, Bogazici University, Istanbul, Turkey
+ */
+
+package edu.boun.edgecloudsim.edge_orchestrator.policy;
+
+import java.util.List;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+
+import edu.boun.edgecloudsim.core.SimManager;
+import edu.boun.edgecloudsim.edge_client.CpuUtilizationModel_Custom;
+import edu.boun.edgecloudsim.edge_client.Kernel;
+import edu.boun.edgecloudsim.edge_server.EdgeVM;
+
+public abstract class FitPolicy implements VmSelectionPolicy {
+	protected List<EdgeVM> getVmList(int hostIndex) {
+		return SimManager.getInstance().getEdgeServerManager().getVmList(hostIndex);
+	}
+
+	/**
+	 * returns the CPU capacity required by the task on given VM (in percentage)
+	 */
+	protected double getRequiredCapacity(Kernel task, EdgeVM vm) {
+		return ((CpuUtilizationModel_Custom)task.getUtilizationModelCpu()).predictUtilization(vm.getVmType());
+	}
+
+	/**
+	 * returns the unused CPU capacity of given VM (in percentage)
+	 */
+	protected double getTargetCapacity(int hostIndex, int vmIndex) {
+		return (double)100 - SimManager.getInstance().getClusterStateSnapshot().getEdgeVmUtilization(hostIndex, vmIndex);
+	}
+
+	/**
+	 * returns the unused CPU capacity of given VM by reading its cloudlet scheduler
+	 */
+	protected double getTargetCapacity(EdgeVM vm) {
+		return (double)100 - vm.getCloudletScheduler().getTotalUtilizationOfCpu(CloudSim.clock());
+	}
+}
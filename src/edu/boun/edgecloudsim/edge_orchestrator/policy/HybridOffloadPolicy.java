@@ -0,0 +1,29 @@
+/*
+ * Title:        EdgeCloudSim - Hybrid Offload Policy
+ * 
+ * Description: 
+ * HybridOffloadPolicy offloads the tasks to the cloud if both the
+ * WAN bandwidth is higher than 6 Mbps and the average utilization
+ * of the edge VMs is higher than 80%.
+ *               
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ * Copyright (c) 2017, Bogazici University, Istanbul, Turkey
+ */
+
+package edu.boun.edgecloudsim.edge_orchestrator.policy;
+
+import edu.boun.edgecloudsim.core.SimSettings;
+import edu.boun.edgecloudsim.edge_client.Kernel;
+
+public class HybridOffloadPolicy implements OffloadDecisionPolicy {
+	private NetworkBasedOffloadPolicy networkBasedPolicy = new NetworkBasedOffloadPolicy();
+	private UtilizationBasedOffloadPolicy utilizationBasedPolicy = new UtilizationBasedOffloadPolicy();
+
+	@Override
+	public int getDeviceToOffload(Kernel task) {
+		if(networkBasedPolicy.getDeviceToOffload(task) == SimSettings.CLOUD_DATACENTER_ID &&
+				utilizationBasedPolicy.getDeviceToOffload(task) == SimSettings.CLOUD_DATACENTER_ID)
+			return SimSettings.CLOUD_DATACENTER_ID;
+		return SimSettings.GENERIC_EDGE_DEVICE_ID;
+	}
+}
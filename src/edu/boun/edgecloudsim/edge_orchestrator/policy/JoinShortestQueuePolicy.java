@@ -0,0 +1,46 @@
+/*
+ * Title:        EdgeCloudSim - Join Shortest Queue Policy
+ * 
+ * Description: 
+ * JoinShortestQueuePolicy (JSQ(d)) samples d VMs and selects the least
+ * loaded one which can serve the task. The cost of the selection does
+ * not depend on the number of VMs.
+ *               
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ * Copyright (c) 2017, Bogazici University, Istanbul, Turkey
+ */
+
+package edu.boun.edgecloudsim.edge_orchestrator.policy;
+
+import java.util.List;
+
+import edu.boun.edgecloudsim.edge_client.Kernel;
+import edu.boun.edgecloudsim.edge_server.EdgeVM;
+import edu.boun.edgecloudsim.utils.SimUtils;
+
+public class JoinShortestQueuePolicy extends FitPolicy {
+	private int sampleSize;
+
+	public JoinShortestQueuePolicy(int _sampleSize) {
+		sampleSize = _sampleSize;
+	}
+
+	@Override
+	public EdgeVM selectVm(Kernel task, int firstHost, int lastHost) {
+		EdgeVM selectedVM = null;
+		double selectedVmCapacity = 0; //start with min value
+		for(int i=0; i<sampleSize; i++){
+			int hostIndex = SimUtils.getRandomNumber(firstHost, lastHost);
+			List<EdgeVM> vmArray = getVmList(hostIndex);
+			EdgeVM vm = vmArray.get(SimUtils.getRandomNumber(0, vmArray.size()-1));
+
+			double requiredCapacity = getRequiredCapacity(task, vm);
+			double targetVmCapacity = getTargetCapacity(vm);
+			if(requiredCapacity <= targetVmCapacity && targetVmCapacity > selectedVmCapacity){
+				selectedVM = vm;
+				selectedVmCapacity = targetVmCapacity;
+			}
+		}
+		return selectedVM;
+	}
+}
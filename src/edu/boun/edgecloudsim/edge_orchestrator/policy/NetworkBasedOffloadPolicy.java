@@ -0,0 +1,36 @@
+/*
+ * Title:        EdgeCloudSim - Network Based Offload Policy
+ * 
+ * Description: 
+ * NetworkBasedOffloadPolicy offloads the tasks to the cloud if the
+ * WAN bandwidth measured via a 1 Mbit probe is higher than 6 Mbps.
+ *               
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ * Copyright (c) 2017, Bogazici University, Istanbul, Turkey
+ */
+
+package edu.boun.edgecloudsim.edge_orchestrator.policy;
+
+import edu.boun.edgecloudsim.core.SimManager;
+import edu.boun.edgecloudsim.core.SimSettings;
+import edu.boun.edgecloudsim.edge_client.Kernel;
+
+public class NetworkBasedOffloadPolicy implements OffloadDecisionPolicy {
+	private static final double WAN_BW_THRESHOLD = 6; /* Mbps */
+
+	@Override
+	public int getDeviceToOffload(Kernel task) {
+		if(getWanBandwidth(task) > WAN_BW_THRESHOLD)
+			return SimSettings.CLOUD_DATACENTER_ID;
+		return SimSettings.GENERIC_EDGE_DEVICE_ID;
+	}
+
+	/**
+	 * returns the WAN bandwidth of the device in Mbps, 0 if the WAN is congested
+	 */
+	private static double getWanBandwidth(Kernel task) {
+		//upload delay of a task with 1 Mbit file size
+		double wanDelay = SimManager.getInstance().getClusterStateSnapshot().getWanProbeDelay(task);
+		return (wanDelay == 0) ? 0 : (1 / wanDelay); /* Mbps */
+	}
+}
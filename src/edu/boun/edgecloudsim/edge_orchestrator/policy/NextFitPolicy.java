@@ -0,0 +1,58 @@
+/*
+ * Title:        EdgeCloudSim - Next Fit Policy
+ * 
+ * Description: 
+ * NextFitPolicy continues the search from the VM next to the last
+ * selected one. The last selected VM is kept for each host, and the
+ * last selected host is kept for the searches over multiple hosts.
+ *               
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ * Copyright (c) 2017, Bogazici University, Istanbul, Turkey
+ */
+
+package edu.boun.edgecloudsim.edge_orchestrator.policy;
+
+import java.util.Arrays;
+import java.util.List;
+
+import edu.boun.edgecloudsim.core.SimSettings;
+import edu.boun.edgecloudsim.edge_client.Kernel;
+import edu.boun.edgecloudsim.edge_server.EdgeVM;
+
+public class NextFitPolicy extends FitPolicy {
+	private int lastSelectedHostIndex; //used by load balancer
+	private int[] lastSelectedVmIndexes; //used by each host individually
+
+	public NextFitPolicy() {
+		lastSelectedHostIndex = -1;
+		lastSelectedVmIndexes = new int[SimSettings.getInstance().getNumOfEdgeHosts()];
+		Arrays.fill(lastSelectedVmIndexes, -1);
+	}
+
+	@Override
+	public EdgeVM selectVm(Kernel task, int firstHost, int lastHost) {
+		EdgeVM selectedVM = null;
+		int hostCheckCounter = 0;
+		while(selectedVM == null && hostCheckCounter < lastHost - firstHost + 1){
+			if(lastSelectedHostIndex < firstHost || lastSelectedHostIndex >= lastHost)
+				lastSelectedHostIndex = firstHost;
+			else
+				lastSelectedHostIndex++;
+
+			List<EdgeVM> vmArray = getVmList(lastSelectedHostIndex);
+			int tries = 0;
+			while(tries < vmArray.size()){
+				lastSelectedVmIndexes[lastSelectedHostIndex] = (lastSelectedVmIndexes[lastSelectedHostIndex]+1) % vmArray.size();
+				int vmIndex = lastSelectedVmIndexes[lastSelectedHostIndex];
+				if(getRequiredCapacity(task, vmArray.get(vmIndex)) <= getTargetCapacity(lastSelectedHostIndex, vmIndex)){
+					selectedVM = vmArray.get(vmIndex);
+					break;
+				}
+				tries++;
+			}
+
+			hostCheckCounter++;
+		}
+		return selectedVM;
+	}
+}
@@ -0,0 +1,23 @@
+/*
+ * Title:        EdgeCloudSim - Offload Decision Policy
+ * 
+ * Description: 
+ * OffloadDecisionPolicy is an interface for the strategies deciding
+ * the tier (edge or cloud) which executes the task. The orchestrators
+ * resolve the strategy once via OrchestrationPolicyRegistry and call
+ * it for each task.
+ *               
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ * Copyright (c) 2017, Bogazici University, Istanbul, Turkey
+ */
+
+package edu.boun.edgecloudsim.edge_orchestrator.policy;
+
+import edu.boun.edgecloudsim.edge_client.Kernel;
+
+public interface OffloadDecisionPolicy {
+	/**
+	 * returns the id of the datacenter which the task is offloaded to
+	 */
+	public int getDeviceToOffload(Kernel task);
+}
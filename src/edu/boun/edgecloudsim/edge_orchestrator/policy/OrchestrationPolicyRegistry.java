@@ -0,0 +1,79 @@
+/*
+ * Title:        EdgeCloudSim - Orchestration Policy Registry
+ * 
+ * Description: 
+ * OrchestrationPolicyRegistry maps the names used in orchestrator_policies
+ * and simulation_scenarios to the policy strategies. The orchestrators
+ * should create their strategies once in initialize(), so that no string
+ * comparison is done per task.
+ *
+ * New policies can be registered before the simulation is started
+ * without modifying the orchestrators. The names are case insensitive.
+ *               
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ * Copyright (c) 2017, Bogazici University, Istanbul, Turkey
+ */
+
+package edu.boun.edgecloudsim.edge_orchestrator.policy;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import edu.boun.edgecloudsim.core.SimSettings;
+
+public class OrchestrationPolicyRegistry {
+	private static Map<String, Supplier<VmSelectionPolicy>> vmSelectionPolicies = new HashMap<String, Supplier<VmSelectionPolicy>>();
+	private static Map<String, Supplier<OffloadDecisionPolicy>> offloadDecisionPolicies = new HashMap<String, Supplier<OffloadDecisionPolicy>>();
+
+	static {
+		registerVmSelectionPolicy("FIRST_FIT", FirstFitPolicy::new);
+		registerVmSelectionPolicy("STRICT_FIRST_FIT", () -> new FirstFitPolicy(true));
+		registerVmSelectionPolicy("NEXT_FIT", NextFitPolicy::new);
+		registerVmSelectionPolicy("BEST_FIT", BestFitPolicy::new);
+		registerVmSelectionPolicy("WORST_FIT", WorstFitPolicy::new);
+		registerVmSelectionPolicy("RANDOM_FIT", RandomFitPolicy::new);
+		registerVmSelectionPolicy("POWER_OF_TWO", () -> new PowerOfDPolicy(2));
+		registerVmSelectionPolicy("POWER_OF_D", () -> new PowerOfDPolicy(SimSettings.getInstance().getLoadBalancerSampleSize()));
+		registerVmSelectionPolicy("JSQ_D", () -> new JoinShortestQueuePolicy(SimSettings.getInstance().getLoadBalancerSampleSize()));
+
+		registerOffloadDecisionPolicy("SINGLE_TIER", EdgeOnlyOffloadPolicy::new);
+		registerOffloadDecisionPolicy("TWO_TIER", ProbabilisticOffloadPolicy::new);
+		registerOffloadDecisionPolicy("TWO_TIER_WITH_EO", ProbabilisticOffloadPolicy::new);
+		registerOffloadDecisionPolicy("NETWORK_BASED", NetworkBasedOffloadPolicy::new);
+		registerOffloadDecisionPolicy("UTILIZATION_BASED", UtilizationBasedOffloadPolicy::new);
+		registerOffloadDecisionPolicy("HYBRID", HybridOffloadPolicy::new);
+	}
+
+	/**
+	 * registers a VM selection policy, an existing policy with the same name is replaced
+	 */
+	public static void registerVmSelectionPolicy(String name, Supplier<VmSelectionPolicy> factory) {
+		vmSelectionPolicies.put(name.toUpperCase(), factory);
+	}
+
+	/**
+	 * registers an offload decision policy, an existing policy with the same name is replaced
+	 */
+	public static void registerOffloadDecisionPolicy(String name, Supplier<OffloadDecisionPolicy> factory) {
+		offloadDecisionPolicies.put(name.toUpperCase(), factory);
+	}
+
+	/**
+	 * creates a new instance of the VM selection policy with given name
+	 * @return the policy, null if there is no policy with given name
+	 */
+	public static VmSelectionPolicy createVmSelectionPolicy(String name) {
+		Supplier<VmSelectionPolicy> factory = vmSelectionPolicies.get(name.toUpperCase());
+		return (factory == null) ? null : factory.get();
+	}
+
+	/**
+	 * creates a new instance of the offload decision policy with given name
+	 * @return the policy, null if there is no policy with given name
+	 */
+	public static OffloadDecisionPolicy createOffloadDecisionPolicy(String name) {
+		Supplier<OffloadDecisionPolicy> factory = offloadDecisionPolicies.get(name.toUpperCase());
+		return (factory == null) ? null : factory.get();
+	}
+}
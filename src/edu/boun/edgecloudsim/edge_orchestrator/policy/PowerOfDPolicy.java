@@ -0,0 +1,69 @@
+/*
+ * Title:        EdgeCloudSim - Power of D Policy
+ * 
+ * Description: 
+ * PowerOfDPolicy samples d hosts and tries them starting from the
+ * least loaded one, the least loaded VM of the host is selected if
+ * it can serve the task. The cost of the selection does not depend
+ * on the number of hosts.
+ *               
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ * Copyright (c) 2017, Bogazici University, Istanbul, Turkey
+ */
+
+package edu.boun.edgecloudsim.edge_orchestrator.policy;
+
+import java.util.List;
+
+import edu.boun.edgecloudsim.edge_client.Kernel;
+import edu.boun.edgecloudsim.edge_server.EdgeVM;
+import edu.boun.edgecloudsim.utils.SimUtils;
+
+public class PowerOfDPolicy extends FitPolicy {
+	private int sampleSize;
+
+	public PowerOfDPolicy(int _sampleSize) {
+		sampleSize = _sampleSize;
+	}
+
+	@Override
+	public EdgeVM selectVm(Kernel task, int firstHost, int lastHost) {
+		//there is no need to sample if there is only one candidate host
+		int numOfSamples = (firstHost == lastHost) ? 1 : sampleSize;
+
+		int[] sampledHosts = new int[numOfSamples];
+		double[] hostUtilization = new double[numOfSamples];
+		for(int i=0; i<numOfSamples; i++){
+			sampledHosts[i] = (numOfSamples == 1) ? firstHost : SimUtils.getRandomNumber(firstHost, lastHost);
+
+			List<EdgeVM> vmArray = getVmList(sampledHosts[i]);
+			double totalUtilization = 0;
+			for(int vmIndex=0; vmIndex<vmArray.size(); vmIndex++)
+				totalUtilization += (double)100 - getTargetCapacity(vmArray.get(vmIndex));
+			hostUtilization[i] = totalUtilization / (double)(vmArray.size());
+		}
+
+		EdgeVM selectedVM = null;
+		boolean[] tried = new boolean[numOfSamples];
+		for(int tries=0; tries<numOfSamples && selectedVM == null; tries++){
+			int leastLoaded = -1;
+			for(int i=0; i<numOfSamples; i++){
+				if(!tried[i] && (leastLoaded == -1 || hostUtilization[i] < hostUtilization[leastLoaded]))
+					leastLoaded = i;
+			}
+			tried[leastLoaded] = true;
+
+			List<EdgeVM> vmArray = getVmList(sampledHosts[leastLoaded]);
+			double selectedVmCapacity = 0; //start with min value
+			for(int vmIndex=0; vmIndex<vmArray.size(); vmIndex++){
+				double requiredCapacity = getRequiredCapacity(task, vmArray.get(vmIndex));
+				double targetVmCapacity = getTargetCapacity(vmArray.get(vmIndex));
+				if(requiredCapacity <= targetVmCapacity && targetVmCapacity > selectedVmCapacity){
+					selectedVM = vmArray.get(vmIndex);
+					selectedVmCapacity = targetVmCapacity;
+				}
+			}
+		}
+		return selectedVM;
+	}
+}
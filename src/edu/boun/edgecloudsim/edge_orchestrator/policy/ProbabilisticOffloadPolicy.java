@@ -0,0 +1,30 @@
+/*
+ * Title:        EdgeCloudSim - Probabilistic Offload Policy
+ * 
+ * Description: 
+ * ProbabilisticOffloadPolicy offloads the tasks to the cloud with
+ * the probability given in the application look up table (usage
+ * percentage of the cloud), the remaining tasks are offloaded to
+ * the edge servers.
+ *               
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ * Copyright (c) 2017, Bogazici University, Istanbul, Turkey
+ */
+
+package edu.boun.edgecloudsim.edge_orchestrator.policy;
+
+import edu.boun.edgecloudsim.core.SimSettings;
+import edu.boun.edgecloudsim.edge_client.Kernel;
+import edu.boun.edgecloudsim.utils.SimUtils;
+
+public class ProbabilisticOffloadPolicy implements OffloadDecisionPolicy {
+	@Override
+	public int getDeviceToOffload(Kernel task) {
+		//decide to use cloud or Edge VM
+		int CloudVmPicker = SimUtils.getRandomNumber(0, 100);
+
+		if(CloudVmPicker <= SimSettings.getInstance().getApplicationLookUpTable()[task.getKernelType()][1])
+			return SimSettings.CLOUD_DATACENTER_ID;
+		return SimSettings.GENERIC_EDGE_DEVICE_ID;
+	}
+}
@@ -0,0 +1,32 @@
+/*
+ * Title:        EdgeCloudSim - Random Fit Policy
+ * 
+ * Description: 
+ * RandomFitPolicy selects a random VM, the task cannot be served
+ * if the selected VM does not have enough capacity.
+ *               
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ * Copyright (c) 2017, Bogazici University, Istanbul, Turkey
+ */
+
+package edu.boun.edgecloudsim.edge_orchestrator.policy;
+
+import java.util.List;
+
+import edu.boun.edgecloudsim.edge_client.Kernel;
+import edu.boun.edgecloudsim.edge_server.EdgeVM;
+import edu.boun.edgecloudsim.utils.SimUtils;
+
+public class RandomFitPolicy extends FitPolicy {
+	@Override
+	public EdgeVM selectVm(Kernel task, int firstHost, int lastHost) {
+		//no random number is drawn for the host if there is only one candidate
+		int randomHostIndex = (firstHost == lastHost) ? firstHost : SimUtils.getRandomNumber(firstHost, lastHost);
+		List<EdgeVM> vmArray = getVmList(randomHostIndex);
+		int randomIndex = SimUtils.getRandomNumber(0, vmArray.size()-1);
+
+		if(getRequiredCapacity(task, vmArray.get(randomIndex)) <= getTargetCapacity(randomHostIndex, randomIndex))
+			return vmArray.get(randomIndex);
+		return null;
+	}
+}
@@ -0,0 +1,27 @@
+/*
+ * Title:        EdgeCloudSim - Utilization Based Offload Policy
+ * 
+ * Description: 
+ * UtilizationBasedOffloadPolicy offloads the tasks to the cloud if
+ * the average utilization of the edge VMs is higher than 80%.
+ *               
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ * Copyright (c) 2017, Bogazici University, Istanbul, Turkey
+ */
+
+package edu.boun.edgecloudsim.edge_orchestrator.policy;
+
+import edu.boun.edgecloudsim.core.SimManager;
+import edu.boun.edgecloudsim.core.SimSettings;
+import edu.boun.edgecloudsim.edge_client.Kernel;
+
+public class UtilizationBasedOffloadPolicy implements OffloadDecisionPolicy {
+	private static final double EDGE_UTILIZATION_THRESHOLD = 80; /* percentage */
+
+	@Override
+	public int getDeviceToOffload(Kernel task) {
+		if(SimManager.getInstance().getClusterStateSnapshot().getAvgEdgeUtilization() > EDGE_UTILIZATION_THRESHOLD)
+			return SimSettings.CLOUD_DATACENTER_ID;
+		return SimSettings.GENERIC_EDGE_DEVICE_ID;
+	}
+}
@@ -0,0 +1,25 @@
+/*
+ * Title:        EdgeCloudSim - VM Selection Policy
+ * 
+ * Description: 
+ * VmSelectionPolicy is an interface for the strategies selecting
+ * the edge VM which executes the task. The orchestrators resolve
+ * the strategy once via OrchestrationPolicyRegistry and call it
+ * for each task.
+ *               
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ * Copyright (c) 2017, Bogazici University, Istanbul, Turkey
+ */
+
+package edu.boun.edgecloudsim.edge_orchestrator.policy;
+
+import edu.boun.edgecloudsim.edge_client.Kernel;
+import edu.boun.edgecloudsim.edge_server.EdgeVM;
+
+public interface VmSelectionPolicy {
+	/**
+	 * selects a VM on the edge hosts in [firstHost, lastHost]
+	 * @return selected VM, null if there is no VM which can serve the task
+	 */
+	public EdgeVM selectVm(Kernel task, int firstHost, int lastHost);
+}
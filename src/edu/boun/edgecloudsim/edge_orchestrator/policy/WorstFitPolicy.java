@@ -0,0 +1,37 @@
+/*
+ * Title:        EdgeCloudSim - Worst Fit Policy
+ * 
+ * Description: 
+ * WorstFitPolicy selects the least loaded VM (the VM having the
+ * largest unused capacity) among the VMs which can serve the task.
+ *               
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ * Copyright (c) 2017, Bogazici University, Istanbul, Turkey
+ */
+
+package edu.boun.edgecloudsim.edge_orchestrator.policy;
+
+import java.util.List;
+
+import edu.boun.edgecloudsim.edge_client.Kernel;
+import edu.boun.edgecloudsim.edge_server.EdgeVM;
+
+public class WorstFitPolicy extends FitPolicy {
+	@Override
+	public EdgeVM selectVm(Kernel task, int firstHost, int lastHost) {
+		EdgeVM selectedVM = null;
+		double selectedVmCapacity = 0; //start with min value
+		for(int hostIndex=firstHost; hostIndex<=lastHost; hostIndex++){
+			List<EdgeVM> vmArray = getVmList(hostIndex);
+			for(int vmIndex=0; vmIndex<vmArray.size(); vmIndex++){
+				double requiredCapacity = getRequiredCapacity(task, vmArray.get(vmIndex));
+				double targetVmCapacity = getTargetCapacity(hostIndex, vmIndex);
+				if(requiredCapacity <= targetVmCapacity && targetVmCapacity > selectedVmCapacity){
+					selectedVM = vmArray.get(vmIndex);
+					selectedVmCapacity = targetVmCapacity;
+				}
+			}
+		}
+		return selectedVM;
+	}
+}
@@ -0,0 +1,176 @@
+/*
+ * Title:        EdgeCloudSim - Admission Queue
+ *
+ * Description:
+ * AdmissionQueue keeps the kernels which cannot be placed on an edge VM
+ * when they are received by the edge server. Instead of rejecting such a
+ * kernel immediately, the kernel waits in the bounded queue of the host
+ * at the serving WLAN of the device until a VM of the host has enough
+ * capacity or the max waiting time is exceeded. In TWO_TIER_WITH_EO
+ * scenario any edge VM can be selected, so all hosts share one queue.
+ *
+ * The waiting kernels are ordered by the configured discipline:
+ * FIFO (arrival order), SJF (shortest kernel length first) or EDF
+ * (earliest deadline first, the deadline of a kernel is shortened by the
+ * delay sensitivity of its application). Ties are broken by arrival order.
+ *
+ * When a kernel is added, an event with the given tag is sent to the owner
+ * entity for the max waiting time; the owner should call expire() while
+ * handling this event. The owner should also call peek() and remove() when
+ * a kernel finishes on an edge host in order to place the waiting kernels.
+ *
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ * Copyright (c) 2017, Bogazici University, Istanbul, Turkey
+ */
+
+package edu.boun.edgecloudsim.edge_server;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+
+import edu.boun.edgecloudsim.core.SimManager;
+import edu.boun.edgecloudsim.core.SimSettings;
+import edu.boun.edgecloudsim.edge_client.Kernel;
+
+public class AdmissionQueue {
+	private static final int SHARED_QUEUE = -1;
+
+	private int entityId;
+	private int eventTag;
+	private int capacity;
+	private double maxWait;
+	private Comparator<QueuedKernel> comparator;
+	private Map<Integer, PriorityQueue<QueuedKernel>> queues;
+	private long sequenceCounter;
+
+	public AdmissionQueue(int _entityId, int _eventTag, int _capacity, double _maxWait, String discipline) {
+		entityId = _entityId;
+		eventTag = _eventTag;
+		capacity = _capacity;
+		maxWait = _maxWait;
+		queues = new HashMap<Integer, PriorityQueue<QueuedKernel>>();
+		sequenceCounter = 0;
+
+		Comparator<QueuedKernel> arrivalOrder = Comparator.comparingLong(q -> q.sequence);
+		if(discipline.equals("SJF"))
+			comparator = Comparator.<QueuedKernel>comparingLong(q -> q.task.getCloudletLength()).thenComparing(arrivalOrder);
+		else if(discipline.equals("EDF"))
+			comparator = Comparator.<QueuedKernel>comparingDouble(q -> q.deadline).thenComparing(arrivalOrder);
+		else
+			comparator = arrivalOrder;
+	}
+
+	/**
+	 * adds the kernel to the queue of the host at the serving WLAN of the device
+	 * @return false if the queue is full
+	 */
+	public boolean add(Kernel task) {
+		//in our scenario, serving wlan ID is equal to the host id
+		int hostId = SimManager.getInstance().getMobilityModel().
+				getLocation(task.getMobileDeviceId(), CloudSim.clock()).getServingWlanId();
+
+		//the shared queue serves all hosts, so its capacity is scaled accordingly
+		int limit = isQueueShared() ? capacity * SimSettings.getInstance().getNumOfEdgeHosts() : capacity;
+
+		PriorityQueue<QueuedKernel> queue = getQueue(hostId);
+		if(queue.size() >= limit)
+			return false;
+
+		double delaySensitivity = SimSettings.getInstance().getApplicationLookUpTable()[task.getKernelType()][12];
+		QueuedKernel queuedKernel = new QueuedKernel(task, CloudSim.clock(),
+				CloudSim.clock() + maxWait * (1 - delaySensitivity), sequenceCounter++, queue);
+		queue.add(queuedKernel);
+
+		CloudSim.send(entityId, entityId, maxWait, eventTag, queuedKernel);
+		return true;
+	}
+
+	/**
+	 * returns the first kernel waiting for the given host, null if there
+	 * is no such kernel; the kernels which failed due to mobility while
+	 * waiting are discarded
+	 */
+	public QueuedKernel peek(int hostId) {
+		PriorityQueue<QueuedKernel> queue = getQueue(hostId);
+		while(!queue.isEmpty() && queue.peek().task.isFailedDueToHandover())
+			queue.poll().queue = null;
+
+		return queue.peek();
+	}
+
+	/**
+	 * returns the number of kernels waiting for the given host
+	 */
+	public int getQueueLength(int hostId) {
+		return getQueue(hostId).size();
+	}
+
+	public void remove(QueuedKernel queuedKernel) {
+		if(queuedKernel.queue != null){
+			queuedKernel.queue.remove(queuedKernel);
+			queuedKernel.queue = null;
+		}
+	}
+
+	/**
+	 * should be called while handling the event with given tag
+	 * @return the kernel if it is still waiting, null if it already left the queue
+	 */
+	public QueuedKernel expire(Object eventData) {
+		QueuedKernel queuedKernel = (QueuedKernel) eventData;
+		if(queuedKernel.queue == null)
+			return null;
+
+		remove(queuedKernel);
+		return queuedKernel;
+	}
+
+	private PriorityQueue<QueuedKernel> getQueue(int hostId) {
+		int queueId = isQueueShared() ? SHARED_QUEUE : hostId;
+
+		PriorityQueue<QueuedKernel> queue = queues.get(queueId);
+		if(queue == null){
+			queue = new PriorityQueue<QueuedKernel>(comparator);
+			queues.put(queueId, queue);
+		}
+		return queue;
+	}
+
+	private boolean isQueueShared() {
+		return SimManager.getInstance().getSimulationScenario().equals("TWO_TIER_WITH_EO");
+	}
+
+	public static class QueuedKernel {
+		private Kernel task;
+		private double arrivalTime;
+		private double deadline;
+		private long sequence;
+
+		//the queue which the kernel is waiting in, null after the kernel leaves the queue
+		private PriorityQueue<QueuedKernel> queue;
+
+		private QueuedKernel(Kernel _task, double _arrivalTime, double _deadline, long _sequence,
+				PriorityQueue<QueuedKernel> _queue) {
+			task = _task;
+			arrivalTime = _arrivalTime;
+			deadline = _deadline;
+			sequence = _sequence;
+			queue = _queue;
+		}
+
+		public Kernel getTask() {
+			return task;
+		}
+
+		/**
+		 * returns the time spent in the queue until now
+		 */
+		public double getWaitingTime() {
+			return CloudSim.clock() - arrivalTime;
+		}
+	}
+}
@@ -0,0 +1,156 @@
+/*
+ * Title:        EdgeCloudSim - Consolidated Edge Datacenter
+ *
+ * Description:
+ * ConsolidatedEdgeDatacenter operates the hosts of several edge sites
+ * (datacenters defined in edge_devices.xml) within one CloudSim entity,
+ * so the number of datacenter entities does not grow with the number of
+ * sites. The hosts keep the location of their own site.
+ *
+ * CloudSim's Datacenter updates all of its hosts whenever it processes an
+ * event, and an update is skipped if the previous one is too close. In
+ * order to keep the results same as the one-entity-per-site case, the
+ * sites are handled separately: only the hosts of the site related to the
+ * event are updated, each site has its own last process time and the
+ * update events carry the index of the site which scheduled them.
+ *
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ * Copyright (c) 2017, Bogazici University, Istanbul, Turkey
+ */
+
+package edu.boun.edgecloudsim.edge_server;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.DatacenterCharacteristics;
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Storage;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.VmAllocationPolicy;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.CloudSimTags;
+import org.cloudbus.cloudsim.core.SimEvent;
+
+public class ConsolidatedEdgeDatacenter extends EdgeDatacenter {
+	private static final int ALL_SITES = -1;
+
+	private List<List<EdgeHost>> sites;
+	private Map<Integer, Integer> siteOfHost;
+	private double[] lastProcessTime;
+
+	//site of the event being processed
+	private int currentSite;
+
+	public ConsolidatedEdgeDatacenter(String name, DatacenterCharacteristics characteristics,
+			VmAllocationPolicy vmAllocationPolicy, List<Storage> storageList,
+			double schedulingInterval, List<List<EdgeHost>> _sites) throws Exception {
+		super(name, characteristics, vmAllocationPolicy, storageList, schedulingInterval);
+		sites = _sites;
+		siteOfHost = new HashMap<Integer, Integer>();
+		for(int i=0; i<sites.size(); i++){
+			for(EdgeHost host : sites.get(i))
+				siteOfHost.put(host.getId(), i);
+		}
+		lastProcessTime = new double[sites.size()];
+		currentSite = ALL_SITES;
+	}
+
+	@Override
+	public void processEvent(SimEvent ev) {
+		currentSite = findSite(ev);
+		super.processEvent(ev);
+		currentSite = ALL_SITES;
+	}
+
+	@Override
+	protected void updateCloudletProcessing() {
+		if(currentSite == ALL_SITES){
+			for(int i=0; i<sites.size(); i++)
+				updateCloudletProcessing(i);
+		}
+		else{
+			updateCloudletProcessing(currentSite);
+		}
+	}
+
+	//same as Datacenter.updateCloudletProcessing() for the hosts of given site
+	private void updateCloudletProcessing(int site) {
+		if (CloudSim.clock() < 0.111 || CloudSim.clock() > lastProcessTime[site] + CloudSim.getMinTimeBetweenEvents()) {
+			double smallerTime = Double.MAX_VALUE;
+			for (EdgeHost host : sites.get(site)) {
+				double time = host.updateVmsProcessing(CloudSim.clock());
+				if (time < smallerTime)
+					smallerTime = time;
+			}
+
+			if (smallerTime < CloudSim.clock() + CloudSim.getMinTimeBetweenEvents() + 0.01)
+				smallerTime = CloudSim.clock() + CloudSim.getMinTimeBetweenEvents() + 0.01;
+
+			if (smallerTime != Double.MAX_VALUE)
+				schedule(getId(), (smallerTime - CloudSim.clock()), CloudSimTags.VM_DATACENTER_EVENT, site);
+
+			lastProcessTime[site] = CloudSim.clock();
+		}
+	}
+
+	@Override
+	protected void checkCloudletCompletion() {
+		if(currentSite == ALL_SITES){
+			for(int i=0; i<sites.size(); i++)
+				checkCloudletCompletion(i);
+		}
+		else{
+			checkCloudletCompletion(currentSite);
+		}
+	}
+
+	//same as Datacenter.checkCloudletCompletion() for the hosts of given site
+	private void checkCloudletCompletion(int site) {
+		for (EdgeHost host : sites.get(site)) {
+			for (Vm vm : host.getVmList()) {
+				while (vm.getCloudletScheduler().isFinishedCloudlets()) {
+					Cloudlet cl = vm.getCloudletScheduler().getNextFinishedCloudlet();
+					if (cl != null)
+						sendNow(cl.getUserId(), CloudSimTags.CLOUDLET_RETURN, cl);
+				}
+			}
+		}
+	}
+
+	/*
+	 * Datacenter schedules an update event after a cloudlet is submitted,
+	 * the site which the cloudlet is submitted to is attached to the event
+	 */
+	@Override
+	protected void send(int entityId, double delay, int cloudSimTag) {
+		if(entityId == getId() && cloudSimTag == CloudSimTags.VM_DATACENTER_EVENT && currentSite != ALL_SITES)
+			send(entityId, delay, cloudSimTag, currentSite);
+		else
+			super.send(entityId, delay, cloudSimTag);
+	}
+
+	private int findSite(SimEvent ev) {
+		Host host = null;
+		switch (ev.getTag()) {
+		case CloudSimTags.VM_DATACENTER_EVENT:
+			if(ev.getData() instanceof Integer)
+				return (Integer) ev.getData();
+			break;
+		case CloudSimTags.CLOUDLET_SUBMIT:
+		case CloudSimTags.CLOUDLET_SUBMIT_ACK:
+			Cloudlet cl = (Cloudlet) ev.getData();
+			host = getVmAllocationPolicy().getHost(cl.getVmId(), cl.getUserId());
+			break;
+		default:
+			break;
+		}
+
+		if(host != null && siteOfHost.containsKey(host.getId()))
+			return siteOfHost.get(host.getId());
+
+		return ALL_SITES;
+	}
+}
@@ -6,6 +6,11 @@
  * It also provides the list of VMs running on the hosts.
  * This information is critical for the edge orchestrator.
  * 
+ * By default, each datacenter defined in edge_devices.xml is a separate
+ * CloudSim entity. If edge_datacenter_groups is set, consecutive sites are
+ * grouped into the given number of ConsolidatedEdgeDatacenter entities.
+ * The sites of a group must have the same characteristics and costs.
+ * 
  * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
  * Copyright (c) 2017, Bogazici University, Istanbul, Turkey
  */
@@ -16,6 +21,7 @@ import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
+import org.cloudbus.cloudsim.CloudletScheduler;
 import org.cloudbus.cloudsim.CloudletSchedulerTimeShared;
 import org.cloudbus.cloudsim.Datacenter;
 import org.cloudbus.cloudsim.DatacenterCharacteristics;
@@ -35,7 +41,9 @@ import org.w3c.dom.NodeList;
 
 import edu.boun.edgecloudsim.core.SimManager;
 import edu.boun.edgecloudsim.core.SimSettings;
+import edu.boun.edgecloudsim.core.VirtualTimeCloudletScheduler;
 import edu.boun.edgecloudsim.utils.Location;
+import edu.boun.edgecloudsim.utils.SimLogger;
 
 public class DefaultEdgeServerManager extends EdgeServerManager{
 	private int hostIdCounter;
@@ -56,10 +64,23 @@ public class DefaultEdgeServerManager extends EdgeServerManager{
 	public void startDatacenters() throws Exception{
 		Document doc = SimSettings.getInstance().getEdgeDevicesDocument();
 		NodeList datacenterList = doc.getElementsByTagName("datacenter");
-		for (int i = 0; i < datacenterList.getLength(); i++) {
-			Node datacenterNode = datacenterList.item(i);
-			Element datacenterElement = (Element) datacenterNode;
-			localDatacenters.add(createDatacenter(i, datacenterElement));
+		int numOfGroups = SimSettings.getInstance().getEdgeDatacenterGroups();
+		if(numOfGroups == 0){
+			for (int i = 0; i < datacenterList.getLength(); i++) {
+				Node datacenterNode = datacenterList.item(i);
+				Element datacenterElement = (Element) datacenterNode;
+				localDatacenters.add(createDatacenter(i, datacenterElement));
+			}
+			return;
+		}
+		
+		//consecutive sites are grouped, so the host ids of the datacenters are in increasing order
+		numOfGroups = Math.min(numOfGroups, datacenterList.getLength());
+		int firstSite = 0;
+		for (int i = 0; i < numOfGroups; i++) {
+			int lastSite = (int)(((long)(i+1) * datacenterList.getLength()) / numOfGroups) - 1;
+			localDatacenters.add(createConsolidatedDatacenter(i, datacenterList, firstSite, lastSite));
+			firstSite = lastSite + 1;
 		}
 	}
 
@@ -93,7 +114,9 @@ public class DefaultEdgeServerManager extends EdgeServerManager{
 					long bandwidth = SimSettings.getInstance().getWlanBandwidth() / (hostNodeList.getLength()+vmNodeList.getLength());
 					
 					//VM Parameters		
-					EdgeVM vm = new EdgeVM(vmCounter, brockerId, mips, numOfCores, ram, bandwidth, storage, vmm, new CloudletSchedulerTimeShared());
+					CloudletScheduler scheduler = SimSettings.getInstance().isVirtualTimeCloudletSchedulerEnabled() ?
+							new VirtualTimeCloudletScheduler() : new CloudletSchedulerTimeShared();
+					EdgeVM vm = new EdgeVM(vmCounter, brockerId, mips, numOfCores, ram, bandwidth, storage, vmm, scheduler);
 					vmList.get(hostCounter).add(vm);
 					vmCounter++;
 				}
@@ -158,11 +181,65 @@ public class DefaultEdgeServerManager extends EdgeServerManager{
 		Datacenter datacenter = null;
 	
 		VmAllocationPolicy vm_policy = getVmAllocationPolicy(hostList,index);
-		datacenter = new Datacenter(name, characteristics, vm_policy, storageList, 0);
+		datacenter = new EdgeDatacenter(name, characteristics, vm_policy, storageList, 0);
 		
 		return datacenter;
 	}
 	
+	//the characteristics of the first site are used for all sites of the group,
+	//so the sites of a group must have the same characteristics and costs
+	private Datacenter createConsolidatedDatacenter(int index, NodeList datacenterList, int firstSite, int lastSite) throws Exception{
+		Element firstElement = (Element) datacenterList.item(firstSite);
+		for (int i = firstSite + 1; i <= lastSite; i++) {
+			if(!haveSameCharacteristics(firstElement, (Element) datacenterList.item(i))){
+				SimLogger.printLine("Edge datacenters " + firstSite + " and " + i + " have different characteristics or costs, " +
+						"they cannot be grouped! Check edge_datacenter_groups. Terminating simulation...");
+				System.exit(0);
+			}
+		}
+		
+		String arch = firstElement.getAttribute("arch");
+		String os = firstElement.getAttribute("os");
+		String vmm = firstElement.getAttribute("vmm");
+		double costPerBw = Double.parseDouble(firstElement.getElementsByTagName("costPerBw").item(0).getTextContent());
+		double costPerSec = Double.parseDouble(firstElement.getElementsByTagName("costPerSec").item(0).getTextContent());
+		double costPerMem = Double.parseDouble(firstElement.getElementsByTagName("costPerMem").item(0).getTextContent());
+		double costPerStorage = Double.parseDouble(firstElement.getElementsByTagName("costPerStorage").item(0).getTextContent());
+		
+		List<List<EdgeHost>> sites = new ArrayList<List<EdgeHost>>();
+		List<EdgeHost> hostList = new ArrayList<EdgeHost>();
+		for (int i = firstSite; i <= lastSite; i++) {
+			List<EdgeHost> siteHostList = createHosts((Element) datacenterList.item(i));
+			sites.add(siteHostList);
+			hostList.addAll(siteHostList);
+		}
+		
+		String name = "Datacenter_" + Integer.toString(index);
+		double time_zone = 3.0;         // time zone this resource located
+		LinkedList<Storage> storageList = new LinkedList<Storage>();	//we are not adding SAN devices by now
+		
+		DatacenterCharacteristics characteristics = new DatacenterCharacteristics(
+                arch, os, vmm, hostList, time_zone, costPerSec, costPerMem, costPerStorage, costPerBw);
+		
+		VmAllocationPolicy vm_policy = getVmAllocationPolicy(hostList,index);
+		return new ConsolidatedEdgeDatacenter(name, characteristics, vm_policy, storageList, 0, sites);
+	}
+	
+	private boolean haveSameCharacteristics(Element first, Element second){
+		for(String attribute : new String[]{"arch", "os", "vmm"})
+			if(!first.getAttribute(attribute).equals(second.getAttribute(attribute)))
+				return false;
+		
+		for(String cost : new String[]{"costPerBw", "costPerSec", "costPerMem", "costPerStorage"}){
+			double firstCost = Double.parseDouble(first.getElementsByTagName(cost).item(0).getTextContent());
+			double secondCost = Double.parseDouble(second.getElementsByTagName(cost).item(0).getTextContent());
+			if(firstCost != secondCost)
+				return false;
+		}
+		
+		return true;
+	}
+	
 	private List<EdgeHost> createHosts(Element datacenterElement){
 
 		// Here are the steps needed to create a PowerDatacenter:
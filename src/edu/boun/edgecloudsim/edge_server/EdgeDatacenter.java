@@ -0,0 +1,52 @@
+/*
+ * Title:        EdgeCloudSim - EdgeDatacenter
+ * 
+ * Description: 
+ * EdgeDatacenter notifies the cluster state snapshot after each event
+ * over CloudSim's Datacenter class, since the cloudlets are submitted to
+ * and removed from the edge VMs while these events are processed.
+ * A kernel is no longer counted as bound to its edge VM once it is
+ * submitted to the VM.
+ *               
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ * Copyright (c) 2017, Bogazici University, Istanbul, Turkey
+ */
+
+package edu.boun.edgecloudsim.edge_server;
+
+import java.util.List;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.Datacenter;
+import org.cloudbus.cloudsim.DatacenterCharacteristics;
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Storage;
+import org.cloudbus.cloudsim.VmAllocationPolicy;
+import org.cloudbus.cloudsim.core.SimEvent;
+
+import edu.boun.edgecloudsim.core.SimManager;
+
+public class EdgeDatacenter extends Datacenter {
+	
+	public EdgeDatacenter(String name, DatacenterCharacteristics characteristics,
+			VmAllocationPolicy vmAllocationPolicy, List<Storage> storageList,
+			double schedulingInterval) throws Exception {
+		super(name, characteristics, vmAllocationPolicy, storageList, schedulingInterval);
+	}
+
+	@Override
+	public void processEvent(SimEvent ev) {
+		super.processEvent(ev);
+		SimManager.getInstance().getClusterStateSnapshot().invalidate();
+	}
+
+	@Override
+	protected void processCloudletSubmit(SimEvent ev, boolean ack) {
+		Cloudlet cl = (Cloudlet) ev.getData();
+		Host host = getVmAllocationPolicy().getHost(cl.getVmId(), cl.getUserId());
+		if(host != null && host.getVm(cl.getVmId(), cl.getUserId()) instanceof EdgeVM)
+			((EdgeVM) host.getVm(cl.getVmId(), cl.getUserId())).removeBoundKernel();
+		
+		super.processCloudletSubmit(ev, ack);
+	}
+}
@@ -26,6 +26,7 @@ import org.cloudbus.cloudsim.VmAllocationPolicy;
 public abstract class EdgeServerManager {
 	protected List<Datacenter> localDatacenters;
 	protected List<List<EdgeVM>> vmList;
+	private List<Host> hostList;
 
 	public EdgeServerManager() {
 		localDatacenters=new ArrayList<Datacenter>();
@@ -36,10 +37,38 @@ public abstract class EdgeServerManager {
 		return vmList.get(hostId);
 	}
 	
+	/*
+	 * makes a VM created after the simulation is started visible to the orchestrator
+	 */
+	public void addVm(int hostId, EdgeVM vm){
+		vmList.get(hostId).add(vm);
+	}
+	
+	/*
+	 * hides the VM from the orchestrator, the VM should be destroyed separately
+	 */
+	public void removeVm(int hostId, EdgeVM vm){
+		vmList.get(hostId).remove(vm);
+	}
+	
 	public List<Datacenter> getDatacenterList(){
 		return localDatacenters;
 	}
 	
+	/*
+	 * returns the edge host with given id, a datacenter may have
+	 * more than one host, so the datacenter index cannot be used
+	 */
+	public Host getHost(int hostId){
+		if(hostList == null){
+			hostList = new ArrayList<Host>();
+			for(Datacenter datacenter : localDatacenters)
+				hostList.addAll(datacenter.getHostList());
+			hostList.sort((a, b) -> Integer.compare(a.getId(), b.getId()));
+		}
+		return hostList.get(hostId);
+	}
+	
 	/*
 	 * initialize edge server manager if needed
 	 */
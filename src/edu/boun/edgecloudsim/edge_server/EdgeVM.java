@@ -2,7 +2,10 @@
  * Title:        EdgeCloudSim - EdgeVM
  * 
  * Description: 
- * EdgeVM adds vm type information over CloudSim's VM class
+ * EdgeVM adds vm type information over CloudSim's VM class. It also
+ * counts the kernels which are bound to the VM but not submitted to it
+ * yet (e.g. being uploaded), so the VM is not destroyed while they are
+ * on the way.
  *               
  * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
  * Copyright (c) 2017, Bogazici University, Istanbul, Turkey
@@ -17,6 +20,7 @@ import edu.boun.edgecloudsim.core.SimSettings;
 
 public class EdgeVM extends Vm {
 	private SimSettings.VM_TYPES type;
+	private int numOfBoundKernels; //bound to the VM but not submitted yet
 	
 	public EdgeVM(int id, int userId, double mips, int numberOfPes, int ram,
 			long bw, long size, String vmm, CloudletScheduler cloudletScheduler) {
@@ -28,4 +32,23 @@ public class EdgeVM extends Vm {
 	public SimSettings.VM_TYPES getVmType(){
 		return type;
 	}
+	
+	public void addBoundKernel(){
+		numOfBoundKernels++;
+	}
+	
+	/*
+	 * should be called when a bound kernel is submitted to the VM or
+	 * when it fails before the submission
+	 */
+	public void removeBoundKernel(){
+		numOfBoundKernels--;
+	}
+	
+	/**
+	 * returns the number of kernels bound to the VM but not submitted yet
+	 */
+	public int getNumOfBoundKernels(){
+		return numOfBoundKernels;
+	}
 }
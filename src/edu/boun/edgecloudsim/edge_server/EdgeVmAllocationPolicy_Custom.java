@@ -6,6 +6,13 @@
  * VM is created on which host located on the datacenters. For those
  * who wants to add another Vm Allocation Policy to EdgeCloudSim should
  * provide another concrete instance of VmAllocationPolicy via ScenarioFactory
+ * 
+ * The host of each VM defined in edge_devices.xml is found once, when the
+ * first VM is allocated. The VMs created after the simulation is started
+ * (e.g. by EdgeVmAutoscaler) should be added via addRuntimeVm() before
+ * they are sent to the datacenter; these VMs are not counted by
+ * getCreatedVmNum(). The hosts are identified by their ids, so one policy
+ * can serve the hosts of several sites (see ConsolidatedEdgeDatacenter).
  *               
  * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
  * Copyright (c) 2017, Bogazici University, Istanbul, Turkey
@@ -38,12 +45,21 @@ public class EdgeVmAllocationPolicy_Custom extends VmAllocationPolicy {
 	private static int createdVmNum;
 	private int DataCenterIndex;
 	
+	//id of the host of each VM in this datacenter
+	private Map<Integer, Integer> configuredVms;
+	private Map<Integer, Integer> runtimeVms;
+	private Map<Integer, Host> hostsById;
+	
 	public EdgeVmAllocationPolicy_Custom(List<? extends Host> list, int _DataCenterIndex) {
 		super(list);
 		
 		setVmTable(new HashMap<String, Host>());
 		DataCenterIndex=_DataCenterIndex;
 		createdVmNum = 0;
+		runtimeVms = new HashMap<Integer, Integer>();
+		hostsById = new HashMap<Integer, Host>();
+		for(Host host : list)
+			hostsById.put(host.getId(), host);
 	}
 
 	@Override
@@ -51,42 +67,24 @@ public class EdgeVmAllocationPolicy_Custom extends VmAllocationPolicy {
 		boolean result = false;
 		
 		if (!getVmTable().containsKey(vm.getUid()) && vm instanceof EdgeVM) { // if this vm was not created
-			boolean vmFound = false;
-			int vmCounter = 0;
-			int hostIndex = 0;
-			int dataCenterIndex = 0;
+			if(configuredVms == null)
+				findHostsOfConfiguredVms();
 			
-			//find proper datacenter id and host id for this VM
-			Document doc = SimSettings.getInstance().getEdgeDevicesDocument();
-			NodeList datacenterList = doc.getElementsByTagName("datacenter");
-			for (int i = 0; (!vmFound && i < datacenterList.getLength()); i++) {
-				Node datacenterNode = datacenterList.item(i);
-				Element datacenterElement = (Element) datacenterNode;
-				NodeList hostNodeList = datacenterElement.getElementsByTagName("host");
-				for (int j = 0; (!vmFound  && j < hostNodeList.getLength()); j++) {
-					Node hostNode = hostNodeList.item(j);
-					Element hostElement = (Element) hostNode;
-					NodeList vmNodeList = hostElement.getElementsByTagName("VM");
-					for (int k = 0; (!vmFound && k < vmNodeList.getLength()); k++) {
-
-						if(vmCounter == vm.getId()){
-							dataCenterIndex = i;
-							hostIndex = j;
-							vmFound = true;
-						}
-
-						vmCounter++;
-					}
-				}
+			Integer hostId = configuredVms.get(vm.getId());
+			boolean isRuntimeVm = false;
+			if(hostId == null){
+				hostId = runtimeVms.get(vm.getId());
+				isRuntimeVm = true;
 			}
 
-			if(vmFound && dataCenterIndex == DataCenterIndex && hostIndex < getHostList().size()){
-				Host host = getHostList().get(hostIndex);
+			Host host = (hostId != null) ? hostsById.get(hostId) : null;
+			if(host != null){
 				result = host.vmCreate(vm);
 	
 				if (result) { // if vm were succesfully created in the host
 					getVmTable().put(vm.getUid(), host);
-					createdVmNum++;
+					if(!isRuntimeVm)
+						createdVmNum++;
 					Log.formatLine("%.2f: Edge VM #" + vm.getId() + " has been allocated to the host #" + host.getId(),CloudSim.clock());
 					result = true;
 				}
@@ -96,6 +94,40 @@ public class EdgeVmAllocationPolicy_Custom extends VmAllocationPolicy {
 		return result;
 	}
 
+	//the VMs and hosts are numbered in the order of edge_devices.xml
+	private void findHostsOfConfiguredVms() {
+		configuredVms = new HashMap<Integer, Integer>();
+		int hostCounter = 0;
+		int vmCounter = 0;
+		
+		Document doc = SimSettings.getInstance().getEdgeDevicesDocument();
+		NodeList datacenterList = doc.getElementsByTagName("datacenter");
+		for (int i = 0; i < datacenterList.getLength(); i++) {
+			Node datacenterNode = datacenterList.item(i);
+			Element datacenterElement = (Element) datacenterNode;
+			NodeList hostNodeList = datacenterElement.getElementsByTagName("host");
+			for (int j = 0; j < hostNodeList.getLength(); j++) {
+				Node hostNode = hostNodeList.item(j);
+				Element hostElement = (Element) hostNode;
+				NodeList vmNodeList = hostElement.getElementsByTagName("VM");
+				for (int k = 0; k < vmNodeList.getLength(); k++) {
+					if(hostsById.containsKey(hostCounter))
+						configuredVms.put(vmCounter, hostCounter);
+					vmCounter++;
+				}
+				hostCounter++;
+			}
+		}
+	}
+	
+	/**
+	 * the VM with given id will be created on the host with given id
+	 * when it is sent to the datacenter
+	 */
+	public void addRuntimeVm(int vmId, int hostId) {
+		runtimeVms.put(vmId, hostId);
+	}
+
 	@Override
 	public boolean allocateHostForVm(Vm vm, Host host) {
 		if (host.vmCreate(vm)) { // if vm has been succesfully created in the host
@@ -122,6 +154,7 @@ public class EdgeVmAllocationPolicy_Custom extends VmAllocationPolicy {
 		if (host != null) {
 			host.vmDestroy(vm);
 		}
+		runtimeVms.remove(vm.getId());
 	}
 
 	@Override
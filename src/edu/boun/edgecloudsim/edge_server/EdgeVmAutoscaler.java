@@ -0,0 +1,252 @@
+/*
+ * Title:        EdgeCloudSim - Edge VM Autoscaler
+ *
+ * Description:
+ * EdgeVmAutoscaler adds VMs to or removes VMs from the edge hosts at
+ * runtime. Every control interval, the average utilization of the VMs on
+ * each host and the number of kernels waiting in the admission queue of
+ * the host are sampled; the decisions are based on the average of the
+ * last samples (window) of the host:
+ * - a VM is added if the utilization or the queue length is above the
+ *   upper limit and the host has enough resources,
+ * - a VM is removed if the utilization is below the lower limit and the
+ *   host has more than one VM.
+ * At most one VM of a host is booted at the same time and the samples of
+ * a host are discarded after each action, so the next action is based on
+ * the samples taken after the previous one.
+ *
+ * A new VM has the same characteristics as the first VM of the host and
+ * it is created on the host immediately, but it is not visible to the
+ * orchestrator until the boot time passes. A removed VM is hidden from
+ * the orchestrator immediately and it is destroyed when its kernels are
+ * finished, including the kernels which are bound to it but still being
+ * uploaded.
+ *
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ * Copyright (c) 2017, Bogazici University, Istanbul, Turkey
+ */
+
+package edu.boun.edgecloudsim.edge_server;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.cloudbus.cloudsim.CloudletScheduler;
+import org.cloudbus.cloudsim.CloudletSchedulerTimeShared;
+import org.cloudbus.cloudsim.Datacenter;
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.CloudSimTags;
+import org.cloudbus.cloudsim.core.SimEntity;
+import org.cloudbus.cloudsim.core.SimEvent;
+
+import edu.boun.edgecloudsim.core.SimManager;
+import edu.boun.edgecloudsim.core.SimSettings;
+import edu.boun.edgecloudsim.core.VirtualTimeCloudletScheduler;
+import edu.boun.edgecloudsim.edge_client.DefaultMobileDeviceManager;
+import edu.boun.edgecloudsim.edge_client.MobileDeviceManager;
+import edu.boun.edgecloudsim.utils.SimLogger;
+
+public class EdgeVmAutoscaler extends SimEntity {
+	private static final int CONTROL = 0;
+	private static final int VM_BOOTED = 1;
+
+	private double interval;
+	private int window;
+	private double bootTime;
+	private double upperUtilization;
+	private double lowerUtilization;
+	private double queueLengthLimit;
+
+	private int numberOfHost;
+	private Datacenter[] datacenterOfHost;
+	private EdgeVM[] templateVms;
+
+	//last samples of each host, used as ring buffers
+	private double[][] utilizationSamples;
+	private double[][] queueLengthSamples;
+	private int[] sampleCounter;
+
+	//VM being booted on each host, null if there is no such VM
+	private EdgeVM[] bootingVms;
+	private List<EdgeVM> drainingVms;
+	private int vmIdCounter;
+	private int numOfCreatedVms;
+	private int numOfDestroyedVms;
+
+	public EdgeVmAutoscaler() {
+		super("EdgeVmAutoscaler");
+		interval = SimSettings.getInstance().getEdgeAutoscalerInterval();
+		window = SimSettings.getInstance().getEdgeAutoscalerWindow();
+		bootTime = SimSettings.getInstance().getEdgeAutoscalerBootTime();
+		upperUtilization = SimSettings.getInstance().getEdgeAutoscalerUpperUtilization();
+		lowerUtilization = SimSettings.getInstance().getEdgeAutoscalerLowerUtilization();
+		queueLengthLimit = SimSettings.getInstance().getEdgeAutoscalerQueueLength();
+		drainingVms = new ArrayList<EdgeVM>();
+	}
+
+	@Override
+	public void startEntity() {
+		EdgeServerManager edgeServerManager = SimManager.getInstance().getEdgeServerManager();
+		numberOfHost = SimSettings.getInstance().getNumOfEdgeHosts();
+		datacenterOfHost = new Datacenter[numberOfHost];
+		templateVms = new EdgeVM[numberOfHost];
+
+		for(Datacenter datacenter : edgeServerManager.getDatacenterList()) {
+			if(!(datacenter.getVmAllocationPolicy() instanceof EdgeVmAllocationPolicy_Custom)){
+				SimLogger.printLine("EdgeVmAutoscaler requires EdgeVmAllocationPolicy_Custom! Terminating simulation...");
+				System.exit(0);
+			}
+
+			for (Host host : datacenter.getHostList()) {
+				datacenterOfHost[host.getId()] = datacenter;
+				templateVms[host.getId()] = edgeServerManager.getVmList(host.getId()).get(0);
+			}
+		}
+
+		//the ids of the new VMs should not conflict with the existing ones or
+		//with the ids of the mobile VMs (mobile device id + number of edge and
+		//cloud VMs) which may be created lazily after the autoscaler starts
+		vmIdCounter = SimSettings.getInstance().getNumOfEdgeVMs() + SimSettings.getInstance().getNumOfCloudVMs()
+				+ SimManager.getInstance().getNumOfMobileDevice();
+		for(Vm vm : SimManager.getInstance().getMobileDeviceManager().getVmList())
+			vmIdCounter = Math.max(vmIdCounter, vm.getId() + 1);
+
+		utilizationSamples = new double[numberOfHost][window];
+		queueLengthSamples = new double[numberOfHost][window];
+		sampleCounter = new int[numberOfHost];
+		bootingVms = new EdgeVM[numberOfHost];
+
+		schedule(getId(), interval, CONTROL);
+	}
+
+	@Override
+	public void processEvent(SimEvent ev) {
+		switch (ev.getTag()) {
+		case CONTROL:
+			destroyDrainedVms();
+			for(int hostIndex=0; hostIndex<numberOfHost; hostIndex++)
+				control(hostIndex);
+
+			if(CloudSim.clock() < SimSettings.getInstance().getSimulationTime())
+				schedule(getId(), interval, CONTROL);
+			break;
+		case VM_BOOTED:
+			vmBooted((Integer) ev.getData());
+			break;
+		default:
+			SimLogger.printLine(getName() + ": unknown event type");
+			break;
+		}
+	}
+
+	@Override
+	public void shutdownEntity() {
+		SimLogger.printLine("# of VMs created/destroyed by the edge autoscaler: " + numOfCreatedVms + "/" + numOfDestroyedVms);
+	}
+
+	private void control(int hostIndex) {
+		int slot = sampleCounter[hostIndex] % window;
+		utilizationSamples[hostIndex][slot] = SimManager.getInstance().getClusterStateSnapshot().getEdgeHostUtilization(hostIndex);
+		queueLengthSamples[hostIndex][slot] = getQueueLength(hostIndex);
+		sampleCounter[hostIndex]++;
+
+		if(sampleCounter[hostIndex] < window || bootingVms[hostIndex] != null)
+			return;
+
+		double utilization = 0;
+		double queueLength = 0;
+		for(int i=0; i<window; i++){
+			utilization += utilizationSamples[hostIndex][i];
+			queueLength += queueLengthSamples[hostIndex][i];
+		}
+		utilization /= window;
+		queueLength /= window;
+
+		if(utilization > upperUtilization || (queueLengthLimit > 0 && queueLength > queueLengthLimit)){
+			if(createVm(hostIndex))
+				sampleCounter[hostIndex] = 0;
+		}
+		else if(utilization < lowerUtilization &&
+				SimManager.getInstance().getEdgeServerManager().getVmList(hostIndex).size() > 1){
+			removeVm(hostIndex);
+			sampleCounter[hostIndex] = 0;
+		}
+	}
+
+	private int getQueueLength(int hostIndex) {
+		MobileDeviceManager mobileDeviceManager = SimManager.getInstance().getMobileDeviceManager();
+		if(mobileDeviceManager instanceof DefaultMobileDeviceManager){
+			AdmissionQueue admissionQueue = ((DefaultMobileDeviceManager) mobileDeviceManager).getAdmissionQueue();
+			if(admissionQueue != null)
+				return admissionQueue.getQueueLength(hostIndex);
+		}
+		return 0;
+	}
+
+	private boolean createVm(int hostIndex) {
+		EdgeVM template = templateVms[hostIndex];
+		CloudletScheduler scheduler = SimSettings.getInstance().isVirtualTimeCloudletSchedulerEnabled() ?
+				new VirtualTimeCloudletScheduler() : new CloudletSchedulerTimeShared();
+		EdgeVM vm = new EdgeVM(vmIdCounter, template.getUserId(), template.getMips(), template.getNumberOfPes(),
+				template.getRam(), template.getBw(), template.getSize(), template.getVmm(), scheduler);
+
+		Datacenter datacenter = datacenterOfHost[hostIndex];
+		Host host = SimManager.getInstance().getEdgeServerManager().getHost(hostIndex);
+		if(!host.isSuitableForVm(vm))
+			return false;
+
+		vmIdCounter++;
+		((EdgeVmAllocationPolicy_Custom) datacenter.getVmAllocationPolicy()).addRuntimeVm(vm.getId(), hostIndex);
+		sendNow(datacenter.getId(), CloudSimTags.VM_CREATE, vm);
+
+		bootingVms[hostIndex] = vm;
+		schedule(getId(), bootTime, VM_BOOTED, hostIndex);
+		return true;
+	}
+
+	private void vmBooted(int hostIndex) {
+		EdgeVM vm = bootingVms[hostIndex];
+		bootingVms[hostIndex] = null;
+		if(vm.getHost() == null){
+			SimLogger.printLine("Edge VM #" + vm.getId() + " cannot be created on host #" + hostIndex);
+			return;
+		}
+
+		SimManager.getInstance().getMobileDeviceManager().vmCreatedAtRuntime(vm, datacenterOfHost[hostIndex].getId());
+		SimManager.getInstance().getEdgeServerManager().addVm(hostIndex, vm);
+		SimManager.getInstance().getClusterStateSnapshot().invalidate();
+		numOfCreatedVms++;
+	}
+
+	//the VM having the least number of kernels is removed, the last one is selected in case of a tie
+	private void removeVm(int hostIndex) {
+		List<EdgeVM> vmArray = SimManager.getInstance().getEdgeServerManager().getVmList(hostIndex);
+		EdgeVM selectedVm = null;
+		for(int vmIndex=vmArray.size()-1; vmIndex>=0; vmIndex--){
+			EdgeVM vm = vmArray.get(vmIndex);
+			if(selectedVm == null ||
+					vm.getCloudletScheduler().runningCloudlets() < selectedVm.getCloudletScheduler().runningCloudlets())
+				selectedVm = vm;
+		}
+
+		SimManager.getInstance().getEdgeServerManager().removeVm(hostIndex, selectedVm);
+		SimManager.getInstance().getClusterStateSnapshot().invalidate();
+		drainingVms.add(selectedVm);
+	}
+
+	private void destroyDrainedVms() {
+		Iterator<EdgeVM> iterator = drainingVms.iterator();
+		while(iterator.hasNext()){
+			EdgeVM vm = iterator.next();
+			if(vm.getCloudletScheduler().runningCloudlets() == 0 && vm.getNumOfBoundKernels() == 0){
+				SimManager.getInstance().getMobileDeviceManager().vmDestroyedAtRuntime(vm);
+				sendNow(vm.getHost().getDatacenter().getId(), CloudSimTags.VM_DESTROY, vm);
+				iterator.remove();
+				numOfDestroyedVms++;
+			}
+		}
+	}
+}
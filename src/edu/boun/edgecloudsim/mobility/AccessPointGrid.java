@@ -0,0 +1,196 @@
+/*
+ * Title:        EdgeCloudSim - Access Point Grid
+ *
+ * Description:
+ * AccessPointGrid is a uniform spatial grid built over the access point
+ * coordinates defined in edge_devices.xml. For each grid cell, the access
+ * points which may be the nearest one to any point inside the cell are
+ * computed once at construction time. Therefore, resolving the serving
+ * WLAN of a position only scans a few candidates instead of all APs.
+ *
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ * Copyright (c) 2017, Bogazici University, Istanbul, Turkey
+ */
+
+package edu.boun.edgecloudsim.mobility;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import edu.boun.edgecloudsim.core.SimSettings;
+import edu.boun.edgecloudsim.utils.Location;
+
+public class AccessPointGrid {
+	private int numOfAccessPoints;
+	private double[] apXPos;
+	private double[] apYPos;
+	private Location[] apLocations;
+
+	private double minX, minY, maxX, maxY;
+	private double cellSize;
+	private int numOfColumns;
+	private int numOfRows;
+
+	//candidate access points of each cell are stored in a flat array
+	//cellStart[c] .. cellStart[c+1] gives the range of cell c
+	private int[] cellStart;
+	private int[] cellCandidates;
+
+	/**
+	 * creates the grid by using the datacenter locations in edge_devices.xml
+	 * @param _cellSize size of a grid cell, use 0 for automatic sizing
+	 */
+	public AccessPointGrid(double _cellSize){
+		Document doc = SimSettings.getInstance().getEdgeDevicesDocument();
+		NodeList datacenterList = doc.getElementsByTagName("datacenter");
+		numOfAccessPoints = datacenterList.getLength();
+		apXPos = new double[numOfAccessPoints];
+		apYPos = new double[numOfAccessPoints];
+		apLocations = new Location[numOfAccessPoints];
+
+		for (int i = 0; i < numOfAccessPoints; i++) {
+			Node datacenterNode = datacenterList.item(i);
+			Element datacenterElement = (Element) datacenterNode;
+			Element location = (Element)datacenterElement.getElementsByTagName("location").item(0);
+			int placeTypeIndex = Integer.parseInt(location.getElementsByTagName("attractiveness").item(0).getTextContent());
+			int wlan_id = Integer.parseInt(location.getElementsByTagName("wlan_id").item(0).getTextContent());
+			int x_pos = Integer.parseInt(location.getElementsByTagName("x_pos").item(0).getTextContent());
+			int y_pos = Integer.parseInt(location.getElementsByTagName("y_pos").item(0).getTextContent());
+
+			apXPos[i] = x_pos;
+			apYPos[i] = y_pos;
+			apLocations[i] = new Location(placeTypeIndex, wlan_id, x_pos, y_pos);
+		}
+
+		buildGrid(_cellSize);
+	}
+
+	private void buildGrid(double _cellSize){
+		minX = Double.MAX_VALUE; minY = Double.MAX_VALUE;
+		maxX = -Double.MAX_VALUE; maxY = -Double.MAX_VALUE;
+		for(int i=0; i<numOfAccessPoints; i++){
+			minX = Math.min(minX, apXPos[i]);
+			minY = Math.min(minY, apYPos[i]);
+			maxX = Math.max(maxX, apXPos[i]);
+			maxY = Math.max(maxY, apYPos[i]);
+		}
+
+		//avoid degenerate areas (e.g. all APs are on a horizontal line)
+		if(maxX - minX < 1) maxX = minX + 1;
+		if(maxY - minY < 1) maxY = minY + 1;
+
+		cellSize = _cellSize;
+		if(cellSize <= 0){
+			//roughly one access point per cell
+			cellSize = Math.sqrt(((maxX - minX) * (maxY - minY)) / (double)numOfAccessPoints);
+		}
+
+		numOfColumns = Math.max(1, (int)Math.ceil((maxX - minX) / cellSize));
+		numOfRows = Math.max(1, (int)Math.ceil((maxY - minY) / cellSize));
+
+		int numOfCells = numOfColumns * numOfRows;
+		cellStart = new int[numOfCells + 1];
+		int[] buffer = new int[numOfAccessPoints];
+		int[] candidates = new int[numOfAccessPoints];
+		int numOfCandidates = 0;
+		double halfDiagonal = cellSize * Math.sqrt(2) / 2;
+
+		for(int cell=0; cell<numOfCells; cell++){
+			double centerX = minX + ((cell % numOfColumns) + 0.5) * cellSize;
+			double centerY = minY + ((cell / numOfColumns) + 0.5) * cellSize;
+
+			double nearestDistance = Double.MAX_VALUE;
+			for(int i=0; i<numOfAccessPoints; i++)
+				nearestDistance = Math.min(nearestDistance, distance(centerX, centerY, i));
+
+			//any AP which can be the nearest one to a point in this cell
+			//must be within (nearest distance + cell diagonal) of the center
+			int count = 0;
+			double limit = nearestDistance + 2 * halfDiagonal;
+			for(int i=0; i<numOfAccessPoints; i++)
+				if(distance(centerX, centerY, i) <= limit)
+					buffer[count++] = i;
+
+			if(numOfCandidates + count > candidates.length){
+				int[] extended = new int[Math.max(candidates.length * 2, numOfCandidates + count)];
+				System.arraycopy(candidates, 0, extended, 0, numOfCandidates);
+				candidates = extended;
+			}
+			System.arraycopy(buffer, 0, candidates, numOfCandidates, count);
+			cellStart[cell] = numOfCandidates;
+			numOfCandidates += count;
+		}
+		cellStart[numOfCells] = numOfCandidates;
+
+		cellCandidates = new int[numOfCandidates];
+		System.arraycopy(candidates, 0, cellCandidates, 0, numOfCandidates);
+	}
+
+	private double distance(double x, double y, int apIndex){
+		double dx = x - apXPos[apIndex];
+		double dy = y - apYPos[apIndex];
+		return Math.sqrt(dx*dx + dy*dy);
+	}
+
+	/**
+	 * returns the index of the nearest access point to the given position
+	 */
+	public int getNearestAccessPoint(double x, double y){
+		int result = -1;
+		double nearestDistance = Double.MAX_VALUE;
+
+		//positions outside of the covered area are resolved via linear scan
+		if(x < minX || y < minY || x > maxX || y > maxY){
+			for(int i=0; i<numOfAccessPoints; i++){
+				double d = distance(x, y, i);
+				if(d < nearestDistance){
+					nearestDistance = d;
+					result = i;
+				}
+			}
+			return result;
+		}
+
+		int column = Math.min(numOfColumns - 1, (int)((x - minX) / cellSize));
+		int row = Math.min(numOfRows - 1, (int)((y - minY) / cellSize));
+		int cell = row * numOfColumns + column;
+		for(int c=cellStart[cell]; c<cellStart[cell+1]; c++){
+			int i = cellCandidates[c];
+			double d = distance(x, y, i);
+			if(d < nearestDistance){
+				nearestDistance = d;
+				result = i;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * returns the location of the access point with given index
+	 */
+	public Location getAccessPointLocation(int apIndex){
+		return apLocations[apIndex];
+	}
+
+	public int getNumOfAccessPoints(){
+		return numOfAccessPoints;
+	}
+
+	public double getMinX(){
+		return minX;
+	}
+
+	public double getMinY(){
+		return minY;
+	}
+
+	public double getMaxX(){
+		return maxX;
+	}
+
+	public double getMaxY(){
+		return maxY;
+	}
+}
@@ -0,0 +1,164 @@
+/*
+ * Title:        EdgeCloudSim - Mapped Trace File
+ *
+ * Description:
+ * MappedTraceFile provides memory-mapped access to the binary mobility
+ * trace format used by TraceMobility. The file has the following layout:
+ *
+ * header  : magic (int), version (int), number of devices (int),
+ *           reserved (int), number of records (long), base time (double)
+ * offsets : (number of devices + 1) record indices (long), the records of
+ *           device i are stored in [offsets[i], offsets[i+1])
+ * records : time (double), x position (float), y position (float)
+ *
+ * The records of each device are sorted by time. Since a single mapping
+ * cannot exceed 2 GB, the record area is mapped in fixed size chunks.
+ *
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ * Copyright (c) 2017, Bogazici University, Istanbul, Turkey
+ */
+
+package edu.boun.edgecloudsim.mobility;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+class MappedTraceFile {
+	static final int MAGIC = 0x45435354; //"ECST"
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = 32;
+	static final int RECORD_SIZE = 16;
+
+	//each chunk keeps 2^26 records (1 GB)
+	private static final int CHUNK_SHIFT = 26;
+	private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+
+	private int numOfDevices;
+	private long numOfRecords;
+	private double baseTime;
+	private MappedByteBuffer offsetBuffer;
+	private MappedByteBuffer[] chunks;
+
+	private MappedTraceFile(FileChannel channel, MapMode mode, int _numOfDevices, long _numOfRecords, double _baseTime) throws IOException {
+		numOfDevices = _numOfDevices;
+		numOfRecords = _numOfRecords;
+		baseTime = _baseTime;
+
+		long offsetTableSize = (long)(numOfDevices + 1) * 8;
+		offsetBuffer = channel.map(mode, HEADER_SIZE, offsetTableSize);
+
+		long recordAreaStart = HEADER_SIZE + offsetTableSize;
+		int numOfChunks = (int)((numOfRecords + CHUNK_MASK) >>> CHUNK_SHIFT);
+		chunks = new MappedByteBuffer[numOfChunks];
+		for(int i=0; i<numOfChunks; i++){
+			long firstRecord = (long)i << CHUNK_SHIFT;
+			long recordsInChunk = Math.min(1L << CHUNK_SHIFT, numOfRecords - firstRecord);
+			chunks[i] = channel.map(mode, recordAreaStart + firstRecord * RECORD_SIZE, recordsInChunk * RECORD_SIZE);
+		}
+	}
+
+	/**
+	 * creates a new trace file with the given size, the content of the
+	 * offset table and the records should be filled by the caller
+	 */
+	static MappedTraceFile create(String fileName, int _numOfDevices, long _numOfRecords, double _baseTime) throws IOException {
+		long fileSize = HEADER_SIZE + (long)(_numOfDevices + 1) * 8 + _numOfRecords * RECORD_SIZE;
+		try (RandomAccessFile file = new RandomAccessFile(fileName, "rw")) {
+			file.setLength(0);
+			file.setLength(fileSize);
+
+			FileChannel channel = file.getChannel();
+			MappedByteBuffer header = channel.map(MapMode.READ_WRITE, 0, HEADER_SIZE);
+			header.putInt(MAGIC);
+			header.putInt(VERSION);
+			header.putInt(_numOfDevices);
+			header.putInt(0);
+			header.putLong(_numOfRecords);
+			header.putDouble(_baseTime);
+			header.force();
+
+			//mapped buffers remain valid after the channel is closed
+			return new MappedTraceFile(channel, MapMode.READ_WRITE, _numOfDevices, _numOfRecords, _baseTime);
+		}
+	}
+
+	/**
+	 * opens an existing trace file in read only mode
+	 */
+	static MappedTraceFile open(String fileName) throws IOException {
+		try (RandomAccessFile file = new RandomAccessFile(fileName, "r")) {
+			FileChannel channel = file.getChannel();
+			if(channel.size() < HEADER_SIZE)
+				throw new IOException("trace file is too small: " + fileName);
+
+			MappedByteBuffer header = channel.map(MapMode.READ_ONLY, 0, HEADER_SIZE);
+			if(header.getInt() != MAGIC)
+				throw new IOException("invalid trace file: " + fileName);
+			if(header.getInt() != VERSION)
+				throw new IOException("unsupported trace file version: " + fileName);
+
+			int devices = header.getInt();
+			header.getInt();
+			long records = header.getLong();
+			double base = header.getDouble();
+
+			long expectedSize = HEADER_SIZE + (long)(devices + 1) * 8 + records * RECORD_SIZE;
+			if(channel.size() != expectedSize)
+				throw new IOException("corrupted trace file: " + fileName);
+
+			return new MappedTraceFile(channel, MapMode.READ_ONLY, devices, records, base);
+		}
+	}
+
+	int getNumOfDevices(){
+		return numOfDevices;
+	}
+
+	long getNumOfRecords(){
+		return numOfRecords;
+	}
+
+	double getBaseTime(){
+		return baseTime;
+	}
+
+	long getDeviceStart(int deviceId){
+		return offsetBuffer.getLong(deviceId * 8);
+	}
+
+	void setDeviceStart(int deviceId, long recordIndex){
+		offsetBuffer.putLong(deviceId * 8, recordIndex);
+	}
+
+	double getTime(long recordIndex){
+		return chunks[(int)(recordIndex >>> CHUNK_SHIFT)].getDouble((int)(recordIndex & CHUNK_MASK) * RECORD_SIZE);
+	}
+
+	float getX(long recordIndex){
+		return chunks[(int)(recordIndex >>> CHUNK_SHIFT)].getFloat((int)(recordIndex & CHUNK_MASK) * RECORD_SIZE + 8);
+	}
+
+	float getY(long recordIndex){
+		return chunks[(int)(recordIndex >>> CHUNK_SHIFT)].getFloat((int)(recordIndex & CHUNK_MASK) * RECORD_SIZE + 12);
+	}
+
+	void putRecord(long recordIndex, double time, float x, float y){
+		MappedByteBuffer chunk = chunks[(int)(recordIndex >>> CHUNK_SHIFT)];
+		int position = (int)(recordIndex & CHUNK_MASK) * RECORD_SIZE;
+		chunk.putDouble(position, time);
+		chunk.putFloat(position + 8, x);
+		chunk.putFloat(position + 12, y);
+	}
+
+	/**
+	 * writes the modified content back to the storage device
+	 */
+	void force(){
+		offsetBuffer.force();
+		for(MappedByteBuffer chunk : chunks)
+			chunk.force();
+	}
+}
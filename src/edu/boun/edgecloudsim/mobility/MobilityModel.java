@@ -13,12 +13,23 @@
 
 package edu.boun.edgecloudsim.mobility;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import edu.boun.edgecloudsim.core.SimSettings;
 import edu.boun.edgecloudsim.utils.Location;
 
 public abstract class MobilityModel {
+	private static final double HANDOVER_TIME_PRECISION = 0.001; //seconds
+	
 	protected int numberOfMobileDevices;
 	protected double simulationTime;
 	
+	//handover times of the devices, created when they are needed first
+	private Map<Integer, NavigableMap<Double, Integer>> handoverTimelines = new HashMap<Integer, NavigableMap<Double, Integer>>();
+	
 	public MobilityModel(int _numberOfMobileDevices, double _simulationTime){
 		numberOfMobileDevices=_numberOfMobileDevices;
 		simulationTime=_simulationTime;
@@ -33,4 +44,55 @@ public abstract class MobilityModel {
 	 * returns location of a device at a certain time
 	 */
 	public abstract Location getLocation(int deviceId, double time);
+	
+	/*
+	 * returns the first time after the given time when the serving WLAN
+	 * of the device changes, or -1 if it does not change until the end of
+	 * the simulation. The handover times of each device are created once
+	 * via createHandoverTimeline() and the rest is a lookup on the timeline.
+	 */
+	public double getNextHandoverTime(int deviceId, double time){
+		NavigableMap<Double, Integer> timeline = handoverTimelines.get(deviceId);
+		if(timeline == null){
+			timeline = createHandoverTimeline(deviceId);
+			handoverTimelines.put(deviceId, timeline);
+		}
+		
+		//strictly after the given time, the handover at that time is already processed
+		Double handoverTime = timeline.higherKey(time);
+		return handoverTime == null ? -1 : handoverTime;
+	}
+	
+	/*
+	 * returns the handover times of the device mapped to the serving WLAN id
+	 * after the handover. The default implementation samples the location
+	 * with the configured resolution and refines each change point via
+	 * bisection; models which know their handover times should override it.
+	 */
+	protected NavigableMap<Double, Integer> createHandoverTimeline(int deviceId){
+		NavigableMap<Double, Integer> timeline = new TreeMap<Double, Integer>();
+		double resolution = SimSettings.getInstance().getMobilityHandoverResolution();
+		
+		double currentTime = 0;
+		int servingWlanId = getLocation(deviceId, currentTime).getServingWlanId();
+		while(currentTime < simulationTime){
+			double nextTime = Math.min(currentTime + resolution, simulationTime);
+			int nextWlanId = getLocation(deviceId, nextTime).getServingWlanId();
+			if(nextWlanId != servingWlanId){
+				double low = currentTime, high = nextTime;
+				while(high - low > HANDOVER_TIME_PRECISION){
+					double mid = (low + high) / 2;
+					if(getLocation(deviceId, mid).getServingWlanId() == servingWlanId)
+						low = mid;
+					else
+						high = mid;
+				}
+				timeline.put(high, nextWlanId);
+				servingWlanId = nextWlanId;
+			}
+			currentTime = nextTime;
+		}
+		
+		return timeline;
+	}
 }
@@ -0,0 +1,166 @@
+/*
+ * Title:        EdgeCloudSim - Mobility Trace Importer
+ *
+ * Description:
+ * MobilityTraceImporter converts GPS traces in CSV format into the binary
+ * trace format used by TraceMobility. Each line of the CSV file must be
+ * in "device_id,time,x_pos,y_pos" format where device ids start from 0
+ * and time is in seconds. Empty lines, comment lines starting with '#'
+ * and a header line are ignored. The lines do not need to be sorted.
+ *
+ * The CSV file is read twice; the first pass counts the records of each
+ * device and the second one writes the records to their final positions.
+ * Therefore, the whole trace is never kept on the heap. Timestamps are
+ * shifted so that the earliest record of the trace is at time 0.
+ *
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ * Copyright (c) 2017, Bogazici University, Istanbul, Turkey
+ */
+
+package edu.boun.edgecloudsim.mobility;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+
+public class MobilityTraceImporter {
+	private static final int DEVICE_ID = 0;
+	private static final int TIME = 1;
+	private static final int X_POS = 2;
+	private static final int Y_POS = 3;
+
+	/**
+	 * imports the given CSV trace file into the binary trace file
+	 * @return number of imported records
+	 */
+	public static long importCsvTrace(String csvFileName, String traceFileName) throws IOException {
+		String[] fields = new String[4];
+
+		//first pass: count records of each device and find the base time
+		int[] recordCounts = new int[1024];
+		int numOfDevices = 0;
+		long numOfRecords = 0;
+		double baseTime = Double.MAX_VALUE;
+		try (BufferedReader reader = new BufferedReader(new FileReader(csvFileName))) {
+			String line;
+			int lineNumber = 0;
+			while ((line = reader.readLine()) != null) {
+				lineNumber++;
+				if(!parseLine(line, fields, lineNumber))
+					continue;
+
+				int deviceId = parseDeviceId(fields[DEVICE_ID], lineNumber);
+				if(deviceId >= recordCounts.length)
+					recordCounts = Arrays.copyOf(recordCounts, Math.max(recordCounts.length * 2, deviceId + 1));
+
+				recordCounts[deviceId]++;
+				numOfDevices = Math.max(numOfDevices, deviceId + 1);
+				numOfRecords++;
+				baseTime = Math.min(baseTime, Double.parseDouble(fields[TIME]));
+			}
+		}
+
+		if(numOfRecords == 0)
+			throw new IOException("no record is found in trace file: " + csvFileName);
+
+		MappedTraceFile traceFile = MappedTraceFile.create(traceFileName, numOfDevices, numOfRecords, baseTime);
+
+		//the next free slot of each device is kept in a separate array
+		long[] nextSlot = new long[numOfDevices];
+		long offset = 0;
+		for(int i=0; i<numOfDevices; i++){
+			traceFile.setDeviceStart(i, offset);
+			nextSlot[i] = offset;
+			offset += recordCounts[i];
+		}
+		traceFile.setDeviceStart(numOfDevices, offset);
+
+		//second pass: write records to the related device area
+		try (BufferedReader reader = new BufferedReader(new FileReader(csvFileName))) {
+			String line;
+			int lineNumber = 0;
+			while ((line = reader.readLine()) != null) {
+				lineNumber++;
+				if(!parseLine(line, fields, lineNumber))
+					continue;
+
+				int deviceId = parseDeviceId(fields[DEVICE_ID], lineNumber);
+				traceFile.putRecord(nextSlot[deviceId]++,
+						Double.parseDouble(fields[TIME]) - baseTime,
+						Float.parseFloat(fields[X_POS]),
+						Float.parseFloat(fields[Y_POS]));
+			}
+		}
+
+		for(int i=0; i<numOfDevices; i++)
+			sortDeviceRecords(traceFile, traceFile.getDeviceStart(i), traceFile.getDeviceStart(i+1));
+
+		traceFile.force();
+		return numOfRecords;
+	}
+
+	/**
+	 * splits the line into the given array
+	 * @return false if the line does not contain a record
+	 */
+	private static boolean parseLine(String line, String[] fields, int lineNumber) throws IOException {
+		line = line.trim();
+		if(line.isEmpty() || line.charAt(0) == '#')
+			return false;
+
+		int start = 0;
+		for(int i=0; i<fields.length; i++){
+			int end = (i == fields.length - 1) ? line.length() : line.indexOf(',', start);
+			if(end < 0)
+				throw new IOException("invalid record at line " + lineNumber + ": " + line);
+			fields[i] = line.substring(start, end).trim();
+			start = end + 1;
+		}
+
+		//header line
+		if(lineNumber == 1 && (fields[DEVICE_ID].isEmpty() || !Character.isDigit(fields[DEVICE_ID].charAt(0))))
+			return false;
+
+		return true;
+	}
+
+	private static int parseDeviceId(String field, int lineNumber) throws IOException {
+		int deviceId = Integer.parseInt(field);
+		if(deviceId < 0)
+			throw new IOException("invalid device id at line " + lineNumber + ": " + deviceId);
+		return deviceId;
+	}
+
+	/**
+	 * sorts the records in [start, end) by time, the records of a device
+	 * are mostly sorted in the CSV file, so the check is usually enough
+	 */
+	private static void sortDeviceRecords(MappedTraceFile traceFile, long start, long end){
+		boolean sorted = true;
+		for(long i=start+1; i<end && sorted; i++)
+			if(traceFile.getTime(i) < traceFile.getTime(i-1))
+				sorted = false;
+
+		if(sorted)
+			return;
+
+		int count = (int)(end - start);
+		Integer[] order = new Integer[count];
+		double[] times = new double[count];
+		float[] xs = new float[count];
+		float[] ys = new float[count];
+		for(int i=0; i<count; i++){
+			order[i] = i;
+			times[i] = traceFile.getTime(start + i);
+			xs[i] = traceFile.getX(start + i);
+			ys[i] = traceFile.getY(start + i);
+		}
+
+		//stable sort keeps the CSV order of the records with same time
+		Arrays.sort(order, (a, b) -> Double.compare(times[a], times[b]));
+
+		for(int i=0; i<count; i++)
+			traceFile.putRecord(start + i, times[order[i]], xs[order[i]], ys[order[i]]);
+	}
+}
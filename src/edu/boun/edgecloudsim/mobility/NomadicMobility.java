@@ -6,6 +6,10 @@
  * place of the devices are changed from time to time instead of a
  * continuous location update.
  * 
+ * If parallel initialization is enabled, the timeline of each device is
+ * created on a fork/join pool by using a random substream of the device,
+ * so the result does not depend on the number of threads.
+ * 
  * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
  * Copyright (c) 2017, Bogazici University, Istanbul, Turkey
  */
@@ -14,10 +18,12 @@ package edu.boun.edgecloudsim.mobility;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.NavigableMap;
 import java.util.TreeMap;
 import java.util.Map.Entry;
 
 import org.apache.commons.math3.distribution.ExponentialDistribution;
+import org.apache.commons.math3.random.RandomGenerator;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
@@ -29,6 +35,7 @@ import edu.boun.edgecloudsim.utils.SimLogger;
 import edu.boun.edgecloudsim.utils.SimUtils;
 
 public class NomadicMobility extends MobilityModel {
+	private static final int RANDOM_STREAM_ID = 1;
 	private List<TreeMap<Double, Location>> treeMapArray;
 	
 	public NomadicMobility(int _numberOfMobileDevices, double _simulationTime) {
@@ -38,6 +45,11 @@ public class NomadicMobility extends MobilityModel {
 	
 	@Override
 	public void initialize() {
+		if(SimSettings.getInstance().isParallelInitializationEnabled()){
+			initializeInParallel();
+			return;
+		}
+		
 		treeMapArray = new ArrayList<TreeMap<Double, Location>>();
 		
 		ExponentialDistribution[] expRngList = new ExponentialDistribution[SimSettings.getInstance().getNumOfEdgeDatacenters()];
@@ -106,6 +118,60 @@ public class NomadicMobility extends MobilityModel {
 
 	}
 
+	private void initializeInParallel() {
+		SimSettings SS = SimSettings.getInstance();
+		long seed = (SS.getRandomSeed() != 0) ? SS.getRandomSeed() : SimUtils.RNG.nextLong();
+		
+		//DOM is not thread safe, read the places before creating the timelines
+		Document doc = SS.getEdgeDevicesDocument();
+		NodeList datacenterList = doc.getElementsByTagName("datacenter");
+		Location[] places = new Location[datacenterList.getLength()];
+		for (int i = 0; i < datacenterList.getLength(); i++) {
+			Node datacenterNode = datacenterList.item(i);
+			Element datacenterElement = (Element) datacenterNode;
+			Element location = (Element)datacenterElement.getElementsByTagName("location").item(0);
+			String attractiveness = location.getElementsByTagName("attractiveness").item(0).getTextContent();
+			int placeTypeIndex = Integer.parseInt(attractiveness);
+			int wlan_id = Integer.parseInt(location.getElementsByTagName("wlan_id").item(0).getTextContent());
+			int x_pos = Integer.parseInt(location.getElementsByTagName("x_pos").item(0).getTextContent());
+			int y_pos = Integer.parseInt(location.getElementsByTagName("y_pos").item(0).getTextContent());
+			places[i] = new Location(placeTypeIndex, wlan_id, x_pos, y_pos);
+		}
+		
+		treeMapArray = new ArrayList<TreeMap<Double, Location>>();
+		for(int i=0; i<numberOfMobileDevices; i++)
+			treeMapArray.add(null);
+		
+		SimUtils.parallelFor(SS.getInitializationThreads(), numberOfMobileDevices,
+				deviceId -> treeMapArray.set(deviceId, createTimeline(places, SimUtils.getRandomSubstream(seed, RANDOM_STREAM_ID, deviceId))));
+	}
+	
+	private TreeMap<Double, Location> createTimeline(Location[] places, RandomGenerator rng) {
+		double[] meanWaitingTimes = SimSettings.getInstance().getMobilityLookUpTable();
+		ExponentialDistribution[] expRngList = new ExponentialDistribution[meanWaitingTimes.length];
+		for(int i=0; i<meanWaitingTimes.length; i++)
+			expRngList[i] = new ExponentialDistribution(rng, meanWaitingTimes[i]);
+		
+		TreeMap<Double, Location> treeMap = new TreeMap<Double, Location>();
+		
+		//start locating user shortly after the simulation started (e.g. 10 seconds)
+		int randDatacenterId = SimUtils.getRandomNumber(rng, 0, places.length-1);
+		treeMap.put(SimSettings.CLIENT_ACTIVITY_START_TIME, places[randDatacenterId]);
+		
+		while(treeMap.lastKey() < simulationTime) {
+			int currentLocationId = treeMap.lastEntry().getValue().getServingWlanId();
+			double waitingTime = expRngList[places[currentLocationId].getPlaceTypeIndex()].sample();
+			
+			int newDatacenterId = currentLocationId;
+			while(newDatacenterId == currentLocationId)
+				newDatacenterId = SimUtils.getRandomNumber(rng, 0, places.length-1);
+			
+			treeMap.put(treeMap.lastKey()+waitingTime, places[newDatacenterId]);
+		}
+		
+		return treeMap;
+	}
+
 	@Override
 	public Location getLocation(int deviceId, double time) {
 		TreeMap<Double, Location> treeMap = treeMapArray.get(deviceId);
@@ -120,4 +186,21 @@ public class NomadicMobility extends MobilityModel {
 		return e.getValue();
 	}
 
+	@Override
+	protected NavigableMap<Double, Integer> createHandoverTimeline(int deviceId) {
+		NavigableMap<Double, Integer> timeline = new TreeMap<Double, Integer>();
+		TreeMap<Double, Location> treeMap = treeMapArray.get(deviceId);
+		
+		//the device may stay at the same place in consecutive entries
+		int servingWlanId = treeMap.firstEntry().getValue().getServingWlanId();
+		for(Entry<Double, Location> e : treeMap.entrySet()){
+			if(e.getValue().getServingWlanId() != servingWlanId){
+				servingWlanId = e.getValue().getServingWlanId();
+				timeline.put(e.getKey(), servingWlanId);
+			}
+		}
+		
+		return timeline;
+	}
+
 }
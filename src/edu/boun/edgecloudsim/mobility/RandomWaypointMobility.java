@@ -0,0 +1,185 @@
+/*
+ * Title:        EdgeCloudSim - Random Waypoint Mobility model implementation
+ *
+ * Description:
+ * RandomWaypointMobility implements a continuous mobility model where
+ * each device moves towards a random waypoint with a random speed and
+ * waits there for a random pause time before selecting the next one.
+ * In Manhattan grid mode, waypoints are snapped to the street grid and
+ * devices move along the horizontal and vertical streets only.
+ *
+ * Only the waypoints and their departure/arrival times are stored for
+ * each device; the position at a given time is interpolated from the
+ * related segment. The serving WLAN is the nearest access point, which
+ * is resolved via AccessPointGrid.
+ *
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ * Copyright (c) 2017, Bogazici University, Istanbul, Turkey
+ */
+
+package edu.boun.edgecloudsim.mobility;
+
+import java.util.Arrays;
+
+import edu.boun.edgecloudsim.core.SimSettings;
+import edu.boun.edgecloudsim.utils.Location;
+import edu.boun.edgecloudsim.utils.SimUtils;
+
+public class RandomWaypointMobility extends MobilityModel {
+	private boolean manhattanGrid;
+	private AccessPointGrid accessPointGrid;
+
+	//for each device, waypoint i is left at departTime[i] and
+	//waypoint i+1 is reached at arriveTime[i]
+	private double[][] waypointX;
+	private double[][] waypointY;
+	private double[][] departTime;
+	private double[][] arriveTime;
+	private int[] numOfSegments;
+
+	public RandomWaypointMobility(int _numberOfMobileDevices, double _simulationTime, boolean _manhattanGrid) {
+		super(_numberOfMobileDevices, _simulationTime);
+		manhattanGrid = _manhattanGrid;
+	}
+
+	@Override
+	public void initialize() {
+		SimSettings SS = SimSettings.getInstance();
+		accessPointGrid = new AccessPointGrid(SS.getMobilityGridCellSize());
+
+		waypointX = new double[numberOfMobileDevices][];
+		waypointY = new double[numberOfMobileDevices][];
+		departTime = new double[numberOfMobileDevices][];
+		arriveTime = new double[numberOfMobileDevices][];
+		numOfSegments = new int[numberOfMobileDevices];
+
+		for(int i=0; i<numberOfMobileDevices; i++)
+			createTimeline(i);
+	}
+
+	private void createTimeline(int deviceId){
+		SimSettings SS = SimSettings.getInstance();
+		double minSpeed = SS.getMobilityMinSpeed();
+		double maxSpeed = SS.getMobilityMaxSpeed();
+		double maxPauseTime = SS.getMobilityMaxPauseTime();
+
+		int capacity = 16;
+		double[] xs = new double[capacity + 1];
+		double[] ys = new double[capacity + 1];
+		double[] departs = new double[capacity];
+		double[] arrives = new double[capacity];
+		int segmentCount = 0;
+
+		//start locating user shortly after the simulation started (e.g. 10 seconds)
+		double time = SimSettings.CLIENT_ACTIVITY_START_TIME;
+		xs[0] = getRandomX();
+		ys[0] = getRandomY();
+
+		while(time < simulationTime) {
+			double targetX = getRandomX();
+			double targetY = getRandomY();
+			double speed = SimUtils.getRandomDoubleNumber(minSpeed, maxSpeed);
+			double pauseTime = SimUtils.getRandomDoubleNumber(0, maxPauseTime);
+
+			//in Manhattan grid mode, move horizontally first, then vertically
+			int legs = (manhattanGrid) ? 2 : 1;
+			if(segmentCount + legs > capacity){
+				capacity *= 2;
+				xs = Arrays.copyOf(xs, capacity + 1);
+				ys = Arrays.copyOf(ys, capacity + 1);
+				departs = Arrays.copyOf(departs, capacity);
+				arrives = Arrays.copyOf(arrives, capacity);
+			}
+
+			if(manhattanGrid){
+				double cornerY = ys[segmentCount];
+				time = addSegment(xs, ys, departs, arrives, segmentCount, time, targetX, cornerY, speed);
+				segmentCount++;
+			}
+			time = addSegment(xs, ys, departs, arrives, segmentCount, time, targetX, targetY, speed);
+			segmentCount++;
+
+			time += pauseTime;
+		}
+
+		waypointX[deviceId] = Arrays.copyOf(xs, segmentCount + 1);
+		waypointY[deviceId] = Arrays.copyOf(ys, segmentCount + 1);
+		departTime[deviceId] = Arrays.copyOf(departs, segmentCount);
+		arriveTime[deviceId] = Arrays.copyOf(arrives, segmentCount);
+		numOfSegments[deviceId] = segmentCount;
+	}
+
+	private double addSegment(double[] xs, double[] ys, double[] departs, double[] arrives,
+			int segmentIndex, double time, double targetX, double targetY, double speed){
+		double dx = targetX - xs[segmentIndex];
+		double dy = targetY - ys[segmentIndex];
+		double travelTime = Math.sqrt(dx*dx + dy*dy) / speed;
+
+		xs[segmentIndex+1] = targetX;
+		ys[segmentIndex+1] = targetY;
+		departs[segmentIndex] = time;
+		arrives[segmentIndex] = time + travelTime;
+
+		return time + travelTime;
+	}
+
+	private double getRandomX(){
+		return snapToGrid(SimUtils.getRandomDoubleNumber(accessPointGrid.getMinX(), accessPointGrid.getMaxX()),
+				accessPointGrid.getMinX());
+	}
+
+	private double getRandomY(){
+		return snapToGrid(SimUtils.getRandomDoubleNumber(accessPointGrid.getMinY(), accessPointGrid.getMaxY()),
+				accessPointGrid.getMinY());
+	}
+
+	private double snapToGrid(double value, double origin){
+		if(!manhattanGrid)
+			return value;
+
+		double blockSize = SimSettings.getInstance().getMobilityManhattanBlockSize();
+		return origin + Math.round((value - origin) / blockSize) * blockSize;
+	}
+
+	@Override
+	public Location getLocation(int deviceId, double time) {
+		double[] departs = departTime[deviceId];
+		double[] xs = waypointX[deviceId];
+		double[] ys = waypointY[deviceId];
+		int segmentCount = numOfSegments[deviceId];
+
+		double x, y;
+		int segmentIndex = Arrays.binarySearch(departs, 0, segmentCount, time);
+		if(segmentIndex < 0)
+			segmentIndex = -segmentIndex - 2; //index of the last segment departed before the given time
+
+		if(segmentIndex < 0){
+			//the device has not started moving yet
+			x = xs[0];
+			y = ys[0];
+		}
+		else if(time >= arriveTime[deviceId][segmentIndex]){
+			//the device is waiting at the end of the segment
+			x = xs[segmentIndex+1];
+			y = ys[segmentIndex+1];
+		}
+		else{
+			double duration = arriveTime[deviceId][segmentIndex] - departs[segmentIndex];
+			double ratio = (duration <= 0) ? 1 : (time - departs[segmentIndex]) / duration;
+			x = xs[segmentIndex] + (xs[segmentIndex+1] - xs[segmentIndex]) * ratio;
+			y = ys[segmentIndex] + (ys[segmentIndex+1] - ys[segmentIndex]) * ratio;
+		}
+
+		int apIndex = accessPointGrid.getNearestAccessPoint(x, y);
+		Location accessPoint = accessPointGrid.getAccessPointLocation(apIndex);
+
+		return new Location(accessPoint.getPlaceTypeIndex(),
+				accessPoint.getServingWlanId(),
+				(int)Math.round(x),
+				(int)Math.round(y));
+	}
+
+	public AccessPointGrid getAccessPointGrid(){
+		return accessPointGrid;
+	}
+}
@@ -0,0 +1,132 @@
+/*
+ * Title:        EdgeCloudSim - Trace Driven Mobility model implementation
+ *
+ * Description:
+ * TraceMobility replays real device traces stored in the binary trace
+ * format (see MappedTraceFile). If a CSV trace file is configured and the
+ * binary file does not exist or is older than the CSV file, the CSV file
+ * is imported once via MobilityTraceImporter.
+ *
+ * The trace file is accessed via memory-mapped I/O, so the records are
+ * not kept on the heap. The position of a device is found via binary
+ * search over the records of the device and it is interpolated linearly
+ * between two consecutive records. The serving WLAN is the nearest
+ * access point, which is resolved via AccessPointGrid.
+ *
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ * Copyright (c) 2017, Bogazici University, Istanbul, Turkey
+ */
+
+package edu.boun.edgecloudsim.mobility;
+
+import java.io.File;
+
+import edu.boun.edgecloudsim.core.SimSettings;
+import edu.boun.edgecloudsim.utils.Location;
+import edu.boun.edgecloudsim.utils.SimLogger;
+
+public class TraceMobility extends MobilityModel {
+	private String traceFileName;
+	private String csvFileName;
+	private MappedTraceFile traceFile;
+	private AccessPointGrid accessPointGrid;
+
+	//record range of each device is [deviceStart[i], deviceStart[i+1])
+	private long[] deviceStart;
+
+	public TraceMobility(int _numberOfMobileDevices, double _simulationTime, String _traceFileName, String _csvFileName) {
+		super(_numberOfMobileDevices, _simulationTime);
+		traceFileName = _traceFileName;
+		csvFileName = _csvFileName;
+	}
+
+	@Override
+	public void initialize() {
+		accessPointGrid = new AccessPointGrid(SimSettings.getInstance().getMobilityGridCellSize());
+
+		try {
+			if(csvFileName != null && !csvFileName.isEmpty()){
+				File csvFile = new File(csvFileName);
+				File binaryFile = new File(traceFileName);
+				if(!binaryFile.exists() || binaryFile.lastModified() < csvFile.lastModified()){
+					SimLogger.print("Importing mobility trace " + csvFileName + "...");
+					long numOfRecords = MobilityTraceImporter.importCsvTrace(csvFileName, traceFileName);
+					SimLogger.printLine(" " + numOfRecords + " records");
+				}
+			}
+
+			traceFile = MappedTraceFile.open(traceFileName);
+		} catch (Exception e) {
+			SimLogger.printLine("Mobility trace cannot be loaded! Terminating simulation...");
+			e.printStackTrace();
+			System.exit(0);
+		}
+
+		if(traceFile.getNumOfDevices() < numberOfMobileDevices){
+			SimLogger.printLine("Mobility trace contains " + traceFile.getNumOfDevices() +
+					" devices but " + numberOfMobileDevices + " devices are simulated! Terminating simulation...");
+			System.exit(0);
+		}
+
+		deviceStart = new long[numberOfMobileDevices + 1];
+		for(int i=0; i<=numberOfMobileDevices; i++)
+			deviceStart[i] = traceFile.getDeviceStart(i);
+
+		for(int i=0; i<numberOfMobileDevices; i++){
+			if(deviceStart[i] == deviceStart[i+1]){
+				SimLogger.printLine("Mobility trace does not contain any record for the device '" + i + "'! Terminating simulation...");
+				System.exit(0);
+			}
+		}
+	}
+
+	@Override
+	public Location getLocation(int deviceId, double time) {
+		long start = deviceStart[deviceId];
+		long end = deviceStart[deviceId + 1];
+
+		//find the last record before or at the given time
+		long low = start, high = end - 1, index = start - 1;
+		while(low <= high){
+			long mid = (low + high) >>> 1;
+			if(traceFile.getTime(mid) <= time){
+				index = mid;
+				low = mid + 1;
+			}
+			else{
+				high = mid - 1;
+			}
+		}
+
+		double x, y;
+		if(index < start){
+			//the trace of the device has not started yet
+			x = traceFile.getX(start);
+			y = traceFile.getY(start);
+		}
+		else if(index == end - 1){
+			//the trace of the device is over, it stays at the last position
+			x = traceFile.getX(index);
+			y = traceFile.getY(index);
+		}
+		else{
+			double t1 = traceFile.getTime(index);
+			double t2 = traceFile.getTime(index + 1);
+			double ratio = (t2 <= t1) ? 0 : (time - t1) / (t2 - t1);
+			x = traceFile.getX(index) + (traceFile.getX(index + 1) - traceFile.getX(index)) * ratio;
+			y = traceFile.getY(index) + (traceFile.getY(index + 1) - traceFile.getY(index)) * ratio;
+		}
+
+		int apIndex = accessPointGrid.getNearestAccessPoint(x, y);
+		Location accessPoint = accessPointGrid.getAccessPointLocation(apIndex);
+
+		return new Location(accessPoint.getPlaceTypeIndex(),
+				accessPoint.getServingWlanId(),
+				(int)Math.round(x),
+				(int)Math.round(y));
+	}
+
+	public AccessPointGrid getAccessPointGrid(){
+		return accessPointGrid;
+	}
+}
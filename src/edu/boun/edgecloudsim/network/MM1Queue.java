@@ -17,6 +17,7 @@ import edu.boun.edgecloudsim.core.SimSettings;
 import edu.boun.edgecloudsim.edge_client.Kernel;
 import edu.boun.edgecloudsim.edge_server.EdgeHost;
 import edu.boun.edgecloudsim.utils.Location;
+import edu.boun.edgecloudsim.utils.SimLogger;
 
 public class MM1Queue extends NetworkModel {
 	private double WlanPoissonMean; //seconds
@@ -118,8 +119,7 @@ public class MM1Queue extends NetworkModel {
 			EdgeHost host = (EdgeHost)(SimManager.
 					getInstance().
 					getEdgeServerManager().
-					getDatacenterList().get(sourceDeviceId).
-					getHostList().get(0));
+					getHost(sourceDeviceId));
 			
 			//if source device id is the edge server which is located in another location, add internal lan delay
 			//in our scenasrio, serving wlan ID is equal to the host id, because there is only one host in one place
@@ -139,13 +139,16 @@ public class MM1Queue extends NetworkModel {
 		
 		for(int i=0; i<numberOfMobileDevices; i++) {
 			Location location = SimManager.getInstance().getMobilityModel().getLocation(i,time);
-			if(location.equals(deviceLocation))
+			//devices are counted by their serving access point because
+			//continuous mobility models report the exact device position
+			if(location.getServingWlanId() == deviceLocation.getServingWlanId())
 				deviceCount++;
 		}
 		
 		//record max number of client just for debugging
 		if(maxNumOfClientsInPlace<deviceCount)
 			maxNumOfClientsInPlace = deviceCount;
+		SimLogger.getInstance().getSpatialMetrics().clientsObserved(deviceLocation.getServingWlanId(), deviceCount);
 		
 		return deviceCount;
 	}
@@ -0,0 +1,539 @@
+/*
+ * Title:        EdgeCloudSim - Chrome Trace Exporter
+ *
+ * Description:
+ * ChromeTraceExporter converts a decision trace written by DecisionTrace
+ * into the Chrome Trace Event format (JSON), which can be opened by
+ * Perfetto (ui.perfetto.dev) or chrome://tracing. It shows how the kernels
+ * overlap on each access point, network link and VM over the simulation
+ * time, which helps to find the reason of the contention in a scenario.
+ *
+ * Usage:
+ * ChromeTraceExporter <trace file> <output file> [<sampling rate>
+ *   [<window start> <window end>]]
+ *
+ * The trace file is the <prefix>_TRACE.bin file of a scenario, its gzip
+ * compressed version or the <prefix>.zip archive of the scenario if the
+ * logs are written into zip archives. The output file is gzip compressed
+ * if its name ends with .gz. The sampling rate (0 to 1) selects the
+ * exported kernels by a hash of their ids, so the same kernels are selected
+ * in each export. If a time window (in seconds) is given, only the kernels
+ * started within the window are exported. Both options keep the traces of
+ * long simulation runs small enough to be loaded by the viewers.
+ *
+ * The timestamps are the simulation time in microseconds. Each access
+ * point, the MAN and the WAN is shown as a track of the "Network" process
+ * and each VM is shown as a track of the process of its host. The upload
+ * and download of a kernel are drawn on the network tracks; the waiting
+ * time in the admission queue and the execution are drawn on the track of
+ * the VM. The times of the phases are derived from the start/end times
+ * and the delays in the trace. The viewers cannot draw overlapping slices
+ * on one track, so a track is split into numbered lanes when its kernels
+ * overlap. A slice is placed on the first lane which is free during the
+ * slice, so the number of lanes follows the peak concurrency on the track
+ * (it may be slightly higher since the kernels are placed in the order
+ * they end, not in the order they start).
+ * Failed and rejected kernels are shown as instant events.
+ *
+ * The events are written while the trace is read, only the kernels which
+ * are not completed yet and the slices which may still overlap with them
+ * are kept in memory.
+ *
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ * Copyright (c) 2017, Bogazici University, Istanbul, Turkey
+ */
+
+package edu.boun.edgecloudsim.utils;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.GZIPOutputStream;
+
+import edu.boun.edgecloudsim.core.SimSettings.NETWORK_DELAY_TYPES;
+import edu.boun.edgecloudsim.core.SimSettings.VM_TYPES;
+
+public class ChromeTraceExporter implements DecisionTrace.Listener {
+	private static final VM_TYPES[] VM_TYPE_LIST = VM_TYPES.values();
+	private static final int NETWORK_PID = 1;
+	private static final int MAN_TRACK = -1;
+	private static final int WAN_TRACK = -2;
+	//the slices which cannot overlap with new ones are removed after this many kernels
+	private static final int PRUNE_INTERVAL = 4096;
+
+	private BufferedWriter out;
+	private double samplingRate;
+	private double windowStart;
+	private double windowEnd;
+
+	//kernels which are selected and not completed yet
+	private Map<Integer, KernelTimeline> kernels;
+	//tracks of the access points, network links and VMs
+	private Map<String, Track> tracks;
+	private int nextPid;
+	private int nextTid;
+	private boolean firstEvent;
+	private long numOfExportedKernels;
+	//start time of the last started kernel
+	private double currentTime;
+
+	public ChromeTraceExporter(OutputStream stream, double _samplingRate, double _windowStart, double _windowEnd) throws IOException {
+		out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), 65536);
+		samplingRate = _samplingRate;
+		windowStart = _windowStart;
+		windowEnd = _windowEnd;
+		kernels = new HashMap<Integer, KernelTimeline>();
+		tracks = new HashMap<String, Track>();
+		nextPid = NETWORK_PID + 1;
+		nextTid = 1;
+		firstEvent = true;
+
+		out.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[\n");
+		writeMetadata("process_name", NETWORK_PID, 0, "Network");
+		writeSortIndex("process_sort_index", NETWORK_PID, 0, NETWORK_PID);
+	}
+
+	public static void main(String[] args) {
+		SimLogger.enablePrintLog();
+
+		if (args.length != 2 && args.length != 3 && args.length != 5){
+			SimLogger.printLine("Usage: ChromeTraceExporter <trace file> <output file> " +
+					"[<sampling rate> [<window start> <window end>]]");
+			System.exit(0);
+		}
+
+		double samplingRate = 1;
+		double windowStart = 0;
+		double windowEnd = Double.MAX_VALUE;
+		if(args.length >= 3)
+			samplingRate = Double.parseDouble(args[2]);
+		if(args.length == 5){
+			windowStart = Double.parseDouble(args[3]);
+			windowEnd = Double.parseDouble(args[4]);
+		}
+
+		if(samplingRate <= 0 || samplingRate > 1){
+			SimLogger.printLine("Sampling rate must be in (0, 1]! Terminating export...");
+			System.exit(0);
+		}
+
+		try {
+			SimLogger.printLine("Exporting " + args[0] + " to " + args[1] + "...");
+			OutputStream stream = new FileOutputStream(args[1]);
+			if(args[1].endsWith(".gz"))
+				stream = new GZIPOutputStream(stream, 65536);
+			ChromeTraceExporter exporter = new ChromeTraceExporter(stream, samplingRate, windowStart, windowEnd);
+			DecisionTrace.Reader.open(args[0]).read(exporter);
+			exporter.close();
+			SimLogger.printLine(exporter.getNumOfExportedKernels() + " kernels are exported.");
+		} catch (IOException | UncheckedIOException e) {
+			SimLogger.printLine("Decision trace cannot be exported! Terminating export...");
+			e.printStackTrace();
+			System.exit(0);
+		}
+	}
+
+	/**
+	 * completes the JSON document and closes the output
+	 */
+	public void close() throws IOException {
+		out.write("\n]}\n");
+		out.close();
+	}
+
+	/**
+	 * returns the number of the kernels written to the output
+	 */
+	public long getNumOfExportedKernels()
+	{
+		return numOfExportedKernels;
+	}
+
+	public void kernelCreated(int taskId, int kernelType, int kernelLength, int kernelInputType,
+			int kernelOutputSize, int kernelId) {
+		if(SimUtils.isSampled(taskId, samplingRate))
+			kernels.put(taskId, new KernelTimeline(kernelType));
+	}
+
+	public void submittedWlan(int taskId, int wlanId) {
+		KernelTimeline kernel = kernels.get(taskId);
+		if(kernel != null)
+			kernel.wlanId = wlanId;
+	}
+
+	public void kernelStarted(int taskId, double time) {
+		KernelTimeline kernel = kernels.get(taskId);
+		currentTime = time;
+		if(kernel == null)
+			return;
+
+		if(time >= windowStart && time < windowEnd)
+			kernel.startTime = time;
+		else
+			kernels.remove(taskId);
+	}
+
+	public void uploadDelay(int taskId, double delay, NETWORK_DELAY_TYPES delayType) {
+		KernelTimeline kernel = kernels.get(taskId);
+		if(kernel != null)
+			kernel.uploads.add(new Transfer(delay, delayType));
+	}
+
+	public void downloadDelay(int taskId, double delay, NETWORK_DELAY_TYPES delayType) {
+		KernelTimeline kernel = kernels.get(taskId);
+		if(kernel != null)
+			kernel.downloads.add(new Transfer(delay, delayType));
+	}
+
+	public void queueDelay(int taskId, double delay) {
+		KernelTimeline kernel = kernels.get(taskId);
+		if(kernel != null)
+			kernel.queueDelay = delay;
+	}
+
+	public void kernelAssigned(int taskId, int datacenterId, int hostId, int vmId, int vmType) {
+		KernelTimeline kernel = kernels.get(taskId);
+		if(kernel != null)
+			kernel.vmTrack = "vm " + datacenterId + "_" + hostId + "_" + vmId + "_" + vmType;
+	}
+
+	public void kernelExecuted(int taskId) {
+		KernelTimeline kernel = kernels.get(taskId);
+		if(kernel != null)
+			kernel.executed = true;
+	}
+
+	public void kernelEnded(int taskId, double time) {
+		KernelTimeline kernel = kernels.remove(taskId);
+		if(kernel != null && kernel.startTime >= 0)
+			writeKernel(taskId, kernel, time, null);
+	}
+
+	public void rejectedDueToVMCapacity(int taskId, double time, int vmType) {
+		KernelTimeline kernel = kernels.remove(taskId);
+		if(kernel != null && kernel.startTime >= 0)
+			writeKernel(taskId, kernel, time, "rejected: VM capacity");
+	}
+
+	public void rejectedDueToBandwidth(int taskId, double time, int vmType, NETWORK_DELAY_TYPES delayType) {
+		KernelTimeline kernel = kernels.remove(taskId);
+		if(kernel != null && kernel.startTime >= 0)
+			writeKernel(taskId, kernel, time, "rejected: " + delayType);
+	}
+
+	public void failedDueToBandwidth(int taskId, double time, NETWORK_DELAY_TYPES delayType) {
+		KernelTimeline kernel = kernels.remove(taskId);
+		if(kernel != null && kernel.startTime >= 0)
+			writeKernel(taskId, kernel, time, "failed: " + delayType);
+	}
+
+	public void failedDueToMobility(int taskId, double time) {
+		KernelTimeline kernel = kernels.remove(taskId);
+		if(kernel != null && kernel.startTime >= 0)
+			writeKernel(taskId, kernel, time, "failed: mobility");
+	}
+
+	/*
+	 * writes the phases of a completed or failed kernel, the failure reason
+	 * is null if the kernel is completed
+	 */
+	private void writeKernel(int taskId, KernelTimeline kernel, double endTime, String failure) {
+		numOfExportedKernels++;
+		if(numOfExportedKernels % PRUNE_INTERVAL == 0)
+			pruneLanes();
+
+		//uploads are in the order they are started
+		double time = kernel.startTime;
+		for(Transfer upload : kernel.uploads){
+			double end = Math.min(time + upload.delay, endTime);
+			writeSpan("upload", getNetworkTrack(kernel, upload.delayType), taskId, kernel, time, end);
+			time = end;
+		}
+
+		//the execution ends when the first download starts
+		double executionEnd = endTime;
+		if(failure == null){
+			for(Transfer download : kernel.downloads)
+				executionEnd -= download.delay;
+		}
+		else if(!kernel.downloads.isEmpty()){
+			//the kernel failed during its download, the end of the execution is unknown
+			executionEnd = -1;
+		}
+
+		if(kernel.vmTrack != null && executionEnd >= 0){
+			Track vmTrack = getVmTrack(kernel.vmTrack);
+			if(kernel.queueDelay > 0){
+				double end = Math.min(time + kernel.queueDelay, executionEnd);
+				writeSpan("queue", vmTrack, taskId, kernel, time, end);
+				time = end;
+			}
+			if(kernel.executed || failure != null){
+				writeSpan("execute", vmTrack, taskId, kernel, time, executionEnd);
+				time = executionEnd;
+			}
+		}
+
+		if(failure == null){
+			for(Transfer download : kernel.downloads){
+				writeSpan("download", getNetworkTrack(kernel, download.delayType), taskId, kernel, time, time + download.delay);
+				time += download.delay;
+			}
+		}
+		else{
+			Track track = kernel.vmTrack != null ? getVmTrack(kernel.vmTrack) : getNetworkTrack(kernel, NETWORK_DELAY_TYPES.WLAN_DELAY);
+			writeInstant(failure, track, taskId, kernel, endTime);
+		}
+	}
+
+	private Track getNetworkTrack(KernelTimeline kernel, NETWORK_DELAY_TYPES delayType) {
+		switch(delayType){
+		case MAN_DELAY:
+			return getTrack("net " + MAN_TRACK, NETWORK_PID, "MAN", MAN_TRACK);
+		case WAN_DELAY:
+			return getTrack("net " + WAN_TRACK, NETWORK_PID, "WAN", WAN_TRACK);
+		default:
+			return getTrack("net " + kernel.wlanId, NETWORK_PID, "AP " + kernel.wlanId, kernel.wlanId);
+		}
+	}
+
+	/*
+	 * returns the track of a VM, the key is "vm <datacenter>_<host>_<vm>_<vm type>"
+	 */
+	private Track getVmTrack(String key) {
+		Track track = tracks.get(key);
+		if(track != null)
+			return track;
+
+		String[] ids = key.substring(3).split("_");
+		int hostId = Integer.parseInt(ids[1]);
+		int vmId = Integer.parseInt(ids[2]);
+		String tier = VM_TYPE_LIST[Integer.parseInt(ids[3])].name().replace("_VM", "");
+
+		//the hosts are listed in the order they are used
+		String hostKey = "host " + ids[0] + "_" + ids[1];
+		Track host = tracks.get(hostKey);
+		if(host == null){
+			host = new Track(nextPid++, null, 0);
+			tracks.put(hostKey, host);
+			if(hostId < 0)
+				writeMetadata("process_name", host.pid, 0, tier + " datacenter " + ids[0]);
+			else
+				writeMetadata("process_name", host.pid, 0, tier + " host " + hostId + " (datacenter " + ids[0] + ")");
+			writeSortIndex("process_sort_index", host.pid, 0, host.pid);
+		}
+
+		return getTrack(key, host.pid, vmId < 0 ? "servers" : "VM " + vmId, vmId);
+	}
+
+	private Track getTrack(String key, int pid, String name, int sortIndex) {
+		Track track = tracks.get(key);
+		if(track == null){
+			track = new Track(pid, name, sortIndex);
+			tracks.put(key, track);
+		}
+		return track;
+	}
+
+	/*
+	 * returns the first lane of the track which is free during the given
+	 * interval, a new lane is added if all lanes are busy
+	 */
+	private int getLane(Track track, double start, double end) {
+		int lane = 0;
+		while(lane < track.lanes.size() && !isFree(track.lanes.get(lane), start, end))
+			lane++;
+
+		if(lane == track.lanes.size())
+			addLane(track);
+		track.lanes.get(lane).merge(start, end, Math::max);
+		return lane;
+	}
+
+	private void addLane(Track track) {
+		int lane = track.lanes.size();
+		int tid = nextTid++;
+		track.lanes.add(new TreeMap<Double, Double>());
+		track.tids.add(tid);
+		writeMetadata("thread_name", track.pid, tid, lane == 0 ? track.name : track.name + " #" + (lane + 1));
+		writeSortIndex("thread_sort_index", track.pid, tid, track.sortIndex * 1000 + lane);
+	}
+
+	/*
+	 * the lane maps the start time of each slice to its end time
+	 */
+	private static boolean isFree(TreeMap<Double, Double> lane, double start, double end) {
+		Map.Entry<Double, Double> before = lane.floorEntry(start);
+		if(before != null && before.getValue() > start)
+			return false;
+		Map.Entry<Double, Double> after = lane.higherEntry(start);
+		return after == null || after.getKey() >= end;
+	}
+
+	/*
+	 * removes the slices which ended before any slice still to be written
+	 * can start, i.e. before the start of the kernels which are in progress
+	 */
+	private void pruneLanes() {
+		double watermark = currentTime;
+		for(KernelTimeline kernel : kernels.values())
+			if(kernel.startTime >= 0)
+				watermark = Math.min(watermark, kernel.startTime);
+
+		for(Track track : tracks.values()){
+			for(TreeMap<Double, Double> lane : track.lanes){
+				Iterator<Double> ends = lane.headMap(watermark).values().iterator();
+				while(ends.hasNext())
+					if(ends.next() <= watermark)
+						ends.remove();
+			}
+		}
+	}
+
+	private void writeSpan(String name, Track track, int taskId, KernelTimeline kernel, double start, double end) {
+		if(end < start)
+			end = start;
+		int lane = getLane(track, start, end);
+		StringBuilder event = startEvent(name, "X", track.pid, track.tids.get(lane), start);
+		event.append(",\"dur\":");
+		//the duration is rounded with the end time, so adjacent slices do not overlap
+		appendNanos(event, toNanos(end) - toNanos(start));
+		appendArgs(event, taskId, kernel);
+		write(event);
+	}
+
+	private void writeInstant(String name, Track track, int taskId, KernelTimeline kernel, double time) {
+		//instant events do not overlap, they are drawn on the first lane
+		if(track.lanes.isEmpty())
+			addLane(track);
+		StringBuilder event = startEvent(name, "i", track.pid, track.tids.get(0), time);
+		event.append(",\"s\":\"t\"");
+		appendArgs(event, taskId, kernel);
+		write(event);
+	}
+
+	private void writeMetadata(String type, int pid, int tid, String name) {
+		StringBuilder event = startMetadata(type, pid, tid);
+		event.append("\"name\":\"").append(name).append("\"}}");
+		write(event);
+	}
+
+	private void writeSortIndex(String type, int pid, int tid, int sortIndex) {
+		StringBuilder event = startMetadata(type, pid, tid);
+		event.append("\"sort_index\":").append(sortIndex).append("}}");
+		write(event);
+	}
+
+	private StringBuilder startMetadata(String type, int pid, int tid) {
+		StringBuilder event = new StringBuilder(96);
+		event.append("{\"name\":\"").append(type).append("\",\"ph\":\"M\",\"pid\":").append(pid)
+			.append(",\"tid\":").append(tid).append(",\"args\":{");
+		return event;
+	}
+
+	private StringBuilder startEvent(String name, String phase, int pid, int tid, double time) {
+		StringBuilder event = new StringBuilder(160);
+		event.append("{\"name\":\"").append(name).append("\",\"ph\":\"").append(phase)
+			.append("\",\"pid\":").append(pid).append(",\"tid\":").append(tid).append(",\"ts\":");
+		appendNanos(event, toNanos(time));
+		return event;
+	}
+
+	private void appendArgs(StringBuilder event, int taskId, KernelTimeline kernel) {
+		event.append(",\"args\":{\"kernel\":").append(taskId)
+			.append(",\"type\":").append(kernel.kernelType).append("}}");
+	}
+
+	private static long toNanos(double seconds) {
+		return Math.round(seconds * 1e9);
+	}
+
+	/*
+	 * appends the time in microseconds with nanosecond precision
+	 */
+	private void appendNanos(StringBuilder event, long nanos) {
+		event.append(nanos / 1000);
+		int fraction = (int)(nanos % 1000);
+		if(fraction != 0){
+			event.append('.');
+			if(fraction < 100)
+				event.append('0');
+			if(fraction < 10)
+				event.append('0');
+			event.append(fraction);
+		}
+	}
+
+	private void write(StringBuilder event) {
+		try {
+			if(!firstEvent)
+				out.write(",\n");
+			firstEvent = false;
+			out.append(event);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/*
+	 * the timeline of a kernel which is not completed yet
+	 */
+	private static class KernelTimeline {
+		private int kernelType;
+		private int wlanId;
+		private double startTime;
+		private double queueDelay;
+		private boolean executed;
+		private String vmTrack;
+		private List<Transfer> uploads;
+		private List<Transfer> downloads;
+
+		private KernelTimeline(int _kernelType) {
+			kernelType = _kernelType;
+			startTime = -1;
+			uploads = new ArrayList<Transfer>(2);
+			downloads = new ArrayList<Transfer>(2);
+		}
+	}
+
+	private static class Transfer {
+		private double delay;
+		private NETWORK_DELAY_TYPES delayType;
+
+		private Transfer(double _delay, NETWORK_DELAY_TYPES _delayType) {
+			delay = _delay;
+			delayType = _delayType;
+		}
+	}
+
+	/*
+	 * a track (access point, network link or VM), each lane is a thread of
+	 * the trace so the overlapping kernels are drawn side by side
+	 */
+	private static class Track {
+		private int pid;
+		private String name;
+		private int sortIndex;
+		//start and end times of the slices of each lane
+		private List<TreeMap<Double, Double>> lanes;
+		private List<Integer> tids;
+
+		private Track(int _pid, String _name, int _sortIndex) {
+			pid = _pid;
+			name = _name;
+			sortIndex = _sortIndex;
+			lanes = new ArrayList<TreeMap<Double, Double>>();
+			tids = new ArrayList<Integer>();
+		}
+	}
+}
@@ -0,0 +1,422 @@
+/*
+ * Title:        EdgeCloudSim - Decision Trace
+ *
+ * Description:
+ * DecisionTrace records the lifecycle of the kernels (creation, start,
+ * network/queue delays, assignment to a VM, end and the failures), the
+ * VM load samples and the kernel-based application events reported to
+ * SimLogger as a compact binary stream. DecisionTrace.Reader reports the
+ * records of a trace to a Listener; DecisionTraceReplay uses it to report
+ * the same events to SimLogger again, so the results of a finished run
+ * can be recomputed without running the simulation, and ChromeTraceExporter
+ * uses it to draw the timelines of the kernels.
+ *
+ * Each record starts with its type (one byte). The integers are written
+ * as zigzag varints; the times are written as the difference between the
+ * bits of the time and the bits of the previous time, which is small and
+ * exactly reversible since the times are positive and (mostly) ascending.
+ * The delays and loads are written as 8 byte doubles.
+ *
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ * Copyright (c) 2017, Bogazici University, Istanbul, Turkey
+ */
+
+package edu.boun.edgecloudsim.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import edu.boun.edgecloudsim.core.SimSettings.NETWORK_DELAY_TYPES;
+
+public class DecisionTrace {
+	public static final int MAGIC = 0x45435354; //"ECST"
+	public static final int VERSION = 1;
+
+	//record types
+	public static final int KERNEL_CREATED = 0;
+	public static final int SUBMITTED_WLAN = 1;
+	public static final int KERNEL_STARTED = 2;
+	public static final int UPLOAD_DELAY = 3;
+	public static final int DOWNLOAD_DELAY = 4;
+	public static final int QUEUE_DELAY = 5;
+	public static final int KERNEL_ASSIGNED = 6;
+	public static final int KERNEL_EXECUTED = 7;
+	public static final int KERNEL_ENDED = 8;
+	public static final int REJECTED_DUE_TO_VM_CAPACITY = 9;
+	public static final int REJECTED_DUE_TO_BANDWIDTH = 10;
+	public static final int FAILED_DUE_TO_BANDWIDTH = 11;
+	public static final int FAILED_DUE_TO_MOBILITY = 12;
+	public static final int VM_LOAD = 13;
+	public static final int KERNEL_BASED_APP_CREATED = 14;
+	public static final int KERNEL_IN_KB_APP_FINISHED = 15;
+
+	private DataOutputStream out;
+	private long lastTimeBits;
+
+	public DecisionTrace(OutputStream stream) throws IOException {
+		out = new DataOutputStream(new BufferedOutputStream(stream, 65536));
+		out.writeInt(MAGIC);
+		out.writeByte(VERSION);
+	}
+
+	public void kernelCreated(int taskId, int kernelType, int kernelLength, int kernelInputType,
+			int kernelOutputSize, int kernelId) {
+		try {
+			out.writeByte(KERNEL_CREATED);
+			writeInt(taskId);
+			writeInt(kernelType);
+			writeInt(kernelLength);
+			writeInt(kernelInputType);
+			writeInt(kernelOutputSize);
+			writeInt(kernelId);
+		} catch (IOException e) {
+			handleError(e);
+		}
+	}
+
+	public void submittedWlan(int taskId, int wlanId) {
+		writeRecord(SUBMITTED_WLAN, taskId, wlanId);
+	}
+
+	public void kernelStarted(int taskId, double time) {
+		writeTimedRecord(KERNEL_STARTED, taskId, time);
+	}
+
+	public void uploadDelay(int taskId, double delay, NETWORK_DELAY_TYPES delayType) {
+		writeDelay(UPLOAD_DELAY, taskId, delay, delayType.ordinal());
+	}
+
+	public void downloadDelay(int taskId, double delay, NETWORK_DELAY_TYPES delayType) {
+		writeDelay(DOWNLOAD_DELAY, taskId, delay, delayType.ordinal());
+	}
+
+	public void queueDelay(int taskId, double delay) {
+		writeDelay(QUEUE_DELAY, taskId, delay, 0);
+	}
+
+	public void kernelAssigned(int taskId, int datacenterId, int hostId, int vmId, int vmType) {
+		try {
+			out.writeByte(KERNEL_ASSIGNED);
+			writeInt(taskId);
+			writeInt(datacenterId);
+			writeInt(hostId);
+			writeInt(vmId);
+			writeInt(vmType);
+		} catch (IOException e) {
+			handleError(e);
+		}
+	}
+
+	public void kernelExecuted(int taskId) {
+		writeRecord(KERNEL_EXECUTED, taskId, 0);
+	}
+
+	public void kernelEnded(int taskId, double time) {
+		writeTimedRecord(KERNEL_ENDED, taskId, time);
+	}
+
+	public void rejectedDueToVMCapacity(int taskId, double time, int vmType) {
+		writeFailure(REJECTED_DUE_TO_VM_CAPACITY, taskId, time, vmType, 0);
+	}
+
+	public void rejectedDueToBandwidth(int taskId, double time, int vmType, NETWORK_DELAY_TYPES delayType) {
+		writeFailure(REJECTED_DUE_TO_BANDWIDTH, taskId, time, vmType, delayType.ordinal());
+	}
+
+	public void failedDueToBandwidth(int taskId, double time, NETWORK_DELAY_TYPES delayType) {
+		writeFailure(FAILED_DUE_TO_BANDWIDTH, taskId, time, 0, delayType.ordinal());
+	}
+
+	public void failedDueToMobility(int taskId, double time) {
+		writeTimedRecord(FAILED_DUE_TO_MOBILITY, taskId, time);
+	}
+
+	public void vmLoad(double time, double loadOnEdge, double loadOnCloud, double loadOnMobile) {
+		try {
+			out.writeByte(VM_LOAD);
+			writeTime(time);
+			out.writeDouble(loadOnEdge);
+			out.writeDouble(loadOnCloud);
+			out.writeDouble(loadOnMobile);
+		} catch (IOException e) {
+			handleError(e);
+		}
+	}
+
+	public void kernelBasedAppCreated(int kernelBasedAppId, int[] kernelIdList) {
+		try {
+			out.writeByte(KERNEL_BASED_APP_CREATED);
+			writeInt(kernelBasedAppId);
+			writeInt(kernelIdList.length);
+			for(int kernelId : kernelIdList)
+				writeInt(kernelId);
+		} catch (IOException e) {
+			handleError(e);
+		}
+	}
+
+	public void kernelInKBAppFinished(int kernelId) {
+		writeRecord(KERNEL_IN_KB_APP_FINISHED, kernelId, 0);
+	}
+
+	public void close() throws IOException {
+		out.close();
+	}
+
+	private void writeRecord(int type, int taskId, int value) {
+		try {
+			out.writeByte(type);
+			writeInt(taskId);
+			if(type != KERNEL_EXECUTED && type != KERNEL_IN_KB_APP_FINISHED)
+				writeInt(value);
+		} catch (IOException e) {
+			handleError(e);
+		}
+	}
+
+	private void writeTimedRecord(int type, int taskId, double time) {
+		try {
+			out.writeByte(type);
+			writeInt(taskId);
+			writeTime(time);
+		} catch (IOException e) {
+			handleError(e);
+		}
+	}
+
+	private void writeDelay(int type, int taskId, double delay, int delayType) {
+		try {
+			out.writeByte(type);
+			writeInt(taskId);
+			if(type != QUEUE_DELAY)
+				writeInt(delayType);
+			out.writeDouble(delay);
+		} catch (IOException e) {
+			handleError(e);
+		}
+	}
+
+	private void writeFailure(int type, int taskId, double time, int vmType, int delayType) {
+		try {
+			out.writeByte(type);
+			writeInt(taskId);
+			writeTime(time);
+			if(type != FAILED_DUE_TO_BANDWIDTH)
+				writeInt(vmType);
+			if(type != REJECTED_DUE_TO_VM_CAPACITY)
+				writeInt(delayType);
+		} catch (IOException e) {
+			handleError(e);
+		}
+	}
+
+	private void writeTime(double time) throws IOException {
+		long bits = Double.doubleToLongBits(time);
+		writeLong(bits - lastTimeBits);
+		lastTimeBits = bits;
+	}
+
+	private void writeInt(int value) throws IOException {
+		writeLong(value);
+	}
+
+	//zigzag varint, small absolute values take less bytes
+	private void writeLong(long value) throws IOException {
+		long zigzag = (value << 1) ^ (value >> 63);
+		while((zigzag & ~0x7FL) != 0){
+			out.writeByte((int)((zigzag & 0x7F) | 0x80));
+			zigzag >>>= 7;
+		}
+		out.writeByte((int)zigzag);
+	}
+
+	private void handleError(IOException e) {
+		SimLogger.printLine("Decision trace cannot be written! Terminating simulation...");
+		e.printStackTrace();
+		System.exit(0);
+	}
+
+	/**
+	 * receives the records of a trace in the order they are written,
+	 * the methods have the same parameters as the related SimLogger methods
+	 */
+	public interface Listener {
+		default void kernelCreated(int taskId, int kernelType, int kernelLength, int kernelInputType,
+				int kernelOutputSize, int kernelId) {}
+		default void submittedWlan(int taskId, int wlanId) {}
+		default void kernelStarted(int taskId, double time) {}
+		default void uploadDelay(int taskId, double delay, NETWORK_DELAY_TYPES delayType) {}
+		default void downloadDelay(int taskId, double delay, NETWORK_DELAY_TYPES delayType) {}
+		default void queueDelay(int taskId, double delay) {}
+		default void kernelAssigned(int taskId, int datacenterId, int hostId, int vmId, int vmType) {}
+		default void kernelExecuted(int taskId) {}
+		default void kernelEnded(int taskId, double time) {}
+		default void rejectedDueToVMCapacity(int taskId, double time, int vmType) {}
+		default void rejectedDueToBandwidth(int taskId, double time, int vmType, NETWORK_DELAY_TYPES delayType) {}
+		default void failedDueToBandwidth(int taskId, double time, NETWORK_DELAY_TYPES delayType) {}
+		default void failedDueToMobility(int taskId, double time) {}
+		default void vmLoad(double time, double loadOnEdge, double loadOnCloud, double loadOnMobile) {}
+		default void kernelBasedAppCreated(int kernelBasedAppId, int[] kernelIdList) {}
+		default void kernelInKBAppFinished(int kernelId) {}
+	}
+
+	/**
+	 * reads the trace written by DecisionTrace
+	 */
+	public static class Reader {
+		private static final NETWORK_DELAY_TYPES[] DELAY_TYPES = NETWORK_DELAY_TYPES.values();
+
+		private DataInputStream in;
+		private long lastTimeBits;
+
+		public Reader(DataInputStream _in) throws IOException {
+			in = _in;
+			if(in.readInt() != MAGIC || in.readUnsignedByte() != VERSION)
+				throw new IOException("unsupported decision trace file");
+		}
+
+		/**
+		 * opens a trace file, the file is decompressed if its name ends with .gz;
+		 * if its name ends with .zip, the _TRACE.bin entry of the archive is read
+		 */
+		public static Reader open(String fileName) throws IOException {
+			InputStream stream = new FileInputStream(fileName);
+			if(fileName.endsWith(".gz")){
+				stream = new GZIPInputStream(stream, 65536);
+			}
+			else if(fileName.endsWith(".zip")){
+				ZipInputStream zipStream = new ZipInputStream(new BufferedInputStream(stream, 65536));
+				ZipEntry entry;
+				while((entry = zipStream.getNextEntry()) != null && !entry.getName().endsWith("_TRACE.bin"))
+					;
+				if(entry == null){
+					zipStream.close();
+					throw new IOException("there is no decision trace in " + fileName);
+				}
+				stream = zipStream;
+			}
+			return new Reader(new DataInputStream(new BufferedInputStream(stream, 65536)));
+		}
+
+		/**
+		 * reports all records of the trace to the listener and closes the trace
+		 */
+		public void read(Listener listener) throws IOException {
+			try {
+				int type;
+				while((type = readType()) != -1)
+					readRecord(type, listener);
+			} finally {
+				in.close();
+			}
+		}
+
+		private void readRecord(int type, Listener listener) throws IOException {
+			switch(type){
+			case KERNEL_CREATED:
+				listener.kernelCreated(readInt(), readInt(), readInt(), readInt(), readInt(), readInt());
+				break;
+			case SUBMITTED_WLAN:
+				listener.submittedWlan(readInt(), readInt());
+				break;
+			case KERNEL_STARTED:
+				listener.kernelStarted(readInt(), readTime());
+				break;
+			case UPLOAD_DELAY: {
+				int taskId = readInt();
+				NETWORK_DELAY_TYPES delayType = DELAY_TYPES[readInt()];
+				listener.uploadDelay(taskId, in.readDouble(), delayType);
+				break;
+			}
+			case DOWNLOAD_DELAY: {
+				int taskId = readInt();
+				NETWORK_DELAY_TYPES delayType = DELAY_TYPES[readInt()];
+				listener.downloadDelay(taskId, in.readDouble(), delayType);
+				break;
+			}
+			case QUEUE_DELAY:
+				listener.queueDelay(readInt(), in.readDouble());
+				break;
+			case KERNEL_ASSIGNED:
+				listener.kernelAssigned(readInt(), readInt(), readInt(), readInt(), readInt());
+				break;
+			case KERNEL_EXECUTED:
+				listener.kernelExecuted(readInt());
+				break;
+			case KERNEL_ENDED:
+				listener.kernelEnded(readInt(), readTime());
+				break;
+			case REJECTED_DUE_TO_VM_CAPACITY:
+				listener.rejectedDueToVMCapacity(readInt(), readTime(), readInt());
+				break;
+			case REJECTED_DUE_TO_BANDWIDTH:
+				listener.rejectedDueToBandwidth(readInt(), readTime(), readInt(), DELAY_TYPES[readInt()]);
+				break;
+			case FAILED_DUE_TO_BANDWIDTH:
+				listener.failedDueToBandwidth(readInt(), readTime(), DELAY_TYPES[readInt()]);
+				break;
+			case FAILED_DUE_TO_MOBILITY:
+				listener.failedDueToMobility(readInt(), readTime());
+				break;
+			case VM_LOAD:
+				listener.vmLoad(readTime(), in.readDouble(), in.readDouble(), in.readDouble());
+				break;
+			case KERNEL_BASED_APP_CREATED: {
+				int kernelBasedAppId = readInt();
+				int[] kernelIdList = new int[readInt()];
+				for(int i=0; i<kernelIdList.length; i++)
+					kernelIdList[i] = readInt();
+				listener.kernelBasedAppCreated(kernelBasedAppId, kernelIdList);
+				break;
+			}
+			case KERNEL_IN_KB_APP_FINISHED:
+				listener.kernelInKBAppFinished(readInt());
+				break;
+			default:
+				throw new IOException("unknown record type " + type + " in decision trace");
+			}
+		}
+
+		/*
+		 * returns the type of the next record, -1 at the end of the trace
+		 */
+		private int readType() throws IOException {
+			try {
+				return in.readUnsignedByte();
+			} catch (EOFException e) {
+				return -1;
+			}
+		}
+
+		private int readInt() throws IOException {
+			return (int) readLong();
+		}
+
+		private double readTime() throws IOException {
+			lastTimeBits += readLong();
+			return Double.longBitsToDouble(lastTimeBits);
+		}
+
+		private long readLong() throws IOException {
+			long zigzag = 0;
+			int shift = 0;
+			int b;
+			do {
+				b = in.readUnsignedByte();
+				zigzag |= (long)(b & 0x7F) << shift;
+				shift += 7;
+			} while((b & 0x80) != 0);
+			return (zigzag >>> 1) ^ -(zigzag & 1);
+		}
+	}
+}
@@ -0,0 +1,217 @@
+/*
+ * Title:        EdgeCloudSim - Decision Trace Replay
+ *
+ * Description:
+ * DecisionTraceReplay reads a decision trace written by DecisionTrace and
+ * reports its events to SimLogger in the same order, so the results of a
+ * finished simulation run (_GENERIC, _LATENCY and time series files) are
+ * recomputed without running the simulation again. This makes it possible
+ * to analyze the decisions of an orchestrator with a modified SimLogger
+ * or to compute the results of a time window only.
+ *
+ * Usage:
+ * DecisionTraceReplay <config file> <edge devices file> <applications file>
+ *   <trace file> <output folder> [<window start> <window end>]
+ *
+ * The trace file is the <prefix>_TRACE.bin file of a scenario, its gzip
+ * compressed version (<prefix>_TRACE.bin.gz) or the <prefix>.zip archive of
+ * the scenario if the logs are written into zip archives. The same config
+ * files of the simulation should be used. If a time window (in seconds) is
+ * given, only the kernels started and the VM load samples taken within the
+ * window are taken into account.
+ *
+ * The location file and the periodic samples of the access points and the
+ * edge hosts (_SPATIAL) cannot be recomputed since they are not part of
+ * the trace.
+ *
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ * Copyright (c) 2017, Bogazici University, Istanbul, Turkey
+ */
+
+package edu.boun.edgecloudsim.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.cloudbus.cloudsim.Log;
+
+import edu.boun.edgecloudsim.core.KernelBasedApplicationStatus;
+import edu.boun.edgecloudsim.core.SimSettings;
+import edu.boun.edgecloudsim.core.SimSettings.NETWORK_DELAY_TYPES;
+
+public class DecisionTraceReplay {
+	private String traceFile;
+	private double windowStart;
+	private double windowEnd;
+	//kernels started within the time window, null if there is no window
+	private Set<Integer> kernelsInWindow;
+
+	public DecisionTraceReplay(String _traceFile, double _windowStart, double _windowEnd) {
+		traceFile = _traceFile;
+		windowStart = _windowStart;
+		windowEnd = _windowEnd;
+	}
+
+	public static void main(String[] args) {
+		//disable console output of cloudsim library
+		Log.disable();
+
+		SimLogger.enablePrintLog();
+
+		if (args.length != 5 && args.length != 7){
+			SimLogger.printLine("Usage: DecisionTraceReplay <config file> <edge devices file> <applications file> " +
+					"<trace file> <output folder> [<window start> <window end>]");
+			System.exit(0);
+		}
+
+		SimSettings SS = SimSettings.getInstance();
+		if(SS.initialize(args[0], args[1], args[2]) == false){
+			SimLogger.printLine("cannot initialize simulation settings!");
+			System.exit(0);
+		}
+
+		double windowStart = 0;
+		double windowEnd = Double.MAX_VALUE;
+		if(args.length == 7){
+			windowStart = Double.parseDouble(args[5]);
+			windowEnd = Double.parseDouble(args[6]);
+		}
+
+		String outputFolder = args[4];
+		new File(outputFolder).mkdirs();
+
+		//the results are written with the prefix of the replayed scenario
+		String filePrefix = new File(args[3]).getName().replaceAll("(_TRACE\\.bin(\\.gz)?|\\.zip)$", "");
+		if(args.length == 7)
+			filePrefix += "_" + args[5] + "-" + args[6] + "s";
+
+		SimLogger.enableFileLog();
+		SimLogger.disableDecisionTrace();
+		KernelBasedApplicationStatus.getInstance().reset();
+
+		DecisionTraceReplay replay = new DecisionTraceReplay(args[3], windowStart, windowEnd);
+		try {
+			SimLogger.printLine("Replaying " + args[3] + "...");
+			SimLogger.getInstance().simStarted(outputFolder, filePrefix);
+			replay.run();
+			SimLogger.getInstance().simStopped();
+		} catch (IOException e) {
+			SimLogger.printLine("Decision trace cannot be replayed! Terminating simulation...");
+			e.printStackTrace();
+			System.exit(0);
+		}
+	}
+
+	/**
+	 * reports the events of the trace to SimLogger, simStarted() should be called before
+	 */
+	public void run() throws IOException {
+		if(windowStart > 0 || windowEnd < Double.MAX_VALUE)
+			findKernelsInWindow();
+		else
+			kernelsInWindow = null;
+
+		SimLogger logger = SimLogger.getInstance();
+		KernelBasedApplicationStatus kbAppStatus = KernelBasedApplicationStatus.getInstance();
+		DecisionTrace.Reader.open(traceFile).read(new DecisionTrace.Listener() {
+			public void kernelCreated(int id, int kernelType, int kernelLength, int kernelInputType,
+					int kernelOutputSize, int kernelId) {
+				if(isInWindow(id))
+					logger.addLog(id, kernelType, kernelLength, kernelInputType, kernelOutputSize, kernelId);
+			}
+
+			public void submittedWlan(int id, int wlanId) {
+				if(isInWindow(id))
+					logger.setSubmittedWlan(id, wlanId);
+			}
+
+			public void kernelStarted(int id, double time) {
+				if(isInWindow(id))
+					logger.kernelStarted(id, time);
+			}
+
+			public void uploadDelay(int id, double delay, NETWORK_DELAY_TYPES delayType) {
+				if(isInWindow(id))
+					logger.setUploadDelay(id, delay, delayType);
+			}
+
+			public void downloadDelay(int id, double delay, NETWORK_DELAY_TYPES delayType) {
+				if(isInWindow(id))
+					logger.setDownloadDelay(id, delay, delayType);
+			}
+
+			public void queueDelay(int id, double delay) {
+				if(isInWindow(id))
+					logger.setQueueDelay(id, delay);
+			}
+
+			public void kernelAssigned(int id, int datacenterId, int hostId, int vmId, int vmType) {
+				if(isInWindow(id))
+					logger.kernelAssigned(id, datacenterId, hostId, vmId, vmType);
+			}
+
+			public void kernelExecuted(int id) {
+				if(isInWindow(id))
+					logger.kernelExecuted(id);
+			}
+
+			public void kernelEnded(int id, double time) {
+				if(isInWindow(id))
+					logger.kernelEnded(id, time);
+			}
+
+			public void rejectedDueToVMCapacity(int id, double time, int vmType) {
+				if(isInWindow(id))
+					logger.rejectedDueToVMCapacity(id, time, vmType);
+			}
+
+			public void rejectedDueToBandwidth(int id, double time, int vmType, NETWORK_DELAY_TYPES delayType) {
+				if(isInWindow(id))
+					logger.rejectedDueToBandwidth(id, time, vmType, delayType);
+			}
+
+			public void failedDueToBandwidth(int id, double time, NETWORK_DELAY_TYPES delayType) {
+				if(isInWindow(id))
+					logger.failedDueToBandwidth(id, time, delayType);
+			}
+
+			public void failedDueToMobility(int id, double time) {
+				if(isInWindow(id))
+					logger.failedDueToMobility(id, time);
+			}
+
+			public void vmLoad(double time, double loadOnEdge, double loadOnCloud, double loadOnMobile) {
+				if(time >= windowStart && time < windowEnd)
+					logger.addVmUtilizationLog(time, loadOnEdge, loadOnCloud, loadOnMobile);
+			}
+
+			public void kernelBasedAppCreated(int kernelBasedAppId, int[] kernelIdList) {
+				kbAppStatus.addKernelBasedApplication(kernelIdList.length, kernelBasedAppId);
+				kbAppStatus.addKernelIdList(kernelIdList, kernelBasedAppId);
+			}
+
+			public void kernelInKBAppFinished(int kernelId) {
+				kbAppStatus.getKernelSubmit(kernelId);
+			}
+		});
+	}
+
+	/*
+	 * finds the kernels started within the time window
+	 */
+	private void findKernelsInWindow() throws IOException {
+		kernelsInWindow = new HashSet<Integer>();
+		DecisionTrace.Reader.open(traceFile).read(new DecisionTrace.Listener() {
+			public void kernelStarted(int id, double time) {
+				if(time >= windowStart && time < windowEnd)
+					kernelsInWindow.add(id);
+			}
+		});
+	}
+
+	private boolean isInWindow(int id) {
+		return kernelsInWindow == null || kernelsInWindow.contains(id);
+	}
+}
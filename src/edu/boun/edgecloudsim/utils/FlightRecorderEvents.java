@@ -0,0 +1,300 @@
+/*
+ * Title:        EdgeCloudSim - Flight Recorder Events
+ *
+ * Description:
+ * FlightRecorderEvents defines the Java Flight Recorder (JFR) events of
+ * EdgeCloudSim: the lifecycle of the kernels (reported via SimLogger),
+ * the decisions of the edge orchestrator and the events processed by
+ * SimManager. Each event carries the simulation time next to its wall
+ * clock time, so the GC pauses and hot methods in a recording can be
+ * related to the phases and load levels of the simulation.
+ *
+ * The events are created only if they are enabled in the recording, so
+ * they cost nothing when JFR is not running. The events can be enabled
+ * by a custom .jfc file or by starting the JVM with
+ * -XX:StartFlightRecording:settings=profile,filename=<file>.jfr
+ * (the events of EdgeCloudSim are enabled by default).
+ *
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ * Copyright (c) 2017, Bogazici University, Istanbul, Turkey
+ */
+
+package edu.boun.edgecloudsim.utils;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+public class FlightRecorderEvents {
+	private static final String CATEGORY = "EdgeCloudSim";
+
+	/*
+	 * A private Constructor prevents any other class from instantiating.
+	 */
+	private FlightRecorderEvents() {
+	}
+
+	public static void kernelCreated(int taskId, int kernelType, int kernelLength) {
+		KernelCreatedEvent event = new KernelCreatedEvent();
+		if(event.isEnabled()){
+			event.set(taskId, CloudSim.clock());
+			event.kernelType = kernelType;
+			event.kernelLength = kernelLength;
+			event.commit();
+		}
+	}
+
+	public static void kernelUploaded(int taskId, double delay, String network) {
+		KernelUploadEvent event = new KernelUploadEvent();
+		if(event.isEnabled()){
+			event.set(taskId, CloudSim.clock());
+			event.delay = delay;
+			event.network = network;
+			event.commit();
+		}
+	}
+
+	public static void kernelAssigned(int taskId, int datacenterId, int hostId, int vmId, int vmType) {
+		KernelAssignedEvent event = new KernelAssignedEvent();
+		if(event.isEnabled()){
+			event.set(taskId, CloudSim.clock());
+			event.datacenterId = datacenterId;
+			event.hostId = hostId;
+			event.vmId = vmId;
+			event.vmType = vmType;
+			event.commit();
+		}
+	}
+
+	public static void kernelExecuted(int taskId) {
+		KernelExecutedEvent event = new KernelExecutedEvent();
+		if(event.isEnabled()){
+			event.set(taskId, CloudSim.clock());
+			event.commit();
+		}
+	}
+
+	public static void kernelDownloaded(int taskId, double delay, String network) {
+		KernelDownloadEvent event = new KernelDownloadEvent();
+		if(event.isEnabled()){
+			event.set(taskId, CloudSim.clock());
+			event.delay = delay;
+			event.network = network;
+			event.commit();
+		}
+	}
+
+	public static void kernelEnded(int taskId, double time) {
+		KernelEndedEvent event = new KernelEndedEvent();
+		if(event.isEnabled()){
+			event.set(taskId, time);
+			event.commit();
+		}
+	}
+
+	public static void kernelFailed(int taskId, double time, String reason) {
+		KernelFailedEvent event = new KernelFailedEvent();
+		if(event.isEnabled()){
+			event.set(taskId, time);
+			event.reason = reason;
+			event.commit();
+		}
+	}
+
+	public static void vmLoad(double time, double loadOnEdge, double loadOnCloud, double loadOnMobile) {
+		VmLoadEvent event = new VmLoadEvent();
+		if(event.isEnabled()){
+			event.simulationTime = time;
+			event.loadOnEdge = loadOnEdge;
+			event.loadOnCloud = loadOnCloud;
+			event.loadOnMobile = loadOnMobile;
+			event.commit();
+		}
+	}
+
+	/**
+	 * base class of the kernel lifecycle events
+	 */
+	@Category({CATEGORY, "Kernel"})
+	@StackTrace(false)
+	public static abstract class KernelEvent extends Event {
+		@Label("Kernel Id")
+		@Description("cloudlet id of the kernel")
+		int taskId;
+
+		@Label("Simulation Time")
+		@Description("simulation clock in seconds")
+		double simulationTime;
+
+		void set(int _taskId, double _simulationTime) {
+			taskId = _taskId;
+			simulationTime = _simulationTime;
+		}
+	}
+
+	@Name("edu.boun.edgecloudsim.KernelCreated")
+	@Label("Kernel Created")
+	public static class KernelCreatedEvent extends KernelEvent {
+		@Label("Kernel Type")
+		int kernelType;
+
+		@Label("Kernel Length")
+		@Description("length of the kernel in MI")
+		int kernelLength;
+	}
+
+	@Name("edu.boun.edgecloudsim.KernelUpload")
+	@Label("Kernel Upload")
+	@Description("upload of the kernel input is started")
+	public static class KernelUploadEvent extends KernelEvent {
+		@Label("Delay")
+		@Description("upload delay in seconds")
+		double delay;
+
+		@Label("Network")
+		String network;
+	}
+
+	@Name("edu.boun.edgecloudsim.KernelAssigned")
+	@Label("Kernel Assigned")
+	public static class KernelAssignedEvent extends KernelEvent {
+		@Label("Datacenter Id")
+		int datacenterId;
+
+		@Label("Host Id")
+		int hostId;
+
+		@Label("VM Id")
+		int vmId;
+
+		@Label("VM Type")
+		int vmType;
+	}
+
+	@Name("edu.boun.edgecloudsim.KernelExecuted")
+	@Label("Kernel Executed")
+	@Description("execution of the kernel on its VM is finished")
+	public static class KernelExecutedEvent extends KernelEvent {
+	}
+
+	@Name("edu.boun.edgecloudsim.KernelDownload")
+	@Label("Kernel Download")
+	@Description("download of the kernel output is started")
+	public static class KernelDownloadEvent extends KernelEvent {
+		@Label("Delay")
+		@Description("download delay in seconds")
+		double delay;
+
+		@Label("Network")
+		String network;
+	}
+
+	@Name("edu.boun.edgecloudsim.KernelEnded")
+	@Label("Kernel Ended")
+	public static class KernelEndedEvent extends KernelEvent {
+	}
+
+	@Name("edu.boun.edgecloudsim.KernelFailed")
+	@Label("Kernel Failed")
+	public static class KernelFailedEvent extends KernelEvent {
+		@Label("Reason")
+		String reason;
+	}
+
+	/**
+	 * a decision of the edge orchestrator, the duration of the event is
+	 * the wall clock time spent by the orchestrator
+	 */
+	@Name("edu.boun.edgecloudsim.OrchestratorDecision")
+	@Label("Orchestrator Decision")
+	@Category({CATEGORY, "Orchestrator"})
+	@StackTrace(false)
+	public static class OrchestratorDecisionEvent extends Event {
+		@Label("Kernel Id")
+		int taskId;
+
+		@Label("Simulation Time")
+		@Description("simulation clock in seconds")
+		double simulationTime;
+
+		@Label("Decision")
+		@Description("OFFLOAD (target device) or VM (VM selection)")
+		String decision;
+
+		@Label("Policy")
+		String policy;
+
+		@Label("Result")
+		@Description("id of the selected device or VM, -1 if there is no VM")
+		int result;
+
+		/**
+		 * ends the event and commits it if it is enabled
+		 */
+		public void commit(int _taskId, String _decision, String _policy, int _result) {
+			end();
+			if(shouldCommit()){
+				taskId = _taskId;
+				simulationTime = CloudSim.clock();
+				decision = _decision;
+				policy = _policy;
+				result = _result;
+				commit();
+			}
+		}
+	}
+
+	/**
+	 * an event processed by SimManager, the duration of the event is the
+	 * wall clock time spent to process it
+	 */
+	@Name("edu.boun.edgecloudsim.SimManagerEvent")
+	@Label("SimManager Event")
+	@Category({CATEGORY, "Simulation"})
+	@StackTrace(false)
+	public static class SimManagerEvent extends Event {
+		@Label("Event Type")
+		String eventType;
+
+		@Label("Simulation Time")
+		@Description("simulation clock in seconds")
+		double simulationTime;
+
+		/**
+		 * ends the event and commits it if it is enabled
+		 */
+		public void commit(String _eventType) {
+			end();
+			if(shouldCommit()){
+				eventType = _eventType;
+				simulationTime = CloudSim.clock();
+				commit();
+			}
+		}
+	}
+
+	@Name("edu.boun.edgecloudsim.VmLoad")
+	@Label("VM Load")
+	@Description("average utilization of the VMs on each tier")
+	@Category({CATEGORY, "Simulation"})
+	@StackTrace(false)
+	public static class VmLoadEvent extends Event {
+		@Label("Simulation Time")
+		@Description("simulation clock in seconds")
+		double simulationTime;
+
+		@Label("Load on Edge")
+		double loadOnEdge;
+
+		@Label("Load on Cloud")
+		double loadOnCloud;
+
+		@Label("Load on Mobile")
+		double loadOnMobile;
+	}
+}
@@ -32,6 +32,17 @@ public class KernelProperty {
        	inputFileSize = _outputFileSize;
 	}
     
+    public KernelProperty(double _startTime, int _mobileDeviceId, int _applicationType, int _pesNumber, long _length, long _inputFileSize, long _outputFileSize, int _kernelId) {
+    	startTime=_startTime;
+    	mobileDeviceId=_mobileDeviceId;
+    	applicationType=_applicationType;
+    	pesNumber = _pesNumber;
+    	length = _length;
+    	inputFileSize = _inputFileSize;
+    	outputFileSize = _outputFileSize;
+    	kernelId = _kernelId;
+    }
+    
     public KernelProperty(int _mobileDeviceId, int _applicationType, double _startTime, ExponentialDistribution[][] expRngList, int _kernelId) {
     	mobileDeviceId=_mobileDeviceId;
     	startTime=_startTime;
@@ -90,4 +101,8 @@ public class KernelProperty {
     public int getKernelId() {
     	return kernelId;
     }
+    
+    public void setKernelId(int _kernelId) {
+    	kernelId = _kernelId;
+    }
 }
@@ -0,0 +1,210 @@
+/*
+ * Title:        EdgeCloudSim - Kernel Property Store
+ *
+ * Description:
+ * KernelPropertyStore keeps the pre-generated kernels in primitive arrays
+ * (one array per field) instead of a list of KernelProperty objects.
+ * A kernel takes 52 bytes including the kernel id index, and the kernels
+ * can be iterated in start time order via a simple cursor after
+ * sortByStartTime() is called. KernelProperty objects are created only
+ * when a kernel is submitted.
+ *
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ * Copyright (c) 2017, Bogazici University, Istanbul, Turkey
+ */
+
+package edu.boun.edgecloudsim.utils;
+
+import java.util.Arrays;
+
+public class KernelPropertyStore {
+	private static final int INITIAL_CAPACITY = 1024;
+
+	private int size;
+	private double[] startTime;
+	private long[] length;
+	private long[] inputFileSize;
+	private long[] outputFileSize;
+	private int[] mobileDeviceId;
+	private int[] applicationType;
+	private int[] pesNumber;
+	private int[] kernelId;
+
+	//index of each kernel id, built by sortByStartTime()
+	private int[] kernelIndex;
+
+	public KernelPropertyStore() {
+		size = 0;
+		startTime = new double[INITIAL_CAPACITY];
+		length = new long[INITIAL_CAPACITY];
+		inputFileSize = new long[INITIAL_CAPACITY];
+		outputFileSize = new long[INITIAL_CAPACITY];
+		mobileDeviceId = new int[INITIAL_CAPACITY];
+		applicationType = new int[INITIAL_CAPACITY];
+		pesNumber = new int[INITIAL_CAPACITY];
+		kernelId = new int[INITIAL_CAPACITY];
+	}
+
+	/**
+	 * adds the fields of the given kernel to the store
+	 * @return index of the kernel
+	 */
+	public int add(KernelProperty kernelProperty) {
+		if(size == startTime.length)
+			grow();
+
+		startTime[size] = kernelProperty.getStartTime();
+		length[size] = kernelProperty.getLength();
+		inputFileSize[size] = kernelProperty.getInputFileSize();
+		outputFileSize[size] = kernelProperty.getOutputFileSize();
+		mobileDeviceId[size] = kernelProperty.getMobileDeviceId();
+		applicationType[size] = kernelProperty.getApplicationType();
+		pesNumber[size] = kernelProperty.getPesNumber();
+		kernelId[size] = kernelProperty.getKernelId();
+		kernelIndex = null;
+
+		return size++;
+	}
+
+	private void grow() {
+		int capacity = startTime.length * 2;
+		startTime = Arrays.copyOf(startTime, capacity);
+		length = Arrays.copyOf(length, capacity);
+		inputFileSize = Arrays.copyOf(inputFileSize, capacity);
+		outputFileSize = Arrays.copyOf(outputFileSize, capacity);
+		mobileDeviceId = Arrays.copyOf(mobileDeviceId, capacity);
+		applicationType = Arrays.copyOf(applicationType, capacity);
+		pesNumber = Arrays.copyOf(pesNumber, capacity);
+		kernelId = Arrays.copyOf(kernelId, capacity);
+	}
+
+	/**
+	 * sorts the kernels by start time (kernels with the same start time
+	 * keep their insertion order), releases the unused capacity and
+	 * builds the kernel id index
+	 */
+	public void sortByStartTime() {
+		int[] order = new int[size];
+		for(int i=0; i<size; i++)
+			order[i] = i;
+		mergeSort(order, new int[size], 0, size);
+
+		double[] sortedStartTime = new double[size];
+		for(int i=0; i<size; i++)
+			sortedStartTime[i] = startTime[order[i]];
+		startTime = sortedStartTime;
+
+		length = permute(length, order);
+		inputFileSize = permute(inputFileSize, order);
+		outputFileSize = permute(outputFileSize, order);
+		mobileDeviceId = permute(mobileDeviceId, order);
+		applicationType = permute(applicationType, order);
+		pesNumber = permute(pesNumber, order);
+		kernelId = permute(kernelId, order);
+
+		buildKernelIndex();
+	}
+
+	//stable merge sort of the indices with respect to the start time
+	private void mergeSort(int[] order, int[] buffer, int from, int to) {
+		if(to - from < 2)
+			return;
+
+		int mid = (from + to) >>> 1;
+		mergeSort(order, buffer, from, mid);
+		mergeSort(order, buffer, mid, to);
+		if(startTime[order[mid-1]] <= startTime[order[mid]])
+			return;
+
+		System.arraycopy(order, from, buffer, from, to - from);
+		int left = from, right = mid;
+		for(int i=from; i<to; i++) {
+			if(right >= to || (left < mid && startTime[buffer[left]] <= startTime[buffer[right]]))
+				order[i] = buffer[left++];
+			else
+				order[i] = buffer[right++];
+		}
+	}
+
+	private long[] permute(long[] values, int[] order) {
+		long[] result = new long[size];
+		for(int i=0; i<size; i++)
+			result[i] = values[order[i]];
+		return result;
+	}
+
+	private int[] permute(int[] values, int[] order) {
+		int[] result = new int[size];
+		for(int i=0; i<size; i++)
+			result[i] = values[order[i]];
+		return result;
+	}
+
+	private void buildKernelIndex() {
+		int maxKernelId = -1;
+		for(int i=0; i<size; i++)
+			maxKernelId = Math.max(maxKernelId, kernelId[i]);
+
+		kernelIndex = new int[maxKernelId + 1];
+		Arrays.fill(kernelIndex, -1);
+		for(int i=0; i<size; i++)
+			if(kernelId[i] >= 0)
+				kernelIndex[kernelId[i]] = i;
+	}
+
+	/**
+	 * returns the index of the kernel with given id, -1 if it does not exist
+	 */
+	public int getIndexOfKernel(int _kernelId) {
+		if(kernelIndex == null)
+			buildKernelIndex();
+
+		if(_kernelId < 0 || _kernelId >= kernelIndex.length)
+			return -1;
+		return kernelIndex[_kernelId];
+	}
+
+	/**
+	 * creates a KernelProperty object for the kernel at given index
+	 */
+	public KernelProperty get(int index) {
+		return new KernelProperty(startTime[index], mobileDeviceId[index], applicationType[index],
+				pesNumber[index], length[index], inputFileSize[index], outputFileSize[index], kernelId[index]);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public double getStartTime(int index) {
+		return startTime[index];
+	}
+
+	public long getLength(int index) {
+		return length[index];
+	}
+
+	public long getInputFileSize(int index) {
+		return inputFileSize[index];
+	}
+
+	public long getOutputFileSize(int index) {
+		return outputFileSize[index];
+	}
+
+	public int getMobileDeviceId(int index) {
+		return mobileDeviceId[index];
+	}
+
+	public int getApplicationType(int index) {
+		return applicationType[index];
+	}
+
+	public int getPesNumber(int index) {
+		return pesNumber[index];
+	}
+
+	public int getKernelId(int index) {
+		return kernelId[index];
+	}
+}
@@ -0,0 +1,136 @@
+/*
+ * Title:        EdgeCloudSim - Latency Histogram
+ *
+ * Description:
+ * LatencyHistogram counts the latency values (in seconds) in log-linear
+ * buckets with a fixed memory, similar to HdrHistogram. The values are
+ * recorded in microseconds; the values smaller than 64 microseconds have
+ * their own buckets and each power of two above is divided into 32
+ * buckets, so the relative error of a percentile is at most 1/32.
+ * The values above the highest trackable value (about 12 days) are
+ * counted in the last bucket.
+ *
+ * The histograms of different runs (e.g. the iterations of a scenario)
+ * can be merged via add(); toString() and parse() convert a histogram to
+ * a sparse list of the non-empty buckets and vice versa.
+ *
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ * Copyright (c) 2017, Bogazici University, Istanbul, Turkey
+ */
+
+package edu.boun.edgecloudsim.utils;
+
+public class LatencyHistogram {
+	private static final double UNITS_PER_SECOND = 1000000;
+	private static final int SUB_BUCKET_BITS = 5;
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+	private static final int MAX_EXPONENT = 40;
+	private static final int NUM_OF_BUCKETS = 2 * SUB_BUCKET_COUNT + (MAX_EXPONENT - SUB_BUCKET_BITS - 1) * SUB_BUCKET_COUNT;
+
+	private long[] counts;
+	private long totalCount;
+	private double maxValue;
+
+	public LatencyHistogram() {
+		counts = new long[NUM_OF_BUCKETS];
+	}
+
+	public void record(double seconds) {
+		counts[getBucketIndex(Math.max(0, Math.round(seconds * UNITS_PER_SECOND)))]++;
+		totalCount++;
+		maxValue = Math.max(maxValue, seconds);
+	}
+
+	/**
+	 * adds the values recorded by the given histogram to this histogram
+	 */
+	public void add(LatencyHistogram other) {
+		for(int i=0; i<NUM_OF_BUCKETS; i++)
+			counts[i] += other.counts[i];
+		totalCount += other.totalCount;
+		maxValue = Math.max(maxValue, other.maxValue);
+	}
+
+	public long getTotalCount() {
+		return totalCount;
+	}
+
+	public double getMaxValue() {
+		return maxValue;
+	}
+
+	/**
+	 * returns the value in seconds which the given percentage of the
+	 * recorded values are smaller than or equal to, 0 if the histogram
+	 * is empty; the highest value of the related bucket is returned
+	 */
+	public double getValueAtPercentile(double percentile) {
+		if(totalCount == 0)
+			return 0;
+
+		long rank = Math.max(1, (long)Math.ceil(percentile / 100 * totalCount));
+		long cumulativeCount = 0;
+		for(int i=0; i<NUM_OF_BUCKETS; i++){
+			cumulativeCount += counts[i];
+			if(cumulativeCount >= rank && i < NUM_OF_BUCKETS - 1)
+				return Math.min(maxValue, getHighestValueOfBucket(i) / UNITS_PER_SECOND);
+			else if(cumulativeCount >= rank)
+				break;
+		}
+		return maxValue;
+	}
+
+	/**
+	 * returns the non-empty buckets as "index:count" pairs separated by spaces,
+	 * the max value is written first
+	 */
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder(Double.toString(maxValue));
+		for(int i=0; i<NUM_OF_BUCKETS; i++){
+			if(counts[i] != 0)
+				result.append(' ').append(i).append(':').append(counts[i]);
+		}
+		return result.toString();
+	}
+
+	/**
+	 * creates a histogram from the output of toString()
+	 */
+	public static LatencyHistogram parse(String value) {
+		LatencyHistogram histogram = new LatencyHistogram();
+		String[] items = value.trim().split(" ");
+		histogram.maxValue = Double.parseDouble(items[0]);
+		for(int i=1; i<items.length; i++){
+			int separator = items[i].indexOf(':');
+			long count = Long.parseLong(items[i].substring(separator + 1));
+			histogram.counts[Integer.parseInt(items[i].substring(0, separator))] += count;
+			histogram.totalCount += count;
+		}
+		return histogram;
+	}
+
+	private static int getBucketIndex(long value) {
+		if(value < 2 * SUB_BUCKET_COUNT)
+			return (int)value;
+
+		//the highest SUB_BUCKET_BITS+1 bits of the value are used within the power of two
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		if(exponent >= MAX_EXPONENT)
+			return NUM_OF_BUCKETS - 1;
+
+		int shift = exponent - SUB_BUCKET_BITS;
+		int subBucket = (int)(value >>> shift) - SUB_BUCKET_COUNT;
+		return 2 * SUB_BUCKET_COUNT + (exponent - SUB_BUCKET_BITS - 1) * SUB_BUCKET_COUNT + subBucket;
+	}
+
+	private static long getHighestValueOfBucket(int index) {
+		if(index < 2 * SUB_BUCKET_COUNT)
+			return index;
+
+		int exponent = (index - 2 * SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT + SUB_BUCKET_BITS + 1;
+		int subBucket = (index - 2 * SUB_BUCKET_COUNT) % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+		int shift = exponent - SUB_BUCKET_BITS;
+		return ((long)(subBucket + 1) << shift) - 1;
+	}
+}
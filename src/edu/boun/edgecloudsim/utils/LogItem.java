@@ -0,0 +1,282 @@
+/*
+ * Title:        EdgeCloudSim - Log Item
+ * 
+ * Description: 
+ * LogItem keeps the lifecycle and the delays of a kernel reported to
+ * SimLogger until the results are aggregated at the end of a scenario.
+ * 
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ * Copyright (c) 2017, Bogazici University, Istanbul, Turkey
+ */
+
+package edu.boun.edgecloudsim.utils;
+
+import edu.boun.edgecloudsim.core.SimSettings;
+import edu.boun.edgecloudsim.core.SimSettings.NETWORK_DELAY_TYPES;
+import edu.boun.edgecloudsim.utils.SimLogger.NETWORK_ERRORS;
+
+class LogItem {
+	private SimLogger.KERNEL_STATUS status;
+	private SimLogger.NETWORK_ERRORS networkError;
+	private int datacenterId;
+	private int hostId;
+	private int vmId;
+	private int vmType;
+	private int kernelType;
+	private int kernelLenght;
+	private int kernelInputType;
+	private int kernelOutputSize;
+	private double kernelStartTime;
+	private double kernelEndTime;
+	private double lanUploadDelay;
+	private double manUploadDelay;
+	private double wanUploadDelay;
+	private double lanDownloadDelay;
+	private double manDownloadDelay;
+	private double wanDownloadDelay;
+	private double queueDelay;
+	private double bwCost;
+	private double cpuCost;
+	private boolean isInWarmUpPeriod;
+	private int kernelId;
+	private int submittedWlanId;
+	private boolean assignedToVm;
+	private boolean deepLogSampled;
+
+	LogItem(int _kernelType, int _kernelLength, int _kernelInputType, int _kernelOutputSize, 
+			int _kernelId) {
+		kernelType = _kernelType;
+		kernelLenght = _kernelLength;
+		kernelInputType = _kernelInputType;
+		kernelOutputSize = _kernelOutputSize;
+		networkError = NETWORK_ERRORS.NONE;
+		status = SimLogger.KERNEL_STATUS.CREATED;
+		kernelEndTime = 0;
+		kernelId = _kernelId;
+		submittedWlanId = -1;
+	}
+	
+	public void kernelStarted(double time) {
+		kernelStartTime = time;
+		status = SimLogger.KERNEL_STATUS.UPLOADING;
+		
+		if (time < SimSettings.getInstance().getWarmUpPeriod())
+			isInWarmUpPeriod = true;
+		else
+			isInWarmUpPeriod = false;
+	}
+	
+	public void setUploadDelay(double delay, NETWORK_DELAY_TYPES delayType) {
+		if(delayType == NETWORK_DELAY_TYPES.WLAN_DELAY)
+			lanUploadDelay = delay;
+		else if(delayType == NETWORK_DELAY_TYPES.MAN_DELAY)
+			manUploadDelay = delay;
+		else if(delayType == NETWORK_DELAY_TYPES.WAN_DELAY)
+			wanUploadDelay = delay;
+	}
+	
+	public void setDownloadDelay(double delay, NETWORK_DELAY_TYPES delayType) {
+		if(delayType == NETWORK_DELAY_TYPES.WLAN_DELAY)
+			lanDownloadDelay = delay;
+		else if(delayType == NETWORK_DELAY_TYPES.MAN_DELAY)
+			manDownloadDelay = delay;
+		else if(delayType == NETWORK_DELAY_TYPES.WAN_DELAY)
+			wanDownloadDelay = delay;
+	}
+	
+	public void setQueueDelay(double delay) {
+		queueDelay = delay;
+	}
+
+	public void setSubmittedWlan(int wlanId) {
+		submittedWlanId = wlanId;
+	}
+	
+	public void kernelAssigned(int _datacenterId, int _hostId, int _vmId, int _vmType) {
+		status = SimLogger.KERNEL_STATUS.PROCESSING;
+		datacenterId = _datacenterId;
+		hostId = _hostId;
+		vmId = _vmId;
+		vmType = _vmType;
+		assignedToVm = true;
+	}
+
+	public void kernelExecuted() {
+		status = SimLogger.KERNEL_STATUS.DOWNLOADING;
+	}
+
+	public void kernelEnded(double time) {
+		kernelEndTime = time;
+		status = SimLogger.KERNEL_STATUS.COMLETED;
+	}
+
+	public void kernelRejectedDueToVMCapacity(double time, int _vmType) {
+		vmType = _vmType;
+		kernelEndTime = time;
+		status = SimLogger.KERNEL_STATUS.REJECTED_DUE_TO_VM_CAPACITY;
+	}
+
+	public void kernelRejectedDueToBandwidth(double time, int _vmType, NETWORK_DELAY_TYPES delayType) {
+		vmType = _vmType;
+		kernelEndTime = time;
+		status = SimLogger.KERNEL_STATUS.REJECTED_DUE_TO_BANDWIDTH;
+		
+		if(delayType == NETWORK_DELAY_TYPES.WLAN_DELAY)
+			networkError = NETWORK_ERRORS.LAN_ERROR;
+		else if(delayType == NETWORK_DELAY_TYPES.MAN_DELAY)
+			networkError = NETWORK_ERRORS.MAN_ERROR;
+		else if(delayType == NETWORK_DELAY_TYPES.WAN_DELAY)
+			networkError = NETWORK_ERRORS.WAN_ERROR;
+	}
+
+	public void kernelFailedDueToBandwidth(double time, NETWORK_DELAY_TYPES delayType) {
+		kernelEndTime = time;
+		status = SimLogger.KERNEL_STATUS.UNFINISHED_DUE_TO_BANDWIDTH;
+		
+		if(delayType == NETWORK_DELAY_TYPES.WLAN_DELAY)
+			networkError = NETWORK_ERRORS.LAN_ERROR;
+		else if(delayType == NETWORK_DELAY_TYPES.MAN_DELAY)
+			networkError = NETWORK_ERRORS.MAN_ERROR;
+		else if(delayType == NETWORK_DELAY_TYPES.WAN_DELAY)
+			networkError = NETWORK_ERRORS.WAN_ERROR;
+	}
+
+	public void kernelFailedDueToMobility(double time) {
+		kernelEndTime = time;
+		status = SimLogger.KERNEL_STATUS.UNFINISHED_DUE_TO_MOBILITY;
+	}
+
+	public void setCost(double _bwCost, double _cpuCos) {
+		bwCost = _bwCost;
+		cpuCost = _cpuCos;
+	}
+
+	public void setDeepLogSampled(boolean _deepLogSampled) {
+		deepLogSampled = _deepLogSampled;
+	}
+
+	public boolean isDeepLogSampled() {
+		return deepLogSampled;
+	}
+
+	public boolean isInWarmUpPeriod() {
+		return isInWarmUpPeriod;
+	}
+
+	public double getCost() {
+		return bwCost + cpuCost;
+	}
+
+	public double getNetworkUploadDelay(NETWORK_DELAY_TYPES delayType) {
+		double result = 0;
+		if(delayType == NETWORK_DELAY_TYPES.WLAN_DELAY)
+			result = lanUploadDelay;
+		else if(delayType == NETWORK_DELAY_TYPES.MAN_DELAY)
+			result = manUploadDelay;
+		else if(delayType == NETWORK_DELAY_TYPES.WAN_DELAY)
+			result = wanUploadDelay;
+		
+		return result;
+	}
+
+	public double getNetworkDownloadDelay(NETWORK_DELAY_TYPES delayType) {
+		double result = 0;
+		if(delayType == NETWORK_DELAY_TYPES.WLAN_DELAY)
+			result = lanDownloadDelay;
+		else if(delayType == NETWORK_DELAY_TYPES.MAN_DELAY)
+			result = manDownloadDelay;
+		else if(delayType == NETWORK_DELAY_TYPES.WAN_DELAY)
+			result = wanDownloadDelay;
+		
+		return result;
+	}
+	
+	public double getNetworkDelay(NETWORK_DELAY_TYPES delayType){
+		double result = 0;
+		if(delayType == NETWORK_DELAY_TYPES.WLAN_DELAY)
+			result = lanDownloadDelay + lanUploadDelay;
+		else if(delayType == NETWORK_DELAY_TYPES.MAN_DELAY)
+			result = manDownloadDelay + manUploadDelay;
+		else if(delayType == NETWORK_DELAY_TYPES.WAN_DELAY)
+			result = wanDownloadDelay + wanUploadDelay;
+		
+		return result;
+	}
+	
+	public double getNetworkDelay(){
+		return  lanUploadDelay +
+				manUploadDelay +
+				wanUploadDelay +
+				lanDownloadDelay +
+				manDownloadDelay +
+				wanDownloadDelay;
+	}
+	
+	public double getQueueDelay() {
+		return queueDelay;
+	}
+	
+	public double getServiceTime() {
+		return kernelEndTime - kernelStartTime;
+	}
+
+	public SimLogger.KERNEL_STATUS getStatus() {
+		return status;
+	}
+
+	public SimLogger.NETWORK_ERRORS getNetworkError() {
+		return networkError;
+	}
+	
+	public int getVmType() {
+		return vmType;
+	}
+
+	/**
+	 * returns the WLAN which the kernel is submitted from, -1 if it is unknown
+	 */
+	public int getSubmittedWlan() {
+		return submittedWlanId;
+	}
+
+	/**
+	 * returns the edge host which the kernel is assigned to, -1 if it is not assigned to an edge VM
+	 */
+	public int getEdgeHostId() {
+		return (assignedToVm && vmType == SimSettings.VM_TYPES.EDGE_VM.ordinal()) ? hostId : -1;
+	}
+
+	public int getKernelType() {
+		return kernelType;
+	}
+
+	public String toString(int taskId) {
+		String result = taskId + SimSettings.DELIMITER + datacenterId + SimSettings.DELIMITER + hostId
+				+ SimSettings.DELIMITER + vmId + SimSettings.DELIMITER + vmType + SimSettings.DELIMITER + kernelType
+				+ SimSettings.DELIMITER + kernelLenght + SimSettings.DELIMITER + kernelInputType + SimSettings.DELIMITER
+				+ kernelOutputSize + SimSettings.DELIMITER + kernelStartTime + SimSettings.DELIMITER + kernelEndTime
+				+ SimSettings.DELIMITER;
+
+		if (status == SimLogger.KERNEL_STATUS.COMLETED){
+			result += getNetworkDelay() + SimSettings.DELIMITER;
+			result += getNetworkDelay(NETWORK_DELAY_TYPES.WLAN_DELAY) + SimSettings.DELIMITER;
+			result += getNetworkDelay(NETWORK_DELAY_TYPES.MAN_DELAY) + SimSettings.DELIMITER;
+			result += getNetworkDelay(NETWORK_DELAY_TYPES.WAN_DELAY);
+		}
+		else if (status == SimLogger.KERNEL_STATUS.REJECTED_DUE_TO_VM_CAPACITY)
+			result += "1"; // failure reason 1
+		else if (status == SimLogger.KERNEL_STATUS.REJECTED_DUE_TO_BANDWIDTH)
+			result += "2"; // failure reason 2
+		else if (status == SimLogger.KERNEL_STATUS.UNFINISHED_DUE_TO_BANDWIDTH)
+			result += "3"; // failure reason 3
+		else if (status == SimLogger.KERNEL_STATUS.UNFINISHED_DUE_TO_MOBILITY)
+			result += "4"; // failure reason 4
+		else
+			result += "0"; // default failure reason
+		return result;
+	}
+	
+	public int getKernelId() {
+		return kernelId;
+	}
+}
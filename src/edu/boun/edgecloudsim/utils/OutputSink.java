@@ -0,0 +1,220 @@
+/*
+ * Title:        EdgeCloudSim - Output Sink
+ *
+ * Description:
+ * OutputSink creates the log files of a simulation run. The files can be
+ * written as plain text files (NONE), compressed one by one as <file>.gz
+ * (GZIP) or into one <prefix>.zip archive per scenario (ZIP), so the logs
+ * are compressed while they are written and no uncompressed copy is kept
+ * on the disk.
+ *
+ * A zip archive is written sequentially but several log files are open at
+ * the same time. The small files (time series, summaries) are kept
+ * compressed in memory and added to the archive after they are closed and
+ * the archive is free. A large file (deep logs, decision trace) is written
+ * into the archive directly if no other large file is streamed; otherwise
+ * it is compressed into a temporary file in the output folder, which is
+ * copied into the archive and deleted after the file is closed, so the
+ * large files do not stay in memory and are not kept uncompressed.
+ *
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ * Copyright (c) 2017, Bogazici University, Istanbul, Turkey
+ */
+
+package edu.boun.edgecloudsim.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+public class OutputSink {
+	private String outputFolder;
+	private String archiveName;
+	private String archiveType;
+	private int compressionLevel;
+
+	private ZipOutputStream zipStream;
+	//file being written into the zip archive directly, null if the archive is free
+	private ZipEntryStream activeEntry;
+	//buffered files which are closed but not added to the zip archive yet
+	private List<ZipEntryStream> pendingEntries;
+
+	public OutputSink(String _outputFolder, String _archiveName, String _archiveType, int _compressionLevel) {
+		outputFolder = _outputFolder;
+		archiveName = _archiveName;
+		archiveType = _archiveType;
+		compressionLevel = _compressionLevel;
+		pendingEntries = new ArrayList<ZipEntryStream>();
+	}
+
+	/**
+	 * opens a small log file in the output folder or in the archive,
+	 * the text is appended if the plain file already exists
+	 */
+	public BufferedWriter openFile(String fileName) throws IOException {
+		return new BufferedWriter(new OutputStreamWriter(openStream(fileName, false)));
+	}
+
+	/**
+	 * opens a log file which may grow large (e.g. one line per kernel)
+	 */
+	public BufferedWriter openLargeFile(String fileName) throws IOException {
+		return new BufferedWriter(new OutputStreamWriter(openStream(fileName, true)));
+	}
+
+	/**
+	 * opens a binary file in the output folder or in the archive,
+	 * the data is appended if the plain file already exists
+	 */
+	public OutputStream openStream(String fileName, boolean large) throws IOException {
+		OutputStream out;
+		if(archiveType.equals("GZIP")){
+			out = new GZIPOutputStream(new FileOutputStream(new File(outputFolder, fileName + ".gz"), true)) {
+				{
+					def.setLevel(compressionLevel);
+				}
+			};
+		}
+		else if(archiveType.equals("ZIP")){
+			if(zipStream == null){
+				zipStream = new ZipOutputStream(new FileOutputStream(new File(outputFolder, archiveName + ".zip")));
+				zipStream.setLevel(compressionLevel);
+			}
+			if(large && activeEntry == null){
+				activeEntry = new ZipEntryStream(fileName, zipStream);
+				zipStream.putNextEntry(new ZipEntry(fileName));
+				out = activeEntry;
+			}
+			else if(large){
+				File tempFile = File.createTempFile(archiveName + "_", ".tmp", new File(outputFolder));
+				out = new ZipEntryStream(fileName, tempFile);
+			}
+			else{
+				out = new ZipEntryStream(fileName);
+			}
+		}
+		else{
+			out = new FileOutputStream(new File(outputFolder, fileName), true);
+		}
+		return out;
+	}
+
+	/**
+	 * completes the archive, all files should be closed before
+	 */
+	public void close() throws IOException {
+		if(zipStream != null){
+			if(activeEntry != null){
+				SimLogger.printLine("Log file " + activeEntry.fileName + " is not closed! Terminating simulation...");
+				System.exit(0);
+			}
+			writePendingEntries();
+			zipStream.close();
+			zipStream = null;
+		}
+	}
+
+	private void writePendingEntries() throws IOException {
+		for(ZipEntryStream entry : pendingEntries){
+			zipStream.putNextEntry(new ZipEntry(entry.fileName));
+			InputStream in;
+			if(entry.tempFile != null)
+				in = new InflaterInputStream(new BufferedInputStream(new FileInputStream(entry.tempFile), 65536));
+			else
+				in = new InflaterInputStream(new ByteArrayInputStream(entry.buffer.toByteArray()));
+			byte[] data = new byte[65536];
+			int length;
+			while((length = in.read(data)) > 0)
+				zipStream.write(data, 0, length);
+			in.close();
+			zipStream.closeEntry();
+			if(entry.tempFile != null)
+				entry.tempFile.delete();
+		}
+		pendingEntries.clear();
+	}
+
+	/*
+	 * a file in the zip archive, the data is written to the archive directly
+	 * or compressed into a temporary file or a buffer until the file is closed
+	 */
+	private class ZipEntryStream extends FilterOutputStream {
+		private String fileName;
+		private ByteArrayOutputStream buffer;
+		private Deflater deflater;
+		private File tempFile;
+		private boolean closed;
+
+		//the data is written to the archive directly
+		private ZipEntryStream(String _fileName, ZipOutputStream _zipStream) {
+			super(_zipStream);
+			fileName = _fileName;
+		}
+
+		//the data is compressed into a temporary file
+		private ZipEntryStream(String _fileName, File _tempFile) throws IOException {
+			super(null);
+			fileName = _fileName;
+			tempFile = _tempFile;
+			deflater = new Deflater(Deflater.BEST_SPEED);
+			out = new DeflaterOutputStream(new BufferedOutputStream(new FileOutputStream(_tempFile), 65536), deflater);
+		}
+
+		//the data is compressed into a buffer
+		private ZipEntryStream(String _fileName) {
+			super(null);
+			fileName = _fileName;
+			buffer = new ByteArrayOutputStream();
+			deflater = new Deflater(Deflater.BEST_SPEED);
+			out = new DeflaterOutputStream(buffer, deflater);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+		}
+
+		@Override
+		public void close() throws IOException {
+			if(closed)
+				return;
+			closed = true;
+
+			if(this == activeEntry){
+				zipStream.closeEntry();
+				activeEntry = null;
+			}
+			else if(tempFile != null){
+				out.close();
+				deflater.end();
+				pendingEntries.add(this);
+			}
+			else{
+				((DeflaterOutputStream) out).finish();
+				deflater.end();
+				pendingEntries.add(this);
+			}
+
+			if(activeEntry == null)
+				writePendingEntries();
+		}
+	}
+}
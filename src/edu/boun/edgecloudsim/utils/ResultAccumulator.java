@@ -0,0 +1,663 @@
+/*
+ * Title:        EdgeCloudSim - Result Accumulator
+ *
+ * Description:
+ * ResultAccumulator keeps the results of the kernels for each application
+ * type while SimLogger processes the kernel map at the end of a scenario.
+ * The kernel map can be split into several parts which are processed by
+ * different threads; each part has its own accumulator and the accumulators
+ * are merged in the order of the parts before the results are written.
+ *
+ * The kernels are processed in two passes. The first pass counts the
+ * kernels which are not in a kernel-based application and collects the
+ * kernels changing the final status of their kernel-based application.
+ * Since the statuses are shared by all parts, they are applied after the
+ * first pass of all parts; a failed kernel always overrides an uncompleted
+ * one, so the result does not depend on the order of the kernels. The
+ * second pass counts the kernels of the kernel-based applications by using
+ * their final statuses.
+ *
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ * Copyright (c) 2017, Bogazici University, Istanbul, Turkey
+ */
+
+package edu.boun.edgecloudsim.utils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.boun.edgecloudsim.core.KernelBasedApplicationStatus;
+import edu.boun.edgecloudsim.core.SimSettings;
+import edu.boun.edgecloudsim.core.SimSettings.NETWORK_DELAY_TYPES;
+import edu.boun.edgecloudsim.utils.SimLogger.NETWORK_ERRORS;
+
+class ResultAccumulator {
+	// following values are kept for each app type. last index is used for
+	// the total of all app types, which is calculated by SimLogger
+	int numKernelBasedApplication;
+
+	int[] uncompletedApplication;
+	int[] uncompletedApplicationOnCloud;
+	int[] uncompletedApplicationOnEdge;
+	int[] uncompletedapplicationOnMobile;
+
+	int[] uncompletedKernelInKBApp;
+	int[] uncompletedKernelInKBAppOnCloud;
+	int[] uncompletedKernelInKBAppOnEdge;
+	int[] uncompletedKernelInKBAppOnMobile;
+
+	int[] completedApplication;
+	int[] completedAppOnCloud;
+	int[] completedAppOnEdge;
+	int[] completedAppOnMobile;
+
+	int[] completedKernelInKBApp;
+	int[] completedKernelInKBAppOnCloud;
+	int[] completedKernelInKBAppOnEdge;
+	int[] completedKernelInKBAppOnMobile;
+
+	int[] failedApplication;
+	int[] failedAppOnCloud;
+	int[] failedAppOnEdge;
+	int[] failedAppOnMobile;
+
+	int[] failedKernelInKBApp;
+	int[] failedKernelInKBAppOnCloud;
+	int[] failedKernelInKBAppOnEdge;
+	int[] failedKernelInKBAppOnMobile;
+
+	double[] networkDelay;
+	double[] wanDelay;
+	double[] manDelay;
+	double[] lanDelay;
+
+	double[] wanUsage;
+	double[] manUsage;
+	double[] lanUsage;
+
+	double[] serviceTime;
+	double[] serviceTimeOnCloud;
+	double[] serviceTimeOnEdge;
+	double[] serviceTimeOnMobile;
+
+	double[] processingTime;
+	double[] processingTimeOnCloud;
+	double[] processingTimeOnEdge;
+	double[] processingTimeOnMobile;
+
+	double[] queueDelay;
+	double[] queueDelayOnEdge;
+
+	int[] failedAppDueToVmCapacity;
+	int[] failedAppDueToVmCapacityOnCloud;
+	int[] failedAppDueToVmCapacityOnEdge;
+	int[] failedAppDueToVmCapacityOnMobile;
+
+	int[] failedKernelInKBAppDueToVmCapacity;
+	int[] failedKernelInKBAppDueToVmCapacityOnCloud;
+	int[] failedKernelInKBAppDueToVmCapacityOnEdge;
+	int[] failedKernelInKBAppDueToVmCapacityOnMobile;
+
+	double[] cost;
+	int[] failedAppDuetoBw;
+	int[] failedAppDuetoLanBw;
+	int[] failedAppDuetoManBw;
+	int[] failedAppDuetoWanBw;
+	int[] failedAppDuetoMobility;
+
+	int[] failedKernelInKBAppDuetoBw;
+	int[] failedKernelInKBAppDuetoLanBw;
+	int[] failedKernelInKBAppDuetoManBw;
+	int[] failedKernelInKBAppDuetoWanBw;
+	int[] failedKernelInKBAppDuetoMobility;
+
+	//latency histograms of the completed applications, the last index is used for all applications
+	LatencyHistogram[][][] latencyHistograms;
+
+	private int numOfAppTypes;
+	private SpatialMetrics spatialMetrics;
+	//deep log files, null if deep file logging is disabled
+	private BufferedWriter successBW;
+	private BufferedWriter failBW;
+
+	//kernels which set the final status of their kernel-based application
+	private List<Integer> kernelsWithUncompletedStatus;
+	private List<Integer> kernelsWithFailedStatus;
+	//first kernel of each kernel-based application in the order of the kernel map
+	private Map<Integer, LogItem> firstKernelOfKBApp;
+
+	ResultAccumulator(int _numOfAppTypes, SpatialMetrics _spatialMetrics, BufferedWriter _successBW, BufferedWriter _failBW) {
+		numOfAppTypes = _numOfAppTypes;
+		spatialMetrics = _spatialMetrics;
+		successBW = _successBW;
+		failBW = _failBW;
+		kernelsWithUncompletedStatus = new ArrayList<Integer>();
+		kernelsWithFailedStatus = new ArrayList<Integer>();
+		firstKernelOfKBApp = new LinkedHashMap<Integer, LogItem>();
+
+		uncompletedApplication = new int[numOfAppTypes + 1];
+		uncompletedApplicationOnCloud = new int[numOfAppTypes + 1];
+		uncompletedApplicationOnEdge = new int[numOfAppTypes + 1];
+		uncompletedapplicationOnMobile = new int[numOfAppTypes + 1];
+
+		uncompletedKernelInKBApp = new int[numOfAppTypes + 1];
+		uncompletedKernelInKBAppOnCloud = new int[numOfAppTypes + 1];
+		uncompletedKernelInKBAppOnEdge = new int[numOfAppTypes + 1];
+		uncompletedKernelInKBAppOnMobile = new int[numOfAppTypes + 1];
+
+		completedApplication = new int[numOfAppTypes + 1];
+		completedAppOnCloud = new int[numOfAppTypes + 1];
+		completedAppOnEdge = new int[numOfAppTypes + 1];
+		completedAppOnMobile = new int[numOfAppTypes + 1];
+
+		completedKernelInKBApp = new int[numOfAppTypes + 1];
+		completedKernelInKBAppOnCloud = new int[numOfAppTypes + 1];
+		completedKernelInKBAppOnEdge = new int[numOfAppTypes + 1];
+		completedKernelInKBAppOnMobile = new int[numOfAppTypes + 1];
+
+		failedApplication = new int[numOfAppTypes + 1];
+		failedAppOnCloud = new int[numOfAppTypes + 1];
+		failedAppOnEdge = new int[numOfAppTypes + 1];
+		failedAppOnMobile = new int[numOfAppTypes + 1];
+
+		failedKernelInKBApp = new int[numOfAppTypes + 1];
+		failedKernelInKBAppOnCloud = new int[numOfAppTypes + 1];
+		failedKernelInKBAppOnEdge = new int[numOfAppTypes + 1];
+		failedKernelInKBAppOnMobile = new int[numOfAppTypes + 1];
+
+		networkDelay = new double[numOfAppTypes + 1];
+		wanDelay = new double[numOfAppTypes + 1];
+		manDelay = new double[numOfAppTypes + 1];
+		lanDelay = new double[numOfAppTypes + 1];
+
+		wanUsage = new double[numOfAppTypes + 1];
+		manUsage = new double[numOfAppTypes + 1];
+		lanUsage = new double[numOfAppTypes + 1];
+
+		serviceTime = new double[numOfAppTypes + 1];
+		serviceTimeOnCloud = new double[numOfAppTypes + 1];
+		serviceTimeOnEdge = new double[numOfAppTypes + 1];
+		serviceTimeOnMobile = new double[numOfAppTypes + 1];
+
+		processingTime = new double[numOfAppTypes + 1];
+		processingTimeOnCloud = new double[numOfAppTypes + 1];
+		processingTimeOnEdge = new double[numOfAppTypes + 1];
+		processingTimeOnMobile = new double[numOfAppTypes + 1];
+
+		queueDelay = new double[numOfAppTypes + 1];
+		queueDelayOnEdge = new double[numOfAppTypes + 1];
+
+		failedAppDueToVmCapacity = new int[numOfAppTypes + 1];
+		failedAppDueToVmCapacityOnCloud = new int[numOfAppTypes + 1];
+		failedAppDueToVmCapacityOnEdge = new int[numOfAppTypes + 1];
+		failedAppDueToVmCapacityOnMobile = new int[numOfAppTypes + 1];
+
+		failedKernelInKBAppDueToVmCapacity = new int[numOfAppTypes + 1];
+		failedKernelInKBAppDueToVmCapacityOnCloud = new int[numOfAppTypes + 1];
+		failedKernelInKBAppDueToVmCapacityOnEdge = new int[numOfAppTypes + 1];
+		failedKernelInKBAppDueToVmCapacityOnMobile = new int[numOfAppTypes + 1];
+
+		cost = new double[numOfAppTypes + 1];
+		failedAppDuetoBw = new int[numOfAppTypes + 1];
+		failedAppDuetoLanBw = new int[numOfAppTypes + 1];
+		failedAppDuetoManBw = new int[numOfAppTypes + 1];
+		failedAppDuetoWanBw = new int[numOfAppTypes + 1];
+		failedAppDuetoMobility = new int[numOfAppTypes + 1];
+
+		failedKernelInKBAppDuetoBw = new int[numOfAppTypes + 1];
+		failedKernelInKBAppDuetoLanBw = new int[numOfAppTypes + 1];
+		failedKernelInKBAppDuetoManBw = new int[numOfAppTypes + 1];
+		failedKernelInKBAppDuetoWanBw = new int[numOfAppTypes + 1];
+		failedKernelInKBAppDuetoMobility = new int[numOfAppTypes + 1];
+
+		latencyHistograms = new LatencyHistogram[numOfAppTypes + 1][SimLogger.LATENCY_TIERS.length][SimLogger.LATENCY_METRICS.length];
+		for (int i = 0; i < numOfAppTypes + 1; i++)
+			for (int j = 0; j < SimLogger.LATENCY_TIERS.length; j++)
+				for (int k = 0; k < SimLogger.LATENCY_METRICS.length; k++)
+					latencyHistograms[i][j][k] = new LatencyHistogram();
+	}
+
+	/**
+	 * first pass, adds a kernel which is not in a kernel-based application
+	 */
+	void addKernel(Integer key, LogItem value) throws IOException {
+		if (value.isInWarmUpPeriod())
+			return;
+
+		int kernelId = value.getKernelId();
+
+		// is kernel in kernel-based application with multiple kernels
+		if (KernelBasedApplicationStatus.getInstance().checkKernelInKBApp(kernelId)) {
+			//the final status of the kernel-based application is set after the first pass
+			if (value.getStatus() == SimLogger.KERNEL_STATUS.COMLETED) {
+				return;
+			}
+			else if(value.getStatus() == SimLogger.KERNEL_STATUS.CREATED ||
+					value.getStatus() == SimLogger.KERNEL_STATUS.UPLOADING ||
+					value.getStatus() == SimLogger.KERNEL_STATUS.PROCESSING ||
+					value.getStatus() == SimLogger.KERNEL_STATUS.DOWNLOADING)
+			{
+				kernelsWithUncompletedStatus.add(kernelId);
+			}
+			else {
+				kernelsWithFailedStatus.add(kernelId);
+			}
+		} 
+
+		else {
+
+		addSpatialLog(value);
+
+		if (value.getStatus() == SimLogger.KERNEL_STATUS.COMLETED) {
+			completedApplication[value.getKernelType()]++;
+
+			if (value.getVmType() == SimSettings.VM_TYPES.CLOUD_VM.ordinal())
+				completedAppOnCloud[value.getKernelType()]++;
+			else if (value.getVmType() == SimSettings.VM_TYPES.MOBILE_VM.ordinal())
+				completedAppOnMobile[value.getKernelType()]++;
+			else
+				completedAppOnEdge[value.getKernelType()]++;
+		}
+		else if(value.getStatus() == SimLogger.KERNEL_STATUS.CREATED ||
+				value.getStatus() == SimLogger.KERNEL_STATUS.UPLOADING ||
+				value.getStatus() == SimLogger.KERNEL_STATUS.PROCESSING ||
+				value.getStatus() == SimLogger.KERNEL_STATUS.DOWNLOADING)
+		{
+			uncompletedApplication[value.getKernelType()]++;
+			if (value.getVmType() == SimSettings.VM_TYPES.CLOUD_VM.ordinal())
+				uncompletedApplicationOnCloud[value.getKernelType()]++;
+			else if (value.getVmType() == SimSettings.VM_TYPES.MOBILE_VM.ordinal())
+				uncompletedapplicationOnMobile[value.getKernelType()]++;
+			else
+				uncompletedApplicationOnEdge[value.getKernelType()]++;
+		}
+		else {
+			failedApplication[value.getKernelType()]++;
+
+			if (value.getVmType() == SimSettings.VM_TYPES.CLOUD_VM.ordinal())
+				failedAppOnCloud[value.getKernelType()]++;
+			else if (value.getVmType() == SimSettings.VM_TYPES.MOBILE_VM.ordinal())
+				failedAppOnMobile[value.getKernelType()]++;
+			else
+				failedAppOnEdge[value.getKernelType()]++;
+		}
+
+		if (value.getStatus() == SimLogger.KERNEL_STATUS.COMLETED) {
+			cost[value.getKernelType()] += value.getCost();
+			serviceTime[value.getKernelType()] += value.getServiceTime();
+			networkDelay[value.getKernelType()] += value.getNetworkDelay();
+			processingTime[value.getKernelType()] += (value.getServiceTime() - value.getNetworkDelay() - value.getQueueDelay());
+			queueDelay[value.getKernelType()] += value.getQueueDelay();
+			recordLatency(value);
+			
+			if(value.getNetworkDelay(NETWORK_DELAY_TYPES.WLAN_DELAY) != 0) {
+				lanUsage[value.getKernelType()]++;
+				lanDelay[value.getKernelType()] += value.getNetworkDelay(NETWORK_DELAY_TYPES.WLAN_DELAY);
+			}
+			if(value.getNetworkDelay(NETWORK_DELAY_TYPES.MAN_DELAY) != 0) {
+				manUsage[value.getKernelType()]++;
+				manDelay[value.getKernelType()] += value.getNetworkDelay(NETWORK_DELAY_TYPES.MAN_DELAY);
+			}
+			if(value.getNetworkDelay(NETWORK_DELAY_TYPES.WAN_DELAY) != 0) {
+				wanUsage[value.getKernelType()]++;
+				wanDelay[value.getKernelType()] += value.getNetworkDelay(NETWORK_DELAY_TYPES.WAN_DELAY);
+			}
+
+			
+			if (value.getVmType() == SimSettings.VM_TYPES.CLOUD_VM.ordinal()) {
+				serviceTimeOnCloud[value.getKernelType()] += value.getServiceTime();
+				processingTimeOnCloud[value.getKernelType()] += (value.getServiceTime() - value.getNetworkDelay());
+			}
+			else if (value.getVmType() == SimSettings.VM_TYPES.MOBILE_VM.ordinal()) {
+				serviceTimeOnMobile[value.getKernelType()] += value.getServiceTime();
+				processingTimeOnMobile[value.getKernelType()] += value.getServiceTime();
+			}
+			else {
+				serviceTimeOnEdge[value.getKernelType()] += value.getServiceTime();
+				processingTimeOnEdge[value.getKernelType()] += (value.getServiceTime() - value.getNetworkDelay() - value.getQueueDelay());
+				queueDelayOnEdge[value.getKernelType()] += value.getQueueDelay();
+			}
+
+			writeDeepLog(successBW, key, value);
+		} else if (value.getStatus() == SimLogger.KERNEL_STATUS.REJECTED_DUE_TO_VM_CAPACITY) {
+			failedAppDueToVmCapacity[value.getKernelType()]++;
+			
+			if (value.getVmType() == SimSettings.VM_TYPES.CLOUD_VM.ordinal())
+				failedAppDueToVmCapacityOnCloud[value.getKernelType()]++;
+			else if (value.getVmType() == SimSettings.VM_TYPES.MOBILE_VM.ordinal())
+				failedAppDueToVmCapacityOnMobile[value.getKernelType()]++;
+			else
+				failedAppDueToVmCapacityOnEdge[value.getKernelType()]++;
+			
+			writeDeepLog(failBW, key, value);
+		} else if (value.getStatus() == SimLogger.KERNEL_STATUS.REJECTED_DUE_TO_BANDWIDTH
+				|| value.getStatus() == SimLogger.KERNEL_STATUS.UNFINISHED_DUE_TO_BANDWIDTH) {
+			failedAppDuetoBw[value.getKernelType()]++;
+			if (value.getNetworkError() == NETWORK_ERRORS.LAN_ERROR)
+				failedAppDuetoLanBw[value.getKernelType()]++;
+			else if (value.getNetworkError() == NETWORK_ERRORS.MAN_ERROR)
+				failedAppDuetoManBw[value.getKernelType()]++;
+			else if (value.getNetworkError() == NETWORK_ERRORS.WAN_ERROR)
+				failedAppDuetoWanBw[value.getKernelType()]++;
+
+			writeDeepLog(failBW, key, value);
+		} else if (value.getStatus() == SimLogger.KERNEL_STATUS.UNFINISHED_DUE_TO_MOBILITY) {
+			failedAppDuetoMobility[value.getKernelType()]++;
+			writeDeepLog(failBW, key, value);
+		}
+		}
+	}
+
+	/**
+	 * sets the final status of the kernel-based applications collected in the first pass,
+	 * should be called for all accumulators before the second pass
+	 */
+	void applyKernelBasedAppStatus() {
+		KernelBasedApplicationStatus kbAppStatus = KernelBasedApplicationStatus.getInstance();
+		for (int kernelId : kernelsWithUncompletedStatus) {
+			if (kbAppStatus.getKernelBasedAppFinalStatus(kernelId) != 2)
+				kbAppStatus.setKernelBasedAppFinalStatus(kernelId, 1);
+		}
+		for (int kernelId : kernelsWithFailedStatus)
+			kbAppStatus.setKernelBasedAppFinalStatus(kernelId, 2);
+
+		kernelsWithUncompletedStatus.clear();
+		kernelsWithFailedStatus.clear();
+	}
+
+	/**
+	 * second pass, adds a kernel of a kernel-based application
+	 */
+	void addKernelInKBApp(Integer key, LogItem value) throws IOException {
+		if (value.isInWarmUpPeriod())
+			return;
+
+		int kernelId = value.getKernelId();
+
+		if (KernelBasedApplicationStatus.getInstance().checkKernelInKBApp(kernelId)) {
+			int status = KernelBasedApplicationStatus.getInstance().getKernelBasedAppFinalStatus(kernelId);
+			addSpatialLog(value);
+			
+			//the application is counted once, by its first kernel in the kernel map
+			firstKernelOfKBApp.putIfAbsent(KernelBasedApplicationStatus.getInstance().getKernelBasedAppId(kernelId), value);
+				
+			if (value.getStatus() == SimLogger.KERNEL_STATUS.COMLETED) {
+				completedKernelInKBApp[value.getKernelType()]++;
+
+				if (value.getVmType() == SimSettings.VM_TYPES.CLOUD_VM.ordinal())
+					completedKernelInKBAppOnCloud[value.getKernelType()]++;
+				else if (value.getVmType() == SimSettings.VM_TYPES.MOBILE_VM.ordinal())
+					completedKernelInKBAppOnMobile[value.getKernelType()]++;
+				else
+					completedKernelInKBAppOnEdge[value.getKernelType()]++;
+			}
+			else if(value.getStatus() == SimLogger.KERNEL_STATUS.CREATED ||
+					value.getStatus() == SimLogger.KERNEL_STATUS.UPLOADING ||
+					value.getStatus() == SimLogger.KERNEL_STATUS.PROCESSING ||
+					value.getStatus() == SimLogger.KERNEL_STATUS.DOWNLOADING)
+			{
+				uncompletedKernelInKBApp[value.getKernelType()]++;
+				if (value.getVmType() == SimSettings.VM_TYPES.CLOUD_VM.ordinal())
+					uncompletedKernelInKBAppOnCloud[value.getKernelType()]++;
+				else if (value.getVmType() == SimSettings.VM_TYPES.MOBILE_VM.ordinal())
+					uncompletedKernelInKBAppOnMobile[value.getKernelType()]++;
+				else
+					uncompletedKernelInKBAppOnEdge[value.getKernelType()]++;
+			}
+			else {
+				failedKernelInKBApp[value.getKernelType()]++;
+
+				if (value.getVmType() == SimSettings.VM_TYPES.CLOUD_VM.ordinal())
+					failedKernelInKBAppOnCloud[value.getKernelType()]++;
+				else if (value.getVmType() == SimSettings.VM_TYPES.MOBILE_VM.ordinal())
+					failedKernelInKBAppOnMobile[value.getKernelType()]++;
+				else
+					failedKernelInKBAppOnEdge[value.getKernelType()]++;
+			}
+
+			if (status == 0) {
+				cost[value.getKernelType()] += value.getCost();
+				serviceTime[value.getKernelType()] += value.getServiceTime();
+				networkDelay[value.getKernelType()] += value.getNetworkDelay();
+				processingTime[value.getKernelType()] += (value.getServiceTime() - value.getNetworkDelay() - value.getQueueDelay());
+				queueDelay[value.getKernelType()] += value.getQueueDelay();
+				recordLatency(value);
+				
+				if(value.getNetworkDelay(NETWORK_DELAY_TYPES.WLAN_DELAY) != 0) {
+					lanUsage[value.getKernelType()]++;
+					lanDelay[value.getKernelType()] += value.getNetworkDelay(NETWORK_DELAY_TYPES.WLAN_DELAY);
+				}
+				if(value.getNetworkDelay(NETWORK_DELAY_TYPES.MAN_DELAY) != 0) {
+					manUsage[value.getKernelType()]++;
+					manDelay[value.getKernelType()] += value.getNetworkDelay(NETWORK_DELAY_TYPES.MAN_DELAY);
+				}
+				if(value.getNetworkDelay(NETWORK_DELAY_TYPES.WAN_DELAY) != 0) {
+					wanUsage[value.getKernelType()]++;
+					wanDelay[value.getKernelType()] += value.getNetworkDelay(NETWORK_DELAY_TYPES.WAN_DELAY);
+				}
+
+				
+				if (value.getVmType() == SimSettings.VM_TYPES.CLOUD_VM.ordinal()) {
+					serviceTimeOnCloud[value.getKernelType()] += value.getServiceTime();
+					processingTimeOnCloud[value.getKernelType()] += (value.getServiceTime() - value.getNetworkDelay());
+				}
+				else if (value.getVmType() == SimSettings.VM_TYPES.MOBILE_VM.ordinal()) {
+					serviceTimeOnMobile[value.getKernelType()] += value.getServiceTime();
+					processingTimeOnMobile[value.getKernelType()] += value.getServiceTime();
+				}
+				else {
+					serviceTimeOnEdge[value.getKernelType()] += value.getServiceTime();
+					processingTimeOnEdge[value.getKernelType()] += (value.getServiceTime() - value.getNetworkDelay() - value.getQueueDelay());
+					queueDelayOnEdge[value.getKernelType()] += value.getQueueDelay();
+				}
+
+				writeDeepLog(successBW, key, value);
+			} else if (value.getStatus() == SimLogger.KERNEL_STATUS.REJECTED_DUE_TO_VM_CAPACITY) {
+				failedKernelInKBAppDueToVmCapacity[value.getKernelType()]++;
+				
+				if (value.getVmType() == SimSettings.VM_TYPES.CLOUD_VM.ordinal())
+					failedKernelInKBAppDueToVmCapacityOnCloud[value.getKernelType()]++;
+				else if (value.getVmType() == SimSettings.VM_TYPES.MOBILE_VM.ordinal())
+					failedKernelInKBAppDueToVmCapacityOnMobile[value.getKernelType()]++;
+				else
+					failedKernelInKBAppDueToVmCapacityOnEdge[value.getKernelType()]++;
+				
+				writeDeepLog(failBW, key, value);
+			} else if (value.getStatus() == SimLogger.KERNEL_STATUS.REJECTED_DUE_TO_BANDWIDTH
+					|| value.getStatus() == SimLogger.KERNEL_STATUS.UNFINISHED_DUE_TO_BANDWIDTH) {
+				failedKernelInKBAppDuetoBw[value.getKernelType()]++;
+				if (value.getNetworkError() == NETWORK_ERRORS.LAN_ERROR)
+					failedKernelInKBAppDuetoLanBw[value.getKernelType()]++;
+				else if (value.getNetworkError() == NETWORK_ERRORS.MAN_ERROR)
+					failedKernelInKBAppDuetoManBw[value.getKernelType()]++;
+				else if (value.getNetworkError() == NETWORK_ERRORS.WAN_ERROR)
+					failedKernelInKBAppDuetoWanBw[value.getKernelType()]++;
+
+				writeDeepLog(failBW, key, value);
+			} else if (value.getStatus() == SimLogger.KERNEL_STATUS.UNFINISHED_DUE_TO_MOBILITY) {
+				failedKernelInKBAppDuetoMobility[value.getKernelType()]++;
+				writeDeepLog(failBW, key, value);
+			}
+			}
+	}
+
+	/**
+	 * adds the results of the given accumulator which processed the next part of the kernel map
+	 */
+	void add(ResultAccumulator other) {
+		numKernelBasedApplication += other.numKernelBasedApplication;
+		add(uncompletedApplication, other.uncompletedApplication);
+		add(uncompletedApplicationOnCloud, other.uncompletedApplicationOnCloud);
+		add(uncompletedApplicationOnEdge, other.uncompletedApplicationOnEdge);
+		add(uncompletedapplicationOnMobile, other.uncompletedapplicationOnMobile);
+		add(uncompletedKernelInKBApp, other.uncompletedKernelInKBApp);
+		add(uncompletedKernelInKBAppOnCloud, other.uncompletedKernelInKBAppOnCloud);
+		add(uncompletedKernelInKBAppOnEdge, other.uncompletedKernelInKBAppOnEdge);
+		add(uncompletedKernelInKBAppOnMobile, other.uncompletedKernelInKBAppOnMobile);
+		add(completedApplication, other.completedApplication);
+		add(completedAppOnCloud, other.completedAppOnCloud);
+		add(completedAppOnEdge, other.completedAppOnEdge);
+		add(completedAppOnMobile, other.completedAppOnMobile);
+		add(completedKernelInKBApp, other.completedKernelInKBApp);
+		add(completedKernelInKBAppOnCloud, other.completedKernelInKBAppOnCloud);
+		add(completedKernelInKBAppOnEdge, other.completedKernelInKBAppOnEdge);
+		add(completedKernelInKBAppOnMobile, other.completedKernelInKBAppOnMobile);
+		add(failedApplication, other.failedApplication);
+		add(failedAppOnCloud, other.failedAppOnCloud);
+		add(failedAppOnEdge, other.failedAppOnEdge);
+		add(failedAppOnMobile, other.failedAppOnMobile);
+		add(failedKernelInKBApp, other.failedKernelInKBApp);
+		add(failedKernelInKBAppOnCloud, other.failedKernelInKBAppOnCloud);
+		add(failedKernelInKBAppOnEdge, other.failedKernelInKBAppOnEdge);
+		add(failedKernelInKBAppOnMobile, other.failedKernelInKBAppOnMobile);
+		add(networkDelay, other.networkDelay);
+		add(wanDelay, other.wanDelay);
+		add(manDelay, other.manDelay);
+		add(lanDelay, other.lanDelay);
+		add(wanUsage, other.wanUsage);
+		add(manUsage, other.manUsage);
+		add(lanUsage, other.lanUsage);
+		add(serviceTime, other.serviceTime);
+		add(serviceTimeOnCloud, other.serviceTimeOnCloud);
+		add(serviceTimeOnEdge, other.serviceTimeOnEdge);
+		add(serviceTimeOnMobile, other.serviceTimeOnMobile);
+		add(processingTime, other.processingTime);
+		add(processingTimeOnCloud, other.processingTimeOnCloud);
+		add(processingTimeOnEdge, other.processingTimeOnEdge);
+		add(processingTimeOnMobile, other.processingTimeOnMobile);
+		add(queueDelay, other.queueDelay);
+		add(queueDelayOnEdge, other.queueDelayOnEdge);
+		add(failedAppDueToVmCapacity, other.failedAppDueToVmCapacity);
+		add(failedAppDueToVmCapacityOnCloud, other.failedAppDueToVmCapacityOnCloud);
+		add(failedAppDueToVmCapacityOnEdge, other.failedAppDueToVmCapacityOnEdge);
+		add(failedAppDueToVmCapacityOnMobile, other.failedAppDueToVmCapacityOnMobile);
+		add(failedKernelInKBAppDueToVmCapacity, other.failedKernelInKBAppDueToVmCapacity);
+		add(failedKernelInKBAppDueToVmCapacityOnCloud, other.failedKernelInKBAppDueToVmCapacityOnCloud);
+		add(failedKernelInKBAppDueToVmCapacityOnEdge, other.failedKernelInKBAppDueToVmCapacityOnEdge);
+		add(failedKernelInKBAppDueToVmCapacityOnMobile, other.failedKernelInKBAppDueToVmCapacityOnMobile);
+		add(cost, other.cost);
+		add(failedAppDuetoBw, other.failedAppDuetoBw);
+		add(failedAppDuetoLanBw, other.failedAppDuetoLanBw);
+		add(failedAppDuetoManBw, other.failedAppDuetoManBw);
+		add(failedAppDuetoWanBw, other.failedAppDuetoWanBw);
+		add(failedAppDuetoMobility, other.failedAppDuetoMobility);
+		add(failedKernelInKBAppDuetoBw, other.failedKernelInKBAppDuetoBw);
+		add(failedKernelInKBAppDuetoLanBw, other.failedKernelInKBAppDuetoLanBw);
+		add(failedKernelInKBAppDuetoManBw, other.failedKernelInKBAppDuetoManBw);
+		add(failedKernelInKBAppDuetoWanBw, other.failedKernelInKBAppDuetoWanBw);
+		add(failedKernelInKBAppDuetoMobility, other.failedKernelInKBAppDuetoMobility);
+
+		for (int i = 0; i < numOfAppTypes + 1; i++)
+			for (int j = 0; j < SimLogger.LATENCY_TIERS.length; j++)
+				for (int k = 0; k < SimLogger.LATENCY_METRICS.length; k++)
+					latencyHistograms[i][j][k].add(other.latencyHistograms[i][j][k]);
+
+		for (Map.Entry<Integer, LogItem> entry : other.firstKernelOfKBApp.entrySet())
+			firstKernelOfKBApp.putIfAbsent(entry.getKey(), entry.getValue());
+	}
+
+	/**
+	 * counts each kernel-based application by the type of its first kernel,
+	 * should be called after all accumulators are merged
+	 */
+	void countKernelBasedApplications() {
+		for (LogItem value : firstKernelOfKBApp.values()) {
+			int kernelId = value.getKernelId();
+			if (KernelBasedApplicationStatus.getInstance().checkFinalStatusLogged(kernelId)) {
+				int status = KernelBasedApplicationStatus.getInstance().getKernelBasedAppFinalStatus(kernelId);
+				numKernelBasedApplication++;
+				if (status == 0)
+					completedApplication[value.getKernelType()]++;
+				else if (status == 1)
+					uncompletedApplication[value.getKernelType()]++;
+				else
+					failedApplication[value.getKernelType()]++;
+				KernelBasedApplicationStatus.getInstance().setFinalStatusLogged(kernelId);
+			}
+		}
+		firstKernelOfKBApp.clear();
+	}
+
+	/**
+	 * returns the spatial metrics which the kernels are added to
+	 */
+	SpatialMetrics getSpatialMetrics() {
+		return spatialMetrics;
+	}
+
+	/*
+	 * records the latencies of a completed kernel to the histograms of its
+	 * application and all applications, for both its tier and all tiers
+	 */
+	private void recordLatency(LogItem value) {
+		int tier;
+		double processingTime;
+		if (value.getVmType() == SimSettings.VM_TYPES.CLOUD_VM.ordinal()) {
+			tier = 2;
+			processingTime = value.getServiceTime() - value.getNetworkDelay();
+		}
+		else if (value.getVmType() == SimSettings.VM_TYPES.MOBILE_VM.ordinal()) {
+			tier = 3;
+			processingTime = value.getServiceTime();
+		}
+		else {
+			tier = 1;
+			processingTime = value.getServiceTime() - value.getNetworkDelay() - value.getQueueDelay();
+		}
+
+		int[] apps = {value.getKernelType(), numOfAppTypes};
+		int[] tiers = {0, tier};
+		for (int app : apps) {
+			for (int t : tiers) {
+				latencyHistograms[app][t][0].record(value.getServiceTime());
+				latencyHistograms[app][t][1].record(processingTime);
+				if(value.getNetworkDelay(NETWORK_DELAY_TYPES.WLAN_DELAY) != 0)
+					latencyHistograms[app][t][2].record(value.getNetworkDelay(NETWORK_DELAY_TYPES.WLAN_DELAY));
+				if(value.getNetworkDelay(NETWORK_DELAY_TYPES.MAN_DELAY) != 0)
+					latencyHistograms[app][t][3].record(value.getNetworkDelay(NETWORK_DELAY_TYPES.MAN_DELAY));
+				if(value.getNetworkDelay(NETWORK_DELAY_TYPES.WAN_DELAY) != 0)
+					latencyHistograms[app][t][4].record(value.getNetworkDelay(NETWORK_DELAY_TYPES.WAN_DELAY));
+			}
+		}
+	}
+
+	private void addSpatialLog(LogItem value) {
+		spatialMetrics.addKernel(value.getSubmittedWlan(), value.getEdgeHostId(), value.getStatus(),
+				value.getServiceTime(), value.getNetworkDelay(NETWORK_DELAY_TYPES.WLAN_DELAY));
+	}
+
+	/*
+	 * writes the kernel to the _SUCCESS or _FAIL log if it is sampled, the
+	 * sampling rate of the failure status overrides the one of the app type
+	 */
+	private void writeDeepLog(BufferedWriter bw, Integer key, LogItem value) throws IOException {
+		if (bw == null)
+			return;
+
+		double failureRate = -1;
+		if (bw == failBW)
+			failureRate = SimSettings.getInstance().getDeepFileLogFailureSamplingRate(value.getStatus());
+
+		if (failureRate >= 0 ? SimUtils.isSampled(key, failureRate) : value.isDeepLogSampled())
+			appendToFile(bw, value.toString(key));
+	}
+
+	private void appendToFile(BufferedWriter bw, String line) throws IOException {
+		bw.write(line);
+		bw.newLine();
+	}
+
+	private static void add(int[] values, int[] otherValues) {
+		for (int i = 0; i < values.length; i++)
+			values[i] += otherValues[i];
+	}
+
+	private static void add(double[] values, double[] otherValues) {
+		for (int i = 0; i < values.length; i++)
+			values[i] += otherValues[i];
+	}
+}
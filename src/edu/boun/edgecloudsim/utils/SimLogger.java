@@ -15,11 +15,9 @@
 package edu.boun.edgecloudsim.utils;
 
 import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.Map;
 import java.util.stream.DoubleStream;
 import java.util.stream.IntStream;
@@ -39,12 +37,22 @@ public class SimLogger {
 		LAN_ERROR, MAN_ERROR, WAN_ERROR, NONE
 	}
 
+	//tiers and metrics of the latency histograms, written to _LATENCY.log
+	static final String[] LATENCY_TIERS = {"ALL", "EDGE", "CLOUD", "MOBILE"};
+	static final String[] LATENCY_METRICS = {"SERVICE", "PROCESSING", "WLAN", "MAN", "WAN"};
+	private static final double[] LATENCY_PERCENTILES = {50, 95, 99, 99.9};
+
 	private static boolean fileLogEnabled;
 	private static boolean printLogEnabled;
+	private static boolean decisionTraceDisabled;
 	private String filePrefix;
 	private String outputFolder;
+	private OutputSink outputSink;
 	private Map<Integer, LogItem> kernelMap;
-	private LinkedList<VmLoadLogItem> vmLoadList;
+	private TimeSeriesStore timeSeriesStore;
+	private TimeSeriesStore.TimeSeries vmLoadSeries;
+	private SpatialMetrics spatialMetrics;
+	private DecisionTrace decisionTrace;
 
 	private static SimLogger singleton = new SimLogger();
 
@@ -77,6 +85,14 @@ public class SimLogger {
 		printLogEnabled = false;
 	}
 
+	/**
+	 * the decision trace is not written even if it is enabled in the config file,
+	 * used while a trace is replayed
+	 */
+	public static void disableDecisionTrace() {
+		decisionTraceDisabled = true;
+	}
+
 	private void appendToFile(BufferedWriter bw, String line) throws IOException {
 		bw.write(line);
 		bw.newLine();
@@ -96,167 +112,232 @@ public class SimLogger {
 		filePrefix = fileName;
 		outputFolder = outFolder;
 		kernelMap = new HashMap<Integer, LogItem>();
-		vmLoadList = new LinkedList<VmLoadLogItem>();
+		outputSink = new OutputSink(outputFolder, filePrefix, SimSettings.getInstance().getOutputArchive(),
+				SimSettings.getInstance().getOutputCompressionLevel());
+		timeSeriesStore = new TimeSeriesStore(outputSink, filePrefix, fileLogEnabled);
+		vmLoadSeries = timeSeriesStore.registerSeries("VM_LOAD", "EDGE", "CLOUD", "MOBILE");
+		spatialMetrics = new SpatialMetrics();
+		decisionTrace = null;
+		if (fileLogEnabled && !decisionTraceDisabled && SimSettings.getInstance().isDecisionTraceEnabled()) {
+			try {
+				decisionTrace = new DecisionTrace(outputSink.openStream(filePrefix + "_TRACE.bin", true));
+			} catch (IOException e) {
+				printLine("Decision trace file cannot be created! Terminating simulation...");
+				e.printStackTrace();
+				System.exit(0);
+			}
+		}
 	}
 
 	public void addLog(int cloudletId, int kernelType, int kerneLength, int kernelInputType,
 			int kernelOutputSize, int kernelId) {
 		// printLine(taskId+"->"+taskStartTime);
-		kernelMap.put(cloudletId, new LogItem(kernelType, kerneLength, kernelInputType, kernelOutputSize, kernelId));
+		LogItem logItem = new LogItem(kernelType, kerneLength, kernelInputType, kernelOutputSize, kernelId);
+		// the kernels written by deep file logging are selected when they are
+		// created, the other kernels are only counted in the aggregated results
+		if (SimSettings.getInstance().getDeepFileLoggingEnabled())
+			logItem.setDeepLogSampled(SimUtils.isSampled(cloudletId, SimSettings.getInstance().getDeepFileLogSamplingRate(kernelType)));
+		kernelMap.put(cloudletId, logItem);
+		FlightRecorderEvents.kernelCreated(cloudletId, kernelType, kerneLength);
+		if (decisionTrace != null)
+			decisionTrace.kernelCreated(cloudletId, kernelType, kerneLength, kernelInputType, kernelOutputSize, kernelId);
 	}
 
 	public void kernelStarted(int kernelId, double time) {
 		kernelMap.get(kernelId).kernelStarted(time);
+		if (decisionTrace != null)
+			decisionTrace.kernelStarted(kernelId, time);
+	}
+
+	public void setSubmittedWlan(int kernelId, int wlanId) {
+		kernelMap.get(kernelId).setSubmittedWlan(wlanId);
+		if (decisionTrace != null)
+			decisionTrace.submittedWlan(kernelId, wlanId);
 	}
 
 	public void setUploadDelay(int taskId, double delay, NETWORK_DELAY_TYPES delayType) {
 		kernelMap.get(taskId).setUploadDelay(delay, delayType);
+		FlightRecorderEvents.kernelUploaded(taskId, delay, delayType.name());
+		if (decisionTrace != null)
+			decisionTrace.uploadDelay(taskId, delay, delayType);
 	}
 
 	public void setDownloadDelay(int taskId, double delay, NETWORK_DELAY_TYPES delayType) {
 		kernelMap.get(taskId).setDownloadDelay(delay, delayType);
+		FlightRecorderEvents.kernelDownloaded(taskId, delay, delayType.name());
+		if (decisionTrace != null)
+			decisionTrace.downloadDelay(taskId, delay, delayType);
+	}
+
+	public void setQueueDelay(int taskId, double delay) {
+		kernelMap.get(taskId).setQueueDelay(delay);
+		if (decisionTrace != null)
+			decisionTrace.queueDelay(taskId, delay);
 	}
 	
 	public void kernelAssigned(int kernelId, int datacenterId, int hostId, int vmId, int vmType) {
 		kernelMap.get(kernelId).kernelAssigned(datacenterId, hostId, vmId, vmType);
+		FlightRecorderEvents.kernelAssigned(kernelId, datacenterId, hostId, vmId, vmType);
+		if (decisionTrace != null)
+			decisionTrace.kernelAssigned(kernelId, datacenterId, hostId, vmId, vmType);
 	}
 
 	public void kernelExecuted(int kernelId) {
 		kernelMap.get(kernelId).kernelExecuted();
+		FlightRecorderEvents.kernelExecuted(kernelId);
+		if (decisionTrace != null)
+			decisionTrace.kernelExecuted(kernelId);
 	}
 
 	public void kernelEnded(int kernelId, double time) {
 		kernelMap.get(kernelId).kernelEnded(time);
+		FlightRecorderEvents.kernelEnded(kernelId, time);
+		if (decisionTrace != null)
+			decisionTrace.kernelEnded(kernelId, time);
 	}
 
 	public void rejectedDueToVMCapacity(int taskId, double time, int vmType) {
 		kernelMap.get(taskId).kernelRejectedDueToVMCapacity(time, vmType);
+		FlightRecorderEvents.kernelFailed(taskId, time, KERNEL_STATUS.REJECTED_DUE_TO_VM_CAPACITY.name());
+		if (decisionTrace != null)
+			decisionTrace.rejectedDueToVMCapacity(taskId, time, vmType);
 	}
 
 	public void rejectedDueToBandwidth(int taskId, double time, int vmType, NETWORK_DELAY_TYPES delayType) {
 		kernelMap.get(taskId).kernelRejectedDueToBandwidth(time, vmType, delayType);
+		FlightRecorderEvents.kernelFailed(taskId, time, KERNEL_STATUS.REJECTED_DUE_TO_BANDWIDTH.name());
+		if (decisionTrace != null)
+			decisionTrace.rejectedDueToBandwidth(taskId, time, vmType, delayType);
 	}
 
 	public void failedDueToBandwidth(int taskId, double time, NETWORK_DELAY_TYPES delayType) {
 		kernelMap.get(taskId).kernelFailedDueToBandwidth(time, delayType);
+		FlightRecorderEvents.kernelFailed(taskId, time, KERNEL_STATUS.UNFINISHED_DUE_TO_BANDWIDTH.name());
+		if (decisionTrace != null)
+			decisionTrace.failedDueToBandwidth(taskId, time, delayType);
 	}
 
 	public void failedDueToMobility(int taskId, double time) {
 		kernelMap.get(taskId).kernelFailedDueToMobility(time);
+		FlightRecorderEvents.kernelFailed(taskId, time, KERNEL_STATUS.UNFINISHED_DUE_TO_MOBILITY.name());
+		if (decisionTrace != null)
+			decisionTrace.failedDueToMobility(taskId, time);
 	}
 
 	public void addVmUtilizationLog(double time, double loadOnEdge, double loadOnCloud, double loadOnMobile) {
-		vmLoadList.add(new VmLoadLogItem(time, loadOnEdge, loadOnCloud, loadOnMobile));
+		vmLoadSeries.add(time, loadOnEdge, loadOnCloud, loadOnMobile);
+		FlightRecorderEvents.vmLoad(time, loadOnEdge, loadOnCloud, loadOnMobile);
+		if (decisionTrace != null)
+			decisionTrace.vmLoad(time, loadOnEdge, loadOnCloud, loadOnMobile);
+	}
+
+	/**
+	 * records the kernels of a kernel-based application in the decision trace
+	 */
+	public void kernelBasedAppCreated(int kernelBasedAppId, int[] kernelIdList) {
+		if (decisionTrace != null)
+			decisionTrace.kernelBasedAppCreated(kernelBasedAppId, kernelIdList);
+	}
+
+	/**
+	 * records the end of a kernel of a kernel-based application in the decision trace
+	 */
+	public void kernelInKBAppFinished(int kernelId) {
+		if (decisionTrace != null)
+			decisionTrace.kernelInKBAppFinished(kernelId);
+	}
+
+	/**
+	 * returns the store which the periodic metrics of the simulation can be registered to
+	 */
+	public TimeSeriesStore getTimeSeriesStore() {
+		return timeSeriesStore;
+	}
+
+	/**
+	 * returns the per access point and per edge host metrics of the simulation
+	 */
+	public SpatialMetrics getSpatialMetrics() {
+		return spatialMetrics;
+	}
+
+	/*
+	 * processes the kernel map in parts on a fork/join pool, each part has
+	 * its own accumulator and the accumulators are merged in the order of
+	 * the parts after both passes
+	 */
+	private ResultAccumulator aggregateInParallel(int numOfThreads, int numOfAppTypes) {
+		LogItem[] items = kernelMap.values().toArray(new LogItem[kernelMap.size()]);
+		ResultAccumulator[] parts = new ResultAccumulator[numOfThreads];
+		for (int i = 0; i < numOfThreads; i++)
+			parts[i] = new ResultAccumulator(numOfAppTypes, new SpatialMetrics(), null, null);
+
+		try {
+			SimUtils.parallelFor(numOfThreads, numOfThreads, i -> {
+				for (int j = getPartStart(items.length, numOfThreads, i); j < getPartStart(items.length, numOfThreads, i + 1); j++)
+					addKernel(parts[i], items[j], false);
+			});
+			for (ResultAccumulator part : parts)
+				part.applyKernelBasedAppStatus();
+			SimUtils.parallelFor(numOfThreads, numOfThreads, i -> {
+				for (int j = getPartStart(items.length, numOfThreads, i); j < getPartStart(items.length, numOfThreads, i + 1); j++)
+					addKernel(parts[i], items[j], true);
+			});
+		} catch (UncheckedIOException e) {
+			printLine("Kernel results cannot be aggregated! Terminating simulation...");
+			e.printStackTrace();
+			System.exit(0);
+		}
+
+		for (int i = 1; i < numOfThreads; i++)
+			parts[0].add(parts[i]);
+		for (ResultAccumulator part : parts)
+			spatialMetrics.add(part.getSpatialMetrics());
+		return parts[0];
+	}
+
+	private static int getPartStart(int numOfItems, int numOfParts, int part) {
+		return (int)((long)numOfItems * part / numOfParts);
+	}
+
+	private static void addKernel(ResultAccumulator part, LogItem value, boolean secondPass) {
+		try {
+			if (secondPass)
+				part.addKernelInKBApp(null, value);
+			else
+				part.addKernel(null, value);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
 	}
 
 	public void simStopped() throws IOException {
 		int numOfAppTypes = SimSettings.getInstance().getApplicationLookUpTable().length;
-		int numKernelBasedApplication = 0;
 
-		File successFile = null, failFile = null, vmLoadFile = null, locationFile = null;
-		FileWriter successFW = null, failFW = null, vmLoadFW = null, locationFW = null;
-		BufferedWriter successBW = null, failBW = null, vmLoadBW = null, locationBW = null;
+		// the trace is complete when the simulation stops, it is closed first
+		// so that the deep log files can be streamed into a zip archive
+		if (decisionTrace != null) {
+			decisionTrace.close();
+			decisionTrace = null;
+		}
+
+		BufferedWriter successBW = null, failBW = null, locationBW = null, latencyBW = null, spatialBW = null;
 
 		// Save generic results to file for each app type. last index is average
 		// of all app types
-		File[] genericFiles = new File[numOfAppTypes + 1];
-		FileWriter[] genericFWs = new FileWriter[numOfAppTypes + 1];
 		BufferedWriter[] genericBWs = new BufferedWriter[numOfAppTypes + 1];
 
-		// extract following values for each app type. last index is average of
-		// all app types
-		int[] uncompletedApplication = new int[numOfAppTypes + 1];
-		int[] uncompletedApplicationOnCloud = new int[numOfAppTypes + 1];
-		int[] uncompletedApplicationOnEdge = new int[numOfAppTypes + 1];
-		int[] uncompletedapplicationOnMobile = new int[numOfAppTypes + 1];
-		
-		int[] uncompletedKernelInKBApp = new int[numOfAppTypes + 1];
-		int[] uncompletedKernelInKBAppOnCloud = new int[numOfAppTypes + 1];
-		int[] uncompletedKernelInKBAppOnEdge = new int[numOfAppTypes + 1];
-		int[] uncompletedKernelInKBAppOnMobile = new int[numOfAppTypes + 1];
-
-		int[] completedApplication = new int[numOfAppTypes + 1];
-		int[] completedAppOnCloud = new int[numOfAppTypes + 1];
-		int[] completedAppOnEdge = new int[numOfAppTypes + 1];
-		int[] completedAppOnMobile = new int[numOfAppTypes + 1];
-
-		int[] completedKernelInKBApp = new int[numOfAppTypes + 1];
-		int[] completedKernelInKBAppOnCloud = new int[numOfAppTypes + 1];
-		int[] completedKernelInKBAppOnEdge = new int[numOfAppTypes + 1];
-		int[] completedKernelInKBAppOnMobile = new int[numOfAppTypes + 1];
-
-		int[] failedApplication = new int[numOfAppTypes + 1];
-		int[] failedAppOnCloud = new int[numOfAppTypes + 1];
-		int[] failedAppOnEdge = new int[numOfAppTypes + 1];
-		int[] failedAppOnMobile = new int[numOfAppTypes + 1];
-
-		int[] failedKernelInKBApp = new int[numOfAppTypes + 1];
-		int[] failedKernelInKBAppOnCloud = new int[numOfAppTypes + 1];
-		int[] failedKernelInKBAppOnEdge = new int[numOfAppTypes + 1];
-		int[] failedKernelInKBAppOnMobile = new int[numOfAppTypes + 1];
-
-		double[] networkDelay = new double[numOfAppTypes + 1];
-		double[] wanDelay = new double[numOfAppTypes + 1];
-		double[] manDelay = new double[numOfAppTypes + 1];
-		double[] lanDelay = new double[numOfAppTypes + 1];
-		
-		double[] wanUsage = new double[numOfAppTypes + 1];
-		double[] manUsage = new double[numOfAppTypes + 1];
-		double[] lanUsage = new double[numOfAppTypes + 1];
-
-		double[] serviceTime = new double[numOfAppTypes + 1];
-		double[] serviceTimeOnCloud = new double[numOfAppTypes + 1];
-		double[] serviceTimeOnEdge = new double[numOfAppTypes + 1];
-		double[] serviceTimeOnMobile = new double[numOfAppTypes + 1];
-
-		double[] processingTime = new double[numOfAppTypes + 1];
-		double[] processingTimeOnCloud = new double[numOfAppTypes + 1];
-		double[] processingTimeOnEdge = new double[numOfAppTypes + 1];
-		double[] processingTimeOnMobile = new double[numOfAppTypes + 1];
-
-		int[] failedAppDueToVmCapacity = new int[numOfAppTypes + 1];
-		int[] failedAppDueToVmCapacityOnCloud = new int[numOfAppTypes + 1];
-		int[] failedAppDueToVmCapacityOnEdge = new int[numOfAppTypes + 1];
-		int[] failedAppDueToVmCapacityOnMobile = new int[numOfAppTypes + 1];
-
-		int[] failedKernelInKBAppDueToVmCapacity = new int[numOfAppTypes + 1];
-		int[] failedKernelInKBAppDueToVmCapacityOnCloud = new int[numOfAppTypes + 1];
-		int[] failedKernelInKBAppDueToVmCapacityOnEdge = new int[numOfAppTypes + 1];
-		int[] failedKernelInKBAppDueToVmCapacityOnMobile = new int[numOfAppTypes + 1];
-		
-		double[] cost = new double[numOfAppTypes + 1];
-		int[] failedAppDuetoBw = new int[numOfAppTypes + 1];
-		int[] failedAppDuetoLanBw = new int[numOfAppTypes + 1];
-		int[] failedAppDuetoManBw = new int[numOfAppTypes + 1];
-		int[] failedAppDuetoWanBw = new int[numOfAppTypes + 1];
-		int[] failedAppDuetoMobility = new int[numOfAppTypes + 1];
-
-		int[] failedKernelInKBAppDuetoBw = new int[numOfAppTypes + 1];
-		int[] failedKernelInKBAppDuetoLanBw = new int[numOfAppTypes + 1];
-		int[] failedKernelInKBAppDuetoManBw = new int[numOfAppTypes + 1];
-		int[] failedKernelInKBAppDuetoWanBw = new int[numOfAppTypes + 1];
-		int[] failedKernelInKBAppDuetoMobility = new int[numOfAppTypes + 1];
-
-
 		// open all files and prepare them for write
 		if (fileLogEnabled) {
 			if (SimSettings.getInstance().getDeepFileLoggingEnabled()) {
-				successFile = new File(outputFolder, filePrefix + "_SUCCESS.log");
-				successFW = new FileWriter(successFile, true);
-				successBW = new BufferedWriter(successFW);
-
-				failFile = new File(outputFolder, filePrefix + "_FAIL.log");
-				failFW = new FileWriter(failFile, true);
-				failBW = new BufferedWriter(failFW);
+				successBW = outputSink.openLargeFile(filePrefix + "_SUCCESS.log");
+				failBW = outputSink.openLargeFile(filePrefix + "_FAIL.log");
 			}
 
-			vmLoadFile = new File(outputFolder, filePrefix + "_VM_LOAD.log");
-			vmLoadFW = new FileWriter(vmLoadFile, true);
-			vmLoadBW = new BufferedWriter(vmLoadFW);
-
-			locationFile = new File(outputFolder, filePrefix + "_LOCATION.log");
-			locationFW = new FileWriter(locationFile, true);
-			locationBW = new BufferedWriter(locationFW);
+			locationBW = outputSink.openFile(filePrefix + "_LOCATION.log");
+			latencyBW = outputSink.openFile(filePrefix + "_LATENCY.log");
+			if (SimSettings.getInstance().isSpatialLogEnabled())
+				spatialBW = outputSink.openFile(filePrefix + "_SPATIAL.log");
 
 			for (int i = 0; i < numOfAppTypes + 1; i++) {
 				String fileName = "ALL_APPS_GENERIC.log";
@@ -270,9 +351,7 @@ public class SimLogger {
 					fileName = SimSettings.getInstance().getApplicationName(i) + "_GENERIC.log";
 				}
 
-				genericFiles[i] = new File(outputFolder, filePrefix + "_" + fileName);
-				genericFWs[i] = new FileWriter(genericFiles[i], true);
-				genericBWs[i] = new BufferedWriter(genericFWs[i]);
+				genericBWs[i] = outputSink.openFile(filePrefix + "_" + fileName);
 				appendToFile(genericBWs[i], "#auto generated file!");
 			}
 
@@ -281,282 +360,111 @@ public class SimLogger {
 				appendToFile(failBW, "#auto generated file!");
 			}
 
-			appendToFile(vmLoadBW, "#auto generated file!");
 			appendToFile(locationBW, "#auto generated file!");
+			appendToFile(latencyBW, "#auto generated file!");
+			if (SimSettings.getInstance().isSpatialLogEnabled())
+				appendToFile(spatialBW, "#auto generated file!");
 		}
 
 		KernelBasedApplicationStatus.getInstance().checkAllSubmittedAndSetStatus();
-		//System.out.println("Number of kernel-based app is: " + KernelBasedApplicationStatus.getInstance().getNumKernelBasedApplication());
-		//int totalKernelNum = 0;
-
-		// extract the result of each task and write it to the file if required
-		for (Map.Entry<Integer, LogItem> entry : kernelMap.entrySet()) {
-			Integer key = entry.getKey();
-			LogItem value = entry.getValue();
-			//totalKernelNum++;
-			
-			if (value.isInWarmUpPeriod())
-				continue;
-
-			int kernelId = value.getKernelId();
-
-			// is kernel in kernel-based application with multiple kernels
-			if (KernelBasedApplicationStatus.getInstance().checkKernelInKBApp(kernelId)) {
-				int status = KernelBasedApplicationStatus.getInstance().getKernelBasedAppFinalStatus(kernelId);
-				if (status == 2) {
-					continue;
-				}
-				
-				if (value.getStatus() == SimLogger.KERNEL_STATUS.COMLETED) {
-					continue;
-				}
-				else if(value.getStatus() == SimLogger.KERNEL_STATUS.CREATED ||
-						value.getStatus() == SimLogger.KERNEL_STATUS.UPLOADING ||
-						value.getStatus() == SimLogger.KERNEL_STATUS.PROCESSING ||
-						value.getStatus() == SimLogger.KERNEL_STATUS.DOWNLOADING)
-				{
-					KernelBasedApplicationStatus.getInstance().setKernelBasedAppFinalStatus(kernelId, 1);
-				}
-				else {
-					KernelBasedApplicationStatus.getInstance().setKernelBasedAppFinalStatus(kernelId, 2);
-				}
-			} 
-
-			else {
-
-			if (value.getStatus() == SimLogger.KERNEL_STATUS.COMLETED) {
-				completedApplication[value.getKernelType()]++;
-
-				if (value.getVmType() == SimSettings.VM_TYPES.CLOUD_VM.ordinal())
-					completedAppOnCloud[value.getKernelType()]++;
-				else if (value.getVmType() == SimSettings.VM_TYPES.MOBILE_VM.ordinal())
-					completedAppOnMobile[value.getKernelType()]++;
-				else
-					completedAppOnEdge[value.getKernelType()]++;
-			}
-			else if(value.getStatus() == SimLogger.KERNEL_STATUS.CREATED ||
-					value.getStatus() == SimLogger.KERNEL_STATUS.UPLOADING ||
-					value.getStatus() == SimLogger.KERNEL_STATUS.PROCESSING ||
-					value.getStatus() == SimLogger.KERNEL_STATUS.DOWNLOADING)
-			{
-				uncompletedApplication[value.getKernelType()]++;
-				if (value.getVmType() == SimSettings.VM_TYPES.CLOUD_VM.ordinal())
-					uncompletedApplicationOnCloud[value.getKernelType()]++;
-				else if (value.getVmType() == SimSettings.VM_TYPES.MOBILE_VM.ordinal())
-					uncompletedapplicationOnMobile[value.getKernelType()]++;
-				else
-					uncompletedApplicationOnEdge[value.getKernelType()]++;
-			}
-			else {
-				failedApplication[value.getKernelType()]++;
-
-				if (value.getVmType() == SimSettings.VM_TYPES.CLOUD_VM.ordinal())
-					failedAppOnCloud[value.getKernelType()]++;
-				else if (value.getVmType() == SimSettings.VM_TYPES.MOBILE_VM.ordinal())
-					failedAppOnMobile[value.getKernelType()]++;
-				else
-					failedAppOnEdge[value.getKernelType()]++;
-			}
 
-			if (value.getStatus() == SimLogger.KERNEL_STATUS.COMLETED) {
-				cost[value.getKernelType()] += value.getCost();
-				serviceTime[value.getKernelType()] += value.getServiceTime();
-				networkDelay[value.getKernelType()] += value.getNetworkDelay();
-				processingTime[value.getKernelType()] += (value.getServiceTime() - value.getNetworkDelay());
-				
-				if(value.getNetworkDelay(NETWORK_DELAY_TYPES.WLAN_DELAY) != 0) {
-					lanUsage[value.getKernelType()]++;
-					lanDelay[value.getKernelType()] += value.getNetworkDelay(NETWORK_DELAY_TYPES.WLAN_DELAY);
-				}
-				if(value.getNetworkDelay(NETWORK_DELAY_TYPES.MAN_DELAY) != 0) {
-					manUsage[value.getKernelType()]++;
-					manDelay[value.getKernelType()] += value.getNetworkDelay(NETWORK_DELAY_TYPES.MAN_DELAY);
-				}
-				if(value.getNetworkDelay(NETWORK_DELAY_TYPES.WAN_DELAY) != 0) {
-					wanUsage[value.getKernelType()]++;
-					wanDelay[value.getKernelType()] += value.getNetworkDelay(NETWORK_DELAY_TYPES.WAN_DELAY);
-				}
-
-				
-				if (value.getVmType() == SimSettings.VM_TYPES.CLOUD_VM.ordinal()) {
-					serviceTimeOnCloud[value.getKernelType()] += value.getServiceTime();
-					processingTimeOnCloud[value.getKernelType()] += (value.getServiceTime() - value.getNetworkDelay());
-				}
-				else if (value.getVmType() == SimSettings.VM_TYPES.MOBILE_VM.ordinal()) {
-					serviceTimeOnMobile[value.getKernelType()] += value.getServiceTime();
-					processingTimeOnMobile[value.getKernelType()] += value.getServiceTime();
-				}
-				else {
-					serviceTimeOnEdge[value.getKernelType()] += value.getServiceTime();
-					processingTimeOnEdge[value.getKernelType()] += (value.getServiceTime() - value.getNetworkDelay());
-				}
-
-				if (fileLogEnabled && SimSettings.getInstance().getDeepFileLoggingEnabled())
-					appendToFile(successBW, value.toString(key));
-			} else if (value.getStatus() == SimLogger.KERNEL_STATUS.REJECTED_DUE_TO_VM_CAPACITY) {
-				failedAppDueToVmCapacity[value.getKernelType()]++;
-				
-				if (value.getVmType() == SimSettings.VM_TYPES.CLOUD_VM.ordinal())
-					failedAppDueToVmCapacityOnCloud[value.getKernelType()]++;
-				else if (value.getVmType() == SimSettings.VM_TYPES.MOBILE_VM.ordinal())
-					failedAppDueToVmCapacityOnMobile[value.getKernelType()]++;
-				else
-					failedAppDueToVmCapacityOnEdge[value.getKernelType()]++;
-				
-				if (fileLogEnabled && SimSettings.getInstance().getDeepFileLoggingEnabled())
-					appendToFile(failBW, value.toString(key));
-			} else if (value.getStatus() == SimLogger.KERNEL_STATUS.REJECTED_DUE_TO_BANDWIDTH
-					|| value.getStatus() == SimLogger.KERNEL_STATUS.UNFINISHED_DUE_TO_BANDWIDTH) {
-				failedAppDuetoBw[value.getKernelType()]++;
-				if (value.getNetworkError() == NETWORK_ERRORS.LAN_ERROR)
-					failedAppDuetoLanBw[value.getKernelType()]++;
-				else if (value.getNetworkError() == NETWORK_ERRORS.MAN_ERROR)
-					failedAppDuetoManBw[value.getKernelType()]++;
-				else if (value.getNetworkError() == NETWORK_ERRORS.WAN_ERROR)
-					failedAppDuetoWanBw[value.getKernelType()]++;
-
-				if (fileLogEnabled && SimSettings.getInstance().getDeepFileLoggingEnabled())
-					appendToFile(failBW, value.toString(key));
-			} else if (value.getStatus() == SimLogger.KERNEL_STATUS.UNFINISHED_DUE_TO_MOBILITY) {
-				failedAppDuetoMobility[value.getKernelType()]++;
-				if (fileLogEnabled && SimSettings.getInstance().getDeepFileLoggingEnabled())
-					appendToFile(failBW, value.toString(key));
-			}
-			}
+		// extract the result of each task and write it to the file if required,
+		// the kernel map is split into parts processed by different threads if
+		// more than one thread is used. deep file logging always uses one thread
+		// to keep the order of the lines
+		int numOfThreads = SimSettings.getInstance().getResultAggregationThreads();
+		ResultAccumulator results;
+		if (numOfThreads <= 1 || SimSettings.getInstance().getDeepFileLoggingEnabled()) {
+			results = new ResultAccumulator(numOfAppTypes, spatialMetrics, successBW, failBW);
+			for (Map.Entry<Integer, LogItem> entry : kernelMap.entrySet())
+				results.addKernel(entry.getKey(), entry.getValue());
+			results.applyKernelBasedAppStatus();
+			for (Map.Entry<Integer, LogItem> entry : kernelMap.entrySet())
+				results.addKernelInKBApp(entry.getKey(), entry.getValue());
 		}
-		
-		//System.out.println("Total number of kernel logged is " + totalKernelNum);
-		
-
-		
-		for (Map.Entry<Integer, LogItem> entry : kernelMap.entrySet()) {
-			Integer key = entry.getKey();
-			LogItem value = entry.getValue();
-			
-			if (value.isInWarmUpPeriod())
-				continue;
-
-			int kernelId = value.getKernelId();
-
-			if (KernelBasedApplicationStatus.getInstance().checkKernelInKBApp(kernelId)) {
-					//System.out.println("It's a sub-task");
-				int status = KernelBasedApplicationStatus.getInstance().getKernelBasedAppFinalStatus(kernelId);
-				
-				if (KernelBasedApplicationStatus.getInstance().checkFinalStatusLogged(kernelId)) {
-					numKernelBasedApplication++;
-					if (status == 0) {
-						completedApplication[value.getKernelType()]++;
-						KernelBasedApplicationStatus.getInstance().setFinalStatusLogged(kernelId);
-					}
-					else if (status == 1) {
-						uncompletedApplication[value.getKernelType()]++;
-						KernelBasedApplicationStatus.getInstance().setFinalStatusLogged(kernelId);
-					} else {
-						failedApplication[value.getKernelType()]++;
-						KernelBasedApplicationStatus.getInstance().setFinalStatusLogged(kernelId);
-					}
-				}
-					
-				if (value.getStatus() == SimLogger.KERNEL_STATUS.COMLETED) {
-					completedKernelInKBApp[value.getKernelType()]++;
-
-					if (value.getVmType() == SimSettings.VM_TYPES.CLOUD_VM.ordinal())
-						completedKernelInKBAppOnCloud[value.getKernelType()]++;
-					else if (value.getVmType() == SimSettings.VM_TYPES.MOBILE_VM.ordinal())
-						completedKernelInKBAppOnMobile[value.getKernelType()]++;
-					else
-						completedKernelInKBAppOnEdge[value.getKernelType()]++;
-				}
-				else if(value.getStatus() == SimLogger.KERNEL_STATUS.CREATED ||
-						value.getStatus() == SimLogger.KERNEL_STATUS.UPLOADING ||
-						value.getStatus() == SimLogger.KERNEL_STATUS.PROCESSING ||
-						value.getStatus() == SimLogger.KERNEL_STATUS.DOWNLOADING)
-				{
-					uncompletedKernelInKBApp[value.getKernelType()]++;
-					if (value.getVmType() == SimSettings.VM_TYPES.CLOUD_VM.ordinal())
-						uncompletedKernelInKBAppOnCloud[value.getKernelType()]++;
-					else if (value.getVmType() == SimSettings.VM_TYPES.MOBILE_VM.ordinal())
-						uncompletedKernelInKBAppOnMobile[value.getKernelType()]++;
-					else
-						uncompletedKernelInKBAppOnEdge[value.getKernelType()]++;
-				}
-				else {
-					failedKernelInKBApp[value.getKernelType()]++;
-
-					if (value.getVmType() == SimSettings.VM_TYPES.CLOUD_VM.ordinal())
-						failedKernelInKBAppOnCloud[value.getKernelType()]++;
-					else if (value.getVmType() == SimSettings.VM_TYPES.MOBILE_VM.ordinal())
-						failedKernelInKBAppOnMobile[value.getKernelType()]++;
-					else
-						failedKernelInKBAppOnEdge[value.getKernelType()]++;
-				}
-
-				if (status == 0) {
-					cost[value.getKernelType()] += value.getCost();
-					serviceTime[value.getKernelType()] += value.getServiceTime();
-					networkDelay[value.getKernelType()] += value.getNetworkDelay();
-					processingTime[value.getKernelType()] += (value.getServiceTime() - value.getNetworkDelay());
-					
-					if(value.getNetworkDelay(NETWORK_DELAY_TYPES.WLAN_DELAY) != 0) {
-						lanUsage[value.getKernelType()]++;
-						lanDelay[value.getKernelType()] += value.getNetworkDelay(NETWORK_DELAY_TYPES.WLAN_DELAY);
-					}
-					if(value.getNetworkDelay(NETWORK_DELAY_TYPES.MAN_DELAY) != 0) {
-						manUsage[value.getKernelType()]++;
-						manDelay[value.getKernelType()] += value.getNetworkDelay(NETWORK_DELAY_TYPES.MAN_DELAY);
-					}
-					if(value.getNetworkDelay(NETWORK_DELAY_TYPES.WAN_DELAY) != 0) {
-						wanUsage[value.getKernelType()]++;
-						wanDelay[value.getKernelType()] += value.getNetworkDelay(NETWORK_DELAY_TYPES.WAN_DELAY);
-					}
-
-					
-					if (value.getVmType() == SimSettings.VM_TYPES.CLOUD_VM.ordinal()) {
-						serviceTimeOnCloud[value.getKernelType()] += value.getServiceTime();
-						processingTimeOnCloud[value.getKernelType()] += (value.getServiceTime() - value.getNetworkDelay());
-					}
-					else if (value.getVmType() == SimSettings.VM_TYPES.MOBILE_VM.ordinal()) {
-						serviceTimeOnMobile[value.getKernelType()] += value.getServiceTime();
-						processingTimeOnMobile[value.getKernelType()] += value.getServiceTime();
-					}
-					else {
-						serviceTimeOnEdge[value.getKernelType()] += value.getServiceTime();
-						processingTimeOnEdge[value.getKernelType()] += (value.getServiceTime() - value.getNetworkDelay());
-					}
-
-					if (fileLogEnabled && SimSettings.getInstance().getDeepFileLoggingEnabled())
-						appendToFile(successBW, value.toString(key));
-				} else if (value.getStatus() == SimLogger.KERNEL_STATUS.REJECTED_DUE_TO_VM_CAPACITY) {
-					failedKernelInKBAppDueToVmCapacity[value.getKernelType()]++;
-					
-					if (value.getVmType() == SimSettings.VM_TYPES.CLOUD_VM.ordinal())
-						failedKernelInKBAppDueToVmCapacityOnCloud[value.getKernelType()]++;
-					else if (value.getVmType() == SimSettings.VM_TYPES.MOBILE_VM.ordinal())
-						failedKernelInKBAppDueToVmCapacityOnMobile[value.getKernelType()]++;
-					else
-						failedKernelInKBAppDueToVmCapacityOnEdge[value.getKernelType()]++;
-					
-					if (fileLogEnabled && SimSettings.getInstance().getDeepFileLoggingEnabled())
-						appendToFile(failBW, value.toString(key));
-				} else if (value.getStatus() == SimLogger.KERNEL_STATUS.REJECTED_DUE_TO_BANDWIDTH
-						|| value.getStatus() == SimLogger.KERNEL_STATUS.UNFINISHED_DUE_TO_BANDWIDTH) {
-					failedKernelInKBAppDuetoBw[value.getKernelType()]++;
-					if (value.getNetworkError() == NETWORK_ERRORS.LAN_ERROR)
-						failedKernelInKBAppDuetoLanBw[value.getKernelType()]++;
-					else if (value.getNetworkError() == NETWORK_ERRORS.MAN_ERROR)
-						failedKernelInKBAppDuetoManBw[value.getKernelType()]++;
-					else if (value.getNetworkError() == NETWORK_ERRORS.WAN_ERROR)
-						failedKernelInKBAppDuetoWanBw[value.getKernelType()]++;
-
-					if (fileLogEnabled && SimSettings.getInstance().getDeepFileLoggingEnabled())
-						appendToFile(failBW, value.toString(key));
-				} else if (value.getStatus() == SimLogger.KERNEL_STATUS.UNFINISHED_DUE_TO_MOBILITY) {
-					failedKernelInKBAppDuetoMobility[value.getKernelType()]++;
-					if (fileLogEnabled && SimSettings.getInstance().getDeepFileLoggingEnabled())
-						appendToFile(failBW, value.toString(key));
-				}
-				}
+		else {
+			results = aggregateInParallel(numOfThreads, numOfAppTypes);
 		}
+		results.countKernelBasedApplications();
+
+		int numKernelBasedApplication = results.numKernelBasedApplication;
+		int[] uncompletedApplication = results.uncompletedApplication;
+		int[] uncompletedApplicationOnCloud = results.uncompletedApplicationOnCloud;
+		int[] uncompletedApplicationOnEdge = results.uncompletedApplicationOnEdge;
+		int[] uncompletedapplicationOnMobile = results.uncompletedapplicationOnMobile;
+
+		int[] uncompletedKernelInKBApp = results.uncompletedKernelInKBApp;
+		int[] uncompletedKernelInKBAppOnCloud = results.uncompletedKernelInKBAppOnCloud;
+		int[] uncompletedKernelInKBAppOnEdge = results.uncompletedKernelInKBAppOnEdge;
+		int[] uncompletedKernelInKBAppOnMobile = results.uncompletedKernelInKBAppOnMobile;
+
+		int[] completedApplication = results.completedApplication;
+		int[] completedAppOnCloud = results.completedAppOnCloud;
+		int[] completedAppOnEdge = results.completedAppOnEdge;
+		int[] completedAppOnMobile = results.completedAppOnMobile;
+
+		int[] completedKernelInKBApp = results.completedKernelInKBApp;
+		int[] completedKernelInKBAppOnCloud = results.completedKernelInKBAppOnCloud;
+		int[] completedKernelInKBAppOnEdge = results.completedKernelInKBAppOnEdge;
+		int[] completedKernelInKBAppOnMobile = results.completedKernelInKBAppOnMobile;
+
+		int[] failedApplication = results.failedApplication;
+		int[] failedAppOnCloud = results.failedAppOnCloud;
+		int[] failedAppOnEdge = results.failedAppOnEdge;
+		int[] failedAppOnMobile = results.failedAppOnMobile;
+
+		int[] failedKernelInKBApp = results.failedKernelInKBApp;
+		int[] failedKernelInKBAppOnCloud = results.failedKernelInKBAppOnCloud;
+		int[] failedKernelInKBAppOnEdge = results.failedKernelInKBAppOnEdge;
+		int[] failedKernelInKBAppOnMobile = results.failedKernelInKBAppOnMobile;
+
+		double[] networkDelay = results.networkDelay;
+		double[] wanDelay = results.wanDelay;
+		double[] manDelay = results.manDelay;
+		double[] lanDelay = results.lanDelay;
+
+		double[] wanUsage = results.wanUsage;
+		double[] manUsage = results.manUsage;
+		double[] lanUsage = results.lanUsage;
+
+		double[] serviceTime = results.serviceTime;
+		double[] serviceTimeOnCloud = results.serviceTimeOnCloud;
+		double[] serviceTimeOnEdge = results.serviceTimeOnEdge;
+		double[] serviceTimeOnMobile = results.serviceTimeOnMobile;
+
+		double[] processingTime = results.processingTime;
+		double[] processingTimeOnCloud = results.processingTimeOnCloud;
+		double[] processingTimeOnEdge = results.processingTimeOnEdge;
+		double[] processingTimeOnMobile = results.processingTimeOnMobile;
+
+		double[] queueDelay = results.queueDelay;
+		double[] queueDelayOnEdge = results.queueDelayOnEdge;
+
+		int[] failedAppDueToVmCapacity = results.failedAppDueToVmCapacity;
+		int[] failedAppDueToVmCapacityOnCloud = results.failedAppDueToVmCapacityOnCloud;
+		int[] failedAppDueToVmCapacityOnEdge = results.failedAppDueToVmCapacityOnEdge;
+		int[] failedAppDueToVmCapacityOnMobile = results.failedAppDueToVmCapacityOnMobile;
+
+		int[] failedKernelInKBAppDueToVmCapacity = results.failedKernelInKBAppDueToVmCapacity;
+		int[] failedKernelInKBAppDueToVmCapacityOnCloud = results.failedKernelInKBAppDueToVmCapacityOnCloud;
+		int[] failedKernelInKBAppDueToVmCapacityOnEdge = results.failedKernelInKBAppDueToVmCapacityOnEdge;
+		int[] failedKernelInKBAppDueToVmCapacityOnMobile = results.failedKernelInKBAppDueToVmCapacityOnMobile;
+
+		double[] cost = results.cost;
+		int[] failedAppDuetoBw = results.failedAppDuetoBw;
+		int[] failedAppDuetoLanBw = results.failedAppDuetoLanBw;
+		int[] failedAppDuetoManBw = results.failedAppDuetoManBw;
+		int[] failedAppDuetoWanBw = results.failedAppDuetoWanBw;
+		int[] failedAppDuetoMobility = results.failedAppDuetoMobility;
+
+		int[] failedKernelInKBAppDuetoBw = results.failedKernelInKBAppDuetoBw;
+		int[] failedKernelInKBAppDuetoLanBw = results.failedKernelInKBAppDuetoLanBw;
+		int[] failedKernelInKBAppDuetoManBw = results.failedKernelInKBAppDuetoManBw;
+		int[] failedKernelInKBAppDuetoWanBw = results.failedKernelInKBAppDuetoWanBw;
+		int[] failedKernelInKBAppDuetoMobility = results.failedKernelInKBAppDuetoMobility;
+
+		LatencyHistogram[][][] latencyHistograms = results.latencyHistograms;
+
 		
 
 		// calculate total values
@@ -612,6 +520,9 @@ public class SimLogger {
 		processingTimeOnEdge[numOfAppTypes] = DoubleStream.of(processingTimeOnEdge).sum();
 		processingTimeOnMobile[numOfAppTypes] = DoubleStream.of(processingTimeOnMobile).sum();
 
+		queueDelay[numOfAppTypes] = DoubleStream.of(queueDelay).sum();
+		queueDelayOnEdge[numOfAppTypes] = DoubleStream.of(queueDelayOnEdge).sum();
+
 		failedAppDueToVmCapacity[numOfAppTypes] = IntStream.of(failedAppDueToVmCapacity).sum();
 		failedAppDueToVmCapacityOnCloud[numOfAppTypes] = IntStream.of(failedAppDueToVmCapacityOnCloud).sum();
 		failedAppDueToVmCapacityOnEdge[numOfAppTypes] = IntStream.of(failedAppDueToVmCapacityOnEdge).sum();
@@ -639,21 +550,17 @@ public class SimLogger {
 
 
 		
-		// calculate server load
-		double totalVmLoadOnEdge = 0;
-		double totalVmLoadOnCloud = 0;
-		double totalVmLoadOnMobile = 0;
-		for (VmLoadLogItem entry : vmLoadList) {
-			totalVmLoadOnEdge += entry.getEdgeLoad();
-			totalVmLoadOnCloud += entry.getCloudLoad();
-			totalVmLoadOnMobile += entry.getMobileLoad();
-			if (fileLogEnabled)
-				appendToFile(vmLoadBW, entry.toString());
-		}
+		// calculate server load, the VM load samples are written while the simulation runs
+		long numOfVmLoadSamples = vmLoadSeries.getSampleCount();
+		double avgVmLoadOnEdge = vmLoadSeries.getMean(0);
+		double avgVmLoadOnCloud = vmLoadSeries.getMean(1);
+		double avgVmLoadOnMobile = vmLoadSeries.getMean(2);
+		timeSeriesStore.close();
 
 		if (fileLogEnabled) {
-			// write location info to file
-			for (int t = 1; t < (SimSettings.getInstance().getSimulationTime()
+			// write location info to file, the mobility model is not available
+			// while a decision trace is replayed
+			for (int t = 1; SimManager.getInstance() != null && t < (SimSettings.getInstance().getSimulationTime()
 					/ SimSettings.getInstance().getVmLocationLogInterval()); t++) {
 				int[] locationInfo = new int[SimSettings.getInstance().getNumOfPlaceTypes()];
 				Double time = t * SimSettings.getInstance().getVmLocationLogInterval();
@@ -689,9 +596,10 @@ public class SimLogger {
 				double _serviceTime = (completedApplication[i] == 0) ? 0.0 : (serviceTime[i] / (double) completedApplication[i]);
 				double _networkDelay = (completedApplication[i] == 0) ? 0.0 : (networkDelay[i] / ((double) completedApplication[i] - (double)completedAppOnMobile[i]));
 				double _processingTime = (completedApplication[i] == 0) ? 0.0 : (processingTime[i] / (double) completedApplication[i]);
-				double _vmLoadOnEdge = (vmLoadList.size() == 0) ? 0.0 : (totalVmLoadOnEdge / (double) vmLoadList.size());
-				double _vmLoadOnClould = (vmLoadList.size() == 0) ? 0.0 : (totalVmLoadOnCloud / (double) vmLoadList.size());
-				double _vmLoadOnMobile = (vmLoadList.size() == 0) ? 0.0 : (totalVmLoadOnMobile / (double) vmLoadList.size());
+				double _queueDelay = (completedApplication[i] == 0) ? 0.0 : (queueDelay[i] / (double) completedApplication[i]);
+				double _vmLoadOnEdge = (numOfVmLoadSamples == 0) ? 0.0 : avgVmLoadOnEdge;
+				double _vmLoadOnClould = (numOfVmLoadSamples == 0) ? 0.0 : avgVmLoadOnCloud;
+				double _vmLoadOnMobile = (numOfVmLoadSamples == 0) ? 0.0 : avgVmLoadOnMobile;
 				double _cost = (completedApplication[i] == 0) ? 0.0 : (cost[i] / (double) completedApplication[i]);
 
 				double _lanDelay = (lanUsage[i] == 0) ? 0.0
@@ -709,7 +617,7 @@ public class SimLogger {
 						+ Double.toString(_serviceTime) + SimSettings.DELIMITER 
 						+ Double.toString(_processingTime) + SimSettings.DELIMITER 
 						+ Double.toString(_networkDelay) + SimSettings.DELIMITER
-						+ Double.toString(0) + SimSettings.DELIMITER 
+						+ Double.toString(_queueDelay) + SimSettings.DELIMITER 
 						+ Double.toString(_cost) + SimSettings.DELIMITER 
 						+ Integer.toString(failedAppDueToVmCapacity[i]) + SimSettings.DELIMITER 
 						+ Integer.toString(failedAppDuetoMobility[i]);
@@ -719,13 +627,15 @@ public class SimLogger {
 						: (serviceTimeOnEdge[i] / (double) completedAppOnEdge[i]);
 				double _processingTimeOnEdge = (completedAppOnEdge[i] == 0) ? 0.0
 						: (processingTimeOnEdge[i] / (double) completedAppOnEdge[i]);
+				double _queueDelayOnEdge = (completedAppOnEdge[i] == 0) ? 0.0
+						: (queueDelayOnEdge[i] / (double) completedAppOnEdge[i]);
 				String genericResult2 = Integer.toString(completedAppOnEdge[i]) + SimSettings.DELIMITER
 						+ Integer.toString(failedAppOnEdge[i]) + SimSettings.DELIMITER
 						+ Integer.toString(uncompletedApplicationOnEdge[i]) + SimSettings.DELIMITER
 						+ Integer.toString(0) + SimSettings.DELIMITER
 						+ Double.toString(_serviceTimeOnEdge) + SimSettings.DELIMITER
 						+ Double.toString(_processingTimeOnEdge) + SimSettings.DELIMITER
-						+ Double.toString(0.0) + SimSettings.DELIMITER 
+						+ Double.toString(_queueDelayOnEdge) + SimSettings.DELIMITER 
 						+ Double.toString(_vmLoadOnEdge) + SimSettings.DELIMITER 
 						+ Integer.toString(failedAppDueToVmCapacityOnEdge[i]);
 
@@ -772,6 +682,23 @@ public class SimLogger {
 				appendToFile(genericBWs[i], genericResult3);
 				appendToFile(genericBWs[i], genericResult4);
 				appendToFile(genericBWs[i], genericResult5);
+
+				// write latency percentiles and histograms, the histograms of
+				// several runs can be merged via LatencyHistogram.parse()
+				String appName = (i < numOfAppTypes) ? SimSettings.getInstance().getApplicationName(i) : "ALL_APPS";
+				for (int j = 0; j < LATENCY_TIERS.length; j++) {
+					for (int k = 0; k < LATENCY_METRICS.length; k++) {
+						LatencyHistogram histogram = latencyHistograms[i][j][k];
+						StringBuilder latencyResult = new StringBuilder(appName + SimSettings.DELIMITER
+								+ LATENCY_TIERS[j] + SimSettings.DELIMITER
+								+ LATENCY_METRICS[k] + SimSettings.DELIMITER
+								+ Long.toString(histogram.getTotalCount()));
+						for (double percentile : LATENCY_PERCENTILES)
+							latencyResult.append(SimSettings.DELIMITER + Double.toString(histogram.getValueAtPercentile(percentile)));
+						latencyResult.append(SimSettings.DELIMITER + histogram.toString());
+						appendToFile(latencyBW, latencyResult.toString());
+					}
+				}
 			}
 
 			// close open files
@@ -779,8 +706,13 @@ public class SimLogger {
 				successBW.close();
 				failBW.close();
 			}
-			vmLoadBW.close();
 			locationBW.close();
+			latencyBW.close();
+
+			if (SimSettings.getInstance().isSpatialLogEnabled()) {
+				spatialMetrics.writeTo(spatialBW);
+				spatialBW.close();
+			}
 			for (int i = 0; i < numOfAppTypes + 1; i++) {
 				if (i < numOfAppTypes) {
 					// if related app is not used in this simulation, just
@@ -790,6 +722,7 @@ public class SimLogger {
 				}
 				genericBWs[i].close();
 			}
+			outputSink.close();
 		}
 
 		// printout important results
@@ -890,6 +823,14 @@ public class SimLogger {
 				+ String.format("%.6f", processingTimeOnMobile[numOfAppTypes] / (double) completedAppOnMobile[numOfAppTypes])
 				+ ")");
 
+		LatencyHistogram serviceTimeHistogram = latencyHistograms[numOfAppTypes][0][0];
+		printLine("service time percentiles (p50/p95/p99/p99.9): "
+				+ String.format("%.6f", serviceTimeHistogram.getValueAtPercentile(50)) + "/"
+				+ String.format("%.6f", serviceTimeHistogram.getValueAtPercentile(95)) + "/"
+				+ String.format("%.6f", serviceTimeHistogram.getValueAtPercentile(99)) + "/"
+				+ String.format("%.6f", serviceTimeHistogram.getValueAtPercentile(99.9))
+				+ " seconds.");
+
 		printLine("average network delay: "
 				+ String.format("%.6f", networkDelay[numOfAppTypes] / ((double) completedApplication[numOfAppTypes] - (double) completedAppOnMobile[numOfAppTypes]))
 				+ " seconds. (" + "LAN delay: "
@@ -899,274 +840,21 @@ public class SimLogger {
 				+ ", " + "WAN delay: "
 				+ String.format("%.6f", wanDelay[numOfAppTypes] / (double) wanUsage[numOfAppTypes]) + ")");
 
+		if(SimSettings.getInstance().getAdmissionQueueSize() > 0)
+			printLine("average queue delay: "
+					+ String.format("%.6f", queueDelay[numOfAppTypes] / (double) completedApplication[numOfAppTypes])
+					+ " seconds. (" + "on Edge: "
+					+ String.format("%.6f", queueDelayOnEdge[numOfAppTypes] / (double) completedAppOnEdge[numOfAppTypes])
+					+ ")");
+
 		printLine("average server utilization Edge/Cloud/Mobile: " 
-				+ String.format("%.6f", totalVmLoadOnEdge / (double) vmLoadList.size()) + "/"
-				+ String.format("%.6f", totalVmLoadOnCloud / (double) vmLoadList.size()) + "/"
-				+ String.format("%.6f", totalVmLoadOnMobile / (double) vmLoadList.size()));
+				+ String.format("%.6f", avgVmLoadOnEdge) + "/"
+				+ String.format("%.6f", avgVmLoadOnCloud) + "/"
+				+ String.format("%.6f", avgVmLoadOnMobile));
 		
 		printLine("average cost: " + cost[numOfAppTypes] / completedApplication[numOfAppTypes] + "$");
 
 		// clear related collections (map list etc.)
 		kernelMap.clear();
-		vmLoadList.clear();
-	}
-}
-
-class VmLoadLogItem {
-	private double time;
-	private double vmLoadOnEdge;
-	private double vmLoadOnCloud;
-	private double vmLoadOnMobile;
-
-	VmLoadLogItem(double _time, double _vmLoadOnEdge, double _vmLoadOnCloud, double _vmLoadOnMobile) {
-		time = _time;
-		vmLoadOnEdge = _vmLoadOnEdge;
-		vmLoadOnCloud = _vmLoadOnCloud;
-		vmLoadOnMobile = _vmLoadOnMobile;
-	}
-
-	public double getEdgeLoad() {
-		return vmLoadOnEdge;
-	}
-
-	public double getCloudLoad() {
-		return vmLoadOnCloud;
-	}
-	
-	public double getMobileLoad() {
-		return vmLoadOnMobile;
-	}
-	
-	public String toString() {
-		return time + 
-				SimSettings.DELIMITER + vmLoadOnEdge +
-				SimSettings.DELIMITER + vmLoadOnCloud +
-				SimSettings.DELIMITER + vmLoadOnMobile;
-	}
-}
-
-class LogItem {
-	private SimLogger.KERNEL_STATUS status;
-	private SimLogger.NETWORK_ERRORS networkError;
-	private int datacenterId;
-	private int hostId;
-	private int vmId;
-	private int vmType;
-	private int kernelType;
-	private int kernelLenght;
-	private int kernelInputType;
-	private int kernelOutputSize;
-	private double kernelStartTime;
-	private double kernelEndTime;
-	private double lanUploadDelay;
-	private double manUploadDelay;
-	private double wanUploadDelay;
-	private double lanDownloadDelay;
-	private double manDownloadDelay;
-	private double wanDownloadDelay;
-	private double bwCost;
-	private double cpuCost;
-	private boolean isInWarmUpPeriod;
-	private int kernelId;
-
-	LogItem(int _kernelType, int _kernelLength, int _kernelInputType, int _kernelOutputSize, 
-			int _kernelId) {
-		kernelType = _kernelType;
-		kernelLenght = _kernelLength;
-		kernelInputType = _kernelInputType;
-		kernelOutputSize = _kernelOutputSize;
-		networkError = NETWORK_ERRORS.NONE;
-		status = SimLogger.KERNEL_STATUS.CREATED;
-		kernelEndTime = 0;
-		kernelId = _kernelId;
-	}
-	
-	public void kernelStarted(double time) {
-		kernelStartTime = time;
-		status = SimLogger.KERNEL_STATUS.UPLOADING;
-		
-		if (time < SimSettings.getInstance().getWarmUpPeriod())
-			isInWarmUpPeriod = true;
-		else
-			isInWarmUpPeriod = false;
-	}
-	
-	public void setUploadDelay(double delay, NETWORK_DELAY_TYPES delayType) {
-		if(delayType == NETWORK_DELAY_TYPES.WLAN_DELAY)
-			lanUploadDelay = delay;
-		else if(delayType == NETWORK_DELAY_TYPES.MAN_DELAY)
-			manUploadDelay = delay;
-		else if(delayType == NETWORK_DELAY_TYPES.WAN_DELAY)
-			wanUploadDelay = delay;
-	}
-	
-	public void setDownloadDelay(double delay, NETWORK_DELAY_TYPES delayType) {
-		if(delayType == NETWORK_DELAY_TYPES.WLAN_DELAY)
-			lanDownloadDelay = delay;
-		else if(delayType == NETWORK_DELAY_TYPES.MAN_DELAY)
-			manDownloadDelay = delay;
-		else if(delayType == NETWORK_DELAY_TYPES.WAN_DELAY)
-			wanDownloadDelay = delay;
-	}
-	
-	public void kernelAssigned(int _datacenterId, int _hostId, int _vmId, int _vmType) {
-		status = SimLogger.KERNEL_STATUS.PROCESSING;
-		datacenterId = _datacenterId;
-		hostId = _hostId;
-		vmId = _vmId;
-		vmType = _vmType;
-	}
-
-	public void kernelExecuted() {
-		status = SimLogger.KERNEL_STATUS.DOWNLOADING;
-	}
-
-	public void kernelEnded(double time) {
-		kernelEndTime = time;
-		status = SimLogger.KERNEL_STATUS.COMLETED;
-	}
-
-	public void kernelRejectedDueToVMCapacity(double time, int _vmType) {
-		vmType = _vmType;
-		kernelEndTime = time;
-		status = SimLogger.KERNEL_STATUS.REJECTED_DUE_TO_VM_CAPACITY;
-	}
-
-	public void kernelRejectedDueToBandwidth(double time, int _vmType, NETWORK_DELAY_TYPES delayType) {
-		vmType = _vmType;
-		kernelEndTime = time;
-		status = SimLogger.KERNEL_STATUS.REJECTED_DUE_TO_BANDWIDTH;
-		
-		if(delayType == NETWORK_DELAY_TYPES.WLAN_DELAY)
-			networkError = NETWORK_ERRORS.LAN_ERROR;
-		else if(delayType == NETWORK_DELAY_TYPES.MAN_DELAY)
-			networkError = NETWORK_ERRORS.MAN_ERROR;
-		else if(delayType == NETWORK_DELAY_TYPES.WAN_DELAY)
-			networkError = NETWORK_ERRORS.WAN_ERROR;
-	}
-
-	public void kernelFailedDueToBandwidth(double time, NETWORK_DELAY_TYPES delayType) {
-		kernelEndTime = time;
-		status = SimLogger.KERNEL_STATUS.UNFINISHED_DUE_TO_BANDWIDTH;
-		
-		if(delayType == NETWORK_DELAY_TYPES.WLAN_DELAY)
-			networkError = NETWORK_ERRORS.LAN_ERROR;
-		else if(delayType == NETWORK_DELAY_TYPES.MAN_DELAY)
-			networkError = NETWORK_ERRORS.MAN_ERROR;
-		else if(delayType == NETWORK_DELAY_TYPES.WAN_DELAY)
-			networkError = NETWORK_ERRORS.WAN_ERROR;
-	}
-
-	public void kernelFailedDueToMobility(double time) {
-		kernelEndTime = time;
-		status = SimLogger.KERNEL_STATUS.UNFINISHED_DUE_TO_MOBILITY;
-	}
-
-	public void setCost(double _bwCost, double _cpuCos) {
-		bwCost = _bwCost;
-		cpuCost = _cpuCos;
-	}
-
-	public boolean isInWarmUpPeriod() {
-		return isInWarmUpPeriod;
-	}
-
-	public double getCost() {
-		return bwCost + cpuCost;
-	}
-
-	public double getNetworkUploadDelay(NETWORK_DELAY_TYPES delayType) {
-		double result = 0;
-		if(delayType == NETWORK_DELAY_TYPES.WLAN_DELAY)
-			result = lanUploadDelay;
-		else if(delayType == NETWORK_DELAY_TYPES.MAN_DELAY)
-			result = manUploadDelay;
-		else if(delayType == NETWORK_DELAY_TYPES.WAN_DELAY)
-			result = wanUploadDelay;
-		
-		return result;
-	}
-
-	public double getNetworkDownloadDelay(NETWORK_DELAY_TYPES delayType) {
-		double result = 0;
-		if(delayType == NETWORK_DELAY_TYPES.WLAN_DELAY)
-			result = lanDownloadDelay;
-		else if(delayType == NETWORK_DELAY_TYPES.MAN_DELAY)
-			result = manDownloadDelay;
-		else if(delayType == NETWORK_DELAY_TYPES.WAN_DELAY)
-			result = wanDownloadDelay;
-		
-		return result;
-	}
-	
-	public double getNetworkDelay(NETWORK_DELAY_TYPES delayType){
-		double result = 0;
-		if(delayType == NETWORK_DELAY_TYPES.WLAN_DELAY)
-			result = lanDownloadDelay + lanUploadDelay;
-		else if(delayType == NETWORK_DELAY_TYPES.MAN_DELAY)
-			result = manDownloadDelay + manUploadDelay;
-		else if(delayType == NETWORK_DELAY_TYPES.WAN_DELAY)
-			result = wanDownloadDelay + wanUploadDelay;
-		
-		return result;
-	}
-	
-	public double getNetworkDelay(){
-		return  lanUploadDelay +
-				manUploadDelay +
-				wanUploadDelay +
-				lanDownloadDelay +
-				manDownloadDelay +
-				wanDownloadDelay;
-	}
-	
-	public double getServiceTime() {
-		return kernelEndTime - kernelStartTime;
-	}
-
-	public SimLogger.KERNEL_STATUS getStatus() {
-		return status;
-	}
-
-	public SimLogger.NETWORK_ERRORS getNetworkError() {
-		return networkError;
-	}
-	
-	public int getVmType() {
-		return vmType;
-	}
-
-	public int getKernelType() {
-		return kernelType;
-	}
-
-	public String toString(int taskId) {
-		String result = taskId + SimSettings.DELIMITER + datacenterId + SimSettings.DELIMITER + hostId
-				+ SimSettings.DELIMITER + vmId + SimSettings.DELIMITER + vmType + SimSettings.DELIMITER + kernelType
-				+ SimSettings.DELIMITER + kernelLenght + SimSettings.DELIMITER + kernelInputType + SimSettings.DELIMITER
-				+ kernelOutputSize + SimSettings.DELIMITER + kernelStartTime + SimSettings.DELIMITER + kernelEndTime
-				+ SimSettings.DELIMITER;
-
-		if (status == SimLogger.KERNEL_STATUS.COMLETED){
-			result += getNetworkDelay() + SimSettings.DELIMITER;
-			result += getNetworkDelay(NETWORK_DELAY_TYPES.WLAN_DELAY) + SimSettings.DELIMITER;
-			result += getNetworkDelay(NETWORK_DELAY_TYPES.MAN_DELAY) + SimSettings.DELIMITER;
-			result += getNetworkDelay(NETWORK_DELAY_TYPES.WAN_DELAY);
-		}
-		else if (status == SimLogger.KERNEL_STATUS.REJECTED_DUE_TO_VM_CAPACITY)
-			result += "1"; // failure reason 1
-		else if (status == SimLogger.KERNEL_STATUS.REJECTED_DUE_TO_BANDWIDTH)
-			result += "2"; // failure reason 2
-		else if (status == SimLogger.KERNEL_STATUS.UNFINISHED_DUE_TO_BANDWIDTH)
-			result += "3"; // failure reason 3
-		else if (status == SimLogger.KERNEL_STATUS.UNFINISHED_DUE_TO_MOBILITY)
-			result += "4"; // failure reason 4
-		else
-			result += "0"; // default failure reason
-		return result;
-	}
-	
-	public int getKernelId() {
-		return kernelId;
 	}
 }
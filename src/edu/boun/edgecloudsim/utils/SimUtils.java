@@ -12,7 +12,13 @@ package edu.boun.edgecloudsim.utils;
 import java.io.File;
 import java.util.Date;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.Well19937c;
 
 public class SimUtils {
 
@@ -36,6 +42,99 @@ public class SimUtils {
 		long fraction = (long)(range * RNG.nextDouble());
 		return (fraction + start); 
     }
+    
+    /**
+     * same as getRandomNumber but uses the given random number generator
+     */
+    public static int getRandomNumber(RandomGenerator rng, int start, int end) {
+		long range = (long)end - (long)start + 1;
+		long fraction = (long)(range * rng.nextDouble());
+		return (int)(fraction + start); 
+    }
+    
+    /**
+     * same as getRandomDoubleNumber but uses the given random number generator
+     */
+    public static double getRandomDoubleNumber(RandomGenerator rng, double start, double end) {
+		double range = end - start;
+		double fraction = (range * rng.nextDouble());
+		return (fraction + start); 
+    }
+    
+    /**
+     * returns an independent random number generator for the given stream
+     * and index (e.g. device id). The same seed, stream and index always
+     * produce the same sequence regardless of the thread using it.
+     */
+    public static RandomGenerator getRandomSubstream(long seed, int streamId, int index) {
+    	long streamSeed = mix64(seed + 0x9E3779B97F4A7C15L * (streamId + 1));
+    	return new Well19937c(mix64(streamSeed + 0x9E3779B97F4A7C15L * (index + 1)));
+    }
+    
+    //SplitMix64 finalizer, spreads nearby seeds over the whole range
+    private static long mix64(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+    }
+    
+    /**
+     * returns true if the item with the given id is selected by the given
+     * sampling rate (0-1), the selection depends only on the id so the same
+     * items are selected in each run
+     */
+    public static boolean isSampled(long id, double rate) {
+    	if(rate >= 1)
+    		return true;
+    	return (mix64(id + 0x9E3779B97F4A7C15L) >>> 11) * 0x1.0p-53 < rate;
+    }
+    
+    /**
+     * runs body for each index in [0, count) on a fork/join pool, the body
+     * must only modify the data related to its own index
+     */
+    public static void parallelFor(int numOfThreads, int count, IntConsumer body) {
+    	if(numOfThreads <= 1 || count <= 1) {
+    		for(int i=0; i<count; i++)
+    			body.accept(i);
+    		return;
+    	}
+    	
+    	ForkJoinPool pool = new ForkJoinPool(numOfThreads);
+    	try {
+    		//split until each task has a few chunks per thread
+    		int threshold = Math.max(1, count / (numOfThreads * 8));
+    		pool.invoke(new ParallelForTask(0, count, threshold, body));
+    	} finally {
+    		pool.shutdown();
+    	}
+    }
+    
+    private static class ParallelForTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private int start, end, threshold;
+    	private IntConsumer body;
+    	
+    	ParallelForTask(int _start, int _end, int _threshold, IntConsumer _body) {
+    		start = _start;
+    		end = _end;
+    		threshold = _threshold;
+    		body = _body;
+    	}
+    	
+		@Override
+		protected void compute() {
+			if(end - start <= threshold) {
+				for(int i=start; i<end; i++)
+					body.accept(i);
+			}
+			else {
+				int mid = (start + end) >>> 1;
+				invokeAll(new ParallelForTask(start, mid, threshold, body),
+						new ParallelForTask(mid, end, threshold, body));
+			}
+		}
+    }
 
 	public static void cleanOutputFolder(String outputFolder){
 		//clean the folder where the result files will be saved
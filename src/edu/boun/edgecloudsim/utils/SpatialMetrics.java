@@ -0,0 +1,317 @@
+/*
+ * Title:        EdgeCloudSim - Spatial Metrics
+ *
+ * Description:
+ * SpatialMetrics keeps the results of each access point (WLAN) and each
+ * edge host in primitive arrays indexed by the WLAN id and the host id, so
+ * the hot spots of a topology can be found without deep file logging.
+ * The arrays grow on demand and only the WLANs/hosts having any sample
+ * are written. The periodic samples are taken and the _SPATIAL.log file is
+ * written only if spatial_log_enabled is set.
+ *
+ * For an access point, the kernels are counted by the WLAN which they are
+ * submitted from; the WLAN delay histogram is kept only for the completed
+ * kernels. The number of clients of each access point is sampled
+ * periodically; the max number of clients also covers the counts seen by
+ * the network model (see MM1Queue).
+ * For an edge host, the kernels executed on the host are counted and its
+ * utilization (average of its VMs) is sampled periodically.
+ *
+ * Each line of the _SPATIAL.log file is one of the following:
+ * AP;wlan id;submitted;completed;uncompleted;failed due to VM capacity;
+ *   failed due to bandwidth;failed due to mobility;avg WLAN delay;
+ *   p50/p95/p99 WLAN delay;avg clients;max clients
+ * HOST;host id;executed;completed;uncompleted;failed due to bandwidth;
+ *   failed due to mobility;avg service time;avg utilization;max utilization
+ *
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ * Copyright (c) 2017, Bogazici University, Istanbul, Turkey
+ */
+
+package edu.boun.edgecloudsim.utils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+
+import edu.boun.edgecloudsim.core.SimSettings;
+
+public class SpatialMetrics {
+	private static final int INITIAL_SIZE = 16;
+
+	//access point (WLAN) counters
+	private int[] apSubmitted;
+	private int[] apCompleted;
+	private int[] apUncompleted;
+	private int[] apFailedDueToVmCapacity;
+	private int[] apFailedDueToBandwidth;
+	private int[] apFailedDueToMobility;
+	private double[] apWlanDelay;
+	private LatencyHistogram[] apWlanDelayHistograms;
+	private long[] apClientSum;
+	private int[] apMaxClients;
+	private int[] apCurrentClients;
+	private int numOfClientSamples;
+	private int numOfAp;
+
+	//edge host counters
+	private int[] hostExecuted;
+	private int[] hostCompleted;
+	private int[] hostUncompleted;
+	private int[] hostFailedDueToBandwidth;
+	private int[] hostFailedDueToMobility;
+	private double[] hostServiceTime;
+	private double[] hostUtilizationSum;
+	private double[] hostMaxUtilization;
+	private int[] hostUtilizationSamples;
+	private int numOfHost;
+
+	public SpatialMetrics() {
+		growAp(INITIAL_SIZE);
+		growHost(INITIAL_SIZE);
+	}
+
+	/**
+	 * adds the final status of a kernel which is not in the warm-up period
+	 */
+	public void addKernel(int wlanId, int hostId, SimLogger.KERNEL_STATUS status,
+			double serviceTime, double wlanDelay) {
+		boolean completed = status == SimLogger.KERNEL_STATUS.COMLETED;
+		boolean uncompleted = status == SimLogger.KERNEL_STATUS.CREATED ||
+				status == SimLogger.KERNEL_STATUS.UPLOADING ||
+				status == SimLogger.KERNEL_STATUS.PROCESSING ||
+				status == SimLogger.KERNEL_STATUS.DOWNLOADING;
+		boolean failedDueToBandwidth = status == SimLogger.KERNEL_STATUS.REJECTED_DUE_TO_BANDWIDTH ||
+				status == SimLogger.KERNEL_STATUS.UNFINISHED_DUE_TO_BANDWIDTH;
+		boolean failedDueToMobility = status == SimLogger.KERNEL_STATUS.UNFINISHED_DUE_TO_MOBILITY;
+
+		if(wlanId >= 0){
+			ensureAp(wlanId);
+			apSubmitted[wlanId]++;
+			if(completed){
+				apCompleted[wlanId]++;
+				if(wlanDelay != 0){
+					apWlanDelay[wlanId] += wlanDelay;
+					if(apWlanDelayHistograms[wlanId] == null)
+						apWlanDelayHistograms[wlanId] = new LatencyHistogram();
+					apWlanDelayHistograms[wlanId].record(wlanDelay);
+				}
+			}
+			else if(uncompleted)
+				apUncompleted[wlanId]++;
+			else if(status == SimLogger.KERNEL_STATUS.REJECTED_DUE_TO_VM_CAPACITY)
+				apFailedDueToVmCapacity[wlanId]++;
+			else if(failedDueToBandwidth)
+				apFailedDueToBandwidth[wlanId]++;
+			else if(failedDueToMobility)
+				apFailedDueToMobility[wlanId]++;
+		}
+
+		//the host id is known only for the kernels assigned to an edge VM
+		if(hostId >= 0){
+			ensureHost(hostId);
+			hostExecuted[hostId]++;
+			if(completed){
+				hostCompleted[hostId]++;
+				hostServiceTime[hostId] += serviceTime;
+			}
+			else if(uncompleted)
+				hostUncompleted[hostId]++;
+			else if(failedDueToBandwidth)
+				hostFailedDueToBandwidth[hostId]++;
+			else if(failedDueToMobility)
+				hostFailedDueToMobility[hostId]++;
+		}
+	}
+
+	/**
+	 * updates the max number of clients of the access point, the counts
+	 * seen by the network model in the warm-up period are discarded
+	 */
+	public void clientsObserved(int wlanId, int numOfClients) {
+		if(wlanId < 0 || CloudSim.clock() < SimSettings.getInstance().getWarmUpPeriod())
+			return;
+
+		ensureAp(wlanId);
+		apMaxClients[wlanId] = Math.max(apMaxClients[wlanId], numOfClients);
+	}
+
+	/**
+	 * counts a client of the access point for the current sample,
+	 * endClientSample() should be called after all clients are counted
+	 */
+	public void addClient(int wlanId) {
+		if(wlanId < 0)
+			return;
+
+		ensureAp(wlanId);
+		apCurrentClients[wlanId]++;
+	}
+
+	public void endClientSample() {
+		for(int i=0; i<numOfAp; i++){
+			apClientSum[i] += apCurrentClients[i];
+			apMaxClients[i] = Math.max(apMaxClients[i], apCurrentClients[i]);
+			apCurrentClients[i] = 0;
+		}
+		numOfClientSamples++;
+	}
+
+	public void addHostUtilization(int hostId, double utilization) {
+		ensureHost(hostId);
+		hostUtilizationSum[hostId] += utilization;
+		hostMaxUtilization[hostId] = Math.max(hostMaxUtilization[hostId], utilization);
+		hostUtilizationSamples[hostId]++;
+	}
+
+	/**
+	 * adds the samples of the given metrics to this one, used to merge
+	 * the metrics collected by different threads
+	 */
+	public void add(SpatialMetrics other) {
+		if(other.numOfAp > 0)
+			ensureAp(other.numOfAp - 1);
+		for(int i=0; i<other.numOfAp; i++){
+			apSubmitted[i] += other.apSubmitted[i];
+			apCompleted[i] += other.apCompleted[i];
+			apUncompleted[i] += other.apUncompleted[i];
+			apFailedDueToVmCapacity[i] += other.apFailedDueToVmCapacity[i];
+			apFailedDueToBandwidth[i] += other.apFailedDueToBandwidth[i];
+			apFailedDueToMobility[i] += other.apFailedDueToMobility[i];
+			apWlanDelay[i] += other.apWlanDelay[i];
+			if(other.apWlanDelayHistograms[i] != null){
+				if(apWlanDelayHistograms[i] == null)
+					apWlanDelayHistograms[i] = new LatencyHistogram();
+				apWlanDelayHistograms[i].add(other.apWlanDelayHistograms[i]);
+			}
+			apClientSum[i] += other.apClientSum[i];
+			apMaxClients[i] = Math.max(apMaxClients[i], other.apMaxClients[i]);
+		}
+		numOfClientSamples += other.numOfClientSamples;
+
+		if(other.numOfHost > 0)
+			ensureHost(other.numOfHost - 1);
+		for(int i=0; i<other.numOfHost; i++){
+			hostExecuted[i] += other.hostExecuted[i];
+			hostCompleted[i] += other.hostCompleted[i];
+			hostUncompleted[i] += other.hostUncompleted[i];
+			hostFailedDueToBandwidth[i] += other.hostFailedDueToBandwidth[i];
+			hostFailedDueToMobility[i] += other.hostFailedDueToMobility[i];
+			hostServiceTime[i] += other.hostServiceTime[i];
+			hostUtilizationSum[i] += other.hostUtilizationSum[i];
+			hostMaxUtilization[i] = Math.max(hostMaxUtilization[i], other.hostMaxUtilization[i]);
+			hostUtilizationSamples[i] += other.hostUtilizationSamples[i];
+		}
+	}
+
+	public void writeTo(BufferedWriter bw) throws IOException {
+		for(int i=0; i<numOfAp; i++){
+			if(apSubmitted[i] == 0 && apClientSum[i] == 0 && apMaxClients[i] == 0)
+				continue;
+
+			LatencyHistogram histogram = (apWlanDelayHistograms[i] == null) ? new LatencyHistogram() : apWlanDelayHistograms[i];
+			double avgWlanDelay = (histogram.getTotalCount() == 0) ? 0.0 : apWlanDelay[i] / (double) histogram.getTotalCount();
+			double avgClients = (numOfClientSamples == 0) ? 0.0 : apClientSum[i] / (double) numOfClientSamples;
+			bw.write("AP" + SimSettings.DELIMITER + i +
+					SimSettings.DELIMITER + apSubmitted[i] +
+					SimSettings.DELIMITER + apCompleted[i] +
+					SimSettings.DELIMITER + apUncompleted[i] +
+					SimSettings.DELIMITER + apFailedDueToVmCapacity[i] +
+					SimSettings.DELIMITER + apFailedDueToBandwidth[i] +
+					SimSettings.DELIMITER + apFailedDueToMobility[i] +
+					SimSettings.DELIMITER + avgWlanDelay +
+					SimSettings.DELIMITER + histogram.getValueAtPercentile(50) +
+					SimSettings.DELIMITER + histogram.getValueAtPercentile(95) +
+					SimSettings.DELIMITER + histogram.getValueAtPercentile(99) +
+					SimSettings.DELIMITER + avgClients +
+					SimSettings.DELIMITER + apMaxClients[i]);
+			bw.newLine();
+		}
+
+		for(int i=0; i<numOfHost; i++){
+			if(hostExecuted[i] == 0 && hostUtilizationSamples[i] == 0)
+				continue;
+
+			double avgServiceTime = (hostCompleted[i] == 0) ? 0.0 : hostServiceTime[i] / (double) hostCompleted[i];
+			double avgUtilization = (hostUtilizationSamples[i] == 0) ? 0.0 : hostUtilizationSum[i] / (double) hostUtilizationSamples[i];
+			bw.write("HOST" + SimSettings.DELIMITER + i +
+					SimSettings.DELIMITER + hostExecuted[i] +
+					SimSettings.DELIMITER + hostCompleted[i] +
+					SimSettings.DELIMITER + hostUncompleted[i] +
+					SimSettings.DELIMITER + hostFailedDueToBandwidth[i] +
+					SimSettings.DELIMITER + hostFailedDueToMobility[i] +
+					SimSettings.DELIMITER + avgServiceTime +
+					SimSettings.DELIMITER + avgUtilization +
+					SimSettings.DELIMITER + hostMaxUtilization[i]);
+			bw.newLine();
+		}
+	}
+
+	private void ensureAp(int wlanId) {
+		if(wlanId >= apSubmitted.length)
+			growAp(Math.max(wlanId + 1, apSubmitted.length * 2));
+		numOfAp = Math.max(numOfAp, wlanId + 1);
+	}
+
+	private void ensureHost(int hostId) {
+		if(hostId >= hostExecuted.length)
+			growHost(Math.max(hostId + 1, hostExecuted.length * 2));
+		numOfHost = Math.max(numOfHost, hostId + 1);
+	}
+
+	private void growAp(int size) {
+		if(apSubmitted == null){
+			apSubmitted = new int[size];
+			apCompleted = new int[size];
+			apUncompleted = new int[size];
+			apFailedDueToVmCapacity = new int[size];
+			apFailedDueToBandwidth = new int[size];
+			apFailedDueToMobility = new int[size];
+			apWlanDelay = new double[size];
+			apWlanDelayHistograms = new LatencyHistogram[size];
+			apClientSum = new long[size];
+			apMaxClients = new int[size];
+			apCurrentClients = new int[size];
+		}
+		else{
+			apSubmitted = Arrays.copyOf(apSubmitted, size);
+			apCompleted = Arrays.copyOf(apCompleted, size);
+			apUncompleted = Arrays.copyOf(apUncompleted, size);
+			apFailedDueToVmCapacity = Arrays.copyOf(apFailedDueToVmCapacity, size);
+			apFailedDueToBandwidth = Arrays.copyOf(apFailedDueToBandwidth, size);
+			apFailedDueToMobility = Arrays.copyOf(apFailedDueToMobility, size);
+			apWlanDelay = Arrays.copyOf(apWlanDelay, size);
+			apWlanDelayHistograms = Arrays.copyOf(apWlanDelayHistograms, size);
+			apClientSum = Arrays.copyOf(apClientSum, size);
+			apMaxClients = Arrays.copyOf(apMaxClients, size);
+			apCurrentClients = Arrays.copyOf(apCurrentClients, size);
+		}
+	}
+
+	private void growHost(int size) {
+		if(hostExecuted == null){
+			hostExecuted = new int[size];
+			hostCompleted = new int[size];
+			hostUncompleted = new int[size];
+			hostFailedDueToBandwidth = new int[size];
+			hostFailedDueToMobility = new int[size];
+			hostServiceTime = new double[size];
+			hostUtilizationSum = new double[size];
+			hostMaxUtilization = new double[size];
+			hostUtilizationSamples = new int[size];
+		}
+		else{
+			hostExecuted = Arrays.copyOf(hostExecuted, size);
+			hostCompleted = Arrays.copyOf(hostCompleted, size);
+			hostUncompleted = Arrays.copyOf(hostUncompleted, size);
+			hostFailedDueToBandwidth = Arrays.copyOf(hostFailedDueToBandwidth, size);
+			hostFailedDueToMobility = Arrays.copyOf(hostFailedDueToMobility, size);
+			hostServiceTime = Arrays.copyOf(hostServiceTime, size);
+			hostUtilizationSum = Arrays.copyOf(hostUtilizationSum, size);
+			hostMaxUtilization = Arrays.copyOf(hostMaxUtilization, size);
+			hostUtilizationSamples = Arrays.copyOf(hostUtilizationSamples, size);
+		}
+	}
+}
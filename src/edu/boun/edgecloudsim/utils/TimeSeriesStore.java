@@ -0,0 +1,208 @@
+/*
+ * Title:        EdgeCloudSim - Time Series Store
+ *
+ * Description:
+ * TimeSeriesStore keeps the periodic metrics of a simulation run, such as
+ * the VM load, in primitive double[] columns instead of one object per
+ * sample. Any module can register a named series with its column names
+ * and add a row (time and one value per column) whenever it samples.
+ *
+ * The rows are kept in a fixed size chunk; when the chunk is full, its
+ * rows are written to the "<prefix>_<name>.log" file of the series (if
+ * file logging is enabled, see OutputSink) and the chunk is reused, so the memory does not
+ * grow with the simulation time. The mean of each column over all samples
+ * is kept for the final results.
+ *
+ * Optionally, each 'downsampling' consecutive samples of a series are
+ * written as one row consisting of the time of the first sample and the
+ * min, max and mean value of each column.
+ *
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ * Copyright (c) 2017, Bogazici University, Istanbul, Turkey
+ */
+
+package edu.boun.edgecloudsim.utils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import edu.boun.edgecloudsim.core.SimSettings;
+
+public class TimeSeriesStore {
+	private static final int CHUNK_SIZE = 1024;
+
+	private OutputSink outputSink;
+	private String filePrefix;
+	private boolean fileLogEnabled;
+	private Map<String, TimeSeries> seriesMap;
+
+	public TimeSeriesStore(OutputSink _outputSink, String _filePrefix, boolean _fileLogEnabled) {
+		outputSink = _outputSink;
+		filePrefix = _filePrefix;
+		fileLogEnabled = _fileLogEnabled;
+		seriesMap = new LinkedHashMap<String, TimeSeries>();
+	}
+
+	/**
+	 * registers a series which is written without downsampling
+	 */
+	public TimeSeries registerSeries(String name, String... columnNames) {
+		return registerSeries(name, 1, columnNames);
+	}
+
+	/**
+	 * registers a series, each 'downsampling' consecutive samples are
+	 * written as one row; the registered series is returned if there
+	 * is already a series with the same name
+	 */
+	public TimeSeries registerSeries(String name, int downsampling, String... columnNames) {
+		TimeSeries series = seriesMap.get(name);
+		if(series == null){
+			BufferedWriter bw = null;
+			if(fileLogEnabled){
+				try {
+					bw = outputSink.openFile(filePrefix + "_" + name + ".log");
+					bw.write("#auto generated file!");
+					bw.newLine();
+				} catch (IOException e) {
+					SimLogger.printLine("Time series file of " + name + " cannot be created! Terminating simulation...");
+					e.printStackTrace();
+					System.exit(0);
+				}
+			}
+			series = new TimeSeries(name, columnNames, Math.max(1, downsampling), bw);
+			seriesMap.put(name, series);
+		}
+		return series;
+	}
+
+	/**
+	 * returns the series with given name, null if there is no such series
+	 */
+	public TimeSeries getSeries(String name) {
+		return seriesMap.get(name);
+	}
+
+	/**
+	 * writes the remaining samples of all series and closes the files
+	 */
+	public void close() throws IOException {
+		for(TimeSeries series : seriesMap.values())
+			series.close();
+	}
+
+	public static class TimeSeries {
+		private String name;
+		private String[] columnNames;
+		private int numOfColumns;
+		private int downsampling;
+		private BufferedWriter bw;
+
+		//rows of the current chunk, one array per column
+		private double[] times;
+		private double[][] values;
+		private int rowCount;
+
+		private long sampleCount;
+		private double[] sums;
+
+		private TimeSeries(String _name, String[] _columnNames, int _downsampling, BufferedWriter _bw) {
+			name = _name;
+			columnNames = _columnNames;
+			numOfColumns = _columnNames.length;
+			downsampling = _downsampling;
+			bw = _bw;
+			//a chunk always contains whole downsampling buckets
+			int chunkSize = Math.max(1, CHUNK_SIZE / downsampling) * downsampling;
+			times = new double[chunkSize];
+			values = new double[numOfColumns][chunkSize];
+			sums = new double[numOfColumns];
+		}
+
+		public void add(double time, double... rowValues) {
+			if(rowValues.length != numOfColumns){
+				SimLogger.printLine("Invalid number of values for time series " + name + "! Terminating simulation...");
+				System.exit(0);
+			}
+
+			times[rowCount] = time;
+			for(int i=0; i<numOfColumns; i++){
+				values[i][rowCount] = rowValues[i];
+				sums[i] += rowValues[i];
+			}
+			rowCount++;
+			sampleCount++;
+
+			if(rowCount == times.length)
+				flush();
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public String[] getColumnNames() {
+			return columnNames;
+		}
+
+		/**
+		 * returns the number of samples added to the series
+		 */
+		public long getSampleCount() {
+			return sampleCount;
+		}
+
+		/**
+		 * returns the mean of the given column over all samples, NaN if there is no sample
+		 */
+		public double getMean(int column) {
+			return sums[column] / (double) sampleCount;
+		}
+
+		private void flush() {
+			try {
+				if(bw != null){
+					for(int start=0; start<rowCount; start+=downsampling)
+						writeRow(start, Math.min(rowCount, start + downsampling));
+				}
+			} catch (IOException e) {
+				SimLogger.printLine("Time series " + name + " cannot be written! Terminating simulation...");
+				e.printStackTrace();
+				System.exit(0);
+			}
+			rowCount = 0;
+		}
+
+		private void writeRow(int start, int end) throws IOException {
+			bw.write(Double.toString(times[start]));
+			for(int i=0; i<numOfColumns; i++){
+				if(downsampling == 1){
+					bw.write(SimSettings.DELIMITER + values[i][start]);
+				}
+				else{
+					double min = Double.MAX_VALUE;
+					double max = -Double.MAX_VALUE;
+					double sum = 0;
+					for(int j=start; j<end; j++){
+						min = Math.min(min, values[i][j]);
+						max = Math.max(max, values[i][j]);
+						sum += values[i][j];
+					}
+					bw.write(SimSettings.DELIMITER + min + SimSettings.DELIMITER + max +
+							SimSettings.DELIMITER + (sum / (double)(end - start)));
+				}
+			}
+			bw.newLine();
+		}
+
+		private void close() throws IOException {
+			flush();
+			if(bw != null){
+				bw.close();
+				bw = null;
+			}
+		}
+	}
+}